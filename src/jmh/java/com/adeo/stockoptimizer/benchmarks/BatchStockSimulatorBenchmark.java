@@ -0,0 +1,64 @@
+package com.adeo.stockoptimizer.benchmarks;
+
+import com.adeo.stockoptimizer.simulation.BatchSimulationResult;
+import com.adeo.stockoptimizer.simulation.BatchStockSimulator;
+import com.adeo.stockoptimizer.simulation.ScenarioBatch;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.StockSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of a grid of what-if scenarios of one product over a year: simulated together by the batch
+ * simulator, or one by one by the scalar simulator.
+ * <p>
+ * The batch is vectorised only when the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * which the {@code benchmark} profile does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchStockSimulatorBenchmark {
+
+    @Param({"26", "1024"})
+    private int multiples;
+
+    private ScenarioBatch batch;
+    private SimulationHorizon horizon;
+
+    @Setup
+    public void setUp() {
+        batch = ScenarioBatch.grid(new int[]{5, 5, 5, 5, 5, 10, 10}, new int[]{20},
+                IntStream.rangeClosed(5, 4 + multiples).toArray(), new int[]{3});
+        horizon = SimulationHorizon.between(LocalDate.of(2025, 1, 6), LocalDate.of(2025, 12, 31));
+    }
+
+    @Benchmark
+    public BatchSimulationResult batch() {
+        return BatchStockSimulator.simulate(batch, horizon);
+    }
+
+    @Benchmark
+    public void oneByOne(Blackhole blackhole) {
+        for (int i = 0; i < batch.size(); i++) {
+            blackhole.consume(StockSimulator.simulate(batch.input(i), batch.initialStocks()[i], horizon));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.adeo.stockoptimizer.benchmarks;
+
+import com.adeo.stockoptimizer.config.PlanningMetrics;
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.PurchaseOrder;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.PurchaseOrderRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.services.impl.OrderOptimizationServiceImpl;
+import com.adeo.stockoptimizer.services.impl.PlanCheckpointServiceImpl;
+import com.adeo.stockoptimizer.services.impl.PlanningDataFileServiceImpl;
+import com.adeo.stockoptimizer.services.impl.PlanningSnapshotServiceImpl;
+import com.adeo.stockoptimizer.services.impl.SimulationServiceImpl;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.TrajectoryStore;
+import com.adeo.stockoptimizer.utils.MultipleEvaluation;
+import com.adeo.stockoptimizer.utils.StockStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of the optimization service entry points, the repositories being replaced by in-memory fixtures.
+ * <p>
+ * Each call plans the next product of the fixture, so that the snapshots of {@code productCount} products
+ * are in use. Simulation results are not reused ({@code useCache = false}): every call simulates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderOptimizationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int productCount;
+
+    @Param({"3", "28"})
+    private int deliveryLeadTime;
+
+    @Param({"365", "1826"})
+    private int horizonDays;
+
+    private OrderOptimizationServiceImpl service;
+    private SimulationHorizon horizon;
+    private long nextProductId;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = stubOnly(ProductRepository.class);
+        CalculationParametersRepository calcParamRepository = stubOnly(CalculationParametersRepository.class);
+        SalesProfileRepository salesProfileRepository = stubOnly(SalesProfileRepository.class);
+        DemandAdjustmentRepository demandAdjustmentRepository = stubOnly(DemandAdjustmentRepository.class);
+        PurchaseOrderRepository purchaseOrderRepository = stubOnly(PurchaseOrderRepository.class);
+
+        when(productRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(
+                Product.builder().id(invocation.getArgument(0)).name("Product").initialStock(20).build()));
+        when(calcParamRepository.findByProductId(anyLong())).thenAnswer(invocation -> Optional.of(
+                CalculationParameters.builder().deliveryLeadTime(deliveryLeadTime).orderMultiple(12).build()));
+        when(salesProfileRepository.findByProductId(anyLong())).thenAnswer(invocation -> weeklyProfile());
+
+        PlanningProperties planningProperties = new PlanningProperties();
+        service = new OrderOptimizationServiceImpl(productRepository, calcParamRepository, salesProfileRepository,
+                demandAdjustmentRepository, purchaseOrderRepository,
+                new PlanningSnapshotServiceImpl(productRepository, calcParamRepository, salesProfileRepository,
+                        demandAdjustmentRepository,
+                        new PlanningDataFileServiceImpl(productRepository, calcParamRepository,
+                                salesProfileRepository, demandAdjustmentRepository, planningProperties),
+                        planningProperties),
+                new PlanCheckpointServiceImpl(planningProperties), new SimulationServiceImpl(planningProperties),
+                new TrajectoryStore(planningProperties.getTrajectoryStoreMaxSize().toBytes(), null),
+                new PlanningMetrics(new SimpleMeterRegistry()), planningProperties, Runnable::run);
+        horizon = service.resolveHorizon(null, null, horizonDays);
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> calculateOrderPlan() {
+        return service.calculateOrderPlan(20, nextProductId(), horizon, false);
+    }
+
+    @Benchmark
+    public List<MultipleEvaluation> findOptimalMultiple() {
+        return service.findOptimalMultiple(20, nextProductId(), 5, 30, horizon, false);
+    }
+
+    @Benchmark
+    public Map<String, StockStats> calculateMonthlyStockStats() {
+        return service.calculateMonthlyStockStats(20, nextProductId(), horizon, false, false);
+    }
+
+    private long nextProductId() {
+        nextProductId = nextProductId % productCount + 1;
+        return nextProductId;
+    }
+
+    private static List<SalesProfile> weeklyProfile() {
+        int[] quantities = {5, 5, 5, 5, 5, 10, 10};
+        return Arrays.stream(DayOfWeek.values())
+                .map(day -> SalesProfile.builder().dayOfWeek(day).quantitySold(quantities[day.ordinal()]).build())
+                .toList();
+    }
+
+    /**
+     * Creates a mock that does not record its invocations, so that its memory stays flat during a run.
+     */
+    private static <T> T stubOnly(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
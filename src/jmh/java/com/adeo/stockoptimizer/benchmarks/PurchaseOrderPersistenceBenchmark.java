@@ -0,0 +1,192 @@
+package com.adeo.stockoptimizer.benchmarks;
+
+import com.adeo.stockoptimizer.StockOptimizerApplication;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.PurchaseOrder;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.PurchaseOrderRepository;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Write throughput of generated purchase orders on the in-memory H2 database of the application, in rows per
+ * second (the {@code rows} secondary result).
+ * <ul>
+ *     <li>{@code saveAllIdentity}: {@code saveAll} of an entity with the same columns and an {@code IDENTITY} id,
+ *     the mapping {@link PurchaseOrder} had before: Hibernate inserts it row by row to read back each id.</li>
+ *     <li>{@code saveAll}: {@code saveAll} of {@link PurchaseOrder}, with its pooled sequence and Hibernate JDBC
+ *     batching.</li>
+ *     <li>{@code replacePlans}: the JDBC plan writer used by the planning service.</li>
+ * </ul>
+ * Each invocation writes {@code orderCount} new orders spread over {@code productCount} products, into tables
+ * emptied before the invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseOrderPersistenceBenchmark {
+
+    private static final LocalDate START_DATE = LocalDate.of(2025, 1, 6);
+
+    @Param({"100"})
+    private int productCount;
+
+    @Param({"1000", "50000"})
+    private int orderCount;
+
+    private ConfigurableApplicationContext context;
+    private PurchaseOrderRepository purchaseOrderRepository;
+    private SimpleJpaRepository<IdentityPurchaseOrder, Long> identityRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private List<Product> products;
+    private List<Long> productIds;
+    private List<PurchaseOrder> orders;
+    private List<IdentityPurchaseOrder> identityOrders;
+
+    /**
+     * Rows written by the invocations of an iteration, reported as rows per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(StockOptimizerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("stock-optimizer.planning.replan-cron=-",
+                        "stock-optimizer.planning.planning-data-refresh-cron=-",
+                        "stock-optimizer.planning.sales-profile-refresh-cron=-")
+                .run();
+        purchaseOrderRepository = context.getBean(PurchaseOrderRepository.class);
+        identityRepository = new SimpleJpaRepository<>(IdentityPurchaseOrder.class,
+                SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class)));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        products = productRepository.saveAll(LongStream.range(0, productCount)
+                .mapToObj(i -> Product.builder().name("Product " + i).initialStock(20).build())
+                .toList());
+        productIds = products.stream().map(Product::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Empties the order tables and creates the new orders of the next invocation.
+     */
+    @Setup(Level.Invocation)
+    public void prepareOrders() {
+        jdbcTemplate.update("delete from purchase_order");
+        jdbcTemplate.update("delete from purchase_order_identity");
+        orders = new ArrayList<>(orderCount);
+        identityOrders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            Product product = products.get(i % productCount);
+            LocalDate orderDate = START_DATE.plusDays(i / productCount);
+            orders.add(PurchaseOrder.builder()
+                    .orderDate(orderDate)
+                    .quantityOrdered(12)
+                    .deliveryDate(orderDate.plusDays(3))
+                    .product(product)
+                    .build());
+            identityOrders.add(new IdentityPurchaseOrder(orderDate, 12, orderDate.plusDays(3), product));
+        }
+    }
+
+    @Benchmark
+    public List<IdentityPurchaseOrder> saveAllIdentity(Rows rows) {
+        rows.rows += orderCount;
+        return transactionTemplate.execute(status -> identityRepository.saveAll(identityOrders));
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> saveAll(Rows rows) {
+        rows.rows += orderCount;
+        return transactionTemplate.execute(status -> purchaseOrderRepository.saveAll(orders));
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> replacePlans(Rows rows) {
+        rows.rows += orderCount;
+        purchaseOrderRepository.replacePlans(productIds, START_DATE, orders);
+        return orders;
+    }
+
+    /**
+     * Purchase order mapped with an {@code IDENTITY} id, the baseline of the JPA writes.
+     */
+    @Entity
+    @Table(name = "purchase_order_identity")
+    @Getter
+    @NoArgsConstructor
+    public static class IdentityPurchaseOrder {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private LocalDate orderDate;
+
+        private int quantityOrdered;
+
+        private LocalDate deliveryDate;
+
+        @ManyToOne(optional = false, fetch = FetchType.LAZY)
+        @JoinColumn(name = "product_id", nullable = false)
+        private Product product;
+
+        IdentityPurchaseOrder(LocalDate orderDate, int quantityOrdered, LocalDate deliveryDate, Product product) {
+            this.orderDate = orderDate;
+            this.quantityOrdered = quantityOrdered;
+            this.deliveryDate = deliveryDate;
+            this.product = product;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.adeo.stockoptimizer.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load test of a running application, used to compare the platform-thread and the
+ * virtual-thread modes ({@code stock-optimizer.planning.virtual-threads}) on the same machine.
+ * <p>
+ * Each client sends the request again as soon as it gets the response. After a warm-up, the throughput and
+ * the latency percentiles of the successful responses are printed.
+ * <pre>
+ * java -cp target/test-classes com.adeo.stockoptimizer.benchmarks.RestLoadTest \
+ *     "http://localhost:8080/api/optimization/monthly-stock-stats?productId=1&amp;useCache=false" 200 30 10
+ * </pre>
+ * Arguments: URL (GET, or POST with an empty body when prefixed with {@code POST:}), number of concurrent
+ * clients, measured seconds, warm-up seconds.
+ */
+public final class RestLoadTest {
+
+    private RestLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0]
+                : "http://localhost:8080/api/optimization/monthly-stock-stats?productId=1&useCache=false";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        boolean post = target.startsWith("POST:");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(post ? target.substring(5) : target))
+                .method(post ? "POST" : "GET", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4)).build();
+
+        run(client, request, clients, TimeUnit.SECONDS.toNanos(warmupSeconds));
+        Sample sample = run(client, request, clients, TimeUnit.SECONDS.toNanos(seconds));
+
+        long[] latencies = Arrays.copyOf(sample.latencies, sample.count);
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "clients=%d requests=%d errors=%d throughput=%.1f req/s%n",
+                clients, sample.count, sample.errors, sample.count / (double) seconds);
+        System.out.printf(Locale.ROOT, "latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                percentile(latencies, 100));
+        System.exit(0);
+    }
+
+    /**
+     * Runs the clients for the given duration.
+     *
+     * @param client   Shared HTTP client.
+     * @param request  Request sent by every client.
+     * @param clients  Number of concurrent clients.
+     * @param duration Duration of the run, in nanoseconds.
+     * @return The latencies of the successful responses and the number of failed requests.
+     */
+    private static Sample run(HttpClient client, HttpRequest request, int clients, long duration)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long end = System.nanoTime() + duration;
+        Future<?>[] futures = new Future<?>[clients];
+        Sample[] samples = new Sample[clients];
+        for (int c = 0; c < clients; c++) {
+            Sample clientSample = new Sample();
+            samples[c] = clientSample;
+            futures[c] = pool.submit(() -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() < 300) {
+                            clientSample.add(System.nanoTime() - start);
+                        } else {
+                            clientSample.errors++;
+                        }
+                    } catch (IOException e) {
+                        clientSample.errors++;
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        Sample total = new Sample();
+        for (Sample clientSample : samples) {
+            for (int i = 0; i < clientSample.count; i++) {
+                total.add(clientSample.latencies[i]);
+            }
+            total.errors += clientSample.errors;
+        }
+        return total;
+    }
+
+    /**
+     * Returns a percentile of sorted latencies, using the nearest-rank method, in milliseconds.
+     */
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int rank = (sorted.length * percentile + 99) / 100;
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    /**
+     * Latencies in nanoseconds and error count of a client, then of all the clients.
+     */
+    private static final class Sample {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        private void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.adeo.stockoptimizer.benchmarks;
+
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.SimulationMode;
+import com.adeo.stockoptimizer.simulation.SimulationResult;
+import com.adeo.stockoptimizer.simulation.StockSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one simulation, without any Spring or database layer.
+ * <p>
+ * The delivery lead time sets how many orders are pending at once (one per week of lead time), and a
+ * large order multiple makes orders rare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockSimulatorBenchmark {
+
+    @Param({"365", "3650", "36500"})
+    private int horizonDays;
+
+    @Param({"3", "28"})
+    private int deliveryLeadTime;
+
+    @Param({"12", "240"})
+    private int orderMultiple;
+
+    @Param({"DAY_STEPPING", "PERIODIC"})
+    private SimulationMode mode;
+
+    private PlanningInput input;
+    private SimulationHorizon horizon;
+
+    @Setup
+    public void setUp() {
+        input = new PlanningInput(new int[]{5, 5, 5, 5, 5, 10, 10}, deliveryLeadTime, orderMultiple);
+        horizon = new SimulationHorizon(LocalDate.of(2025, 1, 6), horizonDays);
+    }
+
+    @Benchmark
+    public SimulationResult simulate() {
+        return StockSimulator.simulate(input, 20, horizon, mode);
+    }
+}
@@ -0,0 +1,27 @@
+package com.adeo.stockoptimizer.config;
+
+import com.adeo.stockoptimizer.services.PlanningDataFileService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Exports the planning data file in the background on the
+ * {@code stock-optimizer.planning.planning-data-refresh-cron} schedule, when it is missing or outdated.
+ * The schedule {@code "-"} disables it.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class PlanningDataFileScheduler {
+
+    private final PlanningDataFileService planningDataFileService;
+
+    @Scheduled(cron = "${stock-optimizer.planning.planning-data-refresh-cron:0 */10 * * * *}")
+    public void refreshPlanningDataFile() {
+        if (!planningDataFileService.isUpToDate()) {
+            planningDataFileService.export();
+        }
+    }
+}
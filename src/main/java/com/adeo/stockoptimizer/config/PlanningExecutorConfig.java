@@ -0,0 +1,37 @@
+package com.adeo.stockoptimizer.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class PlanningExecutorConfig {
+
+    /**
+     * Worker pool loading and simulating the products of bulk planning runs: one virtual thread per task when
+     * virtual threads are enabled, a fixed pool of platform threads otherwise.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService planningExecutor(PlanningProperties planningProperties) {
+        if (planningProperties.isVirtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(planningProperties.getWorkerThreads());
+    }
+
+    /**
+     * Pool running asynchronous optimisation jobs. Its queue is bounded: when it is full, new jobs are
+     * rejected with a {@link java.util.concurrent.RejectedExecutionException} instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService jobExecutor(PlanningProperties planningProperties) {
+        return new ThreadPoolExecutor(planningProperties.getJobThreads(), planningProperties.getJobThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(planningProperties.getJobQueueCapacity()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,152 @@
+package com.adeo.stockoptimizer.config;
+
+import com.adeo.stockoptimizer.enums.PlanningOperation;
+import com.adeo.stockoptimizer.enums.PlanningPhase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters of the planning hot paths, tagged by operation:
+ * <ul>
+ *     <li>{@code stockoptimizer.planning.phase}: time spent in each phase of an operation, also tagged by
+ *     phase;</li>
+ *     <li>{@code stockoptimizer.planning.simulated.days}: simulated days, one per day of the horizon of each
+ *     simulated plan, candidate, scenario or replication;</li>
+ *     <li>{@code stockoptimizer.planning.orders}: generated orders;</li>
+ *     <li>{@code stockoptimizer.planning.candidates}: candidates evaluated by the optimisers and scenarios.</li>
+ * </ul>
+ * Each drain of the change journal also records its duration in {@code stockoptimizer.planning.journal.drain}
+ * and the products it processed in {@code stockoptimizer.planning.journal.products}, tagged by outcome
+ * ({@code planned}, or {@code failed} for those left in the journal).
+ * Meters are registered on first use then looked up by the ordinals of the operation and the phase, and
+ * durations are measured with {@link System#nanoTime()}: recording allocates nothing, so the metrics stay on
+ * under load.
+ */
+@Component
+public class PlanningMetrics {
+
+    private static final PlanningOperation[] OPERATIONS = PlanningOperation.values();
+    private static final PlanningPhase[] PHASES = PlanningPhase.values();
+
+    private final MeterRegistry registry;
+    private final Timer[][] phases = new Timer[OPERATIONS.length][PHASES.length];
+    private final Counter[] simulatedDays = new Counter[OPERATIONS.length];
+    private final Counter[] orders = new Counter[OPERATIONS.length];
+    private final Counter[] candidates = new Counter[OPERATIONS.length];
+    private final Timer journalDrains;
+    private final Counter plannedJournalProducts;
+    private final Counter failedJournalProducts;
+
+    public PlanningMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.journalDrains = Timer.builder("stockoptimizer.planning.journal.drain").register(registry);
+        this.plannedJournalProducts = journalProducts("planned");
+        this.failedJournalProducts = journalProducts("failed");
+    }
+
+    /**
+     * Returns the start time of the first phase.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time spent in a phase.
+     *
+     * @param operation Operation the phase belongs to.
+     * @param phase     The phase.
+     * @param start     Start time of the phase, as returned by {@link #start()} or by the previous phase.
+     * @return The end time of the phase, start time of the next one.
+     */
+    public long record(PlanningOperation operation, PlanningPhase phase, long start) {
+        long end = System.nanoTime();
+        recordNanos(operation, phase, end - start);
+        return end;
+    }
+
+    /**
+     * Records the time spent in a phase, when it was measured in several parts.
+     *
+     * @param operation Operation the phase belongs to.
+     * @param phase     The phase.
+     * @param nanos     Time spent in the phase, in nanoseconds.
+     */
+    public void recordNanos(PlanningOperation operation, PlanningPhase phase, long nanos) {
+        Timer timer = phases[operation.ordinal()][phase.ordinal()];
+        if (timer == null) {
+            // Registering the same meter twice returns it again, so concurrent first uses are harmless
+            timer = Timer.builder("stockoptimizer.planning.phase")
+                    .tag("operation", tagOf(operation))
+                    .tag("phase", tagOf(phase))
+                    .register(registry);
+            phases[operation.ordinal()][phase.ordinal()] = timer;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts simulated days.
+     */
+    public void countSimulatedDays(PlanningOperation operation, long days) {
+        counter(simulatedDays, "stockoptimizer.planning.simulated.days", "days", operation).increment(days);
+    }
+
+    /**
+     * Counts generated orders.
+     */
+    public void countOrders(PlanningOperation operation, long count) {
+        counter(orders, "stockoptimizer.planning.orders", "orders", operation).increment(count);
+    }
+
+    /**
+     * Counts evaluated candidates.
+     */
+    public void countCandidates(PlanningOperation operation, long count) {
+        counter(candidates, "stockoptimizer.planning.candidates", "candidates", operation).increment(count);
+    }
+
+    /**
+     * Records a drain of the change journal.
+     *
+     * @param nanos           Duration of the drain, in nanoseconds.
+     * @param plannedProducts Products whose plan was persisted and which left the journal.
+     * @param failedProducts  Products that could not be planned and stay in the journal.
+     */
+    public void recordJournalDrain(long nanos, int plannedProducts, int failedProducts) {
+        journalDrains.record(nanos, TimeUnit.NANOSECONDS);
+        plannedJournalProducts.increment(plannedProducts);
+        failedJournalProducts.increment(failedProducts);
+    }
+
+    /**
+     * Returns the counter of an operation, registering it on first use.
+     */
+    private Counter counter(Counter[] counters, String name, String baseUnit, PlanningOperation operation) {
+        Counter counter = counters[operation.ordinal()];
+        if (counter == null) {
+            counter = Counter.builder(name)
+                    .baseUnit(baseUnit)
+                    .tag("operation", tagOf(operation))
+                    .register(registry);
+            counters[operation.ordinal()] = counter;
+        }
+        return counter;
+    }
+
+    private Counter journalProducts(String outcome) {
+        return Counter.builder("stockoptimizer.planning.journal.products")
+                .baseUnit("products")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String tagOf(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,149 @@
+package com.adeo.stockoptimizer.config;
+
+import com.adeo.stockoptimizer.simulation.SimulationMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Settings of the order planning, bound from the {@code stock-optimizer.planning} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock-optimizer.planning")
+public class PlanningProperties {
+
+    /**
+     * First simulated day when a request does not give one.
+     */
+    private LocalDate defaultStartDate = LocalDate.of(2025, 1, 6);
+
+    /**
+     * Last simulated day when a request gives neither an end date nor a number of days.
+     */
+    private LocalDate defaultEndDate = LocalDate.of(2025, 12, 31);
+
+    /**
+     * Longest horizon a request may ask for, in days.
+     */
+    private int maxHorizonDays = 5 * 366;
+
+    /**
+     * How the simulator walks through the horizon.
+     */
+    private SimulationMode simulationMode = SimulationMode.DAY_STEPPING;
+
+    /**
+     * Number of products loaded and planned together in bulk runs, and of orders persisted together
+     * when a plan is streamed.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of threads simulating products in bulk runs.
+     */
+    private int workerThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Whether HTTP requests, streamed responses and the products of bulk runs are processed on virtual threads
+     * instead of platform thread pools ({@code workerThreads} is then ignored). Asynchronous jobs keep their
+     * bounded pool.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Cron expression of the scheduled re-plan of the products whose sales profiles or calculation parameters
+     * changed, {@code "-"} to disable it.
+     */
+    private String replanCron = "0 0 2 * * *";
+
+    /**
+     * Maximum number of product planning snapshots kept in memory.
+     */
+    private long snapshotCacheSize = 10_000;
+
+    /**
+     * How long a planning snapshot is kept after being loaded, as a safety net for
+     * modifications that bypass the API.
+     */
+    private Duration snapshotCacheTtl = Duration.ofMinutes(30);
+
+    /**
+     * Memory budget of the cached simulation results, shared by all products.
+     */
+    private DataSize resultCacheMaxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Memory budget of the weekly checkpoints of the persisted plans, used to re-plan a product from the week
+     * its sales profile or calculation parameters change.
+     */
+    private DataSize checkpointCacheMaxSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Memory budget of the daily stock trajectories of the planned products, kept outside of the heap.
+     * In direct memory, it must fit in {@code -XX:MaxDirectMemorySize}.
+     */
+    private DataSize trajectoryStoreMaxSize = DataSize.ofMegabytes(256);
+
+    /**
+     * Directory of the memory-mapped file holding the trajectories, or {@code null} to keep them in direct
+     * memory.
+     */
+    private Path trajectoryStoreDirectory;
+
+    /**
+     * Binary file holding the planning inputs of every product, memory-mapped at startup to serve the planning
+     * snapshots without loading them through JPA, or {@code null} to always load them through JPA.
+     */
+    private Path planningDataFile;
+
+    /**
+     * Cron expression of the background export of the planning data file, run when the file is missing or
+     * products were modified since it was written; {@code "-"} to disable it.
+     */
+    private String planningDataRefreshCron = "0 */10 * * * *";
+
+    /**
+     * Number of complete weeks of recorded sales averaged into the sales profiles.
+     */
+    private int salesHistoryWeeks = 8;
+
+    /**
+     * Cron expression of the refresh of the sales profiles from the recorded sales, run before the nightly
+     * re-plan; {@code "-"} to disable it.
+     */
+    private String salesProfileRefreshCron = "0 0 1 * * *";
+
+    /**
+     * Largest number of replications a stochastic simulation may ask for.
+     */
+    private int maxReplications = 100_000;
+
+    /**
+     * Largest number of what-if scenarios a request may simulate together.
+     */
+    private int maxScenarios = 10_000;
+
+    /**
+     * Largest number of purchase orders a page of the order read API may return.
+     */
+    private int maxOrderPageSize = 1000;
+
+    /**
+     * Number of threads running asynchronous optimisation jobs.
+     */
+    private int jobThreads = 2;
+
+    /**
+     * Number of submitted jobs that may wait for a thread; further submissions are rejected.
+     */
+    private int jobQueueCapacity = 16;
+
+    /**
+     * How long the status and result of a finished job are kept.
+     */
+    private Duration jobResultTtl = Duration.ofMinutes(15);
+}
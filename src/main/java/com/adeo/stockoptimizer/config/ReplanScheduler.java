@@ -0,0 +1,25 @@
+package com.adeo.stockoptimizer.config;
+
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Re-plans the products of the change journal on the {@code stock-optimizer.planning.replan-cron} schedule,
+ * every night by default. The schedule {@code "-"} disables it.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class ReplanScheduler {
+
+    private final PlanningJournalService planningJournalService;
+
+    @Scheduled(cron = "${stock-optimizer.planning.replan-cron:0 0 2 * * *}")
+    public void replanChangedProducts() {
+        planningJournalService.replanChangedProducts(ProgressListener.NONE);
+    }
+}
@@ -0,0 +1,27 @@
+package com.adeo.stockoptimizer.config;
+
+import com.adeo.stockoptimizer.services.SalesHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+
+/**
+ * Refreshes the sales profiles from the recorded sales on the
+ * {@code stock-optimizer.planning.sales-profile-refresh-cron} schedule, every night before the re-plan by
+ * default. The schedule {@code "-"} disables it.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class SalesProfileRefreshScheduler {
+
+    private final SalesHistoryService salesHistoryService;
+
+    @Scheduled(cron = "${stock-optimizer.planning.sales-profile-refresh-cron:0 0 1 * * *}")
+    public void refreshSalesProfiles() {
+        salesHistoryService.refreshSalesProfiles(LocalDate.now());
+    }
+}
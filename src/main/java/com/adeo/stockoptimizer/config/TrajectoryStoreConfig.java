@@ -0,0 +1,19 @@
+package com.adeo.stockoptimizer.config;
+
+import com.adeo.stockoptimizer.simulation.TrajectoryStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TrajectoryStoreConfig {
+
+    /**
+     * Off-heap store of the daily stock levels of the planned products, in direct memory or in a
+     * memory-mapped file of {@code trajectoryStoreDirectory}, deleted on shutdown.
+     */
+    @Bean(destroyMethod = "close")
+    public TrajectoryStore trajectoryStore(PlanningProperties planningProperties) {
+        return new TrajectoryStore(planningProperties.getTrajectoryStoreMaxSize().toBytes(),
+                planningProperties.getTrajectoryStoreDirectory());
+    }
+}
@@ -0,0 +1,39 @@
+package com.adeo.stockoptimizer.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Serves requests on virtual threads, enabled by {@code stock-optimizer.planning.virtual-threads}.
+ * <p>
+ * Requests mostly wait for H2 before simulating, so a virtual thread per request lets the JDBC pool, rather
+ * than the Tomcat thread count, bound the number of requests in progress.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "stock-optimizer.planning", name = "virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Runs each Tomcat request on its own virtual thread.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Writes streamed (NDJSON) responses on virtual threads. Spring MVC uses this bean for its asynchronous
+     * requests.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
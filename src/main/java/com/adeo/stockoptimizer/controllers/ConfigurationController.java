@@ -4,12 +4,15 @@ import com.adeo.stockoptimizer.dtos.CalculationParametersDTO;
 import com.adeo.stockoptimizer.models.CalculationParameters;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "Configuration Resource")
@@ -23,7 +26,13 @@ public interface ConfigurationController {
     @GetMapping(produces = "application/json")
     ResponseEntity<List<CalculationParameters>> getAllParameters();
 
+    /**
+     * Crée ou modifie des paramètres de calcul. Le plan de commandes déjà calculé du produit est recalculé
+     * à partir de la semaine de effectiveDate (aujourd'hui par défaut) : seules les commandes modifiées sont écrites.
+     */
     @Operation(summary = "Create or update calculation parameters")
     @PostMapping(consumes = "application/json", produces = "application/json")
-    ResponseEntity<CalculationParameters> createOrUpdateParameters(@RequestBody CalculationParametersDTO calculationParametersDTO);
+    ResponseEntity<CalculationParameters> createOrUpdateParameters(
+            @RequestBody CalculationParametersDTO calculationParametersDTO,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveDate);
 }
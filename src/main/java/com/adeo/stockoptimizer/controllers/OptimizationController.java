@@ -1,15 +1,32 @@
 package com.adeo.stockoptimizer.controllers;
 
+import com.adeo.stockoptimizer.dtos.BulkPlanRequestDTO;
+import com.adeo.stockoptimizer.dtos.DemandRiskDTO;
+import com.adeo.stockoptimizer.dtos.JobDTO;
 import com.adeo.stockoptimizer.dtos.MonthlyStockStatsDTO;
+import com.adeo.stockoptimizer.dtos.MultipleEvaluationDTO;
 import com.adeo.stockoptimizer.dtos.OrderDTO;
+import com.adeo.stockoptimizer.dtos.OrderPageDTO;
+import com.adeo.stockoptimizer.dtos.OrderPolicyOptimizationDTO;
+import com.adeo.stockoptimizer.dtos.PlanningCacheStatsDTO;
+import com.adeo.stockoptimizer.dtos.ProductPlanResultDTO;
+import com.adeo.stockoptimizer.dtos.ReplanRunDTO;
+import com.adeo.stockoptimizer.dtos.ScenarioStockStatsDTO;
+import com.adeo.stockoptimizer.dtos.StockRangeStatsDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "Stock Optimization Resource")
@@ -18,36 +35,298 @@ public interface OptimizationController {
 
     /**
      * Lance le calcul des commandes pour l'année 2025.
-     * Paramètres simplifiés : stockInitial = 20, productId.
+     * Paramètres simplifiés : productId, et initialStock (par défaut le stock en main du produit).
+     * Les commandes déjà passées avant l'horizon et livrées pendant celui-ci sont reçues à leur date de
+     * livraison.
+     * L'horizon peut être changé : startDate, et endDate ou horizonDays (5 ans au plus par défaut).
+     * La simulation est partagée avec les autres calculs du produit, sauf si useCache = false.
      */
     @Operation(summary = "Calculate orders for the year 2025")
     @PostMapping(path = "/calculate", produces = "application/json")
     ResponseEntity<List<OrderDTO>> calculateOrders(
-            @RequestParam(defaultValue = "20")int initialStock,
-            @RequestParam Long productId);
+            @RequestParam(required = false) Integer initialStock,
+            @RequestParam Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays,
+            @RequestParam(defaultValue = "true") boolean useCache);
 
+    /**
+     * Lance le même calcul que {@code /calculate}, en écrivant chaque commande (une ligne JSON par commande)
+     * dès que la simulation la génère.
+     */
+    @Operation(summary = "Calculate orders for the year 2025, streamed as NDJSON")
+    @PostMapping(path = "/calculate/stream", produces = "application/x-ndjson")
+    ResponseEntity<StreamingResponseBody> streamOrders(
+            @RequestParam(required = false) Integer initialStock,
+            @RequestParam Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays);
 
     /**
-     * Recherche d'un multiple plus optimal >= 5
+     * Lance le calcul des commandes de plusieurs produits, ou de tous les produits.
+     * Le résultat indique le succès ou l'échec du calcul pour chaque produit.
      */
-    @Operation(summary = "Find best multiple >= 5 to minimize stock")
+    @Operation(summary = "Calculate orders for several products or for all products")
+    @PostMapping(path = "/calculate/bulk", consumes = "application/json", produces = "application/json")
+    ResponseEntity<List<ProductPlanResultDTO>> calculateBulkOrders(@RequestBody BulkPlanRequestDTO request);
+
+
+    /**
+     * Évalue les multiples de commande d'un intervalle (5 à 30 par défaut)
+     * et les classe du meilleur au moins bon.
+     */
+    @Operation(summary = "Rank order multiples of a range to minimize stock")
     @GetMapping(path ="/optimal-multiple", produces = "application/json")
-    ResponseEntity<Integer> findOptimalMultiple(
+    ResponseEntity<List<MultipleEvaluationDTO>> findOptimalMultiple(
             @RequestParam(defaultValue = "20") int initialStock,
-            @RequestParam Long productId);
+            @RequestParam Long productId,
+            @RequestParam(defaultValue = "5") int minMultiple,
+            @RequestParam(defaultValue = "30") int maxMultiple,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays,
+            @RequestParam(defaultValue = "true") boolean useCache);
 
 
+    /**
+     * Recherche la politique de commande d'un produit : jours de commande de la semaine, multiple
+     * de commande (5 à 30 par défaut) et stock de sécurité (0 à 50 par pas de 5 par défaut).
+     * Chaque politique coûte la détention du stock, ses commandes et la demande non servie.
+     * Retourne la politique la moins chère et le front de Pareto entre coût de stock et coût de rupture.
+     */
+    @Operation(summary = "Search the order days, order multiple and safety stock minimizing the stock costs")
+    @GetMapping(path = "/order-policy/optimal", produces = "application/json")
+    ResponseEntity<OrderPolicyOptimizationDTO> optimizeOrderPolicy(
+            @RequestParam(defaultValue = "20") int initialStock,
+            @RequestParam Long productId,
+            @RequestParam(defaultValue = "5") int minMultiple,
+            @RequestParam(defaultValue = "30") int maxMultiple,
+            @RequestParam(defaultValue = "50") int maxSafetyStock,
+            @RequestParam(defaultValue = "5") int safetyStockStep,
+            @RequestParam(defaultValue = "0.1") double holdingCost,
+            @RequestParam(defaultValue = "50") double orderCost,
+            @RequestParam(defaultValue = "5") double stockoutPenalty,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays);
+
     /**
      * Retrieves monthly stock statistics (minimum, maximum and average per month)
-     * for the year 2025.
+     * for the year 2025, in chronological order.
      *
      * @param initialStock Initial stock at the beginning of the year (default: 20)
      * @param productId Identifier of the product to be analyzed.
+     * @param startDate First simulated day (default: 2025-01-06)
+     * @param endDate Last simulated day (default: 2025-12-31), exclusive with horizonDays
+     * @param horizonDays Number of simulated days, exclusive with endDate
+     * @param useCache Whether a simulation shared with the other calculations may be reused (default: true)
+     * @param percentiles Whether the median and the 95th percentile of each month are returned (default: false)
      * @return A list of monthly statistics including minimum, maximum and average stock levels.
      */
     @Operation(summary = "Get monthly stock statistics (min, max, average)")
     @GetMapping(path = "/monthly-stock-stats", produces = "application/json")
     ResponseEntity<List<MonthlyStockStatsDTO>> getMonthlyStockStats(
             @RequestParam(defaultValue = "20") int initialStock,
-            @RequestParam Long productId);
+            @RequestParam Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays,
+            @RequestParam(defaultValue = "true") boolean useCache,
+            @RequestParam(defaultValue = "false") boolean percentiles);
+
+    /**
+     * Retrieves the same monthly statistics as {@code /monthly-stock-stats}, one JSON line per month,
+     * each month being written as soon as it has been simulated.
+     *
+     * @param initialStock Initial stock at the beginning of the year (default: 20)
+     * @param productId Identifier of the product to be analyzed.
+     * @return The monthly statistics, in chronological order.
+     */
+    @Operation(summary = "Get monthly stock statistics (min, max, average), streamed as NDJSON")
+    @GetMapping(path = "/monthly-stock-stats/stream", produces = "application/x-ndjson")
+    ResponseEntity<StreamingResponseBody> streamMonthlyStockStats(
+            @RequestParam(defaultValue = "20") int initialStock,
+            @RequestParam Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays,
+            @RequestParam(defaultValue = "false") boolean percentiles);
+
+    /**
+     * Retourne le stock minimum, maximum et moyen du plan de commandes enregistré d'un produit entre deux dates,
+     * à partir des niveaux de stock journaliers conservés lors de son dernier calcul : rien n'est simulé.
+     * Retourne 404 si aucun plan du produit n'a été conservé ou si les dates sont hors de son horizon.
+     */
+    @Operation(summary = "Get the stock statistics of the persisted plan between two dates")
+    @GetMapping(path = "/planned-stock-stats", produces = "application/json")
+    ResponseEntity<StockRangeStatsDTO> getPlannedStockStats(
+            @RequestParam Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to);
+
+    /**
+     * Liste les commandes enregistrées d'un produit passées entre deux dates, par ordre de date de commande,
+     * page par page : la page suivante est demandée avec nextAfterOrderDate et nextAfterId de la page courante
+     * (absents sur la dernière page). Les commandes sont lues directement en DTO, sans charger les entités.
+     */
+    @Operation(summary = "List the persisted orders of a product between two dates, page by page")
+    @GetMapping(path = "/orders", produces = "application/json")
+    ResponseEntity<OrderPageDTO> getOrders(
+            @RequestParam Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterOrderDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int size);
+
+    /**
+     * Compare des scénarios : statistiques de stock de chaque combinaison de stock initial,
+     * de multiple de commande et de délai de livraison (valeurs du produit pour un paramètre absent).
+     * Les scénarios sont simulés ensemble, rien n'est enregistré.
+     */
+    @Operation(summary = "Get the stock statistics of what-if scenarios (initial stock, multiple, lead time)")
+    @GetMapping(path = "/monthly-stock-stats/scenarios", produces = "application/json")
+    ResponseEntity<List<ScenarioStockStatsDTO>> getScenarioStockStats(
+            @RequestParam Long productId,
+            @RequestParam(required = false) List<Integer> initialStocks,
+            @RequestParam(required = false) List<Integer> orderMultiples,
+            @RequestParam(required = false) List<Integer> deliveryLeadTimes,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays);
+
+    /**
+     * Simule le stock avec une demande aléatoire (loi de Poisson centrée sur le profil de ventes)
+     * sur un grand nombre de réplications (10 000 par défaut).
+     * Retourne le taux de service, la probabilité de rupture et les percentiles de stock de chaque mois.
+     * Le même seed rejoue les mêmes réplications ; sans seed, un seed est tiré et retourné.
+     */
+    @Operation(summary = "Simulate the stock under stochastic demand (Monte Carlo)")
+    @GetMapping(path = "/demand-risk", produces = "application/json")
+    ResponseEntity<DemandRiskDTO> getDemandRisk(
+            @RequestParam(defaultValue = "20") int initialStock,
+            @RequestParam Long productId,
+            @RequestParam(defaultValue = "10000") int replications,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays);
+
+    /**
+     * Retourne les statistiques du cache des données de planification des produits
+     * (taille, succès, échecs, évictions).
+     */
+    @Operation(summary = "Get the statistics of the planning snapshot cache")
+    @GetMapping(path = "/planning-cache/stats", produces = "application/json")
+    ResponseEntity<PlanningCacheStatsDTO> getPlanningCacheStats();
+
+    /**
+     * Lance en arrière-plan le même calcul que {@code /calculate/bulk}.
+     * Retourne 202 et le job, dont l'état est suivi sur {@code /jobs/{jobId}},
+     * ou 429 si trop de jobs sont déjà en attente.
+     */
+    @Operation(summary = "Submit a job calculating orders for several products or for all products")
+    @PostMapping(path = "/jobs/bulk-plan", consumes = "application/json", produces = "application/json")
+    ResponseEntity<JobDTO> submitBulkPlanJob(@RequestBody BulkPlanRequestDTO request);
+
+    /**
+     * Lance en arrière-plan le recalcul des produits dont le profil de ventes ou les paramètres ont changé,
+     * comme le fait la planification nocturne. Le job échoue si un recalcul est déjà en cours.
+     * Retourne 202 et le job, ou 429 si trop de jobs sont déjà en attente.
+     */
+    @Operation(summary = "Submit a job calculating orders for the products changed since their last plan")
+    @PostMapping(path = "/jobs/changed-plan", produces = "application/json")
+    ResponseEntity<JobDTO> submitChangedPlanJob();
+
+    /**
+     * Retourne le nombre de produits en attente de recalcul et le bilan du dernier recalcul
+     * (produits planifiés, en échec, débit).
+     */
+    @Operation(summary = "Get the pending products and the last run of the re-plan of changed products")
+    @GetMapping(path = "/changed-plan/status", produces = "application/json")
+    ResponseEntity<ReplanRunDTO> getChangedPlanStatus();
+
+    /**
+     * Lance en arrière-plan le même calcul que {@code /optimal-multiple}.
+     * Retourne 202 et le job, ou 429 si trop de jobs sont déjà en attente.
+     */
+    @Operation(summary = "Submit a job ranking the order multiples of a range")
+    @PostMapping(path = "/jobs/optimal-multiple", produces = "application/json")
+    ResponseEntity<JobDTO> submitOptimalMultipleJob(
+            @RequestParam(defaultValue = "20") int initialStock,
+            @RequestParam Long productId,
+            @RequestParam(defaultValue = "5") int minMultiple,
+            @RequestParam(defaultValue = "30") int maxMultiple,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays,
+            @RequestParam(defaultValue = "true") boolean useCache);
+
+    /**
+     * Lance en arrière-plan le même calcul que {@code /order-policy/optimal}.
+     * Retourne 202 et le job, ou 429 si trop de jobs sont déjà en attente.
+     */
+    @Operation(summary = "Submit a job searching the order policy minimizing the stock costs")
+    @PostMapping(path = "/jobs/order-policy", produces = "application/json")
+    ResponseEntity<JobDTO> submitOrderPolicyJob(
+            @RequestParam(defaultValue = "20") int initialStock,
+            @RequestParam Long productId,
+            @RequestParam(defaultValue = "5") int minMultiple,
+            @RequestParam(defaultValue = "30") int maxMultiple,
+            @RequestParam(defaultValue = "50") int maxSafetyStock,
+            @RequestParam(defaultValue = "5") int safetyStockStep,
+            @RequestParam(defaultValue = "0.1") double holdingCost,
+            @RequestParam(defaultValue = "50") double orderCost,
+            @RequestParam(defaultValue = "5") double stockoutPenalty,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays);
+
+    /**
+     * Lance en arrière-plan la même simulation que {@code /demand-risk}.
+     * Retourne 202 et le job, ou 429 si trop de jobs sont déjà en attente.
+     */
+    @Operation(summary = "Submit a job simulating the stock under stochastic demand")
+    @PostMapping(path = "/jobs/demand-risk", produces = "application/json")
+    ResponseEntity<JobDTO> submitDemandRiskJob(
+            @RequestParam(defaultValue = "20") int initialStock,
+            @RequestParam Long productId,
+            @RequestParam(defaultValue = "10000") int replications,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer horizonDays);
+
+    /**
+     * Retourne l'état d'un job : statut, avancement et erreur éventuelle.
+     * Un job terminé est oublié après sa durée de rétention (404).
+     */
+    @Operation(summary = "Get the status and progress of a job")
+    @GetMapping(path = "/jobs/{jobId}", produces = "application/json")
+    ResponseEntity<JobDTO> getJob(@PathVariable String jobId);
+
+    /**
+     * Retourne le résultat d'un job terminé avec succès, dans le même format que le calcul synchrone.
+     * Retourne 202 et le job tant qu'il n'est pas terminé, 409 s'il a échoué ou a été annulé.
+     */
+    @Operation(summary = "Get the result of a job")
+    @GetMapping(path = "/jobs/{jobId}/result", produces = "application/json")
+    ResponseEntity<Object> getJobResult(@PathVariable String jobId);
+
+    /**
+     * Retourne le résultat d'un job terminé avec succès, une ligne JSON par élément.
+     * Mêmes statuts que {@code /jobs/{jobId}/result}, sans corps hors succès.
+     */
+    @Operation(summary = "Get the result of a job, streamed as NDJSON")
+    @GetMapping(path = "/jobs/{jobId}/result/stream", produces = "application/x-ndjson")
+    ResponseEntity<StreamingResponseBody> streamJobResult(@PathVariable String jobId);
+
+    /**
+     * Annule un job : un job en attente ne démarre pas, un job en cours s'arrête à son prochain point d'avancement.
+     */
+    @Operation(summary = "Cancel a job")
+    @DeleteMapping(path = "/jobs/{jobId}", produces = "application/json")
+    ResponseEntity<JobDTO> cancelJob(@PathVariable String jobId);
 }
@@ -11,10 +11,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 
+import com.adeo.stockoptimizer.dtos.DemandAdjustmentDTO;
+import com.adeo.stockoptimizer.dtos.SalesEventDTO;
 import com.adeo.stockoptimizer.dtos.SalesProfileDTO;
+import com.adeo.stockoptimizer.dtos.SalesProfileRefreshDTO;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "Sales Profile Resource")
@@ -25,11 +30,67 @@ public interface SalesProfileController {
     @GetMapping(produces = "application/json")
     ResponseEntity<List<SalesProfileDTO>> getSalesProfiles(@RequestParam Long productId);
 
+    /**
+     * Crée ou modifie un profil de ventes. Le plan de commandes déjà calculé du produit, et celui du produit
+     * précédent si le profil change de produit, est recalculé à partir de la semaine de effectiveDate
+     * (aujourd'hui par défaut) : seules les commandes modifiées sont écrites. Le profil est enregistré avant le
+     * recalcul : si celui-ci échoue, le produit reste dans le journal des changements jusqu'au recalcul planifié.
+     */
     @Operation(summary = "Create or update a sales profile")
     @PostMapping(consumes = "application/json", produces = "application/json")
-    ResponseEntity<SalesProfileDTO> createOrUpdateSalesProfile(@RequestBody SalesProfileDTO salesProfileDTO);
+    ResponseEntity<SalesProfileDTO> createOrUpdateSalesProfile(
+            @RequestBody SalesProfileDTO salesProfileDTO,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveDate);
 
+    /**
+     * Supprime un profil de ventes. Le plan de commandes déjà calculé du produit est recalculé à partir de la
+     * semaine de effectiveDate (aujourd'hui par défaut), comme pour une modification.
+     */
     @Operation(summary = "Delete a sales profile by ID")
     @DeleteMapping("/{id}")
-    ResponseEntity<Void> deleteSalesProfile(@PathVariable Long id);
+    ResponseEntity<Void> deleteSalesProfile(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveDate);
+
+    @Operation(summary = "Get all demand adjustments for a product")
+    @GetMapping(path = "/demand-adjustments", produces = "application/json")
+    ResponseEntity<List<DemandAdjustmentDTO>> getDemandAdjustments(@RequestParam Long productId);
+
+    /**
+     * Crée ou modifie un ajustement de la demande sur une période (startDate à endDate incluses) : SEASONAL_FACTOR
+     * multiplie le profil de ventes par value (saison), OVERRIDE le remplace par value ventes par jour (promotion,
+     * jour férié, fermeture). Le plan de commandes déjà calculé du produit est recalculé à partir de la semaine
+     * de startDate, comme pour un profil de ventes.
+     */
+    @Operation(summary = "Create or update a demand adjustment")
+    @PostMapping(path = "/demand-adjustments", consumes = "application/json", produces = "application/json")
+    ResponseEntity<DemandAdjustmentDTO> createOrUpdateDemandAdjustment(
+            @RequestBody DemandAdjustmentDTO demandAdjustmentDTO);
+
+    /**
+     * Supprime un ajustement de la demande. Le plan de commandes déjà calculé du produit est recalculé à partir
+     * de la semaine de startDate de l'ajustement supprimé.
+     */
+    @Operation(summary = "Delete a demand adjustment by ID")
+    @DeleteMapping("/demand-adjustments/{id}")
+    ResponseEntity<Void> deleteDemandAdjustment(@PathVariable Long id);
+
+    /**
+     * Enregistre des ventes journalières (une quantité négative pour un retour) et les cumule par semaine et par
+     * jour de la semaine. Les profils de ventes en sont déduits par {@code /refresh}.
+     * Chaque vente doit avoir un produit et une date. Retourne le nombre de ventes enregistrées.
+     */
+    @Operation(summary = "Record daily sales events")
+    @PostMapping(path = "/events", consumes = "application/json", produces = "application/json")
+    ResponseEntity<Integer> recordSalesEvents(@RequestBody List<SalesEventDTO> salesEventDTOs);
+
+    /**
+     * Remplace les profils de ventes par les ventes moyennes de chaque jour sur les dernières semaines complètes
+     * avant asOf (aujourd'hui par défaut), comme le fait la planification nocturne. Seuls les cumuls
+     * hebdomadaires sont relus. Retourne 409 si un rafraîchissement est déjà en cours.
+     */
+    @Operation(summary = "Refresh the sales profiles from the recorded sales")
+    @PostMapping(path = "/refresh", produces = "application/json")
+    ResponseEntity<SalesProfileRefreshDTO> refreshSalesProfiles(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf);
 }
@@ -4,11 +4,15 @@ import com.adeo.stockoptimizer.controllers.ConfigurationController;
 import com.adeo.stockoptimizer.dtos.CalculationParametersDTO;
 import com.adeo.stockoptimizer.models.CalculationParameters;
 import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.services.OrderOptimizationService;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @CrossOrigin(origins = "*")
@@ -17,6 +21,9 @@ import java.util.List;
 public class ConfigurationControllerImpl implements ConfigurationController {
 
     private final CalculationParametersRepository calculationParametersRepository;
+    private final PlanningSnapshotService planningSnapshotService;
+    private final OrderOptimizationService orderOptimizationService;
+    private final PlanningJournalService planningJournalService;
 
 
     @Override
@@ -26,7 +33,8 @@ public class ConfigurationControllerImpl implements ConfigurationController {
     }
 
     @Override
-    public ResponseEntity<CalculationParameters> createOrUpdateParameters(CalculationParametersDTO dto) {
+    public ResponseEntity<CalculationParameters> createOrUpdateParameters(CalculationParametersDTO dto,
+                                                                          LocalDate effectiveDate) {
         CalculationParameters params;
         if (dto.getId() != null) {
             params = calculationParametersRepository.findById(dto.getId())
@@ -39,6 +47,14 @@ public class ConfigurationControllerImpl implements ConfigurationController {
         params.setOrderMultiple(dto.getOrderMultiple());
 
         CalculationParameters saved = calculationParametersRepository.save(params);
+        if (saved.getProduct() != null) {
+            planningSnapshotService.invalidate(saved.getProduct().getId());
+            planningJournalService.markChanged(saved.getProduct().getId());
+            orderOptimizationService.replanOrders(saved.getProduct().getId(),
+                    effectiveDate != null ? effectiveDate : LocalDate.now());
+        } else {
+            planningSnapshotService.invalidateAll();
+        }
 
         return ResponseEntity.ok(saved);
     }
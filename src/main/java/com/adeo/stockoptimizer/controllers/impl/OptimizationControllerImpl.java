@@ -1,63 +1,506 @@
 package com.adeo.stockoptimizer.controllers.impl;
 
 
+import com.adeo.stockoptimizer.config.PlanningMetrics;
 import com.adeo.stockoptimizer.controllers.OptimizationController;
+import com.adeo.stockoptimizer.dtos.BulkPlanRequestDTO;
+import com.adeo.stockoptimizer.dtos.DemandRiskDTO;
+import com.adeo.stockoptimizer.dtos.JobDTO;
+import com.adeo.stockoptimizer.dtos.MonthlyDemandRiskDTO;
 import com.adeo.stockoptimizer.dtos.MonthlyStockStatsDTO;
+import com.adeo.stockoptimizer.dtos.MultipleEvaluationDTO;
 import com.adeo.stockoptimizer.dtos.OrderDTO;
+import com.adeo.stockoptimizer.dtos.OrderPageDTO;
+import com.adeo.stockoptimizer.dtos.OrderPolicyDTO;
+import com.adeo.stockoptimizer.dtos.OrderPolicyOptimizationDTO;
+import com.adeo.stockoptimizer.dtos.PlanningCacheStatsDTO;
+import com.adeo.stockoptimizer.dtos.ProductPlanResultDTO;
+import com.adeo.stockoptimizer.dtos.ReplanRunDTO;
+import com.adeo.stockoptimizer.dtos.ScenarioStockStatsDTO;
+import com.adeo.stockoptimizer.dtos.StockRangeStatsDTO;
+import com.adeo.stockoptimizer.enums.JobType;
+import com.adeo.stockoptimizer.enums.PlanningOperation;
+import com.adeo.stockoptimizer.enums.PlanningPhase;
 import com.adeo.stockoptimizer.mappers.OrderMapper;
 import com.adeo.stockoptimizer.models.PurchaseOrder;
+import com.adeo.stockoptimizer.services.OptimizationJobService;
 import com.adeo.stockoptimizer.services.OrderOptimizationService;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.simulation.MonteCarloResult;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.simulation.PolicyCosts;
+import com.adeo.stockoptimizer.simulation.PolicyEvaluation;
+import com.adeo.stockoptimizer.simulation.PolicyOptimizationResult;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.utils.MultipleEvaluation;
+import com.adeo.stockoptimizer.utils.OrderPage;
+import com.adeo.stockoptimizer.utils.OptimizationJob;
+import com.adeo.stockoptimizer.utils.PlanningCacheStats;
+import com.adeo.stockoptimizer.utils.ProductPlanResult;
+import com.adeo.stockoptimizer.utils.ReplanRun;
+import com.adeo.stockoptimizer.utils.ScenarioStockStats;
 import com.adeo.stockoptimizer.utils.StockStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 @CrossOrigin(origins = "*")
 @RestController
 public class OptimizationControllerImpl implements OptimizationController {
 
     private final OrderOptimizationService optimizationService;
+    private final PlanningSnapshotService planningSnapshotService;
+    private final OptimizationJobService optimizationJobService;
+    private final PlanningJournalService planningJournalService;
     private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final PlanningMetrics planningMetrics;
 
-    public OptimizationControllerImpl(OrderOptimizationService optimizationService, OrderMapper orderMapper) {
+    public OptimizationControllerImpl(OrderOptimizationService optimizationService,
+                                      PlanningSnapshotService planningSnapshotService,
+                                      OptimizationJobService optimizationJobService,
+                                      PlanningJournalService planningJournalService, OrderMapper orderMapper,
+                                      ObjectMapper objectMapper, PlanningMetrics planningMetrics) {
         this.optimizationService = optimizationService;
+        this.planningSnapshotService = planningSnapshotService;
+        this.optimizationJobService = optimizationJobService;
+        this.planningJournalService = planningJournalService;
         this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+        this.planningMetrics = planningMetrics;
     }
 
     @Override
-    public ResponseEntity<List<OrderDTO>> calculateOrders(int initialStock,Long productId) {
-        List<PurchaseOrder> purchaseOrders = optimizationService.calculateOrderPlan(initialStock, productId);
+    public ResponseEntity<List<OrderDTO>> calculateOrders(Integer initialStock, Long productId, LocalDate startDate,
+                                                          LocalDate endDate, Integer horizonDays, boolean useCache) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        List<PurchaseOrder> purchaseOrders =
+                optimizationService.calculateOrderPlan(initialStock, productId, horizon, useCache);
+        long start = planningMetrics.start();
         List<OrderDTO> orderDTOs = purchaseOrders.stream()
                 .map(orderMapper::purchaseOrderToOrderDto)
                 .toList();
+        planningMetrics.record(PlanningOperation.ORDER_PLAN, PlanningPhase.MAPPING, start);
         return ResponseEntity.ok(orderDTOs);
     }
 
     @Override
-    public ResponseEntity<Integer> findOptimalMultiple(int initialStock, Long productId) {
-        int bestMultiple = optimizationService.findOptimalMultiple(initialStock, productId);
-        return ResponseEntity.ok(bestMultiple);
+    public ResponseEntity<StreamingResponseBody> streamOrders(Integer initialStock, Long productId,
+                                                              LocalDate startDate, LocalDate endDate,
+                                                              Integer horizonDays) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        StreamingResponseBody body = out -> optimizationService.streamOrderPlan(initialStock, productId, horizon,
+                purchaseOrder -> writeLine(out, orderMapper.purchaseOrderToOrderDto(purchaseOrder)));
+        return ResponseEntity.ok(body);
     }
 
     @Override
-    public ResponseEntity<List<MonthlyStockStatsDTO>> getMonthlyStockStats(int initialStock, Long productId) {
-        Map<String, StockStats> monthlyStats = optimizationService.calculateMonthlyStockStats(initialStock, productId);
+    public ResponseEntity<List<ProductPlanResultDTO>> calculateBulkOrders(BulkPlanRequestDTO request) {
+        return ResponseEntity.ok(bulkPlanTask(request).apply(ProgressListener.NONE));
+    }
+
+    @Override
+    public ResponseEntity<List<MultipleEvaluationDTO>> findOptimalMultiple(int initialStock, Long productId,
+                                                                           int minMultiple, int maxMultiple,
+                                                                           LocalDate startDate, LocalDate endDate,
+                                                                           Integer horizonDays, boolean useCache) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        List<MultipleEvaluation> evaluations = optimizationService.findOptimalMultiple(initialStock, productId,
+                minMultiple, maxMultiple, horizon, useCache);
+        long start = planningMetrics.start();
+        List<MultipleEvaluationDTO> dtos = toMultipleEvaluationDtos(evaluations);
+        planningMetrics.record(PlanningOperation.OPTIMAL_MULTIPLE, PlanningPhase.MAPPING, start);
+        return ResponseEntity.ok(dtos);
+    }
+
+    @Override
+    public ResponseEntity<OrderPolicyOptimizationDTO> optimizeOrderPolicy(int initialStock, Long productId,
+                                                                          int minMultiple, int maxMultiple,
+                                                                          int maxSafetyStock, int safetyStockStep,
+                                                                          double holdingCost, double orderCost,
+                                                                          double stockoutPenalty, LocalDate startDate,
+                                                                          LocalDate endDate, Integer horizonDays) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        PolicyOptimizationResult result = optimizationService.optimizeOrderPolicy(initialStock, productId,
+                minMultiple, maxMultiple, maxSafetyStock, safetyStockStep,
+                new PolicyCosts(holdingCost, orderCost, stockoutPenalty), horizon);
+        long start = planningMetrics.start();
+        OrderPolicyOptimizationDTO dto = toOrderPolicyOptimizationDto(result);
+        planningMetrics.record(PlanningOperation.ORDER_POLICY, PlanningPhase.MAPPING, start);
+        return ResponseEntity.ok(dto);
+    }
+
+    @Override
+    public ResponseEntity<List<MonthlyStockStatsDTO>> getMonthlyStockStats(int initialStock, Long productId,
+                                                                           LocalDate startDate, LocalDate endDate,
+                                                                           Integer horizonDays, boolean useCache,
+                                                                           boolean percentiles) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        Map<String, StockStats> monthlyStats = optimizationService.calculateMonthlyStockStats(initialStock, productId,
+                horizon, useCache, percentiles);
 
         // Convertir les résultats en DTO
+        long start = planningMetrics.start();
         List<MonthlyStockStatsDTO> monthlyStatsDTOs = monthlyStats.entrySet().stream()
-                .map(entry -> {
-                    StockStats stats = entry.getValue();
-                    MonthlyStockStatsDTO dto = new MonthlyStockStatsDTO();
-                    dto.setMonth(entry.getKey());
-                    dto.setAverageStock(stats.getAvgStock());
-                    dto.setMinStock(stats.getMinStock());
-                    dto.setMaxStock(stats.getMaxStock());
+                .map(entry -> toMonthlyStockStatsDto(entry.getKey(), entry.getValue()))
+                .toList();
+        planningMetrics.record(PlanningOperation.MONTHLY_STATS, PlanningPhase.MAPPING, start);
+
+        return ResponseEntity.ok(monthlyStatsDTOs);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamMonthlyStockStats(int initialStock, Long productId,
+                                                                         LocalDate startDate, LocalDate endDate,
+                                                                         Integer horizonDays, boolean percentiles) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        StreamingResponseBody body = out -> optimizationService.streamMonthlyStockStats(initialStock, productId,
+                horizon, percentiles, (month, stats) -> writeLine(out, toMonthlyStockStatsDto(month, stats)));
+        return ResponseEntity.ok(body);
+    }
+
+    @Override
+    public ResponseEntity<StockRangeStatsDTO> getPlannedStockStats(Long productId, LocalDate from, LocalDate to) {
+        return ResponseEntity.of(optimizationService.getPlannedStockStats(productId, from, to).map(stats -> {
+            StockRangeStatsDTO dto = new StockRangeStatsDTO();
+            dto.setProductId(productId);
+            dto.setFrom(from);
+            dto.setTo(to);
+            dto.setAverageStock(stats.getAvgStock());
+            dto.setMinStock(stats.getMinStock());
+            dto.setMaxStock(stats.getMaxStock());
+            return dto;
+        }));
+    }
+
+    @Override
+    public ResponseEntity<OrderPageDTO> getOrders(Long productId, LocalDate from, LocalDate to,
+                                                  LocalDate afterOrderDate, Long afterId, int size) {
+        OrderPage page = optimizationService.findOrders(productId, from, to, afterOrderDate, afterId, size);
+        OrderPageDTO dto = new OrderPageDTO();
+        dto.setOrders(page.orders());
+        dto.setNextAfterOrderDate(page.nextOrderDate());
+        dto.setNextAfterId(page.nextId());
+        return ResponseEntity.ok(dto);
+    }
+
+    @Override
+    public ResponseEntity<List<ScenarioStockStatsDTO>> getScenarioStockStats(Long productId,
+                                                                             List<Integer> initialStocks,
+                                                                             List<Integer> orderMultiples,
+                                                                             List<Integer> deliveryLeadTimes,
+                                                                             LocalDate startDate, LocalDate endDate,
+                                                                             Integer horizonDays) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        List<ScenarioStockStats> scenarios = optimizationService.calculateScenarioStockStats(productId,
+                initialStocks, orderMultiples, deliveryLeadTimes, horizon);
+
+        long start = planningMetrics.start();
+        List<ScenarioStockStatsDTO> scenarioDTOs = scenarios.stream()
+                .map(scenario -> {
+                    ScenarioStockStatsDTO dto = new ScenarioStockStatsDTO();
+                    dto.setInitialStock(scenario.initialStock());
+                    dto.setOrderMultiple(scenario.orderMultiple());
+                    dto.setDeliveryLeadTime(scenario.deliveryLeadTime());
+                    dto.setAverageStock(scenario.averageStock());
+                    dto.setStockoutDays(scenario.stockoutDays());
+                    dto.setOrderCount(scenario.orderCount());
+                    dto.setMonths(scenario.monthlyStats().entrySet().stream()
+                            .map(entry -> toMonthlyStockStatsDto(entry.getKey(), entry.getValue()))
+                            .toList());
                     return dto;
                 })
                 .toList();
+        planningMetrics.record(PlanningOperation.SCENARIOS, PlanningPhase.MAPPING, start);
 
-        return ResponseEntity.ok(monthlyStatsDTOs);
+        return ResponseEntity.ok(scenarioDTOs);
+    }
+
+    @Override
+    public ResponseEntity<DemandRiskDTO> getDemandRisk(int initialStock, Long productId, int replications, Long seed,
+                                                       LocalDate startDate, LocalDate endDate, Integer horizonDays) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        MonteCarloResult result = optimizationService.simulateDemandRisk(initialStock, productId, horizon,
+                replications, seed);
+        long start = planningMetrics.start();
+        DemandRiskDTO dto = toDemandRiskDto(result);
+        planningMetrics.record(PlanningOperation.DEMAND_RISK, PlanningPhase.MAPPING, start);
+        return ResponseEntity.ok(dto);
+    }
+
+    @Override
+    public ResponseEntity<PlanningCacheStatsDTO> getPlanningCacheStats() {
+        PlanningCacheStats stats = planningSnapshotService.getStats();
+
+        PlanningCacheStatsDTO dto = new PlanningCacheStatsDTO();
+        dto.setSize(stats.size());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        return ResponseEntity.ok(dto);
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> submitBulkPlanJob(BulkPlanRequestDTO request) {
+        return submitJob(JobType.BULK_PLAN, bulkPlanTask(request));
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> submitChangedPlanJob() {
+        return submitJob(JobType.CHANGED_PLAN, progress -> planningJournalService.replanChangedProducts(progress)
+                .map(this::toReplanRunDto)
+                .orElseThrow(() -> new IllegalStateException("A re-plan of the changed products is already running")));
+    }
+
+    @Override
+    public ResponseEntity<ReplanRunDTO> getChangedPlanStatus() {
+        ReplanRunDTO dto = planningJournalService.getLastRun().map(this::toReplanRunDto).orElseGet(ReplanRunDTO::new);
+        dto.setPendingProducts(planningJournalService.countChanged());
+        return ResponseEntity.ok(dto);
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> submitOptimalMultipleJob(int initialStock, Long productId, int minMultiple,
+                                                           int maxMultiple, LocalDate startDate, LocalDate endDate,
+                                                           Integer horizonDays, boolean useCache) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        return submitJob(JobType.OPTIMAL_MULTIPLE, progress -> toMultipleEvaluationDtos(
+                optimizationService.findOptimalMultiple(initialStock, productId, minMultiple, maxMultiple,
+                        horizon, useCache, progress)));
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> submitOrderPolicyJob(int initialStock, Long productId, int minMultiple,
+                                                       int maxMultiple, int maxSafetyStock, int safetyStockStep,
+                                                       double holdingCost, double orderCost, double stockoutPenalty,
+                                                       LocalDate startDate, LocalDate endDate, Integer horizonDays) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        PolicyCosts costs = new PolicyCosts(holdingCost, orderCost, stockoutPenalty);
+        return submitJob(JobType.ORDER_POLICY, progress -> toOrderPolicyOptimizationDto(
+                optimizationService.optimizeOrderPolicy(initialStock, productId, minMultiple, maxMultiple,
+                        maxSafetyStock, safetyStockStep, costs, horizon, progress)));
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> submitDemandRiskJob(int initialStock, Long productId, int replications, Long seed,
+                                                      LocalDate startDate, LocalDate endDate, Integer horizonDays) {
+        SimulationHorizon horizon = optimizationService.resolveHorizon(startDate, endDate, horizonDays);
+        return submitJob(JobType.DEMAND_RISK, progress -> toDemandRiskDto(
+                optimizationService.simulateDemandRisk(initialStock, productId, horizon, replications, seed,
+                        progress)));
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> getJob(String jobId) {
+        return ResponseEntity.of(optimizationJobService.getJob(jobId).map(this::toJobDto));
+    }
+
+    @Override
+    public ResponseEntity<Object> getJobResult(String jobId) {
+        Optional<OptimizationJob> job = optimizationJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (job.get().status()) {
+            case SUCCEEDED -> ResponseEntity.ok(job.get().result());
+            case QUEUED, RUNNING -> ResponseEntity.accepted().body(toJobDto(job.get()));
+            case FAILED, CANCELLED -> ResponseEntity.status(HttpStatus.CONFLICT).body(toJobDto(job.get()));
+        };
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamJobResult(String jobId) {
+        Optional<OptimizationJob> job = optimizationJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (job.get().status()) {
+            case SUCCEEDED -> ResponseEntity.ok(out -> {
+                if (job.get().result() instanceof List<?> elements) {
+                    elements.forEach(element -> writeLine(out, element));
+                } else {
+                    writeLine(out, job.get().result());
+                }
+            });
+            case QUEUED, RUNNING -> ResponseEntity.accepted().build();
+            case FAILED, CANCELLED -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
+    }
+
+    @Override
+    public ResponseEntity<JobDTO> cancelJob(String jobId) {
+        return ResponseEntity.of(optimizationJobService.cancel(jobId).map(this::toJobDto));
+    }
+
+    /**
+     * Validates a bulk planning request and prepares its calculation, so that invalid requests are rejected
+     * before being submitted as jobs.
+     *
+     * @param request Products, initial stock and horizon to plan.
+     * @return The calculation of the request, reporting the planned products.
+     */
+    private Function<ProgressListener, List<ProductPlanResultDTO>> bulkPlanTask(BulkPlanRequestDTO request) {
+        if (!request.isAllProducts() && (request.getProductIds() == null || request.getProductIds().isEmpty())) {
+            throw new IllegalArgumentException("No product to plan");
+        }
+        SimulationHorizon horizon = optimizationService.resolveHorizon(
+                request.getStartDate(), request.getEndDate(), request.getHorizonDays());
+        return progress -> toProductPlanResultDtos(optimizationService.calculateOrderPlans(
+                request.isAllProducts() ? null : request.getProductIds(), request.getInitialStock(), horizon,
+                progress));
+    }
+
+    /**
+     * Submits a job, answering 429 when the queue of jobs is full.
+     *
+     * @param type Kind of optimisation.
+     * @param task Optimisation returning the DTO served as the result of the job.
+     * @return 202 with the queued job and its location, or 429.
+     */
+    private ResponseEntity<JobDTO> submitJob(JobType type, Function<ProgressListener, ?> task) {
+        try {
+            OptimizationJob job = optimizationJobService.submit(type, task);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/optimization/jobs/" + job.id()))
+                    .body(toJobDto(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
+    private JobDTO toJobDto(OptimizationJob job) {
+        JobDTO dto = new JobDTO();
+        dto.setId(job.id());
+        dto.setType(job.type());
+        dto.setStatus(job.status());
+        dto.setCompleted(job.completed());
+        dto.setTotal(job.total());
+        dto.setProgress(job.progress());
+        dto.setSubmittedAt(job.submittedAt());
+        dto.setStartedAt(job.startedAt());
+        dto.setFinishedAt(job.finishedAt());
+        dto.setError(job.error());
+        return dto;
+    }
+
+    private ReplanRunDTO toReplanRunDto(ReplanRun run) {
+        ReplanRunDTO dto = new ReplanRunDTO();
+        dto.setStartedAt(run.startedAt());
+        dto.setFinishedAt(run.finishedAt());
+        dto.setPlannedProducts(run.plannedProducts());
+        dto.setFailedProducts(run.failedProducts());
+        dto.setProductsPerSecond(run.productsPerSecond());
+        return dto;
+    }
+
+    private List<ProductPlanResultDTO> toProductPlanResultDtos(List<ProductPlanResult> results) {
+        return results.stream()
+                .map(result -> {
+                    ProductPlanResultDTO dto = new ProductPlanResultDTO();
+                    dto.setProductId(result.productId());
+                    dto.setSuccess(result.success());
+                    dto.setOrderCount(result.orderCount());
+                    dto.setError(result.error());
+                    return dto;
+                })
+                .toList();
+    }
+
+    private List<MultipleEvaluationDTO> toMultipleEvaluationDtos(List<MultipleEvaluation> evaluations) {
+        return evaluations.stream()
+                .map(evaluation -> {
+                    MultipleEvaluationDTO dto = new MultipleEvaluationDTO();
+                    dto.setOrderMultiple(evaluation.orderMultiple());
+                    dto.setAverageStock(evaluation.averageStock());
+                    dto.setStockoutDays(evaluation.stockoutDays());
+                    dto.setOrderCount(evaluation.orderCount());
+                    return dto;
+                })
+                .toList();
+    }
+
+    private OrderPolicyOptimizationDTO toOrderPolicyOptimizationDto(PolicyOptimizationResult result) {
+        OrderPolicyOptimizationDTO dto = new OrderPolicyOptimizationDTO();
+        dto.setBest(toOrderPolicyDto(result.best()));
+        dto.setParetoFront(result.paretoFront().stream().map(this::toOrderPolicyDto).toList());
+        dto.setCandidateCount(result.candidates());
+        dto.setEvaluatedCount(result.evaluated());
+        return dto;
+    }
+
+    private DemandRiskDTO toDemandRiskDto(MonteCarloResult result) {
+        DemandRiskDTO dto = new DemandRiskDTO();
+        dto.setReplications(result.replications());
+        dto.setSeed(result.seed());
+        dto.setServiceLevel(result.serviceLevel());
+        dto.setStockoutProbability(result.stockoutProbability());
+        dto.setMonths(result.months().stream()
+                .map(risk -> {
+                    MonthlyDemandRiskDTO monthDto = new MonthlyDemandRiskDTO();
+                    monthDto.setMonth(risk.month());
+                    monthDto.setServiceLevel(risk.serviceLevel());
+                    monthDto.setStockoutProbability(risk.stockoutProbability());
+                    monthDto.setP5Stock(risk.p5Stock());
+                    monthDto.setMedianStock(risk.medianStock());
+                    monthDto.setP95Stock(risk.p95Stock());
+                    return monthDto;
+                })
+                .toList());
+        return dto;
+    }
+
+    private MonthlyStockStatsDTO toMonthlyStockStatsDto(String month, StockStats stats) {
+        MonthlyStockStatsDTO dto = new MonthlyStockStatsDTO();
+        dto.setMonth(month);
+        dto.setAverageStock(stats.getAvgStock());
+        dto.setMinStock(stats.getMinStock());
+        dto.setMaxStock(stats.getMaxStock());
+        dto.setMedianStock(stats.getMedianStock());
+        dto.setP95Stock(stats.getP95Stock());
+        return dto;
+    }
+
+    private OrderPolicyDTO toOrderPolicyDto(PolicyEvaluation evaluation) {
+        OrderPolicyDTO dto = new OrderPolicyDTO();
+        dto.setOrderDays(PlanningInput.orderDaysOf(evaluation.orderDays()));
+        dto.setOrderMultiple(evaluation.orderMultiple());
+        dto.setSafetyStock(evaluation.safetyStock());
+        dto.setHoldingCost(evaluation.holdingCost());
+        dto.setOrderingCost(evaluation.orderingCost());
+        dto.setStockoutCost(evaluation.stockoutCost());
+        dto.setTotalCost(evaluation.totalCost());
+        dto.setUnmetDemand(evaluation.unmetDemand());
+        dto.setStockoutDays(evaluation.stockoutDays());
+        dto.setOrderCount(evaluation.orderCount());
+        return dto;
+    }
+
+    /**
+     * Writes one NDJSON line and flushes it, so that the client receives it right away.
+     */
+    private void writeLine(OutputStream out, Object dto) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(dto));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -1,18 +1,36 @@
 package com.adeo.stockoptimizer.controllers.impl;
 
 import com.adeo.stockoptimizer.controllers.SalesProfileController;
+import com.adeo.stockoptimizer.dtos.DemandAdjustmentDTO;
+import com.adeo.stockoptimizer.dtos.SalesEventDTO;
 import com.adeo.stockoptimizer.dtos.SalesProfileDTO;
+import com.adeo.stockoptimizer.dtos.SalesProfileRefreshDTO;
+import com.adeo.stockoptimizer.mappers.DemandAdjustmentMapper;
 import com.adeo.stockoptimizer.mappers.SalesProfileMapper;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesEvent;
 import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
 import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.services.OrderOptimizationService;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.services.SalesHistoryService;
+import com.adeo.stockoptimizer.utils.SalesProfileRefresh;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 
+@Slf4j
 @CrossOrigin(origins = "*")
 @RestController
 @RequiredArgsConstructor
@@ -20,6 +38,12 @@ public class SalesProfileControllerImpl implements SalesProfileController {
 
     private final SalesProfileRepository salesProfileRepository;
     private final SalesProfileMapper salesProfileMapper;
+    private final DemandAdjustmentRepository demandAdjustmentRepository;
+    private final DemandAdjustmentMapper demandAdjustmentMapper;
+    private final PlanningSnapshotService planningSnapshotService;
+    private final OrderOptimizationService orderOptimizationService;
+    private final PlanningJournalService planningJournalService;
+    private final SalesHistoryService salesHistoryService;
 
     @Override
     public ResponseEntity<List<SalesProfileDTO>> getSalesProfiles(Long productId) {
@@ -31,16 +55,163 @@ public class SalesProfileControllerImpl implements SalesProfileController {
     }
 
     @Override
-    public ResponseEntity<SalesProfileDTO> createOrUpdateSalesProfile(SalesProfileDTO salesProfileDTO) {
+    public ResponseEntity<SalesProfileDTO> createOrUpdateSalesProfile(SalesProfileDTO salesProfileDTO,
+                                                                      LocalDate effectiveDate) {
         SalesProfile salesProfile = salesProfileMapper.salesProfileDtoToSalesProfile(salesProfileDTO);
+        Long previousProductId = salesProfileDTO.getId() != null ? findProductId(salesProfileDTO.getId()) : null;
         SalesProfile savedProfile = salesProfileRepository.save(salesProfile);
+        Long productId = savedProfile.getProduct() != null ? savedProfile.getProduct().getId() : null;
+        LocalDate fromDate = effectiveDate != null ? effectiveDate : LocalDate.now();
+        planningSnapshotService.invalidate(previousProductId);
+        planningJournalService.markChanged(previousProductId);
+        planningSnapshotService.invalidate(productId);
+        planningJournalService.markChanged(productId);
+        if (previousProductId != null && !previousProductId.equals(productId)) {
+            replan(previousProductId, fromDate);
+        }
+        replan(productId, fromDate);
         SalesProfileDTO savedProfileDTO = salesProfileMapper.salesProfileToSalesProfileDTO(savedProfile);
         return ResponseEntity.ok(savedProfileDTO);
     }
 
     @Override
-    public ResponseEntity<Void> deleteSalesProfile(Long id) {
+    public ResponseEntity<Void> deleteSalesProfile(Long id, LocalDate effectiveDate) {
+        Long productId = findProductId(id);
         salesProfileRepository.deleteById(id);
+        planningSnapshotService.invalidate(productId);
+        planningJournalService.markChanged(productId);
+        replan(productId, effectiveDate != null ? effectiveDate : LocalDate.now());
         return ResponseEntity.noContent().build();
     }
+
+    @Override
+    public ResponseEntity<List<DemandAdjustmentDTO>> getDemandAdjustments(Long productId) {
+        List<DemandAdjustmentDTO> adjustmentDTOs = demandAdjustmentRepository.findByProductId(productId).stream()
+                .map(demandAdjustmentMapper::demandAdjustmentToDemandAdjustmentDTO)
+                .toList();
+        return ResponseEntity.ok(adjustmentDTOs);
+    }
+
+    @Override
+    public ResponseEntity<DemandAdjustmentDTO> createOrUpdateDemandAdjustment(DemandAdjustmentDTO demandAdjustmentDTO) {
+        DemandAdjustment adjustment = demandAdjustmentMapper.demandAdjustmentDtoToDemandAdjustment(demandAdjustmentDTO);
+        validateDemandAdjustment(adjustment);
+        Optional<DemandAdjustment> previous = demandAdjustmentDTO.getId() != null
+                ? demandAdjustmentRepository.findById(demandAdjustmentDTO.getId())
+                : Optional.empty();
+        // Read before saving, which may update the loaded adjustment
+        Long previousProductId = previous.map(DemandAdjustment::getProduct).map(Product::getId).orElse(null);
+        LocalDate previousStartDate = previous.map(DemandAdjustment::getStartDate).orElse(null);
+        DemandAdjustment savedAdjustment = demandAdjustmentRepository.save(adjustment);
+        Long productId = savedAdjustment.getProduct().getId();
+        planningSnapshotService.invalidate(previousProductId);
+        planningJournalService.markChanged(previousProductId);
+        planningSnapshotService.invalidate(productId);
+        planningJournalService.markChanged(productId);
+        LocalDate effectiveDate = savedAdjustment.getStartDate();
+        if (productId.equals(previousProductId) && previousStartDate.isBefore(effectiveDate)) {
+            effectiveDate = previousStartDate;
+        } else if (previousProductId != null && !productId.equals(previousProductId)) {
+            replan(previousProductId, previousStartDate);
+        }
+        replan(productId, effectiveDate);
+        return ResponseEntity.ok(demandAdjustmentMapper.demandAdjustmentToDemandAdjustmentDTO(savedAdjustment));
+    }
+
+    @Override
+    public ResponseEntity<Void> deleteDemandAdjustment(Long id) {
+        Optional<DemandAdjustment> adjustment = demandAdjustmentRepository.findById(id);
+        Long productId = adjustment.map(DemandAdjustment::getProduct).map(Product::getId).orElse(null);
+        LocalDate startDate = adjustment.map(DemandAdjustment::getStartDate).orElse(null);
+        demandAdjustmentRepository.deleteById(id);
+        planningSnapshotService.invalidate(productId);
+        planningJournalService.markChanged(productId);
+        replan(productId, startDate);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<Integer> recordSalesEvents(List<SalesEventDTO> salesEventDTOs) {
+        List<SalesEvent> events = salesEventDTOs.stream()
+                .map(dto -> SalesEvent.builder()
+                        .productId(dto.getProductId())
+                        .saleDate(dto.getSaleDate())
+                        .quantity(dto.getQuantity())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(salesHistoryService.recordSales(events));
+    }
+
+    @Override
+    public ResponseEntity<SalesProfileRefreshDTO> refreshSalesProfiles(LocalDate asOf) {
+        return salesHistoryService.refreshSalesProfiles(asOf != null ? asOf : LocalDate.now())
+                .map(this::toSalesProfileRefreshDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Re-plans a product whose demand changed, from the first date the change affects. The change is already
+     * saved and the product marked in the change journal: a failed re-plan leaves the previous plan in place
+     * until the journal is drained, without failing the saved change.
+     *
+     * @param productId Identifier of the product, ignored when {@code null}.
+     * @param fromDate  First date affected by the change.
+     */
+    private void replan(Long productId, LocalDate fromDate) {
+        if (productId == null || fromDate == null) {
+            return;
+        }
+        try {
+            orderOptimizationService.replanOrders(productId, fromDate);
+        } catch (RuntimeException e) {
+            log.warn("Re-plan of product {} left to the change journal: {}", productId, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the product of a sales profile, whose planning snapshot is outdated once the profile changes.
+     *
+     * @param id Identifier of the sales profile.
+     * @return The identifier of its product, or {@code null} if the profile does not exist.
+     */
+    private Long findProductId(Long id) {
+        return salesProfileRepository.findById(id)
+                .map(SalesProfile::getProduct)
+                .map(Product::getId)
+                .orElse(null);
+    }
+
+    /**
+     * Checks that a demand adjustment can be encoded into a demand calendar.
+     *
+     * @param adjustment The adjustment to save.
+     * @throws IllegalArgumentException If its product, period or type is missing, its period ends before it
+     *                                  starts or its value is negative.
+     */
+    private static void validateDemandAdjustment(DemandAdjustment adjustment) {
+        if (adjustment.getProduct() == null || adjustment.getProduct().getId() == null) {
+            throw new IllegalArgumentException("A demand adjustment needs a product");
+        }
+        if (adjustment.getStartDate() == null || adjustment.getEndDate() == null || adjustment.getType() == null) {
+            throw new IllegalArgumentException("A demand adjustment needs a start date, an end date and a type");
+        }
+        if (adjustment.getEndDate().isBefore(adjustment.getStartDate())) {
+            throw new IllegalArgumentException("Demand adjustment ends before it starts: " + adjustment.getEndDate());
+        }
+        if (adjustment.getValue() < 0) {
+            throw new IllegalArgumentException("Demand adjustment value cannot be negative: " + adjustment.getValue());
+        }
+    }
+
+    private SalesProfileRefreshDTO toSalesProfileRefreshDto(SalesProfileRefresh refresh) {
+        SalesProfileRefreshDTO dto = new SalesProfileRefreshDTO();
+        dto.setStartedAt(refresh.startedAt());
+        dto.setFinishedAt(refresh.finishedAt());
+        dto.setFromWeek(refresh.fromWeek());
+        dto.setToWeek(refresh.toWeek());
+        dto.setScannedProducts(refresh.scannedProducts());
+        dto.setUpdatedProducts(refresh.updatedProducts());
+        return dto;
+    }
 }
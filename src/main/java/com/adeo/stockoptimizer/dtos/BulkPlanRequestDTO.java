@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+public class BulkPlanRequestDTO {
+
+    private Set<Long> productIds;
+    private boolean allProducts;
+    private Integer initialStock;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer horizonDays;
+}
@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DemandAdjustmentDTO {
+
+    private Long id;
+    private Long productId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String type;
+    private double value;
+}
@@ -0,0 +1,15 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DemandRiskDTO {
+
+    private int replications;
+    private long seed;
+    private double serviceLevel;
+    private double stockoutProbability;
+    private List<MonthlyDemandRiskDTO> months;
+}
@@ -0,0 +1,22 @@
+package com.adeo.stockoptimizer.dtos;
+
+import com.adeo.stockoptimizer.enums.JobStatus;
+import com.adeo.stockoptimizer.enums.JobType;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class JobDTO {
+
+    private String id;
+    private JobType type;
+    private JobStatus status;
+    private long completed;
+    private long total;
+    private double progress;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,14 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+@Data
+public class MonthlyDemandRiskDTO {
+
+    private String month;
+    private double serviceLevel;
+    private double stockoutProbability;
+    private double p5Stock;
+    private double medianStock;
+    private double p95Stock;
+}
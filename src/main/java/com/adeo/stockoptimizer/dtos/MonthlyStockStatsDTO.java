@@ -13,6 +13,8 @@ public class MonthlyStockStatsDTO {
     private double averageStock;
     private int minStock;
     private int maxStock;
+    private Integer medianStock;
+    private Integer p95Stock;
 
     public void setMonth(int year, int month) {
         this.month = LocalDate.of(year, month, 1)
@@ -0,0 +1,12 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+@Data
+public class MultipleEvaluationDTO {
+
+    private int orderMultiple;
+    private double averageStock;
+    private int stockoutDays;
+    private int orderCount;
+}
@@ -1,10 +1,14 @@
 package com.adeo.stockoptimizer.dtos;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class OrderDTO {
 
     private Long id;
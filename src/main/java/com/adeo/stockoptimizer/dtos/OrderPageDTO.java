@@ -0,0 +1,14 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class OrderPageDTO {
+
+    private List<OrderDTO> orders;
+    private LocalDate nextAfterOrderDate;
+    private Long nextAfterId;
+}
@@ -0,0 +1,21 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+@Data
+public class OrderPolicyDTO {
+
+    private List<DayOfWeek> orderDays;
+    private int orderMultiple;
+    private int safetyStock;
+    private double holdingCost;
+    private double orderingCost;
+    private double stockoutCost;
+    private double totalCost;
+    private long unmetDemand;
+    private int stockoutDays;
+    private int orderCount;
+}
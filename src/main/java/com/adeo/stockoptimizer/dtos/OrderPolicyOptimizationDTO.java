@@ -0,0 +1,14 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderPolicyOptimizationDTO {
+
+    private OrderPolicyDTO best;
+    private List<OrderPolicyDTO> paretoFront;
+    private int candidateCount;
+    private int evaluatedCount;
+}
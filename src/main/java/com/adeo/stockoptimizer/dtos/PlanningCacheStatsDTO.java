@@ -0,0 +1,13 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+@Data
+public class PlanningCacheStatsDTO {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+}
@@ -0,0 +1,12 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+@Data
+public class ProductPlanResultDTO {
+
+    private Long productId;
+    private boolean success;
+    private int orderCount;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ReplanRunDTO {
+
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int plannedProducts;
+    private int failedProducts;
+    private double productsPerSecond;
+    private long pendingProducts;
+}
@@ -0,0 +1,13 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class SalesEventDTO {
+
+    private Long productId;
+    private LocalDate saleDate;
+    private int quantity;
+}
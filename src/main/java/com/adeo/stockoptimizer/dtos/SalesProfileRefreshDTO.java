@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+public class SalesProfileRefreshDTO {
+
+    private Instant startedAt;
+    private Instant finishedAt;
+    private LocalDate fromWeek;
+    private LocalDate toWeek;
+    private int scannedProducts;
+    private int updatedProducts;
+}
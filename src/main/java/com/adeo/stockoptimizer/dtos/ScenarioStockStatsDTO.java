@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ScenarioStockStatsDTO {
+
+    private int initialStock;
+    private int orderMultiple;
+    private int deliveryLeadTime;
+    private double averageStock;
+    private int stockoutDays;
+    private int orderCount;
+    private List<MonthlyStockStatsDTO> months;
+}
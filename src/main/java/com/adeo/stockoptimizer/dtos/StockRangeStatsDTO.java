@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class StockRangeStatsDTO {
+
+    private Long productId;
+    private LocalDate from;
+    private LocalDate to;
+    private double averageStock;
+    private int minStock;
+    private int maxStock;
+}
@@ -0,0 +1,12 @@
+package com.adeo.stockoptimizer.enums;
+
+public enum DemandAdjustmentType {
+    /**
+     * The weekly demand is multiplied by the value of the adjustment.
+     */
+    SEASONAL_FACTOR,
+    /**
+     * The weekly demand is replaced by the value of the adjustment.
+     */
+    OVERRIDE
+}
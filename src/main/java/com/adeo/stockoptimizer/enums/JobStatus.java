@@ -0,0 +1,12 @@
+package com.adeo.stockoptimizer.enums;
+
+public enum JobStatus {
+    QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+    /**
+     * Tells whether a job in this status will not change anymore.
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,5 @@
+package com.adeo.stockoptimizer.enums;
+
+public enum JobType {
+    BULK_PLAN, CHANGED_PLAN, OPTIMAL_MULTIPLE, DEMAND_RISK, ORDER_POLICY
+}
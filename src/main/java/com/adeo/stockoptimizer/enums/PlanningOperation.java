@@ -0,0 +1,10 @@
+package com.adeo.stockoptimizer.enums;
+
+/**
+ * Planning operations, as they are tagged on the planning metrics: one per endpoint, the job endpoints sharing
+ * the operation of their synchronous counterpart.
+ */
+public enum PlanningOperation {
+    ORDER_PLAN, ORDER_PLAN_STREAM, BULK_PLAN, REPLAN, OPTIMAL_MULTIPLE, ORDER_POLICY, MONTHLY_STATS,
+    MONTHLY_STATS_STREAM, SCENARIOS, DEMAND_RISK
+}
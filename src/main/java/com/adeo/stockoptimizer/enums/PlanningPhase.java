@@ -0,0 +1,8 @@
+package com.adeo.stockoptimizer.enums;
+
+/**
+ * Phases of a planning operation, each timed separately.
+ */
+public enum PlanningPhase {
+    LOAD, SIMULATION, AGGREGATION, PERSISTENCE, MAPPING
+}
@@ -0,0 +1,25 @@
+package com.adeo.stockoptimizer.mappers;
+
+import com.adeo.stockoptimizer.dtos.DemandAdjustmentDTO;
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface DemandAdjustmentMapper {
+
+    @Mapping(source = "product.id", target = "productId")
+    DemandAdjustmentDTO demandAdjustmentToDemandAdjustmentDTO(DemandAdjustment demandAdjustment);
+
+    @Mapping(source = "productId", target = "product.id")
+    DemandAdjustment demandAdjustmentDtoToDemandAdjustment(DemandAdjustmentDTO demandAdjustmentDto);
+
+    default String map(DemandAdjustmentType type) {
+        return type != null ? type.name() : null;
+    }
+
+    default DemandAdjustmentType map(String type) {
+        return type != null ? DemandAdjustmentType.valueOf(type) : null;
+    }
+}
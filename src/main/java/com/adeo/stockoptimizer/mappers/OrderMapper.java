@@ -8,7 +8,7 @@ import org.mapstruct.Mapping;
 @Mapper(componentModel = "spring")
 public interface OrderMapper {
 
-     @Mapping(source = "product.id", target = "id")
+    @Mapping(source = "product.id", target = "productId")
     OrderDTO purchaseOrderToOrderDto(PurchaseOrder purchaseOrder);
 
     @Mapping(target = "product", ignore = true)
@@ -0,0 +1,50 @@
+package com.adeo.stockoptimizer.models;
+
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Demand of a product over a period that differs from its weekly sales profile: a season multiplying it, or a
+ * promotion, holiday or closure replacing it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DemandAdjustment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDate startDate;
+
+    // Last day of the period, included
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private DemandAdjustmentType type;
+
+    // Factor applied to the weekly demand, or quantity sold each day of the period ("value" is reserved by H2)
+    @Column(name = "adjustment_value")
+    private double value;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+}
@@ -0,0 +1,28 @@
+package com.adeo.stockoptimizer.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entry of the change journal: a product whose sales profiles or calculation parameters changed since its
+ * order plan was last calculated by the scheduled re-plan. A product has at most one entry, holding its last
+ * change.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChange {
+
+    @Id
+    private Long productId;
+
+    private Instant changedAt;
+}
@@ -5,8 +5,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,14 +18,25 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_purchase_order_product_order", columnList = "product_id, orderDate, id"),
+        @Index(name = "idx_purchase_order_product_delivery", columnList = "product_id, deliveryDate")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class PurchaseOrder {
 
+    /**
+     * Number of ids reserved per sequence call, shared by Hibernate and the JDBC plan writer.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_seq")
+    @SequenceGenerator(name = "purchase_order_seq", sequenceName = "purchase_order_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private LocalDate orderDate;
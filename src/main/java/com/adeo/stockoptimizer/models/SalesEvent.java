@@ -0,0 +1,50 @@
+package com.adeo.stockoptimizer.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Quantity of a product sold on a day, as reported by a till or an e-commerce order. Events are only appended:
+ * corrections are recorded as new events, with a negative quantity for returns.
+ * <p>
+ * The product is kept as a plain id, without foreign key, so that an insert does not read the product table.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_sales_event_product_date", columnList = "product_id, saleDate"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesEvent {
+
+    /**
+     * Number of ids reserved per sequence call by the JDBC event writer.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_event_seq")
+    @SequenceGenerator(name = "sales_event_seq", sequenceName = "sales_event_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private LocalDate saleDate;
+
+    private int quantity;
+}
@@ -0,0 +1,90 @@
+package com.adeo.stockoptimizer.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Rollup of the sales events of a product over one week, starting on Monday, with one total per weekday.
+ * Rows are incremented as events are recorded, so the sales profiles are derived from a few weeks of rollups
+ * instead of the whole event history.
+ */
+@Entity
+@IdClass(SalesWeek.Key.class)
+@Table(indexes = @Index(name = "idx_sales_week_updated_at", columnList = "updatedAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesWeek {
+
+    @Id
+    private Long productId;
+
+    @Id
+    private LocalDate weekStart;
+
+    private int monday;
+    private int tuesday;
+    private int wednesday;
+    private int thursday;
+    private int friday;
+    private int saturday;
+    private int sunday;
+
+    // Last time events of this week were recorded
+    private Instant updatedAt;
+
+    /**
+     * Returns the quantity sold on a weekday of the week.
+     */
+    public int getQuantity(DayOfWeek dayOfWeek) {
+        return switch (dayOfWeek) {
+            case MONDAY -> monday;
+            case TUESDAY -> tuesday;
+            case WEDNESDAY -> wednesday;
+            case THURSDAY -> thursday;
+            case FRIDAY -> friday;
+            case SATURDAY -> saturday;
+            case SUNDAY -> sunday;
+        };
+    }
+
+    /**
+     * Adds a quantity to the sales of a weekday of the week.
+     */
+    public void addQuantity(DayOfWeek dayOfWeek, int quantity) {
+        switch (dayOfWeek) {
+            case MONDAY -> monday += quantity;
+            case TUESDAY -> tuesday += quantity;
+            case WEDNESDAY -> wednesday += quantity;
+            case THURSDAY -> thursday += quantity;
+            case FRIDAY -> friday += quantity;
+            case SATURDAY -> saturday += quantity;
+            case SUNDAY -> sunday += quantity;
+        }
+    }
+
+    /**
+     * Identifier of a weekly rollup: the product and the Monday starting the week.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long productId;
+        private LocalDate weekStart;
+    }
+}
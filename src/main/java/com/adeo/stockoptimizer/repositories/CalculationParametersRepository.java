@@ -1,13 +1,19 @@
 package com.adeo.stockoptimizer.repositories;
 
 import com.adeo.stockoptimizer.models.CalculationParameters;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CalculationParametersRepository extends JpaRepository<CalculationParameters, Long> {
 
     Optional<CalculationParameters> findByProductId(Long productId);
+
+    @EntityGraph(attributePaths = "product")
+    List<CalculationParameters> findByProductIdIn(Collection<Long> productIds);
 }
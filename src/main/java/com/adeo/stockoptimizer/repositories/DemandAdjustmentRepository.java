@@ -0,0 +1,26 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DemandAdjustmentRepository extends JpaRepository<DemandAdjustment, Long> {
+
+    List<DemandAdjustment> findByProductId(Long productId);
+
+    @EntityGraph(attributePaths = "product")
+    List<DemandAdjustment> findByProductIdIn(Collection<Long> productIds);
+
+    /**
+     * Returns those of the given products that have demand adjustments.
+     */
+    @Query("select distinct a.product.id from DemandAdjustment a where a.product.id in :productIds")
+    List<Long> findAdjustedProductIds(@Param("productIds") Collection<Long> productIds);
+}
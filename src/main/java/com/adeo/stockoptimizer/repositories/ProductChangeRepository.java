@@ -0,0 +1,39 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.ProductChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    /**
+     * Returns the next page of changed product ids after the given one (keyset pagination), among the
+     * products changed at or before the given instant.
+     */
+    @Query("select c.productId from ProductChange c where c.productId > :afterId and c.changedAt <= :before "
+            + "order by c.productId")
+    List<Long> findIdsChangedBefore(@Param("afterId") Long afterId, @Param("before") Instant before,
+                                    Pageable pageable);
+
+    long countByChangedAtLessThanEqual(Instant before);
+
+    /**
+     * Removes the entries of the given products, unless they changed again after the given instant.
+     *
+     * @return The number of removed entries
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from ProductChange c where c.productId in :productIds and c.changedAt <= :before")
+    int deleteChangedBefore(@Param("productIds") Collection<Long> productIds, @Param("before") Instant before);
+}
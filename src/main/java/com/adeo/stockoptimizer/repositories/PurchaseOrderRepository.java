@@ -1,9 +1,53 @@
 package com.adeo.stockoptimizer.repositories;
 
+import com.adeo.stockoptimizer.dtos.OrderDTO;
 import com.adeo.stockoptimizer.models.PurchaseOrder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long>, PurchaseOrderRepositoryCustom {
+
+    List<PurchaseOrder> findByProductIdAndOrderDateGreaterThanEqual(Long productId, LocalDate fromDate);
+
+    /**
+     * Returns the next page of the orders of a product placed up to {@code to}, after the given one in
+     * (order date, id) order (keyset pagination). The orders are read straight into DTOs, from the
+     * (product_id, order_date, id) index, without loading the entities nor their product.
+     */
+    @Query("select new com.adeo.stockoptimizer.dtos.OrderDTO(o.id, o.orderDate, o.quantityOrdered, o.deliveryDate, "
+            + "o.product.id) from PurchaseOrder o where o.product.id = :productId and o.orderDate >= :afterDate "
+            + "and o.orderDate <= :to and (o.orderDate > :afterDate or o.id > :afterId) order by o.orderDate, o.id")
+    List<OrderDTO> findOrdersAfter(@Param("productId") Long productId, @Param("afterDate") LocalDate afterDate,
+                                   @Param("afterId") Long afterId, @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Returns the quantities in flight of several products: the orders placed before {@code from} and delivered
+     * from {@code from} (included) to {@code to} (excluded), summed by product and delivery date. The range on
+     * the delivery date is read from the (product_id, delivery_date) index.
+     */
+    @Query("select o.product.id as productId, o.deliveryDate as deliveryDate, sum(o.quantityOrdered) as quantity "
+            + "from PurchaseOrder o where o.product.id in :productIds and o.deliveryDate >= :from "
+            + "and o.deliveryDate < :to and o.orderDate < :from group by o.product.id, o.deliveryDate")
+    List<IncomingDelivery> findIncomingDeliveries(@Param("productIds") Collection<Long> productIds,
+                                                  @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Quantity of a product delivered on a day by orders already placed.
+     */
+    interface IncomingDelivery {
+
+        Long getProductId();
+
+        LocalDate getDeliveryDate();
+
+        Long getQuantity();
+    }
 }
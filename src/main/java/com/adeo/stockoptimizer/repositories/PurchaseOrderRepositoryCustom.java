@@ -0,0 +1,56 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.PurchaseOrder;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface PurchaseOrderRepositoryCustom {
+
+    /**
+     * Replaces the plans of several products: their orders placed on or after {@code fromDate} are deleted
+     * with one statement, then the new orders are inserted with JDBC batches.
+     * The generated ids are set on the given orders.
+     *
+     * @param productIds Identifiers of the products whose plan is replaced.
+     * @param fromDate   First order date of the replaced plans.
+     * @param orders     New orders of these products.
+     */
+    void replacePlans(Collection<Long> productIds, LocalDate fromDate, List<PurchaseOrder> orders);
+
+    /**
+     * Deletes the orders of several products placed on or after {@code fromDate}, with one statement.
+     *
+     * @param productIds Identifiers of the products whose plan is deleted.
+     * @param fromDate   First order date of the deleted plans.
+     */
+    void deletePlans(Collection<Long> productIds, LocalDate fromDate);
+
+    /**
+     * Inserts new orders with JDBC batches. The generated ids are set on the given orders.
+     *
+     * @param orders Orders to insert.
+     */
+    void insertOrders(List<PurchaseOrder> orders);
+
+    /**
+     * Applies the differences between a plan and its new version, in one transaction: new orders are
+     * inserted with JDBC batches (their generated ids are set), changed orders are updated by id and orders
+     * no longer planned are deleted by id.
+     *
+     * @param inserted   New orders.
+     * @param updated    Persisted orders with their new quantity and delivery date.
+     * @param deletedIds Identifiers of the deleted orders.
+     */
+    void applyPlanChanges(List<PurchaseOrder> inserted, List<PurchaseOrder> updated, Collection<Long> deletedIds);
+
+    /**
+     * Replaces the plan of one product.
+     *
+     * @see #replacePlans(Collection, LocalDate, List)
+     */
+    default void replacePlan(Long productId, LocalDate fromDate, List<PurchaseOrder> orders) {
+        replacePlans(List.of(productId), fromDate, orders);
+    }
+}
@@ -0,0 +1,91 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.PurchaseOrder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of the plan replacement.
+ * <p>
+ * Ids are reserved by blocks of {@link PurchaseOrder#ID_ALLOCATION_SIZE}: one sequence call returns the
+ * first id of a block (the "pooled-lo" strategy Hibernate is configured with), and each block is
+ * inserted as one JDBC batch.
+ */
+@RequiredArgsConstructor
+public class PurchaseOrderRepositoryCustomImpl implements PurchaseOrderRepositoryCustom {
+
+    private static final String DELETE_PLANS =
+            "delete from purchase_order where product_id in (:productIds) and order_date >= :fromDate";
+    private static final String NEXT_ID_BLOCK = "select next value for purchase_order_seq";
+    private static final String INSERT_ORDER =
+            "insert into purchase_order (id, order_date, quantity_ordered, delivery_date, product_id) "
+                    + "values (?, ?, ?, ?, ?)";
+    private static final String UPDATE_ORDER =
+            "update purchase_order set quantity_ordered = ?, delivery_date = ? where id = ?";
+    private static final String DELETE_ORDERS = "delete from purchase_order where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    @Transactional
+    public void replacePlans(Collection<Long> productIds, LocalDate fromDate, List<PurchaseOrder> orders) {
+        deletePlans(productIds, fromDate);
+        insertOrders(orders);
+    }
+
+    @Override
+    @Transactional
+    public void applyPlanChanges(List<PurchaseOrder> inserted, List<PurchaseOrder> updated,
+                                 Collection<Long> deletedIds) {
+        if (!deletedIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(DELETE_ORDERS, new MapSqlParameterSource("ids", deletedIds));
+        }
+        if (!updated.isEmpty()) {
+            namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_ORDER, updated,
+                    PurchaseOrder.ID_ALLOCATION_SIZE, (statement, order) -> {
+                        statement.setInt(1, order.getQuantityOrdered());
+                        statement.setObject(2, order.getDeliveryDate());
+                        statement.setLong(3, order.getId());
+                    });
+        }
+        insertOrders(inserted);
+    }
+
+    @Override
+    @Transactional
+    public void deletePlans(Collection<Long> productIds, LocalDate fromDate) {
+        if (!productIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(DELETE_PLANS, new MapSqlParameterSource()
+                    .addValue("productIds", productIds)
+                    .addValue("fromDate", fromDate));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void insertOrders(List<PurchaseOrder> orders) {
+        JdbcTemplate jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+        for (int from = 0; from < orders.size(); from += PurchaseOrder.ID_ALLOCATION_SIZE) {
+            int to = Math.min(from + PurchaseOrder.ID_ALLOCATION_SIZE, orders.size());
+            List<PurchaseOrder> batch = orders.subList(from, to);
+            long firstId = jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Long.class);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(firstId + i);
+            }
+            jdbcTemplate.batchUpdate(INSERT_ORDER, batch, batch.size(), (statement, order) -> {
+                statement.setLong(1, order.getId());
+                statement.setObject(2, order.getOrderDate());
+                statement.setInt(3, order.getQuantityOrdered());
+                statement.setObject(4, order.getDeliveryDate());
+                statement.setLong(5, order.getProduct().getId());
+            });
+        }
+    }
+}
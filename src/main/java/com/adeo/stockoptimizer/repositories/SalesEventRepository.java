@@ -0,0 +1,9 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SalesEventRepository extends JpaRepository<SalesEvent, Long>, SalesEventRepositoryCustom {
+}
@@ -0,0 +1,15 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesEvent;
+
+import java.util.List;
+
+public interface SalesEventRepositoryCustom {
+
+    /**
+     * Appends sales events with JDBC batches. The generated ids are set on the given events.
+     *
+     * @param events Events to insert.
+     */
+    void appendEvents(List<SalesEvent> events);
+}
@@ -0,0 +1,41 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of the event append, with ids reserved by blocks of {@link SalesEvent#ID_ALLOCATION_SIZE}
+ * like the purchase orders: one sequence call per block, each block inserted as one JDBC batch.
+ */
+@RequiredArgsConstructor
+public class SalesEventRepositoryCustomImpl implements SalesEventRepositoryCustom {
+
+    private static final String NEXT_ID_BLOCK = "select next value for sales_event_seq";
+    private static final String INSERT_EVENT =
+            "insert into sales_event (id, product_id, sale_date, quantity) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void appendEvents(List<SalesEvent> events) {
+        for (int from = 0; from < events.size(); from += SalesEvent.ID_ALLOCATION_SIZE) {
+            int to = Math.min(from + SalesEvent.ID_ALLOCATION_SIZE, events.size());
+            List<SalesEvent> batch = events.subList(from, to);
+            long firstId = jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Long.class);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(firstId + i);
+            }
+            jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (statement, event) -> {
+                statement.setLong(1, event.getId());
+                statement.setLong(2, event.getProductId());
+                statement.setObject(3, event.getSaleDate());
+                statement.setInt(4, event.getQuantity());
+            });
+        }
+    }
+}
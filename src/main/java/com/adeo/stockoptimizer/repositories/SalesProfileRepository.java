@@ -1,13 +1,18 @@
 package com.adeo.stockoptimizer.repositories;
 
 import com.adeo.stockoptimizer.models.SalesProfile;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SalesProfileRepository extends JpaRepository<SalesProfile, Long> {
 
     List<SalesProfile> findByProductId(Long productId);
+
+    @EntityGraph(attributePaths = "product")
+    List<SalesProfile> findByProductIdIn(Collection<Long> productIds);
 }
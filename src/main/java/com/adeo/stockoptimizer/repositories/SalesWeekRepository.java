@@ -0,0 +1,52 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesWeek;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesWeekRepository extends JpaRepository<SalesWeek, SalesWeek.Key>, SalesWeekRepositoryCustom {
+
+    /**
+     * Returns the next page of product ids after the given one (keyset pagination), among the products whose
+     * weekly rollups were updated after the given instant.
+     */
+    @Query("select distinct w.productId from SalesWeek w where w.productId > :afterId and w.updatedAt > :since "
+            + "order by w.productId")
+    List<Long> findIdsUpdatedAfter(@Param("afterId") Long afterId, @Param("since") Instant since,
+                                   Pageable pageable);
+
+    /**
+     * Returns the weekly rollups of several products over the weeks starting from {@code from} (included) to
+     * {@code to} (excluded).
+     */
+    @Query("select w from SalesWeek w where w.productId in :productIds and w.weekStart >= :from "
+            + "and w.weekStart < :to")
+    List<SalesWeek> findWeeks(@Param("productIds") Collection<Long> productIds, @Param("from") LocalDate from,
+                              @Param("to") LocalDate to);
+
+    /**
+     * Returns the first week with sales of each of the given products.
+     */
+    @Query("select w.productId as productId, min(w.weekStart) as weekStart from SalesWeek w "
+            + "where w.productId in :productIds group by w.productId")
+    List<FirstWeek> findFirstWeeks(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * First week with sales of a product.
+     */
+    interface FirstWeek {
+
+        Long getProductId();
+
+        LocalDate getWeekStart();
+    }
+}
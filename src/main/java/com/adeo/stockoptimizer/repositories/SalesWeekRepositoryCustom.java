@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesWeek;
+
+import java.util.List;
+
+public interface SalesWeekRepositoryCustom {
+
+    /**
+     * Adds quantities to the weekly rollups with JDBC batches: the quantities of each given week are added to
+     * its persisted row, which is created if missing, and its update time is replaced.
+     *
+     * @param increments Quantities to add, at most one per product and week.
+     */
+    void addSales(List<SalesWeek> increments);
+}
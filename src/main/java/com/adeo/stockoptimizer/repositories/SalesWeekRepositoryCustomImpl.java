@@ -0,0 +1,45 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesWeek;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.util.List;
+
+/**
+ * JDBC implementation of the rollup increments, with one {@code merge} statement per week: the row is
+ * incremented in the database, so concurrent ingestions never overwrite each other's totals.
+ */
+@RequiredArgsConstructor
+public class SalesWeekRepositoryCustomImpl implements SalesWeekRepositoryCustom {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String MERGE_WEEK = "merge into sales_week w using (values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)) "
+            + "s (product_id, week_start, monday, tuesday, wednesday, thursday, friday, saturday, sunday, updated_at) "
+            + "on w.product_id = s.product_id and w.week_start = s.week_start "
+            + "when matched then update set monday = w.monday + s.monday, tuesday = w.tuesday + s.tuesday, "
+            + "wednesday = w.wednesday + s.wednesday, thursday = w.thursday + s.thursday, "
+            + "friday = w.friday + s.friday, saturday = w.saturday + s.saturday, sunday = w.sunday + s.sunday, "
+            + "updated_at = s.updated_at "
+            + "when not matched then insert (product_id, week_start, monday, tuesday, wednesday, thursday, friday, "
+            + "saturday, sunday, updated_at) values (s.product_id, s.week_start, s.monday, s.tuesday, s.wednesday, "
+            + "s.thursday, s.friday, s.saturday, s.sunday, s.updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void addSales(List<SalesWeek> increments) {
+        jdbcTemplate.batchUpdate(MERGE_WEEK, increments, BATCH_SIZE, (statement, week) -> {
+            statement.setLong(1, week.getProductId());
+            statement.setObject(2, week.getWeekStart());
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                statement.setInt(2 + dayOfWeek.getValue(), week.getQuantity(dayOfWeek));
+            }
+            statement.setTimestamp(10, Timestamp.from(week.getUpdatedAt()));
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.enums.JobType;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.utils.OptimizationJob;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+public interface OptimizationJobService {
+
+    /**
+     * Submits an optimisation to run in the background.
+     * <p>
+     * Jobs run on a bounded pool: when every thread is busy and the queue is full, the job is rejected
+     * rather than queued. A job reports its progress through the given listener, which also stops it by
+     * throwing a {@link java.util.concurrent.CancellationException} once the job has been cancelled.
+     *
+     * @param type Kind of optimisation
+     * @param task Optimisation to run, returning the result of the job
+     * @return The queued job
+     * @throws java.util.concurrent.RejectedExecutionException If the queue of jobs is full
+     */
+    OptimizationJob submit(JobType type, Function<ProgressListener, ?> task);
+
+    /**
+     * Returns the current state of a job. Finished jobs are forgotten once their retention time is over.
+     *
+     * @param jobId Identifier of the job
+     * @return The job, or nothing if it is unknown or has expired
+     */
+    Optional<OptimizationJob> getJob(String jobId);
+
+    /**
+     * Cancels a job. A queued job never starts; a running job stops at its next progress report.
+     * Finished jobs are left unchanged.
+     *
+     * @param jobId Identifier of the job
+     * @return The job after cancellation, or nothing if it is unknown or has expired
+     */
+    Optional<OptimizationJob> cancel(String jobId);
+}
@@ -1,53 +1,455 @@
 package com.adeo.stockoptimizer.services;
 
 import com.adeo.stockoptimizer.models.PurchaseOrder;
+import com.adeo.stockoptimizer.simulation.MonteCarloResult;
+import com.adeo.stockoptimizer.simulation.PolicyCosts;
+import com.adeo.stockoptimizer.simulation.PolicyOptimizationResult;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.utils.MultipleEvaluation;
+import com.adeo.stockoptimizer.utils.OrderPage;
+import com.adeo.stockoptimizer.utils.ProductPlanResult;
+import com.adeo.stockoptimizer.utils.ReplanResult;
+import com.adeo.stockoptimizer.utils.ScenarioStockStats;
 import com.adeo.stockoptimizer.utils.StockStats;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface OrderOptimizationService {
 
     /**
-     * Calculates the list of orders for an entire year starting from January 6, 2025.
+     * Resolves the planning horizon of a request. Missing values fall back to the default horizon
+     * (January 6, 2025 to December 31, 2025 unless configured otherwise).
+     * <p>
+     * The horizon is given either by its end date or by its number of days, not both. Without any of them,
+     * it has the length of the default horizon.
+     *
+     * @param startDate   First simulated day, or {@code null} for the default start date
+     * @param endDate     Last simulated day (inclusive), or {@code null}
+     * @param horizonDays Number of simulated days, or {@code null}
+     * @return The planning horizon
+     * @throws IllegalArgumentException If the horizon is empty, too long, or both an end date and a number
+     *                                  of days are given
+     */
+    SimulationHorizon resolveHorizon(LocalDate startDate, LocalDate endDate, Integer horizonDays);
+
+    /**
+     * Calculates the list of orders over the default horizon, an entire year starting from January 6, 2025.
+     * The simulation is shared with the other calculations of the product using the same inputs.
      * <p>
      * The calculation considers the following constraints:
      * - Orders can only be placed on Mondays.
      * - An order is placed only if a stockout is expected within the week.
      * - Ordered quantities respect the specified order multiple.
      * - Daily sales are defined by the sales history (SalesProfile).
-     * - The starting stock is initialized with the value provided as a parameter.
-     * - The simulation ends on December 31, 2025.
+     * - The starting stock is initialized with the value provided as a parameter, or with the on-hand stock of
+     *   the product when none is provided.
+     * - The orders placed before the horizon and delivered during it are received on their delivery date.
+     * - The simulation ends on December 31, 2025 (end of the default horizon).
+     * - The generated orders replace the orders of the product placed from January 6, 2025.
      *
-     * @param initialStock Initial stock at the start of the period (e.g., 20 units)
+     * @param initialStock Initial stock at the start of the period (e.g., 20 units), or {@code null} to use the
+     *                     stock of the product
      * @param productId    Identifier of the product to manage (simplified for this example)
      * @return A list of generated and persisted {@link PurchaseOrder}
      */
-    List<PurchaseOrder> calculateOrderPlan(int initialStock, Long productId);
+    default List<PurchaseOrder> calculateOrderPlan(Integer initialStock, Long productId) {
+        return calculateOrderPlan(initialStock, productId, resolveHorizon(null, null, null), true);
+    }
+
+    /**
+     * Calculates the list of orders like {@link #calculateOrderPlan(Integer, Long)}, over the given horizon.
+     * The generated orders replace the orders of the product placed from the start of the horizon; the orders
+     * placed before it are read as deliveries in flight.
+     *
+     * @param initialStock Initial stock at the start of the horizon, or {@code null} to use the stock of the
+     *                     product
+     * @param productId    Identifier of the product to manage
+     * @param horizon      Simulated period
+     * @param useCache     {@code false} to simulate again instead of reusing a cached simulation
+     * @return A list of generated and persisted {@link PurchaseOrder}
+     */
+    List<PurchaseOrder> calculateOrderPlan(Integer initialStock, Long productId, SimulationHorizon horizon,
+                                           boolean useCache);
 
     /**
-     * Finds the optimal order multiple to minimize the average stock.
+     * Calculates the same order plan as {@link #calculateOrderPlan(Integer, Long)}, handing each order to the
+     * consumer.
      * <p>
-     * The calculation considers the following constraints:
-     * - The multiple must be greater than or equal to 5.
-     * - The multiple must ensure no stockouts.
-     * - The goal is to minimize the average stock over the period.
+     * The whole plan is replaced in one short transaction, then handed to the consumer outside of it: writing
+     * the orders to a slow client never holds a database connection.
+     *
+     * @param initialStock Initial stock at the start of the period, or {@code null} to use the stock of the
+     *                     product
+     * @param productId    Identifier of the product to manage
+     * @param consumer     Receiver of the generated orders, in chronological order
+     */
+    default void streamOrderPlan(Integer initialStock, Long productId, Consumer<PurchaseOrder> consumer) {
+        streamOrderPlan(initialStock, productId, resolveHorizon(null, null, null), consumer);
+    }
+
+    /**
+     * Streams the order plan like {@link #streamOrderPlan(Integer, Long, Consumer)}, over the given horizon.
+     *
+     * @param initialStock Initial stock at the start of the horizon, or {@code null} to use the stock of the
+     *                     product
+     * @param productId    Identifier of the product to manage
+     * @param horizon      Simulated period
+     * @param consumer     Receiver of the generated orders, in chronological order
+     */
+    void streamOrderPlan(Integer initialStock, Long productId, SimulationHorizon horizon,
+                         Consumer<PurchaseOrder> consumer);
+
+    /**
+     * Calculates and persists the order plans of several products.
      * <p>
-     * The process evaluates various multiples and simulates orders for each one.
+     * Products are processed by pages: the products, parameters and sales profiles of a page are loaded
+     * with set-based queries, then every product is simulated on the planning worker pool.
+     * A failing product is reported and does not stop the others.
+     *
+     * @param productIds   Identifiers of the products to plan, or {@code null} to plan every product
+     * @param initialStock Initial stock of every product, or {@code null} to use the stock of each product
+     * @return The outcome of each product, in product id order
+     */
+    default List<ProductPlanResult> calculateOrderPlans(Set<Long> productIds, Integer initialStock) {
+        return calculateOrderPlans(productIds, initialStock, resolveHorizon(null, null, null));
+    }
+
+    /**
+     * Calculates and persists the order plans of several products like
+     * {@link #calculateOrderPlans(Set, Integer)}, over the given horizon.
+     *
+     * @param productIds   Identifiers of the products to plan, or {@code null} to plan every product
+     * @param initialStock Initial stock of every product, or {@code null} to use the stock of each product
+     * @param horizon      Simulated period
+     * @return The outcome of each product, in product id order
+     */
+    default List<ProductPlanResult> calculateOrderPlans(Set<Long> productIds, Integer initialStock,
+                                                        SimulationHorizon horizon) {
+        return calculateOrderPlans(productIds, initialStock, horizon, ProgressListener.NONE);
+    }
+
+    /**
+     * Calculates and persists the order plans of several products like
+     * {@link #calculateOrderPlans(Set, Integer, SimulationHorizon)}, reporting the planned products
+     * after each page.
+     *
+     * @param productIds   Identifiers of the products to plan, or {@code null} to plan every product
+     * @param initialStock Initial stock of every product, or {@code null} to use the stock of each product
+     * @param horizon      Simulated period
+     * @param progress     Receiver of the number of planned products
+     * @return The outcome of each product, in product id order
+     */
+    List<ProductPlanResult> calculateOrderPlans(Set<Long> productIds, Integer initialStock, SimulationHorizon horizon,
+                                                ProgressListener progress);
+
+    /**
+     * Updates the persisted order plan of a product after a change of its sales profiles or parameters.
+     * <p>
+     * The plan is simulated again from the start of the week of the effective date, starting from the stock
+     * and the deliveries in transit recorded when the plan was last calculated. The orders placed before are
+     * kept, and only the orders that differ from the persisted ones are inserted, updated or deleted.
+     *
+     * @param productId Identifier of the product
+     * @param fromDate  Effective date of the change
+     * @return The number of changed orders, or empty if no plan of the product was recorded since the start
+     *         of the application or the date is after its horizon
+     */
+    Optional<ReplanResult> replanOrders(Long productId, LocalDate fromDate);
+
+    /**
+     * Evaluates every order multiple of a range and ranks them.
+     * <p>
+     * The calculation considers the following constraints:
+     * - The product inputs are loaded once and each candidate is simulated with its own multiple.
+     * - The orders placed before the period and delivered during it are received on their delivery date.
+     * - Candidates are evaluated in parallel.
+     * - The best candidate has the fewest stockout days, then the lowest average stock over the period,
+     *   then the fewest orders.
      *
      * @param initialStock Initial stock at the start of the period
      * @param productId    Identifier of the product (simplified for this example)
-     * @return The optimal multiple found
+     * @param minMultiple  Smallest evaluated multiple (at least 1)
+     * @param maxMultiple  Largest evaluated multiple
+     * @return The evaluated multiples, best first
+     */
+    default List<MultipleEvaluation> findOptimalMultiple(int initialStock, Long productId,
+                                                         int minMultiple, int maxMultiple) {
+        return findOptimalMultiple(initialStock, productId, minMultiple, maxMultiple,
+                resolveHorizon(null, null, null), true);
+    }
+
+    /**
+     * Evaluates and ranks order multiples like {@link #findOptimalMultiple(int, Long, int, int)},
+     * over the given horizon.
+     *
+     * @param initialStock Initial stock at the start of the horizon
+     * @param productId    Identifier of the product
+     * @param minMultiple  Smallest evaluated multiple (at least 1)
+     * @param maxMultiple  Largest evaluated multiple
+     * @param horizon      Simulated period
+     * @param useCache     {@code false} to simulate every candidate together in one batch instead of reusing
+     *                     cached simulations, when the product has no demand adjustment nor delivery in flight
+     * @return The evaluated multiples, best first
+     */
+    default List<MultipleEvaluation> findOptimalMultiple(int initialStock, Long productId, int minMultiple,
+                                                         int maxMultiple, SimulationHorizon horizon,
+                                                         boolean useCache) {
+        return findOptimalMultiple(initialStock, productId, minMultiple, maxMultiple, horizon, useCache,
+                ProgressListener.NONE);
+    }
+
+    /**
+     * Evaluates and ranks order multiples like
+     * {@link #findOptimalMultiple(int, Long, int, int, SimulationHorizon, boolean)}, reporting the evaluated
+     * multiples.
+     *
+     * @param initialStock Initial stock at the start of the horizon
+     * @param productId    Identifier of the product
+     * @param minMultiple  Smallest evaluated multiple (at least 1)
+     * @param maxMultiple  Largest evaluated multiple
+     * @param horizon      Simulated period
+     * @param useCache     {@code false} to simulate every candidate together in one batch instead of reusing
+     *                     cached simulations, when the product has no demand adjustment nor delivery in flight
+     * @param progress     Receiver of the number of evaluated multiples
+     * @return The evaluated multiples, best first
+     */
+    List<MultipleEvaluation> findOptimalMultiple(int initialStock, Long productId, int minMultiple, int maxMultiple,
+                                                 SimulationHorizon horizon, boolean useCache,
+                                                 ProgressListener progress);
+
+    /**
+     * Searches the order policy of a product: the days of the week on which orders may be placed, the order
+     * multiple and the safety stock, over the default horizon.
+     * <p>
+     * The calculation considers the following constraints:
+     * - Every non-empty set of order days is a candidate, not only Mondays.
+     * - An order is placed on an order day if the stock is expected to fall below the safety stock before
+     *   the next order day.
+     * - A policy costs the holding of its daily stock, its orders and its unmet demand.
+     * - Policies whose cost bounds are dominated by the policies already simulated are not simulated.
+     * - Nothing is persisted.
+     * - Products with demand adjustments are rejected: the search only knows the weekly demand.
+     *
+     * @param initialStock    Initial stock at the start of the period
+     * @param productId       Identifier of the product
+     * @param minMultiple     Smallest evaluated multiple (at least 1)
+     * @param maxMultiple     Largest evaluated multiple
+     * @param maxSafetyStock  Largest evaluated safety stock, safety stocks starting from 0
+     * @param safetyStockStep Step between two evaluated safety stocks
+     * @param costs           Cost function
+     * @return The cheapest policy and the Pareto front of the inventory and stockout costs
+     */
+    default PolicyOptimizationResult optimizeOrderPolicy(int initialStock, Long productId, int minMultiple,
+                                                         int maxMultiple, int maxSafetyStock, int safetyStockStep,
+                                                         PolicyCosts costs) {
+        return optimizeOrderPolicy(initialStock, productId, minMultiple, maxMultiple, maxSafetyStock,
+                safetyStockStep, costs, resolveHorizon(null, null, null));
+    }
+
+    /**
+     * Searches the order policy of a product like
+     * {@link #optimizeOrderPolicy(int, Long, int, int, int, int, PolicyCosts)}, over the given horizon.
+     *
+     * @param initialStock    Initial stock at the start of the horizon
+     * @param productId       Identifier of the product
+     * @param minMultiple     Smallest evaluated multiple (at least 1)
+     * @param maxMultiple     Largest evaluated multiple
+     * @param maxSafetyStock  Largest evaluated safety stock, safety stocks starting from 0
+     * @param safetyStockStep Step between two evaluated safety stocks
+     * @param costs           Cost function
+     * @param horizon         Simulated period
+     * @return The cheapest policy and the Pareto front of the inventory and stockout costs
+     * @throws IllegalArgumentException If a range is invalid or there are too many multiples and safety stocks
+     */
+    default PolicyOptimizationResult optimizeOrderPolicy(int initialStock, Long productId, int minMultiple,
+                                                         int maxMultiple, int maxSafetyStock, int safetyStockStep,
+                                                         PolicyCosts costs, SimulationHorizon horizon) {
+        return optimizeOrderPolicy(initialStock, productId, minMultiple, maxMultiple, maxSafetyStock,
+                safetyStockStep, costs, horizon, ProgressListener.NONE);
+    }
+
+    /**
+     * Searches the order policy of a product like
+     * {@link #optimizeOrderPolicy(int, Long, int, int, int, int, PolicyCosts, SimulationHorizon)}, reporting
+     * the explored sets of order days.
+     *
+     * @param initialStock    Initial stock at the start of the horizon
+     * @param productId       Identifier of the product
+     * @param minMultiple     Smallest evaluated multiple (at least 1)
+     * @param maxMultiple     Largest evaluated multiple
+     * @param maxSafetyStock  Largest evaluated safety stock, safety stocks starting from 0
+     * @param safetyStockStep Step between two evaluated safety stocks
+     * @param costs           Cost function
+     * @param horizon         Simulated period
+     * @param progress        Receiver of the number of explored sets of order days
+     * @return The cheapest policy and the Pareto front of the inventory and stockout costs
+     * @throws IllegalArgumentException If a range is invalid or there are too many multiples and safety stocks
      */
-    int findOptimalMultiple(int initialStock, Long productId);
+    PolicyOptimizationResult optimizeOrderPolicy(int initialStock, Long productId, int minMultiple, int maxMultiple,
+                                                 int maxSafetyStock, int safetyStockStep, PolicyCosts costs,
+                                                 SimulationHorizon horizon, ProgressListener progress);
 
     /**
-     * Calculates monthly stock statistics for a given period.
+     * Calculates monthly stock statistics for a given period: minimum, maximum and mean of the daily stock levels.
+     * The orders placed before the period and delivered during it are received on their delivery date, as in
+     * {@link #calculateOrderPlan(Integer, Long)}.
      *
      * @param initialStock Initial stock at the start of the period
      * @param productId    Identifier of the product
      * @return A map where the key is the month (String), and the value is an object containing
-     *         the minimum, maximum, and average stock levels for that month.
+     *         the minimum, maximum, and average stock levels for that month, in chronological order.
+     */
+    default Map<String, StockStats> calculateMonthlyStockStats(int initialStock, Long productId) {
+        return calculateMonthlyStockStats(initialStock, productId, resolveHorizon(null, null, null), true, false);
+    }
+
+    /**
+     * Calculates monthly stock statistics like {@link #calculateMonthlyStockStats(int, Long)},
+     * over the given horizon.
+     *
+     * @param initialStock Initial stock at the start of the horizon
+     * @param productId    Identifier of the product
+     * @param horizon         Simulated period
+     * @param useCache        {@code false} to simulate again instead of reusing a cached simulation
+     * @param withPercentiles Whether the median and the 95th percentile of each month are computed
+     * @return The statistics of each month, keyed by month, in chronological order
+     */
+    Map<String, StockStats> calculateMonthlyStockStats(int initialStock, Long productId, SimulationHorizon horizon,
+                                                       boolean useCache, boolean withPercentiles);
+
+    /**
+     * Calculates the same statistics as {@link #calculateMonthlyStockStats(int, Long)}, handing each month
+     * to the consumer as soon as its last day has been simulated.
+     *
+     * @param initialStock Initial stock at the start of the period
+     * @param productId    Identifier of the product
+     * @param consumer     Receiver of the month (in "YYYY-MM" format) and of its statistics, in chronological order
+     */
+    default void streamMonthlyStockStats(int initialStock, Long productId, BiConsumer<String, StockStats> consumer) {
+        streamMonthlyStockStats(initialStock, productId, resolveHorizon(null, null, null), false, consumer);
+    }
+
+    /**
+     * Streams monthly stock statistics like {@link #streamMonthlyStockStats(int, Long, BiConsumer)},
+     * over the given horizon.
+     *
+     * @param initialStock Initial stock at the start of the horizon
+     * @param productId    Identifier of the product
+     * @param horizon         Simulated period
+     * @param withPercentiles Whether the median and the 95th percentile of each month are computed
+     * @param consumer        Receiver of the month (in "YYYY-MM" format) and of its statistics, in chronological order
+     */
+    void streamMonthlyStockStats(int initialStock, Long productId, SimulationHorizon horizon, boolean withPercentiles,
+                                 BiConsumer<String, StockStats> consumer);
+
+    /**
+     * Calculates the minimum, maximum and average stock of the persisted plan of a product over a range of dates.
+     * <p>
+     * The daily stock levels are those kept off-heap when the plan was last calculated or re-planned: nothing is
+     * simulated or loaded from the database.
+     *
+     * @param productId Identifier of the product
+     * @param from      First date of the range
+     * @param to        Last date of the range (inclusive)
+     * @return The statistics of the planned days of the range, or empty if no plan of the product was kept or
+     *         the range is outside of its horizon
+     * @throws IllegalArgumentException If the end date is before the start date
+     */
+    Optional<StockStats> getPlannedStockStats(Long productId, LocalDate from, LocalDate to);
+
+    /**
+     * Lists the persisted orders of a product placed over a range of dates, one page at a time, in (order date,
+     * id) order.
+     * <p>
+     * Pages are read by keyset: each page starts right after the last order of the previous one, whatever the
+     * number of pages before, and the orders are read straight into DTOs without loading the entities.
+     *
+     * @param productId      Identifier of the product
+     * @param from           First order date of the range
+     * @param to             Last order date of the range (inclusive)
+     * @param afterOrderDate Order date of the last order of the previous page, or {@code null} for the first page
+     * @param afterId        Id of the last order of the previous page, or {@code null} for the first page
+     * @param size           Maximum number of orders of the page
+     * @return The page, and the position of the next one if there are more orders
+     * @throws IllegalArgumentException If the end date is before the start date, the position of the previous
+     *                                  page is incomplete or the size is out of range
+     */
+    OrderPage findOrders(Long productId, LocalDate from, LocalDate to, LocalDate afterOrderDate, Long afterId,
+                         int size);
+
+    /**
+     * Calculates the stock statistics of every combination of initial stock, order multiple and delivery
+     * lead time of a product. The scenarios are simulated together in one batch, or one by one when the product
+     * has demand adjustments, and nothing is persisted.
+     *
+     * @param productId         Identifier of the product
+     * @param initialStocks     Evaluated initial stocks, or empty for the initial stock of the product
+     * @param orderMultiples    Evaluated order multiples, or empty for the multiple of the product
+     * @param deliveryLeadTimes Evaluated delivery lead times, or empty for the lead time of the product
+     * @param horizon           Simulated period
+     * @return The statistics of each scenario, initial stocks varying slowest and lead times fastest
+     * @throws IllegalArgumentException If there are too many scenarios or a multiple or lead time is invalid
+     */
+    List<ScenarioStockStats> calculateScenarioStockStats(Long productId, List<Integer> initialStocks,
+                                                         List<Integer> orderMultiples,
+                                                         List<Integer> deliveryLeadTimes, SimulationHorizon horizon);
+
+    /**
+     * Simulates the stock of a product under stochastic demand, over the default horizon.
+     * <p>
+     * The calculation considers the following constraints:
+     * - The quantity sold each day follows a Poisson distribution whose mean is the sales profile of that day.
+     * - Orders are placed as in {@link #calculateOrderPlan(Integer, Long)}, the sales profile being the forecast.
+     * - Replications are simulated in parallel and only depend on the seed.
+     * - Nothing is persisted.
+     *
+     * @param initialStock Initial stock at the start of the period
+     * @param productId    Identifier of the product
+     * @param replications Number of simulated replications
+     * @param seed         Seed of the random streams, or {@code null} to draw one
+     * @return The service level, stockout probability and stock percentiles, overall and per month
+     */
+    default MonteCarloResult simulateDemandRisk(int initialStock, Long productId, int replications, Long seed) {
+        return simulateDemandRisk(initialStock, productId, resolveHorizon(null, null, null), replications, seed);
+    }
+
+    /**
+     * Simulates the stock under stochastic demand like {@link #simulateDemandRisk(int, Long, int, Long)},
+     * over the given horizon.
+     *
+     * @param initialStock Initial stock at the start of the horizon
+     * @param productId    Identifier of the product
+     * @param horizon      Simulated period
+     * @param replications Number of simulated replications
+     * @param seed         Seed of the random streams, or {@code null} to draw one
+     * @return The service level, stockout probability and stock percentiles, overall and per month
+     * @throws IllegalArgumentException If the number of replications is out of range
+     */
+    default MonteCarloResult simulateDemandRisk(int initialStock, Long productId, SimulationHorizon horizon,
+                                                int replications, Long seed) {
+        return simulateDemandRisk(initialStock, productId, horizon, replications, seed, ProgressListener.NONE);
+    }
+
+    /**
+     * Simulates the stock under stochastic demand like
+     * {@link #simulateDemandRisk(int, Long, SimulationHorizon, int, Long)}, reporting the simulated replications.
+     *
+     * @param initialStock Initial stock at the start of the horizon
+     * @param productId    Identifier of the product
+     * @param horizon      Simulated period
+     * @param replications Number of simulated replications
+     * @param seed         Seed of the random streams, or {@code null} to draw one
+     * @param progress     Receiver of the number of simulated replications
+     * @return The service level, stockout probability and stock percentiles, overall and per month
+     * @throws IllegalArgumentException If the number of replications is out of range
      */
-    Map<String, StockStats> calculateMonthlyStockStats(int initialStock, Long productId);
+    MonteCarloResult simulateDemandRisk(int initialStock, Long productId, SimulationHorizon horizon,
+                                        int replications, Long seed, ProgressListener progress);
 }
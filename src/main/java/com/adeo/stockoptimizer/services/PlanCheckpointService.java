@@ -0,0 +1,26 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.simulation.PlanCheckpoints;
+
+import java.util.Optional;
+
+public interface PlanCheckpointService {
+
+    /**
+     * Keeps the weekly checkpoints of the persisted plan of a product, replacing the previous ones.
+     * Checkpoints are held in memory and evicted when their memory budget is exceeded.
+     *
+     * @param productId   Identifier of the product
+     * @param checkpoints Checkpoints of the simulation the persisted plan comes from
+     */
+    void save(Long productId, PlanCheckpoints checkpoints);
+
+    /**
+     * Returns the checkpoints of the persisted plan of a product.
+     *
+     * @param productId Identifier of the product
+     * @return The checkpoints, or nothing if no plan of the product was calculated since the application
+     *         started or they were evicted
+     */
+    Optional<PlanCheckpoints> get(Long productId);
+}
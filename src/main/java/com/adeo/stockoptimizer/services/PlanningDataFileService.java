@@ -0,0 +1,50 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.simulation.PlanningDataFile;
+import com.adeo.stockoptimizer.utils.PlanningDataExport;
+
+import java.util.Optional;
+
+public interface PlanningDataFileService {
+
+    /**
+     * Returns the planning data of a product from the memory-mapped planning data file.
+     *
+     * @param productId Identifier of the product
+     * @return The planning data of the product, or nothing if no file is mapped, the file does not contain the
+     *         product or the product was modified since the file was written
+     */
+    Optional<PlanningDataFile.Entry> find(Long productId);
+
+    /**
+     * Records that the planning data of a product was modified through JPA: the file no longer serves it until
+     * the next export.
+     *
+     * @param productId Identifier of the modified product, ignored when {@code null}
+     */
+    void markStale(Long productId);
+
+    /**
+     * Records that any planning data may have been modified: the file no longer serves any product until the
+     * next export.
+     */
+    void markAllStale();
+
+    /**
+     * Tells whether the mapped file serves every product it contains.
+     *
+     * @return {@code false} if no file is mapped or a product was modified since the file was written
+     */
+    boolean isUpToDate();
+
+    /**
+     * Writes the planning data of every product, read through JPA by pages of {@code batch-size} products,
+     * to the planning data file, then maps the new file in place of the previous one.
+     * <p>
+     * Products without calculation parameters or sales profiles are left out of the file. Products modified
+     * during the export are not served by the new file until the next export.
+     *
+     * @return The outcome of the export, or nothing if no file is configured or another export is in progress
+     */
+    Optional<PlanningDataExport> export();
+}
@@ -0,0 +1,40 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.utils.ReplanRun;
+
+import java.util.Optional;
+
+public interface PlanningJournalService {
+
+    /**
+     * Records in the change journal that the order plan of a product is outdated, because its sales profiles
+     * or calculation parameters changed.
+     *
+     * @param productId Identifier of the product, ignored if {@code null}
+     */
+    void markChanged(Long productId);
+
+    /**
+     * Returns the number of products waiting in the change journal.
+     */
+    long countChanged();
+
+    /**
+     * Calculates and persists the order plans of the products of the change journal, over the default horizon
+     * and from the stock of each product.
+     * <p>
+     * Products are planned by pages, like a bulk run, on the planning worker pool. The entries of a page are
+     * removed from the journal once its plans are persisted, so a run stopped by a restart resumes where it
+     * stopped. Products that fail, or change again during the run, stay in the journal.
+     *
+     * @param progress Receiver of the number of processed products
+     * @return The outcome of the run, or nothing if another run is in progress
+     */
+    Optional<ReplanRun> replanChangedProducts(ProgressListener progress);
+
+    /**
+     * Returns the outcome of the last run since the application started.
+     */
+    Optional<ReplanRun> getLastRun();
+}
@@ -0,0 +1,39 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.utils.PlanningCacheStats;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+
+public interface PlanningSnapshotService {
+
+    /**
+     * Returns the planning snapshot of a product, loading and compiling it on the first request. The planning
+     * data file is read instead of the repositories when it serves the product.
+     * <p>
+     * Snapshots are cached in memory: they are evicted when the cache is full or too old, and must be
+     * invalidated whenever the product, its calculation parameters or its sales profiles are modified.
+     *
+     * @param productId Identifier of the product
+     * @return The product and its compiled planning inputs
+     * @throws IllegalArgumentException If the product, its parameters or its sales profiles are missing
+     */
+    PlanningSnapshot getSnapshot(Long productId);
+
+    /**
+     * Discards the cached snapshot of a product, if any, and stops serving it from the planning data file.
+     *
+     * @param productId Identifier of the modified product, ignored when {@code null}
+     */
+    void invalidate(Long productId);
+
+    /**
+     * Discards every cached snapshot and stops serving any product from the planning data file.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     *
+     * @return The statistics of the cache
+     */
+    PlanningCacheStats getStats();
+}
@@ -0,0 +1,41 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.models.SalesEvent;
+import com.adeo.stockoptimizer.utils.SalesProfileRefresh;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface SalesHistoryService {
+
+    /**
+     * Appends sales events to the history and adds their quantities to the weekly rollups of their products,
+     * in one transaction.
+     *
+     * @param events Events to record; their generated ids are set.
+     * @return The number of recorded events.
+     * @throws IllegalArgumentException If an event has no product or no sale date.
+     */
+    int recordSales(List<SalesEvent> events);
+
+    /**
+     * Replaces the sales profiles of the products with the average sales of each weekday over the last
+     * {@code sales-history-weeks} complete weeks before the week of {@code asOf}, or since the first week with
+     * sales of a product if it is more recent.
+     * <p>
+     * Only the weekly rollups are read, not the events. While the averaged weeks stay the same, only the
+     * products with sales recorded since the previous refresh are read; all the products with sales are read
+     * again when a new week starts. The products whose profiles change are marked as changed for the nightly
+     * re-plan.
+     *
+     * @param asOf Day of the refresh; its week is not averaged, being incomplete.
+     * @return The outcome of the refresh, or nothing if another refresh is in progress.
+     */
+    Optional<SalesProfileRefresh> refreshSalesProfiles(LocalDate asOf);
+
+    /**
+     * Returns the outcome of the last refresh since the application started.
+     */
+    Optional<SalesProfileRefresh> getLastRefresh();
+}
@@ -0,0 +1,63 @@
+package com.adeo.stockoptimizer.services;
+
+import com.adeo.stockoptimizer.simulation.CheckpointedSimulation;
+import com.adeo.stockoptimizer.simulation.PendingDeliveries;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.SimulationListener;
+import com.adeo.stockoptimizer.simulation.SimulationResult;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+
+public interface SimulationService {
+
+    /**
+     * Simulates a product over a horizon, reusing the result of an identical earlier simulation if possible.
+     * <p>
+     * Results are cached by product, snapshot version, initial stock, order multiple and horizon, so that the
+     * calculations of one product with the same inputs share one simulation. A new snapshot version makes
+     * the older results unreachable. The returned arrays are shared and must not be modified.
+     *
+     * @param snapshot      Planning snapshot of the product
+     * @param orderMultiple Order multiple to simulate with, possibly different from the product's own
+     * @param initialStock  Initial stock at the start of the horizon
+     * @param horizon       Simulated period
+     * @param useCache      {@code false} to always simulate and leave the cache untouched
+     * @return The result of the simulation
+     */
+    default SimulationResult simulate(PlanningSnapshot snapshot, int orderMultiple, int initialStock,
+                                      SimulationHorizon horizon, boolean useCache) {
+        return simulate(snapshot, orderMultiple, initialStock, PendingDeliveries.NONE, horizon, useCache);
+    }
+
+    /**
+     * Simulates a product over a horizon starting with deliveries already pending, reusing the result of an
+     * identical earlier simulation if possible. The pending deliveries are part of the cache key.
+     *
+     * @param snapshot      Planning snapshot of the product
+     * @param orderMultiple Order multiple to simulate with, possibly different from the product's own
+     * @param initialStock  Initial stock at the start of the horizon
+     * @param pending       Deliveries ordered before the horizon
+     * @param horizon       Simulated period
+     * @param useCache      {@code false} to always simulate and leave the cache untouched
+     * @return The result of the simulation
+     * @see #simulate(PlanningSnapshot, int, int, SimulationHorizon, boolean)
+     */
+    SimulationResult simulate(PlanningSnapshot snapshot, int orderMultiple, int initialStock,
+                              PendingDeliveries pending, SimulationHorizon horizon, boolean useCache);
+
+    /**
+     * Simulates a product over a horizon with its own order multiple, stepping every day to capture the
+     * checkpoints of its plan and handing every event to the listener. Checkpoints are not cached, so the
+     * simulation always runs; its result is then cached for the calculations sharing the same inputs.
+     *
+     * @param snapshot     Planning snapshot of the product
+     * @param initialStock Initial stock at the start of the horizon
+     * @param pending      Deliveries ordered before the horizon
+     * @param horizon      Simulated period
+     * @param listener     Receiver of the daily stock levels and of the orders
+     * @param useCache     {@code false} to leave the cache untouched
+     * @return The result of the simulation and its weekly checkpoints
+     */
+    CheckpointedSimulation simulateWithCheckpoints(PlanningSnapshot snapshot, int initialStock,
+                                                   PendingDeliveries pending, SimulationHorizon horizon,
+                                                   SimulationListener listener, boolean useCache);
+}
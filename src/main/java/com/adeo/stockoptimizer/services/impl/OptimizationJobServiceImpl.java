@@ -0,0 +1,188 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.enums.JobStatus;
+import com.adeo.stockoptimizer.enums.JobType;
+import com.adeo.stockoptimizer.services.OptimizationJobService;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.utils.OptimizationJob;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+
+@Service
+public class OptimizationJobServiceImpl implements OptimizationJobService {
+
+    private final ExecutorService jobExecutor;
+    private final Cache<String, Job> jobs;
+
+    public OptimizationJobServiceImpl(@Qualifier("jobExecutor") ExecutorService jobExecutor,
+                                      PlanningProperties planningProperties) {
+        this.jobExecutor = jobExecutor;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new FinishedJobExpiry(planningProperties.getJobResultTtl().toNanos()))
+                .build();
+    }
+
+    @Override
+    public OptimizationJob submit(JobType type, Function<ProgressListener, ?> task) {
+        Job job = new Job(UUID.randomUUID().toString(), type, Instant.now());
+        jobs.put(job.id, job);
+        try {
+            job.future = jobExecutor.submit(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    @Override
+    public Optional<OptimizationJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(Job::snapshot);
+    }
+
+    @Override
+    public Optional<OptimizationJob> cancel(String jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (job.cancel()) {
+            Future<?> future = job.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+            if (jobExecutor instanceof ThreadPoolExecutor pool) {
+                // Frees the place of a cancelled queued job right away
+                pool.purge();
+            }
+            jobs.asMap().replace(jobId, job);
+        }
+        return Optional.of(job.snapshot());
+    }
+
+    /**
+     * Runs a job on a worker thread, unless it was cancelled while queued, and records its outcome.
+     *
+     * @param job  Job to run.
+     * @param task Optimisation of the job.
+     */
+    private void run(Job job, Function<ProgressListener, ?> task) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            job.finish(JobStatus.SUCCEEDED, task.apply(job::onProgress), null);
+        } catch (CancellationException e) {
+            job.finish(JobStatus.CANCELLED, null, null);
+        } catch (RuntimeException e) {
+            job.finish(JobStatus.FAILED, null, e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            job.finish(JobStatus.FAILED, null, "Job aborted");
+            // Updating the entry starts the retention time of the finished job
+            jobs.asMap().replace(job.id, job);
+        }
+    }
+
+    /**
+     * Mutable state of a job, shared between the worker running it and the threads polling it.
+     */
+    private static final class Job {
+
+        private final String id;
+        private final JobType type;
+        private final Instant submittedAt;
+        private volatile Future<?> future;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile long completed;
+        private volatile long total;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile Object result;
+
+        private Job(String id, JobType type, Instant submittedAt) {
+            this.id = id;
+            this.type = type;
+            this.submittedAt = submittedAt;
+        }
+
+        private synchronized boolean start() {
+            if (status != JobStatus.QUEUED) {
+                return false;
+            }
+            status = JobStatus.RUNNING;
+            startedAt = Instant.now();
+            return true;
+        }
+
+        /**
+         * Records the outcome of the job, unless it is already finished (a cancelled job stays cancelled).
+         */
+        private synchronized void finish(JobStatus outcome, Object result, String error) {
+            if (status.isFinished()) {
+                return;
+            }
+            this.result = result;
+            this.error = error;
+            finishedAt = Instant.now();
+            status = outcome;
+        }
+
+        private synchronized boolean cancel() {
+            if (status.isFinished()) {
+                return false;
+            }
+            status = JobStatus.CANCELLED;
+            finishedAt = Instant.now();
+            return true;
+        }
+
+        private void onProgress(long completed, long total) {
+            if (status == JobStatus.CANCELLED) {
+                throw new CancellationException("Job " + id + " was cancelled");
+            }
+            this.completed = completed;
+            this.total = total;
+        }
+
+        private synchronized OptimizationJob snapshot() {
+            return new OptimizationJob(id, type, status, completed, total, submittedAt, startedAt, finishedAt,
+                    error, result);
+        }
+    }
+
+    /**
+     * Keeps jobs as long as they are queued or running, and finished jobs for the retention time.
+     */
+    private record FinishedJobExpiry(long ttlNanos) implements Expiry<String, Job> {
+
+        @Override
+        public long expireAfterCreate(String jobId, Job job, long currentTime) {
+            return job.status.isFinished() ? ttlNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String jobId, Job job, long currentTime, long currentDuration) {
+            return job.status.isFinished() ? ttlNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterRead(String jobId, Job job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,322 +1,802 @@
 package com.adeo.stockoptimizer.services.impl;
 
+import com.adeo.stockoptimizer.config.PlanningMetrics;
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.dtos.OrderDTO;
+import com.adeo.stockoptimizer.enums.PlanningOperation;
+import com.adeo.stockoptimizer.enums.PlanningPhase;
 import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
 import com.adeo.stockoptimizer.models.Product;
 import com.adeo.stockoptimizer.models.PurchaseOrder;
 import com.adeo.stockoptimizer.models.SalesProfile;
 import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
 import com.adeo.stockoptimizer.repositories.ProductRepository;
 import com.adeo.stockoptimizer.repositories.PurchaseOrderRepository;
+import com.adeo.stockoptimizer.repositories.PurchaseOrderRepository.IncomingDelivery;
 import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
 import com.adeo.stockoptimizer.services.OrderOptimizationService;
-import com.adeo.stockoptimizer.utils.SimOrder;
+import com.adeo.stockoptimizer.services.PlanCheckpointService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.services.SimulationService;
+import com.adeo.stockoptimizer.simulation.BatchSimulationResult;
+import com.adeo.stockoptimizer.simulation.BatchStockSimulator;
+import com.adeo.stockoptimizer.simulation.CheckpointedSimulation;
+import com.adeo.stockoptimizer.simulation.DemandCalendar;
+import com.adeo.stockoptimizer.simulation.MonteCarloResult;
+import com.adeo.stockoptimizer.simulation.MonteCarloSimulator;
+import com.adeo.stockoptimizer.simulation.MonthlyStatsAccumulator;
+import com.adeo.stockoptimizer.simulation.OrderPolicyOptimizer;
+import com.adeo.stockoptimizer.simulation.PendingDeliveries;
+import com.adeo.stockoptimizer.simulation.PlanCheckpoints;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.simulation.PolicyCosts;
+import com.adeo.stockoptimizer.simulation.PolicyOptimizationResult;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.simulation.ScenarioBatch;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.SimulationListener;
+import com.adeo.stockoptimizer.simulation.SimulationResult;
+import com.adeo.stockoptimizer.simulation.StockSimulator;
+import com.adeo.stockoptimizer.simulation.TrajectoryStore;
+import com.adeo.stockoptimizer.utils.MultipleEvaluation;
+import com.adeo.stockoptimizer.utils.OrderPage;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+import com.adeo.stockoptimizer.utils.ProductPlanResult;
+import com.adeo.stockoptimizer.utils.ReplanResult;
+import com.adeo.stockoptimizer.utils.ScenarioStockStats;
 import com.adeo.stockoptimizer.utils.StockStats;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static com.adeo.stockoptimizer.utils.StockOptimizerUtils.isMonday;
-import static com.adeo.stockoptimizer.utils.StockOptimizerUtils.roundUpToMultiple;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class OrderOptimizationServiceImpl implements OrderOptimizationService {
 
+    /**
+     * Version of the trajectories of bulk runs, which load their inputs without a planning snapshot, of the
+     * plans starting with deliveries in flight and of the plans resumed from a checkpoint: they serve range
+     * queries but are never replayed as the simulation of a snapshot.
+     */
+    private static final long UNVERSIONED = -1;
+
     private final ProductRepository productRepository;
     private final CalculationParametersRepository calcParamRepository;
     private final SalesProfileRepository salesProfileRepository;
+    private final DemandAdjustmentRepository demandAdjustmentRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PlanningSnapshotService planningSnapshotService;
+    private final PlanCheckpointService planCheckpointService;
+    private final SimulationService simulationService;
+    private final TrajectoryStore trajectoryStore;
+    private final PlanningMetrics planningMetrics;
+    private final PlanningProperties planningProperties;
+    @Qualifier("planningExecutor")
+    private final Executor planningExecutor;
 
-    private static final LocalDate START_DATE = LocalDate.of(2025, 1, 6);
-    private static final LocalDate END_DATE = LocalDate.of(2025, 12, 31);
+    @Override
+    public SimulationHorizon resolveHorizon(LocalDate startDate, LocalDate endDate, Integer horizonDays) {
+        if (endDate != null && horizonDays != null) {
+            throw new IllegalArgumentException("Horizon must be given by an end date or a number of days, not both");
+        }
+        LocalDate start = startDate != null ? startDate : planningProperties.getDefaultStartDate();
+        long days;
+        if (horizonDays != null) {
+            days = horizonDays;
+        } else if (endDate != null) {
+            days = ChronoUnit.DAYS.between(start, endDate) + 1;
+        } else {
+            days = ChronoUnit.DAYS.between(planningProperties.getDefaultStartDate(),
+                    planningProperties.getDefaultEndDate()) + 1;
+        }
+        if (days < 1 || days > planningProperties.getMaxHorizonDays()) {
+            throw new IllegalArgumentException("Invalid horizon length: " + days + " days (maximum "
+                    + planningProperties.getMaxHorizonDays() + ")");
+        }
+        return new SimulationHorizon(start, (int) days);
+    }
 
     @Override
-    public List<PurchaseOrder> calculateOrderPlan(int initialStock, Long productId) {
-        Product product = validateAndLoadProduct(productId);
-        CalculationParameters params = validateAndLoadParameters(productId);
-        List<SalesProfile> weeklySalesProfiles = validateAndLoadSalesProfiles(productId);
+    public List<PurchaseOrder> calculateOrderPlan(Integer initialStock, Long productId, SimulationHorizon horizon,
+                                                  boolean useCache) {
+        long start = planningMetrics.start();
+        PlanningSnapshot snapshot = planningSnapshotService.getSnapshot(productId);
+        PlanningInput input = snapshot.input();
+        int stock = initialStock != null ? initialStock : snapshot.product().getInitialStock();
+        PendingDeliveries pending = loadPendingDeliveries(List.of(productId), horizon)
+                .getOrDefault(productId, PendingDeliveries.NONE);
+        long phase = planningMetrics.record(PlanningOperation.ORDER_PLAN, PlanningPhase.LOAD, start);
+
+        CheckpointedSimulation simulation = simulationService.simulateWithCheckpoints(snapshot, stock, pending,
+                horizon, trajectoryStore.writer(productId, trajectoryVersion(snapshot.version(), pending), stock,
+                        horizon), useCache);
+        List<PurchaseOrder> purchaseOrders =
+                toPurchaseOrders(simulation.result(), snapshot.product(), input.deliveryLeadTime(), horizon);
+        PlanCheckpoints checkpoints = simulation.checkpoints();
+        phase = planningMetrics.record(PlanningOperation.ORDER_PLAN, PlanningPhase.SIMULATION, phase);
+
+        purchaseOrderRepository.replacePlan(productId, horizon.start(), purchaseOrders);
+        planCheckpointService.save(productId, checkpoints);
+        planningMetrics.record(PlanningOperation.ORDER_PLAN, PlanningPhase.PERSISTENCE, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.ORDER_PLAN, horizon.days());
+        planningMetrics.countOrders(PlanningOperation.ORDER_PLAN, purchaseOrders.size());
+        return purchaseOrders;
+    }
 
+    @Override
+    public void streamOrderPlan(Integer initialStock, Long productId, SimulationHorizon horizon,
+                                Consumer<PurchaseOrder> consumer) {
+        long start = planningMetrics.start();
+        PlanningSnapshot snapshot = planningSnapshotService.getSnapshot(productId);
+        Product product = snapshot.product();
+        PlanningInput input = snapshot.input();
+        int leadTime = input.deliveryLeadTime();
+        int stock = initialStock != null ? initialStock : product.getInitialStock();
+        PendingDeliveries pending = loadPendingDeliveries(List.of(productId), horizon)
+                .getOrDefault(productId, PendingDeliveries.NONE);
         List<PurchaseOrder> purchaseOrders = new ArrayList<>();
-        simulateAnnualOrders(initialStock, product, weeklySalesProfiles, params, purchaseOrders);
-
-        purchaseOrderRepository.saveAll(purchaseOrders);
-        return purchaseOrders;
+        SimulationListener trajectory =
+                trajectoryStore.writer(productId, trajectoryVersion(snapshot.version(), pending), stock, horizon);
+        long phase = planningMetrics.record(PlanningOperation.ORDER_PLAN_STREAM, PlanningPhase.LOAD, start);
+
+        PlanCheckpoints checkpoints = StockSimulator.runWithCheckpoints(input, stock, pending, horizon,
+                new SimulationListener() {
+                    @Override
+                    public void onDay(int day, int stock, int unmetDemand) {
+                        trajectory.onDay(day, stock, unmetDemand);
+                    }
+
+                    @Override
+                    public void onOrder(int day, int quantity) {
+                        purchaseOrders.add(toPurchaseOrder(horizon.dateOf(day), quantity, product, leadTime));
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        trajectory.onComplete();
+                    }
+                });
+        phase = planningMetrics.record(PlanningOperation.ORDER_PLAN_STREAM, PlanningPhase.SIMULATION, phase);
+
+        // The plan is replaced in the short transaction of the repository: the orders are only handed to the
+        // consumer once it is committed, so a slow or disconnected client never holds a connection or a lock
+        purchaseOrderRepository.replacePlan(productId, horizon.start(), purchaseOrders);
+        planCheckpointService.save(productId, checkpoints);
+        planningMetrics.record(PlanningOperation.ORDER_PLAN_STREAM, PlanningPhase.PERSISTENCE, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.ORDER_PLAN_STREAM, horizon.days());
+        planningMetrics.countOrders(PlanningOperation.ORDER_PLAN_STREAM, purchaseOrders.size());
+        purchaseOrders.forEach(consumer);
     }
 
     @Override
-    public int findOptimalMultiple(int initialStock, Long productId) {
-        validateAndLoadProduct(productId);
+    public List<ProductPlanResult> calculateOrderPlans(Set<Long> productIds, Integer initialStock,
+                                                       SimulationHorizon horizon, ProgressListener progress) {
+        int batchSize = planningProperties.getBatchSize();
+        List<ProductPlanResult> results = new ArrayList<>();
+
+        if (productIds == null) {
+            // Products created during the run are planned too: the total is only an estimate
+            long total = productRepository.count();
+            List<Long> page = productRepository.findIdsAfter(Long.MIN_VALUE, PageRequest.of(0, batchSize));
+            while (!page.isEmpty()) {
+                results.addAll(calculateOrderPlanPage(page, initialStock, horizon));
+                progress.onProgress(results.size(), Math.max(total, results.size()));
+                page = productRepository.findIdsAfter(page.get(page.size() - 1), PageRequest.of(0, batchSize));
+            }
+        } else {
+            List<Long> sortedIds = productIds.stream().sorted().toList();
+            for (int from = 0; from < sortedIds.size(); from += batchSize) {
+                List<Long> page = sortedIds.subList(from, Math.min(from + batchSize, sortedIds.size()));
+                results.addAll(calculateOrderPlanPage(page, initialStock, horizon));
+                progress.onProgress(results.size(), sortedIds.size());
+            }
+        }
+        return results;
+    }
 
-        final int MIN_MULTIPLE = 5;
-        final int MAX_MULTIPLE = 30;
+    @Override
+    public Optional<ReplanResult> replanOrders(Long productId, LocalDate fromDate) {
+        Optional<PlanCheckpoints> recorded = planCheckpointService.get(productId);
+        if (recorded.isEmpty()) {
+            return Optional.empty();
+        }
+        PlanCheckpoints checkpoints = recorded.get();
+        int checkpoint = checkpoints.checkpointOn(fromDate);
+        if (checkpoint == checkpoints.count()) {
+            return Optional.empty();
+        }
+        long start = planningMetrics.start();
+        PlanningSnapshot snapshot = planningSnapshotService.getSnapshot(productId);
+        Product product = snapshot.product();
+        PlanningInput input = snapshot.input();
+        int leadTime = input.deliveryLeadTime();
+        LocalDate replanStart = checkpoints.horizon().dateOf(checkpoints.dayOf(checkpoint));
+        List<PurchaseOrder> persistedPlan =
+                purchaseOrderRepository.findByProductIdAndOrderDateGreaterThanEqual(productId, replanStart);
+        long phase = planningMetrics.record(PlanningOperation.REPLAN, PlanningPhase.LOAD, start);
+
+        List<PurchaseOrder> plannedOrders = new ArrayList<>();
+        // The days before the checkpoint were simulated from the inputs of the previous plan, and the deliveries
+        // pending on its first day were in flight when it was calculated: only a plan simulated again from its
+        // first day, without deliveries in flight, is the simulation of the snapshot
+        long version = checkpoint == 0 && checkpoints.pendingAt(0).length == 0 ? snapshot.version() : UNVERSIONED;
+        SimulationListener trajectory = trajectoryStore.resumeWriter(productId, version, checkpoints.dayOf(checkpoint));
+        PlanCheckpoints resumed = StockSimulator.resume(input, checkpoints, checkpoint, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                trajectory.onDay(day, stock, unmetDemand);
+            }
 
-        int bestMultiple = MIN_MULTIPLE;
-        double lowestAverageStock = Double.MAX_VALUE;
+            @Override
+            public void onOrder(int day, int quantity) {
+                plannedOrders.add(toPurchaseOrder(replanStart.plusDays(day), quantity, product, leadTime));
+            }
 
-        for (int multiple = MIN_MULTIPLE; multiple <= MAX_MULTIPLE; multiple++) {
-            double averageStock = simulateAndCalculateAverageStock(initialStock, productId, multiple);
-            if (averageStock < lowestAverageStock) {
-                lowestAverageStock = averageStock;
-                bestMultiple = multiple;
+            @Override
+            public void onComplete() {
+                trajectory.onComplete();
+            }
+        });
+        phase = planningMetrics.record(PlanningOperation.REPLAN, PlanningPhase.SIMULATION, phase);
+
+        Map<LocalDate, PurchaseOrder> persistedOrders = new HashMap<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (PurchaseOrder persisted : persistedPlan) {
+            PurchaseOrder duplicate = persistedOrders.put(persisted.getOrderDate(), persisted);
+            if (duplicate != null) {
+                deletedIds.add(duplicate.getId());
+            }
+        }
+        List<PurchaseOrder> insertedOrders = new ArrayList<>();
+        List<PurchaseOrder> updatedOrders = new ArrayList<>();
+        int unchanged = 0;
+        for (PurchaseOrder planned : plannedOrders) {
+            PurchaseOrder persisted = persistedOrders.remove(planned.getOrderDate());
+            if (persisted == null) {
+                insertedOrders.add(planned);
+            } else if (persisted.getQuantityOrdered() == planned.getQuantityOrdered()
+                    && planned.getDeliveryDate().equals(persisted.getDeliveryDate())) {
+                unchanged++;
+            } else {
+                planned.setId(persisted.getId());
+                updatedOrders.add(planned);
             }
         }
-        return bestMultiple;
+        persistedOrders.values().forEach(persisted -> deletedIds.add(persisted.getId()));
+
+        purchaseOrderRepository.applyPlanChanges(insertedOrders, updatedOrders, deletedIds);
+        planCheckpointService.save(productId, resumed);
+        planningMetrics.record(PlanningOperation.REPLAN, PlanningPhase.PERSISTENCE, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.REPLAN,
+                checkpoints.horizon().days() - checkpoints.dayOf(checkpoint));
+        planningMetrics.countOrders(PlanningOperation.REPLAN, plannedOrders.size());
+        return Optional.of(new ReplanResult(productId, replanStart, insertedOrders.size(), updatedOrders.size(),
+                deletedIds.size(), unchanged));
     }
 
-
     @Override
-    public Map<String, StockStats> calculateMonthlyStockStats(int initialStock, Long productId) {
-        CalculationParameters params = validateAndLoadParameters(productId);
-        List<SalesProfile> weeklySalesProfiles = validateAndLoadSalesProfiles(productId);
+    public List<MultipleEvaluation> findOptimalMultiple(int initialStock, Long productId,
+                                                        int minMultiple, int maxMultiple,
+                                                        SimulationHorizon horizon, boolean useCache,
+                                                        ProgressListener progress) {
+        if (minMultiple < 1 || minMultiple > maxMultiple) {
+            throw new IllegalArgumentException("Invalid multiple range: " + minMultiple + ".." + maxMultiple);
+        }
+        long start = planningMetrics.start();
+        PlanningSnapshot snapshot = planningSnapshotService.getSnapshot(productId);
+        PendingDeliveries pending = loadPendingDeliveries(List.of(productId), horizon)
+                .getOrDefault(productId, PendingDeliveries.NONE);
+        long phase = planningMetrics.record(PlanningOperation.OPTIMAL_MULTIPLE, PlanningPhase.LOAD, start);
+        int candidates = maxMultiple - minMultiple + 1;
+        planningMetrics.countCandidates(PlanningOperation.OPTIMAL_MULTIPLE, candidates);
+        planningMetrics.countSimulatedDays(PlanningOperation.OPTIMAL_MULTIPLE, (long) candidates * horizon.days());
+        if (!useCache && snapshot.input().demandCalendar().isEmpty() && pending.isEmpty()) {
+            // Nothing to share: every candidate is simulated in the same batch, whose kernels only know the
+            // weekly demand and an empty pipeline. With a demand calendar or deliveries in flight, each candidate
+            // is simulated on its own below
+            PlanningInput input = snapshot.input();
+            int[] multiples = IntStream.rangeClosed(minMultiple, maxMultiple).toArray();
+            ScenarioBatch batch = ScenarioBatch.grid(input.weeklyDemand(), new int[]{initialStock}, multiples,
+                    new int[]{input.deliveryLeadTime()});
+            BatchSimulationResult result = BatchStockSimulator.simulate(batch, horizon);
+            phase = planningMetrics.record(PlanningOperation.OPTIMAL_MULTIPLE, PlanningPhase.SIMULATION, phase);
+            progress.onProgress(multiples.length, multiples.length);
+            List<MultipleEvaluation> evaluations = IntStream.range(0, multiples.length)
+                    .mapToObj(i -> new MultipleEvaluation(multiples[i], result.averageStock(i),
+                            result.stockoutDays(i), result.orderCount(i)))
+                    .sorted(MultipleEvaluation.RANKING)
+                    .toList();
+            planningMetrics.record(PlanningOperation.OPTIMAL_MULTIPLE, PlanningPhase.AGGREGATION, phase);
+            return evaluations;
+        }
+
+        AtomicInteger evaluated = new AtomicInteger();
+        List<MultipleEvaluation> evaluations = IntStream.rangeClosed(minMultiple, maxMultiple)
+                .parallel()
+                .mapToObj(multiple -> {
+                    MultipleEvaluation evaluation = evaluateMultiple(snapshot, multiple, initialStock, pending,
+                            horizon, useCache);
+                    progress.onProgress(evaluated.incrementAndGet(), candidates);
+                    return evaluation;
+                })
+                .sorted(MultipleEvaluation.RANKING)
+                .toList();
+        planningMetrics.record(PlanningOperation.OPTIMAL_MULTIPLE, PlanningPhase.SIMULATION, phase);
+        return evaluations;
+    }
 
-        List<Integer> dailyStockLevels = simulateDailyStockLevels(initialStock, params, weeklySalesProfiles);
 
-        return generateMonthlyStatistics(dailyStockLevels);
+    @Override
+    public Map<String, StockStats> calculateMonthlyStockStats(int initialStock, Long productId,
+                                                              SimulationHorizon horizon, boolean useCache,
+                                                              boolean withPercentiles) {
+        long start = planningMetrics.start();
+        PlanningSnapshot snapshot = planningSnapshotService.getSnapshot(productId);
+        PendingDeliveries pending = loadPendingDeliveries(List.of(productId), horizon)
+                .getOrDefault(productId, PendingDeliveries.NONE);
+        MonthlyStatsAccumulator accumulator = new MonthlyStatsAccumulator(horizon, withPercentiles, null);
+        long phase = planningMetrics.record(PlanningOperation.MONTHLY_STATS, PlanningPhase.LOAD, start);
+        if (!useCache) {
+            // Nothing to share: aggregate straight from the day loop, without any daily stock array
+            StockSimulator.run(snapshot.input(), initialStock, pending, horizon, accumulator);
+            Map<String, StockStats> stats = accumulator.toMap();
+            planningMetrics.record(PlanningOperation.MONTHLY_STATS, PlanningPhase.SIMULATION, phase);
+            planningMetrics.countSimulatedDays(PlanningOperation.MONTHLY_STATS, horizon.days());
+            return stats;
+        }
+        // With deliveries in flight, the stored trajectory is unversioned: it may have started from others
+        if (pending.isEmpty()
+                && trajectoryStore.replay(productId, snapshot.version(), initialStock, horizon, accumulator)) {
+            // Trajectory of the persisted plan, simulated from the same inputs
+            Map<String, StockStats> stats = accumulator.toMap();
+            planningMetrics.record(PlanningOperation.MONTHLY_STATS, PlanningPhase.AGGREGATION, phase);
+            return stats;
+        }
+        SimulationResult result = simulationService.simulate(snapshot, snapshot.input().orderMultiple(),
+                initialStock, pending, horizon, true);
+        phase = planningMetrics.record(PlanningOperation.MONTHLY_STATS, PlanningPhase.SIMULATION, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.MONTHLY_STATS, horizon.days());
+
+        Map<String, StockStats> stats =
+                MonthlyStatsAccumulator.aggregate(horizon, result.dailyStock(), withPercentiles);
+        planningMetrics.record(PlanningOperation.MONTHLY_STATS, PlanningPhase.AGGREGATION, phase);
+        return stats;
     }
 
-    /**
-     * Simulates orders and consumption over a year and generates actual orders.
-     */
-    private void simulateAnnualOrders(int initialStock, Product product, List<SalesProfile> weeklyProfiles,
-                                      CalculationParameters params, List<PurchaseOrder> purchaseOrders) {
-        int currentStock = initialStock;
-        LocalDate currentDate = START_DATE;
+    @Override
+    public void streamMonthlyStockStats(int initialStock, Long productId, SimulationHorizon horizon,
+                                        boolean withPercentiles, BiConsumer<String, StockStats> consumer) {
+        long start = planningMetrics.start();
+        PlanningInput input = planningSnapshotService.getSnapshot(productId).input();
+        PendingDeliveries pending = loadPendingDeliveries(List.of(productId), horizon)
+                .getOrDefault(productId, PendingDeliveries.NONE);
+        long phase = planningMetrics.record(PlanningOperation.MONTHLY_STATS_STREAM, PlanningPhase.LOAD, start);
+        StockSimulator.run(input, initialStock, pending, horizon,
+                new MonthlyStatsAccumulator(horizon, withPercentiles, consumer));
+        planningMetrics.record(PlanningOperation.MONTHLY_STATS_STREAM, PlanningPhase.SIMULATION, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.MONTHLY_STATS_STREAM, horizon.days());
+    }
 
-        while (!currentDate.isAfter(END_DATE)) {
-            currentStock += calculateDailyArrivals(currentDate, purchaseOrders);
-            currentStock = updateStockAfterDailySales(currentStock, currentDate, weeklyProfiles);
+    @Override
+    public Optional<StockStats> getPlannedStockStats(Long productId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        return trajectoryStore.stats(productId, from, to);
+    }
 
-            if (isMonday(currentDate)) {
-                createRealOrderIfNeeded(currentDate, currentStock, product, weeklyProfiles, params, purchaseOrders);
-            }
+    @Override
+    public OrderPage findOrders(Long productId, LocalDate from, LocalDate to, LocalDate afterOrderDate, Long afterId,
+                                int size) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if ((afterOrderDate == null) != (afterId == null)) {
+            throw new IllegalArgumentException("The previous page must be given by both its last order date and id");
+        }
+        if (size < 1 || size > planningProperties.getMaxOrderPageSize()) {
+            throw new IllegalArgumentException("Invalid page size: " + size + " (maximum "
+                    + planningProperties.getMaxOrderPageSize() + ")");
+        }
+        // The first page, or a position before the range, starts with the first order of the range
+        boolean fromStart = afterOrderDate == null || afterOrderDate.isBefore(from);
+        // One more order is read to know whether there is a next page
+        List<OrderDTO> orders = purchaseOrderRepository.findOrdersAfter(productId,
+                fromStart ? from : afterOrderDate, fromStart ? Long.MIN_VALUE : afterId, to,
+                PageRequest.of(0, size + 1));
+        if (orders.size() <= size) {
+            return new OrderPage(orders, null, null);
+        }
+        List<OrderDTO> page = orders.subList(0, size);
+        OrderDTO last = page.get(size - 1);
+        return new OrderPage(page, last.getOrderDate(), last.getId());
+    }
 
-            currentDate = currentDate.plusDays(1);
+    @Override
+    public PolicyOptimizationResult optimizeOrderPolicy(int initialStock, Long productId, int minMultiple,
+                                                        int maxMultiple, int maxSafetyStock, int safetyStockStep,
+                                                        PolicyCosts costs, SimulationHorizon horizon,
+                                                        ProgressListener progress) {
+        if (minMultiple < 1 || minMultiple > maxMultiple) {
+            throw new IllegalArgumentException("Invalid multiple range: " + minMultiple + ".." + maxMultiple);
         }
+        if (maxSafetyStock < 0 || safetyStockStep < 1) {
+            throw new IllegalArgumentException("Invalid safety stock range: 0.." + maxSafetyStock
+                    + " by " + safetyStockStep);
+        }
+        int[] multiples = IntStream.rangeClosed(minMultiple, maxMultiple).toArray();
+        int[] safetyStocks = IntStream.iterate(0, stock -> stock >= 0 && stock <= maxSafetyStock,
+                stock -> stock + safetyStockStep).toArray();
+        // The order days are searched for each combination of multiple and safety stock
+        long scenarios = (long) multiples.length * safetyStocks.length;
+        if (scenarios > planningProperties.getMaxScenarios()) {
+            throw new IllegalArgumentException("Too many scenarios: " + scenarios + " (maximum "
+                    + planningProperties.getMaxScenarios() + ")");
+        }
+        long start = planningMetrics.start();
+        PlanningInput input = planningSnapshotService.getSnapshot(productId).input();
+        if (!input.demandCalendar().isEmpty()) {
+            // The bounds of the search and its batch kernels only know the weekly demand
+            throw new IllegalArgumentException("Order policy optimisation does not support demand adjustments: "
+                    + "product " + productId);
+        }
+        long phase = planningMetrics.record(PlanningOperation.ORDER_POLICY, PlanningPhase.LOAD, start);
+        PolicyOptimizationResult result =
+                OrderPolicyOptimizer.optimize(input, initialStock, horizon, multiples, safetyStocks, costs, progress);
+        planningMetrics.record(PlanningOperation.ORDER_POLICY, PlanningPhase.SIMULATION, phase);
+        planningMetrics.countCandidates(PlanningOperation.ORDER_POLICY, result.evaluated());
+        planningMetrics.countSimulatedDays(PlanningOperation.ORDER_POLICY, (long) result.evaluated() * horizon.days());
+        return result;
+    }
+
+    @Override
+    public List<ScenarioStockStats> calculateScenarioStockStats(Long productId, List<Integer> initialStocks,
+                                                                List<Integer> orderMultiples,
+                                                                List<Integer> deliveryLeadTimes,
+                                                                SimulationHorizon horizon) {
+        long start = planningMetrics.start();
+        PlanningSnapshot snapshot = planningSnapshotService.getSnapshot(productId);
+        PlanningInput input = snapshot.input();
+        int[] stocks = toArray(initialStocks, snapshot.product().getInitialStock());
+        int[] multiples = toArray(orderMultiples, input.orderMultiple());
+        int[] leadTimes = toArray(deliveryLeadTimes, input.deliveryLeadTime());
+        long scenarios = (long) stocks.length * multiples.length * leadTimes.length;
+        if (scenarios > planningProperties.getMaxScenarios()) {
+            throw new IllegalArgumentException("Too many scenarios: " + scenarios + " (maximum "
+                    + planningProperties.getMaxScenarios() + ")");
+        }
+
+        long phase = planningMetrics.record(PlanningOperation.SCENARIOS, PlanningPhase.LOAD, start);
+
+        ScenarioBatch batch = ScenarioBatch.grid(input.weeklyDemand(), stocks, multiples, leadTimes);
+        List<ScenarioStockStats> scenarioStats = input.demandCalendar().isEmpty()
+                ? simulateScenarios(batch, horizon)
+                : simulateScenarios(batch, input.demandCalendar(), horizon);
+        planningMetrics.record(PlanningOperation.SCENARIOS, PlanningPhase.SIMULATION, phase);
+        planningMetrics.countCandidates(PlanningOperation.SCENARIOS, batch.size());
+        planningMetrics.countSimulatedDays(PlanningOperation.SCENARIOS, (long) batch.size() * horizon.days());
+        return scenarioStats;
     }
 
     /**
-     * Crée une commande réelle si nécessaire pour éviter les ruptures.
+     * Simulates the scenarios of a batch together, against the weekly demand.
+     *
+     * @param batch   Scenarios to simulate.
+     * @param horizon Simulated period.
+     * @return The statistics of each scenario, in the order of the batch.
      */
-    private void createRealOrderIfNeeded(LocalDate currentDate, int currentStock, Product product,
-                                         List<SalesProfile> weeklyProfiles, CalculationParameters params,
-                                         List<PurchaseOrder> purchaseOrders) {
-        int neededQuantity = calculateWeeklyShortage(currentDate, currentStock, weeklyProfiles);
-        if (neededQuantity > 0) {
-            int roundedOrderQuantity = roundUpToMultiple(neededQuantity, params.getOrderMultiple());
-            PurchaseOrder order = PurchaseOrder.builder()
-                    .orderDate(currentDate)
-                    .quantityOrdered(roundedOrderQuantity)
-                    .deliveryDate(currentDate.plusDays(params.getDeliveryLeadTime()))
-                    .product(product)
-                    .build();
-            purchaseOrders.add(order);
-        }
+    private static List<ScenarioStockStats> simulateScenarios(ScenarioBatch batch, SimulationHorizon horizon) {
+        BatchSimulationResult result = BatchStockSimulator.simulate(batch, horizon);
+        return IntStream.range(0, batch.size())
+                .mapToObj(i -> new ScenarioStockStats(batch.initialStocks()[i], batch.orderMultiples()[i],
+                        batch.deliveryLeadTimes()[i], result.averageStock(i), result.stockoutDays(i),
+                        result.orderCount(i), result.monthlyStats(i)))
+                .toList();
     }
 
     /**
-     * Simulates daily stock levels over a given period.
+     * Simulates the scenarios of a batch one by one against a demand calendar, which the batch kernels do not
+     * support.
      *
-     * @param initialStock   Initial stock at the start of the period.
-     * @param params         Calculation parameters (delivery lead time, order multiple).
-     * @param weeklyProfiles Weekly sales profile.
-     * @return A list of stock levels for each day in the simulated period.
+     * @param batch          Scenarios to simulate.
+     * @param demandCalendar Seasonal factors and daily overrides of the weekly demand of the batch.
+     * @param horizon        Simulated period.
+     * @return The statistics of each scenario, in the order of the batch.
      */
-    private List<Integer> simulateDailyStockLevels(int initialStock, CalculationParameters params,
-                                                   List<SalesProfile> weeklyProfiles) {
-        List<Integer> dailyStocks = new ArrayList<>();
-        List<SimOrder> simulatedOrders = new ArrayList<>();
-        int currentStock = initialStock;
-        LocalDate currentDate = START_DATE;
-
-        while (!currentDate.isAfter(END_DATE)) {
-            currentStock += calculateSimulatedArrivals(currentDate, simulatedOrders);
-            currentStock = Math.max(0, updateStockAfterDailySales(currentStock, currentDate, weeklyProfiles)); // Validation ici
-
-            if (isMonday(currentDate)) {
-                createSimulatedOrderIfNeeded(currentDate, currentStock, params, weeklyProfiles, simulatedOrders);
-            }
+    private static List<ScenarioStockStats> simulateScenarios(ScenarioBatch batch, DemandCalendar demandCalendar,
+                                                              SimulationHorizon horizon) {
+        return IntStream.range(0, batch.size())
+                .mapToObj(i -> {
+                    PlanningInput input = new PlanningInput(batch.weeklyDemand(), batch.deliveryLeadTimes()[i],
+                            batch.orderMultiples()[i], batch.orderDays(), batch.safetyStocks()[i], demandCalendar);
+                    SimulationResult result = StockSimulator.simulate(input, batch.initialStocks()[i], horizon);
+                    return new ScenarioStockStats(batch.initialStocks()[i], batch.orderMultiples()[i],
+                            batch.deliveryLeadTimes()[i], result.averageStock(), result.stockoutDays(),
+                            result.orderCount(), MonthlyStatsAccumulator.aggregate(horizon, result.dailyStock(),
+                                    false));
+                })
+                .toList();
+    }
 
-            dailyStocks.add(currentStock);
-            currentDate = currentDate.plusDays(1);
+    @Override
+    public MonteCarloResult simulateDemandRisk(int initialStock, Long productId, SimulationHorizon horizon,
+                                               int replications, Long seed, ProgressListener progress) {
+        if (replications < 1 || replications > planningProperties.getMaxReplications()) {
+            throw new IllegalArgumentException("Invalid number of replications: " + replications + " (maximum "
+                    + planningProperties.getMaxReplications() + ")");
         }
-
-        return dailyStocks;
+        long start = planningMetrics.start();
+        PlanningInput input = planningSnapshotService.getSnapshot(productId).input();
+        long phase = planningMetrics.record(PlanningOperation.DEMAND_RISK, PlanningPhase.LOAD, start);
+        MonteCarloResult result = MonteCarloSimulator.simulate(input, initialStock, horizon, replications,
+                seed != null ? seed : ThreadLocalRandom.current().nextLong(), progress);
+        planningMetrics.record(PlanningOperation.DEMAND_RISK, PlanningPhase.SIMULATION, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.DEMAND_RISK, (long) replications * horizon.days());
+        return result;
     }
 
     /**
-     * Creates a simulated order if a stock shortage is expected for the upcoming week.
+     * Calculates and persists the order plans of a page of products.
+     * The inputs of the page, and the orders in flight at the start of the horizon, are loaded with one query
+     * per table, the five queries running concurrently on the planning worker pool, then each product is
+     * simulated on the same pool. Every task of the page completes before the page is persisted or a failure
+     * is thrown.
      *
-     * @param currentDate      The current date in the simulation.
-     * @param currentStock     The current stock level.
-     * @param params           Calculation parameters (delivery lead time, order multiple).
-     * @param weeklyProfiles   Weekly sales profile.
-     * @param simulatedOrders  List of simulated orders to which the new order is added if needed.
+     * @param productIds   Identifiers of the products of the page.
+     * @param initialStock Initial stock of every product, or {@code null} to use the stock of each product.
+     * @param horizon      Simulated period.
+     * @return The outcome of each product of the page, in the order of the page.
      */
-    private void createSimulatedOrderIfNeeded(LocalDate currentDate, int currentStock,
-                                              CalculationParameters params, List<SalesProfile> weeklyProfiles,
-                                              List<SimOrder> simulatedOrders) {
-        int neededQuantity = calculateWeeklyShortage(currentDate, currentStock, weeklyProfiles);
-        if (neededQuantity > 0) {
-            int roundedOrderQuantity = roundUpToMultiple(neededQuantity, params.getOrderMultiple());
-            simulatedOrders.add(new SimOrder(currentDate, currentDate.plusDays(params.getDeliveryLeadTime()),
-                    roundedOrderQuantity));
+    private List<ProductPlanResult> calculateOrderPlanPage(List<Long> productIds, Integer initialStock,
+                                                           SimulationHorizon horizon) {
+        long start = planningMetrics.start();
+        CompletableFuture<Map<Long, Product>> productsLoad = CompletableFuture.supplyAsync(
+                () -> productRepository.findAllById(productIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity())), planningExecutor);
+        CompletableFuture<Map<Long, CalculationParameters>> parametersLoad = CompletableFuture.supplyAsync(
+                () -> calcParamRepository.findByProductIdIn(productIds).stream()
+                        .collect(Collectors.toMap(params -> params.getProduct().getId(), Function.identity(),
+                                (first, second) -> first)), planningExecutor);
+        CompletableFuture<Map<Long, List<SalesProfile>>> profilesLoad = CompletableFuture.supplyAsync(
+                () -> salesProfileRepository.findByProductIdIn(productIds).stream()
+                        .collect(Collectors.groupingBy(profile -> profile.getProduct().getId())), planningExecutor);
+        CompletableFuture<Map<Long, List<DemandAdjustment>>> adjustmentsLoad = CompletableFuture.supplyAsync(
+                () -> demandAdjustmentRepository.findByProductIdIn(productIds).stream()
+                        .collect(Collectors.groupingBy(adjustment -> adjustment.getProduct().getId())),
+                planningExecutor);
+        CompletableFuture<Map<Long, PendingDeliveries>> deliveriesLoad = CompletableFuture.supplyAsync(
+                () -> loadPendingDeliveries(productIds, horizon), planningExecutor);
+        awaitAll(productsLoad, parametersLoad, profilesLoad, adjustmentsLoad, deliveriesLoad);
+        Map<Long, Product> products = productsLoad.join();
+        Map<Long, CalculationParameters> parameters = parametersLoad.join();
+        Map<Long, List<SalesProfile>> profiles = profilesLoad.join();
+        Map<Long, List<DemandAdjustment>> adjustments = adjustmentsLoad.join();
+        Map<Long, PendingDeliveries> deliveries = deliveriesLoad.join();
+        long phase = planningMetrics.record(PlanningOperation.BULK_PLAN, PlanningPhase.LOAD, start);
+
+        List<CompletableFuture<ProductPlan>> futures = productIds.stream()
+                .map(productId -> CompletableFuture.supplyAsync(() -> planProduct(productId,
+                        products.get(productId), parameters.get(productId),
+                        profiles.getOrDefault(productId, List.of()), adjustments.getOrDefault(productId, List.of()),
+                        deliveries.getOrDefault(productId, PendingDeliveries.NONE), initialStock, horizon),
+                        planningExecutor))
+                .toList();
+        List<ProductPlan> plans = futures.stream().map(CompletableFuture::join).toList();
+        phase = planningMetrics.record(PlanningOperation.BULK_PLAN, PlanningPhase.SIMULATION, phase);
+
+        List<Long> plannedProductIds = plans.stream()
+                .filter(plan -> plan.error() == null)
+                .map(ProductPlan::productId)
+                .toList();
+        List<PurchaseOrder> purchaseOrders = plans.stream()
+                .filter(plan -> plan.error() == null)
+                .flatMap(plan -> plan.orders().stream())
+                .toList();
+        try {
+            purchaseOrderRepository.replacePlans(plannedProductIds, horizon.start(), purchaseOrders);
+        } catch (RuntimeException e) {
+            return plans.stream()
+                    .map(plan -> ProductPlanResult.failure(plan.productId(),
+                            plan.error() != null ? plan.error() : "Persistence failed: " + e.getMessage()))
+                    .toList();
         }
+
+        plans.stream()
+                .filter(plan -> plan.error() == null)
+                .forEach(plan -> planCheckpointService.save(plan.productId(), plan.checkpoints()));
+        planningMetrics.record(PlanningOperation.BULK_PLAN, PlanningPhase.PERSISTENCE, phase);
+        planningMetrics.countSimulatedDays(PlanningOperation.BULK_PLAN,
+                (long) plannedProductIds.size() * horizon.days());
+        planningMetrics.countOrders(PlanningOperation.BULK_PLAN, purchaseOrders.size());
+        return plans.stream()
+                .map(plan -> plan.error() == null
+                        ? ProductPlanResult.success(plan.productId(), plan.orders().size())
+                        : ProductPlanResult.failure(plan.productId(), plan.error()))
+                .toList();
     }
 
     /**
-     * Simulates stock levels and calculates the average stock over the simulation period.
+     * Waits for every task to complete, then rethrows the failure of a failed task, if any, as it was thrown.
      *
-     * @param initialStock  Initial stock at the start of the period.
-     * @param productId     Identifier of the product.
-     * @param orderMultiple Order multiple to be respected for simulated orders.
-     * @return The average stock level during the simulation period.
+     * @param tasks Tasks started together.
      */
-    private double simulateAndCalculateAverageStock(int initialStock, Long productId, int orderMultiple) {
-        CalculationParameters params = validateAndLoadParameters(productId);
-        List<SalesProfile> weeklyProfiles = validateAndLoadSalesProfiles(productId);
-
-        List<Integer> dailyStocks = simulateDailyStockLevels(initialStock, params, weeklyProfiles);
-
-        return dailyStocks.stream().mapToDouble(Integer::doubleValue).average().orElse(0.0);
+    private static void awaitAll(CompletableFuture<?>... tasks) {
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     /**
-     * Generates monthly stock statistics (minimum, maximum, and average) from daily stock levels.
+     * Simulates one product of a bulk run. Failures are reported instead of thrown.
      *
-     * @param dailyStocks List of daily stock levels.
-     * @return A map where the key is the month (in "YYYY-MM" format) and the value is the stock statistics for that month.
+     * @param productId      Identifier of the product.
+     * @param product        The product, {@code null} if it does not exist.
+     * @param params         Its calculation parameters, {@code null} if missing.
+     * @param weeklyProfiles Its weekly sales profile.
+     * @param adjustments    Its demand adjustments.
+     * @param pending        Its deliveries in flight at the start of the horizon.
+     * @param initialStock   Initial stock, or {@code null} to use the stock of the product.
+     * @param horizon        Simulated period.
+     * @return The generated orders and the checkpoints of the simulation, or the reason of the failure.
      */
-    private Map<String, StockStats> generateMonthlyStatistics(List<Integer> dailyStocks) {
-        Map<String, StockStats> monthlyStats = new HashMap<>();
-        LocalDate currentDate = START_DATE;
-
-        for (int stock : dailyStocks) {
-            String monthKey = currentDate.getYear() + "-" + String.format("%02d", currentDate.getMonthValue());
-            StockStats stats = monthlyStats.computeIfAbsent(monthKey, k -> new StockStats(0, Integer.MAX_VALUE, 0.0));
-            stats.updateStats(stock);
-            currentDate = currentDate.plusDays(1);
+    private ProductPlan planProduct(Long productId, Product product, CalculationParameters params,
+                                    List<SalesProfile> weeklyProfiles, List<DemandAdjustment> adjustments,
+                                    PendingDeliveries pending, Integer initialStock, SimulationHorizon horizon) {
+        try {
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + productId);
+            }
+            if (params == null) {
+                throw new IllegalArgumentException("Calculation parameters not found for product: " + productId);
+            }
+            if (weeklyProfiles.isEmpty()) {
+                throw new IllegalArgumentException("No sales profiles found for product: " + productId);
+            }
+            PlanningInput input = PlanningInput.compile(params, weeklyProfiles, adjustments);
+            int stock = initialStock != null ? initialStock : product.getInitialStock();
+            CheckpointedSimulation simulation = StockSimulator.simulateWithCheckpoints(input, stock, pending,
+                    horizon, trajectoryStore.writer(productId, UNVERSIONED, stock, horizon));
+            return new ProductPlan(productId,
+                    toPurchaseOrders(simulation.result(), product, input.deliveryLeadTime(), horizon),
+                    simulation.checkpoints(), null);
+        } catch (RuntimeException e) {
+            return new ProductPlan(productId, List.of(), null, e.getMessage());
         }
-
-        return monthlyStats;
     }
 
     /**
-     * Calculates the total quantity of orders arriving on a given day.
-     *
-     * @param currentDate The current date in the simulation.
-     * @param orders      List of purchase orders.
-     * @return The total quantity of orders delivered on the specified date.
+     * Orders and checkpoints generated for one product of a bulk run, or the reason why it failed.
      */
-    private int calculateDailyArrivals(LocalDate currentDate, List<PurchaseOrder> orders) {
-        return orders.stream()
-                .filter(order -> order.getDeliveryDate().equals(currentDate))
-                .mapToInt(PurchaseOrder::getQuantityOrdered)
-                .sum();
+    private record ProductPlan(Long productId, List<PurchaseOrder> orders, PlanCheckpoints checkpoints,
+                               String error) {
     }
 
     /**
-     * Calculates the total quantity of simulated orders arriving on a given day.
+     * Loads the deliveries in flight of several products at the start of a horizon: the orders placed before
+     * it and delivered during it, read with one range query on the delivery dates.
      *
-     * @param currentDate      The current date in the simulation.
-     * @param simulatedOrders  List of simulated orders.
-     * @return The total quantity of simulated orders delivered on the specified date.
+     * @param productIds Identifiers of the products.
+     * @param horizon    Simulated period.
+     * @return The pending deliveries of each product having some.
      */
-    private int calculateSimulatedArrivals(LocalDate currentDate, List<SimOrder> simulatedOrders) {
-        return simulatedOrders.stream()
-                .filter(order -> order.deliveryDate().equals(currentDate))
-                .mapToInt(SimOrder::quantityOrdered)
-                .sum();
+    private Map<Long, PendingDeliveries> loadPendingDeliveries(Collection<Long> productIds,
+                                                               SimulationHorizon horizon) {
+        return purchaseOrderRepository.findIncomingDeliveries(productIds, horizon.start(),
+                        horizon.dateOf(horizon.days())).stream()
+                .collect(Collectors.groupingBy(IncomingDelivery::getProductId, Collectors.collectingAndThen(
+                        Collectors.toMap(IncomingDelivery::getDeliveryDate,
+                                delivery -> Math.toIntExact(delivery.getQuantity())),
+                        quantities -> PendingDeliveries.of(horizon, quantities))));
     }
 
     /**
-     * Updates the stock level after accounting for daily sales.
+     * Returns the version a plan trajectory is written with. A trajectory starting with deliveries in flight
+     * is not the simulation of the snapshot alone: it serves range queries but is never replayed.
      *
-     * @param currentStock   The current stock level.
-     * @param date           The current date in the simulation.
-     * @param weeklyProfiles The weekly sales profile defining daily sales quantities.
-     * @return The updated stock level after deducting daily sales.
+     * @param snapshotVersion Version of the planning snapshot.
+     * @param pending         Deliveries in flight at the start of the horizon.
+     * @return The snapshot version, or {@link #UNVERSIONED}.
      */
-    private int updateStockAfterDailySales(int currentStock, LocalDate date, List<SalesProfile> weeklyProfiles) {
-        int dailySales = weeklyProfiles.stream()
-                .filter(profile -> profile.getDayOfWeek() == date.getDayOfWeek())
-                .mapToInt(SalesProfile::getQuantitySold)
-                .findFirst()
-                .orElse(0);
-        return Math.max(0, currentStock - dailySales);
+    private static long trajectoryVersion(long snapshotVersion, PendingDeliveries pending) {
+        return pending.isEmpty() ? snapshotVersion : UNVERSIONED;
     }
 
     /**
-     * Calculates the stock shortage for the following week.
+     * Converts the orders of a simulation into purchase orders for the given product.
      *
-     * @param monday         The starting date (Monday) of the week.
-     * @param currentStock   The current stock level at the beginning of the week.
-     * @param weeklyProfiles The weekly sales profile defining daily sales quantities.
-     * @return The quantity needed to prevent a stockout during the week, or 0 if no shortage is expected.
+     * @param result   Result of the simulation.
+     * @param product  Product the orders are placed for.
+     * @param leadTime Delivery lead time in days.
+     * @param horizon  Simulated period.
+     * @return The purchase orders, in chronological order.
      */
-    private int calculateWeeklyShortage(LocalDate monday, int currentStock, List<SalesProfile> weeklyProfiles) {
-        int projectedStock = currentStock;
-
-        for (int i = 1; i <= 6; i++) {
-            LocalDate day = monday.plusDays(i);
-            if (day.isAfter(END_DATE)) break;
-
-            int dailySales = weeklyProfiles.stream()
-                    .filter(profile -> profile.getDayOfWeek() == day.getDayOfWeek())
-                    .mapToInt(SalesProfile::getQuantitySold)
-                    .findFirst()
-                    .orElse(0);
-
-            projectedStock -= dailySales;
-
-            if (projectedStock < 0) {
-                return Math.abs(projectedStock) + 1;
-            }
+    private List<PurchaseOrder> toPurchaseOrders(SimulationResult result, Product product, int leadTime,
+                                                 SimulationHorizon horizon) {
+        List<PurchaseOrder> purchaseOrders = new ArrayList<>(result.orderCount());
+        for (int i = 0; i < result.orderCount(); i++) {
+            purchaseOrders.add(toPurchaseOrder(horizon.dateOf(result.orderDays()[i]), result.orderQuantities()[i],
+                    product, leadTime));
         }
-        return 0;
+        return purchaseOrders;
     }
 
-
     /**
-     * Loads and validates the existence of a product by its ID.
+     * Converts one simulated order into a purchase order for the given product.
      *
-     * @param productId The ID of the product to load.
-     * @return The {@link Product} if found.
-     * @throws IllegalArgumentException If the product is not found.
+     * @param orderDate Date the order is placed on.
+     * @param quantity  Ordered quantity.
+     * @param product   Product the order is placed for.
+     * @param leadTime  Delivery lead time in days.
+     * @return The purchase order, not persisted yet.
      */
-    private Product validateAndLoadProduct(Long productId) {
-        return productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+    private PurchaseOrder toPurchaseOrder(LocalDate orderDate, int quantity, Product product, int leadTime) {
+        return PurchaseOrder.builder()
+                .orderDate(orderDate)
+                .quantityOrdered(quantity)
+                .deliveryDate(orderDate.plusDays(leadTime))
+                .product(product)
+                .build();
     }
 
     /**
-     * Loads and validates the calculation parameters associated with a product.
+     * Converts the values of a what-if parameter.
      *
-     * @param productId The ID of the product for which to load parameters.
-     * @return The {@link CalculationParameters} if found.
-     * @throws IllegalArgumentException If the calculation parameters are not found for the specified product.
+     * @param values       Requested values, or {@code null} or empty.
+     * @param defaultValue Value used when none is requested.
+     * @return The requested values, or the default value alone.
      */
-    private CalculationParameters validateAndLoadParameters(Long productId) {
-        return calcParamRepository.findByProductId(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Calculation parameters not found for product: " + productId));
+    private static int[] toArray(List<Integer> values, int defaultValue) {
+        if (values == null || values.isEmpty()) {
+            return new int[]{defaultValue};
+        }
+        return values.stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
-     * Loads and validates the sales profiles associated with a product.
+     * Simulates the period with a candidate order multiple.
      *
-     * @param productId The ID of the product for which to load sales profiles.
-     * @return A list of {@link SalesProfile} if found.
-     * @throws IllegalArgumentException If no sales profiles are found for the specified product.
+     * @param snapshot      Planning snapshot of the product.
+     * @param orderMultiple Candidate order multiple.
+     * @param initialStock  Initial stock at the start of the period.
+     * @param pending       Deliveries ordered before the period.
+     * @param horizon       Simulated period.
+     * @param useCache      Whether a cached simulation may be reused.
+     * @return The evaluation of the candidate multiple.
      */
-    private List<SalesProfile> validateAndLoadSalesProfiles(Long productId) {
-        List<SalesProfile> profiles = salesProfileRepository.findByProductId(productId);
-        if (profiles.isEmpty()) {
-            throw new IllegalArgumentException("No sales profiles found for product: " + productId);
-        }
-        return profiles;
+    private MultipleEvaluation evaluateMultiple(PlanningSnapshot snapshot, int orderMultiple, int initialStock,
+                                                PendingDeliveries pending, SimulationHorizon horizon,
+                                                boolean useCache) {
+        SimulationResult result = simulationService.simulate(snapshot, orderMultiple, initialStock, pending, horizon,
+                useCache);
+        return new MultipleEvaluation(orderMultiple, result.averageStock(),
+                result.stockoutDays(), result.orderCount());
     }
 }
@@ -0,0 +1,45 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.services.PlanCheckpointService;
+import com.adeo.stockoptimizer.simulation.PlanCheckpoints;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+public class PlanCheckpointServiceImpl implements PlanCheckpointService, MeterBinder {
+
+    private final Cache<Long, PlanCheckpoints> checkpoints;
+
+    public PlanCheckpointServiceImpl(PlanningProperties planningProperties) {
+        this.checkpoints = Caffeine.newBuilder()
+                .maximumWeight(planningProperties.getCheckpointCacheMaxSize().toBytes())
+                .weigher((Long productId, PlanCheckpoints plan) -> plan.sizeInBytes())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publishes the hits, misses and evictions of the checkpoints as the {@code plan-checkpoints} cache.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, checkpoints, "plan-checkpoints");
+    }
+
+    @Override
+    public void save(Long productId, PlanCheckpoints plan) {
+        checkpoints.put(productId, plan);
+    }
+
+    @Override
+    public Optional<PlanCheckpoints> get(Long productId) {
+        return Optional.ofNullable(checkpoints.getIfPresent(productId));
+    }
+}
@@ -0,0 +1,180 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.services.PlanningDataFileService;
+import com.adeo.stockoptimizer.simulation.PlanningDataFile;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.utils.PlanningDataExport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class PlanningDataFileServiceImpl implements PlanningDataFileService {
+
+    private final ProductRepository productRepository;
+    private final CalculationParametersRepository calcParamRepository;
+    private final SalesProfileRepository salesProfileRepository;
+    private final DemandAdjustmentRepository demandAdjustmentRepository;
+    private final PlanningProperties planningProperties;
+    private final Path path;
+
+    private final AtomicReference<MappedFile> mapped = new AtomicReference<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Incremented by markAllStale, so that an export started before is not mapped
+    private final AtomicLong generation = new AtomicLong();
+    // Products modified while an export is running, null when none is
+    private volatile Set<Long> modifiedDuringExport;
+
+    public PlanningDataFileServiceImpl(ProductRepository productRepository,
+                                       CalculationParametersRepository calcParamRepository,
+                                       SalesProfileRepository salesProfileRepository,
+                                       DemandAdjustmentRepository demandAdjustmentRepository,
+                                       PlanningProperties planningProperties) {
+        this.productRepository = productRepository;
+        this.calcParamRepository = calcParamRepository;
+        this.salesProfileRepository = salesProfileRepository;
+        this.demandAdjustmentRepository = demandAdjustmentRepository;
+        this.planningProperties = planningProperties;
+        this.path = planningProperties.getPlanningDataFile();
+        if (path != null && Files.exists(path)) {
+            try {
+                PlanningDataFile file = PlanningDataFile.open(path);
+                mapped.set(new MappedFile(file, ConcurrentHashMap.newKeySet()));
+                log.info("Planning data file {} mapped: {} products written at {}", path, file.size(),
+                        file.createdAt());
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                log.warn("Planning data file {} ignored until the next export: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Optional<PlanningDataFile.Entry> find(Long productId) {
+        MappedFile current = mapped.get();
+        if (current == null || productId == null || current.staleProducts().contains(productId)) {
+            return Optional.empty();
+        }
+        return current.file().find(productId);
+    }
+
+    @Override
+    public void markStale(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        Set<Long> exporting = modifiedDuringExport;
+        if (exporting != null) {
+            exporting.add(productId);
+        }
+        MappedFile current = mapped.get();
+        if (current != null) {
+            current.staleProducts().add(productId);
+        }
+    }
+
+    @Override
+    public void markAllStale() {
+        generation.incrementAndGet();
+        mapped.set(null);
+    }
+
+    @Override
+    public boolean isUpToDate() {
+        MappedFile current = mapped.get();
+        return current != null && current.staleProducts().isEmpty();
+    }
+
+    @Override
+    public Optional<PlanningDataExport> export() {
+        if (path == null || !running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        Set<Long> modified = ConcurrentHashMap.newKeySet();
+        modifiedDuringExport = modified;
+        try {
+            long exportGeneration = generation.get();
+            Instant startedAt = Instant.now();
+            int products;
+            long bytes;
+            try (PlanningDataFile.Writer writer = PlanningDataFile.create(path)) {
+                products = writeProducts(writer);
+                bytes = writer.commit();
+            }
+            PlanningDataFile file = PlanningDataFile.open(path);
+            if (generation.get() == exportGeneration) {
+                mapped.set(new MappedFile(file, modified));
+            }
+            PlanningDataExport export = new PlanningDataExport(startedAt, Instant.now(), products, bytes);
+            log.info("Planning data file {} written: {} products, {} bytes", path, products, bytes);
+            return Optional.of(export);
+        } finally {
+            modifiedDuringExport = null;
+            running.set(false);
+        }
+    }
+
+    /**
+     * Reads the products page by page, in product id order, and writes those having calculation parameters and
+     * sales profiles. Products with demand adjustments are left out: the file only holds weekly demands, so they
+     * are always loaded through JPA.
+     *
+     * @param writer Writer of the new file.
+     * @return The number of written products.
+     */
+    private int writeProducts(PlanningDataFile.Writer writer) {
+        int batchSize = planningProperties.getBatchSize();
+        int written = 0;
+        List<Long> page = productRepository.findIdsAfter(Long.MIN_VALUE, PageRequest.of(0, batchSize));
+        while (!page.isEmpty()) {
+            Map<Long, Product> products = productRepository.findAllById(page).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            Map<Long, CalculationParameters> params = calcParamRepository.findByProductIdIn(page).stream()
+                    .collect(Collectors.toMap(parameters -> parameters.getProduct().getId(), Function.identity(),
+                            (first, second) -> first));
+            Map<Long, List<SalesProfile>> profiles = salesProfileRepository.findByProductIdIn(page).stream()
+                    .collect(Collectors.groupingBy(profile -> profile.getProduct().getId()));
+            Set<Long> adjusted = Set.copyOf(demandAdjustmentRepository.findAdjustedProductIds(page));
+            for (Long productId : page) {
+                Product product = products.get(productId);
+                if (product != null && params.containsKey(productId) && profiles.containsKey(productId)
+                        && !adjusted.contains(productId)) {
+                    writer.add(new PlanningDataFile.Entry(productId, product.getName(), product.getInitialStock(),
+                            PlanningInput.compile(params.get(productId), profiles.get(productId))));
+                    written++;
+                }
+            }
+            page = productRepository.findIdsAfter(page.get(page.size() - 1), PageRequest.of(0, batchSize));
+        }
+        return written;
+    }
+
+    /**
+     * Mapped planning data file and the products modified since it was written.
+     */
+    private record MappedFile(PlanningDataFile file, Set<Long> staleProducts) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningMetrics;
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.ProductChange;
+import com.adeo.stockoptimizer.repositories.ProductChangeRepository;
+import com.adeo.stockoptimizer.services.OrderOptimizationService;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.simulation.ProgressListener;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.utils.ProductPlanResult;
+import com.adeo.stockoptimizer.utils.ReplanRun;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlanningJournalServiceImpl implements PlanningJournalService {
+
+    private final ProductChangeRepository productChangeRepository;
+    private final OrderOptimizationService orderOptimizationService;
+    private final PlanningProperties planningProperties;
+    private final PlanningMetrics planningMetrics;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ReplanRun> lastRun = new AtomicReference<>();
+
+    @Override
+    public void markChanged(Long productId) {
+        if (productId != null) {
+            productChangeRepository.save(new ProductChange(productId, Instant.now()));
+        }
+    }
+
+    @Override
+    public long countChanged() {
+        return productChangeRepository.count();
+    }
+
+    @Override
+    public Optional<ReplanRun> replanChangedProducts(ProgressListener progress) {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            long start = planningMetrics.start();
+            ReplanRun run = replanChangedBefore(Instant.now(), progress);
+            planningMetrics.recordJournalDrain(System.nanoTime() - start, run.plannedProducts(),
+                    run.failedProducts());
+            lastRun.set(run);
+            log.info("Re-plan of the changed products: {} planned, {} failed, {} products/s",
+                    run.plannedProducts(), run.failedProducts(), String.format("%.1f", run.productsPerSecond()));
+            return Optional.of(run);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public Optional<ReplanRun> getLastRun() {
+        return Optional.ofNullable(lastRun.get());
+    }
+
+    /**
+     * Plans the products of the journal page by page, in product id order, removing the entries of each page
+     * once its plans are persisted.
+     *
+     * @param startedAt Start of the run: products changed later are left for the next run.
+     * @param progress  Receiver of the number of processed products.
+     * @return The outcome of the run.
+     */
+    private ReplanRun replanChangedBefore(Instant startedAt, ProgressListener progress) {
+        SimulationHorizon horizon = orderOptimizationService.resolveHorizon(null, null, null);
+        int batchSize = planningProperties.getBatchSize();
+        long total = productChangeRepository.countByChangedAtLessThanEqual(startedAt);
+        int planned = 0;
+        int failed = 0;
+
+        List<Long> page = productChangeRepository.findIdsChangedBefore(Long.MIN_VALUE, startedAt,
+                PageRequest.of(0, batchSize));
+        while (!page.isEmpty()) {
+            List<ProductPlanResult> results =
+                    orderOptimizationService.calculateOrderPlans(new HashSet<>(page), null, horizon);
+            List<Long> plannedIds = results.stream()
+                    .filter(ProductPlanResult::success)
+                    .map(ProductPlanResult::productId)
+                    .toList();
+            if (!plannedIds.isEmpty()) {
+                productChangeRepository.deleteChangedBefore(plannedIds, startedAt);
+            }
+            planned += plannedIds.size();
+            failed += results.size() - plannedIds.size();
+            progress.onProgress(planned + failed, Math.max(total, planned + failed));
+            page = productChangeRepository.findIdsChangedBefore(page.get(page.size() - 1), startedAt,
+                    PageRequest.of(0, batchSize));
+        }
+        return new ReplanRun(startedAt, Instant.now(), planned, failed);
+    }
+}
@@ -0,0 +1,158 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.services.PlanningDataFileService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.simulation.PlanningDataFile;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.utils.PlanningCacheStats;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class PlanningSnapshotServiceImpl implements PlanningSnapshotService, MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final CalculationParametersRepository calcParamRepository;
+    private final SalesProfileRepository salesProfileRepository;
+    private final DemandAdjustmentRepository demandAdjustmentRepository;
+    private final PlanningDataFileService planningDataFileService;
+    private final Cache<Long, PlanningSnapshot> snapshots;
+    private final AtomicLong versions = new AtomicLong();
+
+    public PlanningSnapshotServiceImpl(ProductRepository productRepository,
+                                       CalculationParametersRepository calcParamRepository,
+                                       SalesProfileRepository salesProfileRepository,
+                                       DemandAdjustmentRepository demandAdjustmentRepository,
+                                       PlanningDataFileService planningDataFileService,
+                                       PlanningProperties planningProperties) {
+        this.productRepository = productRepository;
+        this.calcParamRepository = calcParamRepository;
+        this.salesProfileRepository = salesProfileRepository;
+        this.demandAdjustmentRepository = demandAdjustmentRepository;
+        this.planningDataFileService = planningDataFileService;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(planningProperties.getSnapshotCacheSize())
+                .expireAfterWrite(planningProperties.getSnapshotCacheTtl())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public PlanningSnapshot getSnapshot(Long productId) {
+        return snapshots.get(productId, this::loadSnapshot);
+    }
+
+    @Override
+    public void invalidate(Long productId) {
+        if (productId != null) {
+            planningDataFileService.markStale(productId);
+            snapshots.invalidate(productId);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        planningDataFileService.markAllStale();
+        snapshots.invalidateAll();
+    }
+
+    @Override
+    public PlanningCacheStats getStats() {
+        CacheStats stats = snapshots.stats();
+        return new PlanningCacheStats(snapshots.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    /**
+     * Publishes the hits, misses and evictions of the snapshots as the {@code planning-snapshots} cache.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, "planning-snapshots");
+    }
+
+    /**
+     * Reads the planning data of the product from the planning data file when it serves it, otherwise loads
+     * the product, its parameters, its sales profiles and its demand adjustments and compiles them, with a new
+     * version.
+     * A failure is thrown to the caller and nothing is cached.
+     *
+     * @param productId The ID of the product to load.
+     * @return The {@link PlanningSnapshot} of the product.
+     */
+    private PlanningSnapshot loadSnapshot(Long productId) {
+        Optional<PlanningDataFile.Entry> entry = planningDataFileService.find(productId);
+        if (entry.isPresent()) {
+            Product product = Product.builder()
+                    .id(productId)
+                    .name(entry.get().name())
+                    .initialStock(entry.get().initialStock())
+                    .build();
+            return new PlanningSnapshot(product, entry.get().input(), versions.incrementAndGet());
+        }
+        Product product = validateAndLoadProduct(productId);
+        CalculationParameters params = validateAndLoadParameters(productId);
+        List<SalesProfile> weeklySalesProfiles = validateAndLoadSalesProfiles(productId);
+        List<DemandAdjustment> adjustments = demandAdjustmentRepository.findByProductId(productId);
+        return new PlanningSnapshot(product, PlanningInput.compile(params, weeklySalesProfiles, adjustments),
+                versions.incrementAndGet());
+    }
+
+    /**
+     * Loads and validates the existence of a product by its ID.
+     *
+     * @param productId The ID of the product to load.
+     * @return The {@link Product} if found.
+     * @throws IllegalArgumentException If the product is not found.
+     */
+    private Product validateAndLoadProduct(Long productId) {
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+    }
+
+    /**
+     * Loads and validates the calculation parameters associated with a product.
+     *
+     * @param productId The ID of the product for which to load parameters.
+     * @return The {@link CalculationParameters} if found.
+     * @throws IllegalArgumentException If the calculation parameters are not found for the specified product.
+     */
+    private CalculationParameters validateAndLoadParameters(Long productId) {
+        return calcParamRepository.findByProductId(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Calculation parameters not found for product: " + productId));
+    }
+
+    /**
+     * Loads and validates the sales profiles associated with a product.
+     *
+     * @param productId The ID of the product for which to load sales profiles.
+     * @return A list of {@link SalesProfile} if found.
+     * @throws IllegalArgumentException If no sales profiles are found for the specified product.
+     */
+    private List<SalesProfile> validateAndLoadSalesProfiles(Long productId) {
+        List<SalesProfile> profiles = salesProfileRepository.findByProductId(productId);
+        if (profiles.isEmpty()) {
+            throw new IllegalArgumentException("No sales profiles found for product: " + productId);
+        }
+        return profiles;
+    }
+}
@@ -0,0 +1,218 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesEvent;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.models.SalesWeek;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.SalesEventRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.repositories.SalesWeekRepository;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.services.SalesHistoryService;
+import com.adeo.stockoptimizer.utils.SalesProfileRefresh;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesHistoryServiceImpl implements SalesHistoryService {
+
+    // Rollups updated shortly before the previous refresh are read again, in case their ingestion committed
+    // after the refresh read them
+    private static final Duration INGESTION_MARGIN = Duration.ofMinutes(1);
+
+    private final SalesEventRepository salesEventRepository;
+    private final SalesWeekRepository salesWeekRepository;
+    private final SalesProfileRepository salesProfileRepository;
+    private final ProductRepository productRepository;
+    private final PlanningSnapshotService planningSnapshotService;
+    private final PlanningJournalService planningJournalService;
+    private final PlanningProperties planningProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<SalesProfileRefresh> lastRefresh = new AtomicReference<>();
+
+    @Override
+    @Transactional
+    public int recordSales(List<SalesEvent> events) {
+        Instant now = Instant.now();
+        Map<SalesWeek.Key, SalesWeek> weeks = new HashMap<>();
+        for (SalesEvent event : events) {
+            if (event.getProductId() == null || event.getSaleDate() == null) {
+                throw new IllegalArgumentException("A sales event needs a product and a sale date");
+            }
+            LocalDate weekStart = event.getSaleDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            weeks.computeIfAbsent(new SalesWeek.Key(event.getProductId(), weekStart), key -> SalesWeek.builder()
+                            .productId(key.getProductId())
+                            .weekStart(key.getWeekStart())
+                            .updatedAt(now)
+                            .build())
+                    .addQuantity(event.getSaleDate().getDayOfWeek(), event.getQuantity());
+        }
+        salesEventRepository.appendEvents(events);
+        // Sorted so that concurrent ingestions lock the rollups in the same order
+        salesWeekRepository.addSales(weeks.values().stream()
+                .sorted(Comparator.comparing(SalesWeek::getProductId).thenComparing(SalesWeek::getWeekStart))
+                .toList());
+        return events.size();
+    }
+
+    @Override
+    public Optional<SalesProfileRefresh> refreshSalesProfiles(LocalDate asOf) {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            SalesProfileRefresh refresh = refreshUpdatedProducts(Instant.now(), asOf);
+            lastRefresh.set(refresh);
+            log.info("Sales profiles refreshed from the weeks {} to {}: {} products read, {} updated",
+                    refresh.fromWeek(), refresh.toWeek().minusDays(1), refresh.scannedProducts(),
+                    refresh.updatedProducts());
+            return Optional.of(refresh);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public Optional<SalesProfileRefresh> getLastRefresh() {
+        return Optional.ofNullable(lastRefresh.get());
+    }
+
+    /**
+     * Refreshes the profiles page by page, in product id order, of the products with sales recorded since the
+     * previous refresh, or of all the products with sales if the averaged weeks changed.
+     *
+     * @param startedAt Start of the refresh.
+     * @param asOf      Day of the refresh.
+     * @return The outcome of the refresh.
+     */
+    private SalesProfileRefresh refreshUpdatedProducts(Instant startedAt, LocalDate asOf) {
+        LocalDate toWeek = asOf.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate fromWeek = toWeek.minusWeeks(planningProperties.getSalesHistoryWeeks());
+        SalesProfileRefresh previous = lastRefresh.get();
+        Instant since = previous != null && previous.toWeek().equals(toWeek)
+                ? previous.startedAt().minus(INGESTION_MARGIN)
+                : Instant.EPOCH;
+        int batchSize = planningProperties.getBatchSize();
+        int scanned = 0;
+        int updated = 0;
+
+        List<Long> page = salesWeekRepository.findIdsUpdatedAfter(Long.MIN_VALUE, since,
+                PageRequest.of(0, batchSize));
+        while (!page.isEmpty()) {
+            updated += refreshProfiles(page, fromWeek, toWeek);
+            scanned += page.size();
+            page = salesWeekRepository.findIdsUpdatedAfter(page.get(page.size() - 1), since,
+                    PageRequest.of(0, batchSize));
+        }
+        return new SalesProfileRefresh(startedAt, Instant.now(), fromWeek, toWeek, scanned, updated);
+    }
+
+    /**
+     * Replaces the profiles of a page of products with their average sales over the averaged weeks, then
+     * invalidates the planning snapshots of the products whose profiles changed and records them in the change
+     * journal. Products that do not exist, or whose sales all belong to the current week, are left unchanged.
+     *
+     * @param productIds Identifiers of the products.
+     * @param fromWeek   First averaged week.
+     * @param toWeek     Week following the last averaged one.
+     * @return The number of products whose profiles changed.
+     */
+    private int refreshProfiles(List<Long> productIds, LocalDate fromWeek, LocalDate toWeek) {
+        Map<Long, LocalDate> firstWeeks = salesWeekRepository.findFirstWeeks(productIds).stream()
+                .collect(Collectors.toMap(SalesWeekRepository.FirstWeek::getProductId,
+                        SalesWeekRepository.FirstWeek::getWeekStart));
+        Map<Long, List<SalesWeek>> weeks = salesWeekRepository.findWeeks(productIds, fromWeek, toWeek).stream()
+                .collect(Collectors.groupingBy(SalesWeek::getProductId));
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, List<SalesProfile>> profiles = salesProfileRepository.findByProductIdIn(productIds).stream()
+                .collect(Collectors.groupingBy(profile -> profile.getProduct().getId()));
+
+        List<SalesProfile> modified = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            LocalDate firstWeek = firstWeeks.get(productId);
+            if (product == null || firstWeek == null) {
+                continue;
+            }
+            long weekCount = ChronoUnit.WEEKS.between(firstWeek.isAfter(fromWeek) ? firstWeek : fromWeek, toWeek);
+            if (weekCount <= 0) {
+                continue;
+            }
+            int before = modified.size();
+            averageSales(product, weeks.getOrDefault(productId, List.of()), weekCount,
+                    profiles.getOrDefault(productId, List.of()), modified);
+            if (modified.size() > before) {
+                updatedIds.add(productId);
+            }
+        }
+        salesProfileRepository.saveAll(modified);
+        for (Long productId : updatedIds) {
+            planningSnapshotService.invalidate(productId);
+            planningJournalService.markChanged(productId);
+        }
+        return updatedIds.size();
+    }
+
+    /**
+     * Sets the average sales of each weekday on the profiles of a product, creating the missing ones.
+     *
+     * @param product   The product.
+     * @param weeks     Its weekly rollups over the averaged weeks; weeks without sales have none.
+     * @param weekCount Number of averaged weeks.
+     * @param profiles  Its current profiles.
+     * @param modified  Receiver of the created and changed profiles.
+     */
+    private void averageSales(Product product, List<SalesWeek> weeks, long weekCount, List<SalesProfile> profiles,
+                              List<SalesProfile> modified) {
+        Map<DayOfWeek, SalesProfile> profilesByDay = new EnumMap<>(DayOfWeek.class);
+        for (SalesProfile profile : profiles) {
+            if (profile.getDayOfWeek() != null) {
+                profilesByDay.putIfAbsent(profile.getDayOfWeek(), profile);
+            }
+        }
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            long total = 0;
+            for (SalesWeek week : weeks) {
+                total += week.getQuantity(dayOfWeek);
+            }
+            // Returns may exceed the sales of a day, the demand never goes below zero
+            int quantity = (int) Math.max(0, Math.round((double) total / weekCount));
+            SalesProfile profile = profilesByDay.get(dayOfWeek);
+            if (profile == null) {
+                modified.add(new SalesProfile(null, dayOfWeek, quantity, product));
+            } else if (profile.getQuantitySold() != quantity) {
+                profile.setQuantitySold(quantity);
+                modified.add(profile);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.services.SimulationService;
+import com.adeo.stockoptimizer.simulation.CheckpointedSimulation;
+import com.adeo.stockoptimizer.simulation.PendingDeliveries;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.SimulationListener;
+import com.adeo.stockoptimizer.simulation.SimulationMode;
+import com.adeo.stockoptimizer.simulation.SimulationResult;
+import com.adeo.stockoptimizer.simulation.StockSimulator;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SimulationServiceImpl implements SimulationService, MeterBinder {
+
+    /**
+     * Approximate size in bytes of a cached result besides its arrays (key, record, array headers).
+     */
+    private static final int RESULT_OVERHEAD = 128;
+
+    private final PlanningProperties planningProperties;
+    private final Cache<ResultKey, SimulationResult> results;
+
+    public SimulationServiceImpl(PlanningProperties planningProperties) {
+        this.planningProperties = planningProperties;
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(planningProperties.getResultCacheMaxSize().toBytes())
+                .weigher((ResultKey key, SimulationResult result) -> weigh(result))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publishes the hits, misses and evictions of the cached results as the {@code simulation-results} cache.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, results, "simulation-results");
+    }
+
+    @Override
+    public SimulationResult simulate(PlanningSnapshot snapshot, int orderMultiple, int initialStock,
+                                     PendingDeliveries pending, SimulationHorizon horizon, boolean useCache) {
+        if (!useCache) {
+            return simulate(snapshot.input().withOrderMultiple(orderMultiple), initialStock, pending, horizon);
+        }
+        ResultKey key = new ResultKey(snapshot.product().getId(), snapshot.version(), initialStock,
+                orderMultiple, pending, horizon);
+        return results.get(key, k -> simulate(snapshot.input().withOrderMultiple(orderMultiple),
+                initialStock, pending, horizon));
+    }
+
+    @Override
+    public CheckpointedSimulation simulateWithCheckpoints(PlanningSnapshot snapshot, int initialStock,
+                                                          PendingDeliveries pending, SimulationHorizon horizon,
+                                                          SimulationListener listener, boolean useCache) {
+        PlanningInput input = snapshot.input();
+        CheckpointedSimulation simulation =
+                StockSimulator.simulateWithCheckpoints(input, initialStock, pending, horizon, listener);
+        if (useCache) {
+            results.put(new ResultKey(snapshot.product().getId(), snapshot.version(), initialStock,
+                    input.orderMultiple(), pending, horizon), simulation.result());
+        }
+        return simulation;
+    }
+
+    /**
+     * Simulates the horizon with the configured simulation mode.
+     *
+     * @param input        Compiled planning inputs, carrying the simulated order multiple.
+     * @param initialStock Initial stock at the start of the horizon.
+     * @param pending      Deliveries ordered before the horizon.
+     * @param horizon      Simulated period.
+     * @return The result of the simulation.
+     */
+    private SimulationResult simulate(PlanningInput input, int initialStock, PendingDeliveries pending,
+                                      SimulationHorizon horizon) {
+        SimulationMode mode = planningProperties.getSimulationMode();
+        return StockSimulator.simulate(input, initialStock, pending, horizon, mode);
+    }
+
+    /**
+     * Estimates the memory used by a cached result, in bytes.
+     *
+     * @param result The cached result.
+     * @return Its approximate size, dominated by the daily stock series.
+     */
+    private static int weigh(SimulationResult result) {
+        int values = result.dailyStock().length + result.orderDays().length + result.orderQuantities().length;
+        return RESULT_OVERHEAD + Integer.BYTES * values;
+    }
+
+    /**
+     * Inputs that fully determine a simulation result.
+     */
+    private record ResultKey(Long productId, long snapshotVersion, int initialStock, int orderMultiple,
+                             PendingDeliveries pending, SimulationHorizon horizon) {
+    }
+}
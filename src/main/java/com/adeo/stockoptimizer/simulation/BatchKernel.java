@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Implementation of the day loop of {@link BatchStockSimulator}.
+ */
+interface BatchKernel {
+
+    /**
+     * Simulates every scenario of the batch and fills the result.
+     *
+     * @param batch   Simulated scenarios.
+     * @param horizon Simulated period.
+     * @param result  Receiver of the totals and monthly statistics of each scenario.
+     */
+    void run(ScenarioBatch batch, SimulationHorizon horizon, BatchSimulationResult result);
+}
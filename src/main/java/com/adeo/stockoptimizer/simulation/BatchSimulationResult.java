@@ -0,0 +1,108 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.utils.StockStats;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Output of a batch simulation: per-scenario totals and monthly stock statistics.
+ * <p>
+ * Monthly values are stored scenario by scenario: the value of month {@code m} of scenario {@code s}
+ * is at index {@code s * months + m}.
+ */
+public final class BatchSimulationResult {
+
+    private final YearMonth firstMonth;
+    private final int days;
+    final int months;
+    final int[] monthEnds;
+    final int[] stockoutDays;
+    final int[] orderCounts;
+    final long[] unmetDemands;
+    final long[] monthStockSums;
+    final int[] monthMinStocks;
+    final int[] monthMaxStocks;
+
+    /**
+     * @param horizon   Simulated period.
+     * @param monthEnds Index of the day following the last day of each month of the horizon.
+     * @param scenarios Number of scenarios.
+     */
+    BatchSimulationResult(SimulationHorizon horizon, int[] monthEnds, int scenarios) {
+        this.firstMonth = YearMonth.from(horizon.start());
+        this.days = horizon.days();
+        this.months = monthEnds.length;
+        this.monthEnds = monthEnds;
+        this.stockoutDays = new int[scenarios];
+        this.orderCounts = new int[scenarios];
+        this.unmetDemands = new long[scenarios];
+        this.monthStockSums = new long[scenarios * months];
+        this.monthMinStocks = new int[scenarios * months];
+        this.monthMaxStocks = new int[scenarios * months];
+    }
+
+    /**
+     * Returns the number of simulated scenarios.
+     */
+    public int scenarios() {
+        return stockoutDays.length;
+    }
+
+    /**
+     * Returns the average stock level of a scenario over the horizon, or 0 for an empty horizon.
+     */
+    public double averageStock(int scenario) {
+        return days == 0 ? 0.0 : (double) totalStock(scenario) / days;
+    }
+
+    /**
+     * Returns the sum of the daily stock levels of a scenario, in unit-days.
+     */
+    public long totalStock(int scenario) {
+        long total = 0;
+        for (int month = 0; month < months; month++) {
+            total += monthStockSums[scenario * months + month];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of days on which the demand of a scenario could not be fully served.
+     */
+    public int stockoutDays(int scenario) {
+        return stockoutDays[scenario];
+    }
+
+    /**
+     * Returns the part of the demand of a scenario that could not be served.
+     */
+    public long unmetDemand(int scenario) {
+        return unmetDemands[scenario];
+    }
+
+    /**
+     * Returns the number of orders placed in a scenario.
+     */
+    public int orderCount(int scenario) {
+        return orderCounts[scenario];
+    }
+
+    /**
+     * Returns the minimum, maximum and average stock of each month of a scenario.
+     *
+     * @param scenario Index of the scenario.
+     * @return The statistics of each month, keyed by month in "YYYY-MM" format, in chronological order.
+     */
+    public Map<String, StockStats> monthlyStats(int scenario) {
+        Map<String, StockStats> monthlyStats = new LinkedHashMap<>();
+        for (int month = 0; month < months; month++) {
+            int i = scenario * months + month;
+            int monthDays = monthEnds[month] - (month == 0 ? 0 : monthEnds[month - 1]);
+            monthlyStats.put(firstMonth.plusMonths(month).toString(), new StockStats(monthMinStocks[i],
+                    monthMaxStocks[i], (double) monthStockSums[i] / monthDays, null, null));
+        }
+        return monthlyStats;
+    }
+}
@@ -0,0 +1,111 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Simulates many scenarios of one product over the same horizon, with the same rules as
+ * {@link StockSimulator}.
+ * <p>
+ * When the {@code jdk.incubator.vector} module is available (the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}), scenarios are advanced in lockstep on the lanes of
+ * SIMD vectors. Otherwise, and for scenarios whose stock levels could overflow 32-bit monthly sums,
+ * each scenario is simulated in turn by the scalar simulator. Both give exactly the same result.
+ */
+public final class BatchStockSimulator {
+
+    private static final BatchKernel SCALAR_KERNEL = new ScalarBatchKernel();
+    private static final BatchKernel VECTOR_KERNEL = loadVectorKernel();
+
+    private BatchStockSimulator() {}
+
+    /**
+     * Simulates every scenario of the batch over the horizon.
+     *
+     * @param batch   Simulated scenarios.
+     * @param horizon Simulated period.
+     * @return The totals and monthly statistics of each scenario.
+     */
+    public static BatchSimulationResult simulate(ScenarioBatch batch, SimulationHorizon horizon) {
+        boolean vectorized = VECTOR_KERNEL != null && fitsMonthlyIntSums(batch);
+        return simulate(batch, horizon, vectorized ? VECTOR_KERNEL : SCALAR_KERNEL);
+    }
+
+    /**
+     * Tells whether batches are simulated with the Vector API.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_KERNEL != null;
+    }
+
+    static BatchSimulationResult simulate(ScenarioBatch batch, SimulationHorizon horizon, BatchKernel kernel) {
+        BatchSimulationResult result = new BatchSimulationResult(horizon, monthEnds(horizon), batch.size());
+        kernel.run(batch, horizon, result);
+        return result;
+    }
+
+    /**
+     * Returns the vectorised kernel, or {@code null} when the Vector API is not available.
+     */
+    static BatchKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return new VectorBatchKernel();
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that no monthly sum of the batch can overflow an {@code int}. After the last order, the stock
+     * never exceeds the safety stock and a week of demand plus the orders still in transit: at most one per
+     * order day and week of lead time, and one more, each below a week of demand, the safety stock and the
+     * order multiple. Before the first order, it never exceeds the initial stock.
+     *
+     * @param batch Simulated scenarios.
+     * @return {@code true} if 31 days of the highest possible stock or demand fit in an {@code int}.
+     */
+    private static boolean fitsMonthlyIntSums(ScenarioBatch batch) {
+        long weekDemand = 0;
+        long maxDemand = 0;
+        for (int demand : batch.weeklyDemand()) {
+            weekDemand += Math.abs((long) demand);
+            maxDemand = Math.max(maxDemand, Math.abs((long) demand));
+        }
+        int orderDaysPerWeek = Integer.bitCount(batch.orderDays());
+        long maxStock = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            long safetyStock = batch.safetyStocks()[i];
+            long ordersInTransit = (batch.deliveryLeadTimes()[i] / 7 + 2L) * orderDaysPerWeek;
+            long bound = Math.max(Math.abs((long) batch.initialStocks()[i]), safetyStock + weekDemand)
+                    + ordersInTransit * (weekDemand + safetyStock + batch.orderMultiples()[i] + 1);
+            maxStock = Math.max(maxStock, bound);
+        }
+        return Math.max(maxStock, maxDemand) * 31 <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Calculates where each month of the horizon ends.
+     *
+     * @param horizon Simulated period.
+     * @return The index of the day following the last day of each month, in chronological order.
+     */
+    private static int[] monthEnds(SimulationHorizon horizon) {
+        int[] monthEnds = new int[horizon.days() / 28 + 2];
+        int months = 0;
+        YearMonth month = YearMonth.from(horizon.start());
+        int end = month.lengthOfMonth() - horizon.start().getDayOfMonth() + 1;
+        while (horizon.days() > 0) {
+            if (end >= horizon.days()) {
+                monthEnds[months++] = horizon.days();
+                break;
+            }
+            monthEnds[months++] = end;
+            month = month.plusMonths(1);
+            end += month.lengthOfMonth();
+        }
+        return Arrays.copyOf(monthEnds, months);
+    }
+}
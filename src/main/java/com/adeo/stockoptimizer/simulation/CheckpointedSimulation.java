@@ -0,0 +1,10 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Output of a simulation stepping every day: its result and the checkpoints it can be resumed from.
+ *
+ * @param result      Daily stock levels and orders placed.
+ * @param checkpoints Weekly checkpoints of the simulation.
+ */
+public record CheckpointedSimulation(SimulationResult result, PlanCheckpoints checkpoints) {
+}
@@ -0,0 +1,154 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Date-dependent demand of a product on top of its weekly demand: seasonal factors multiplying the weekly
+ * demand, and daily quantities replacing it (promotions, holidays, closures).
+ * <p>
+ * Both are run-length encoded: a run applies one value to consecutive days and is stored as three ints (first
+ * day as an epoch day, number of days, value), sorted by first day and without overlap. Factors are stored in
+ * thousandths. A year of seasons and promotions takes a few dozen ints, and is decoded once per simulation into
+ * the demand of each day of the horizon, which the simulator then reads like the weekly table.
+ * <p>
+ * Instances are immutable.
+ */
+public final class DemandCalendar {
+
+    /**
+     * Calendar without adjustments: the demand follows the weekly table.
+     */
+    public static final DemandCalendar NONE = new DemandCalendar(new int[0], new int[0]);
+
+    /**
+     * Encoded factor leaving the demand unchanged.
+     */
+    public static final int FACTOR_SCALE = 1000;
+
+    private static final int RUN_INTS = 3;
+
+    private final int[] factorRuns;
+    private final int[] overrideRuns;
+
+    private DemandCalendar(int[] factorRuns, int[] overrideRuns) {
+        this.factorRuns = factorRuns;
+        this.overrideRuns = overrideRuns;
+    }
+
+    /**
+     * Encodes the demand adjustments of a product. When two adjustments of the same type overlap, the one
+     * starting first wins, like the first sales profile of a day; an override applies over a seasonal factor.
+     *
+     * @param adjustments Demand adjustments of the product; incomplete ones are ignored.
+     * @return The encoded calendar, {@link #NONE} without adjustments.
+     */
+    public static DemandCalendar compile(List<DemandAdjustment> adjustments) {
+        List<DemandAdjustment> sorted = adjustments.stream()
+                .filter(adjustment -> adjustment.getStartDate() != null && adjustment.getEndDate() != null
+                        && adjustment.getType() != null)
+                .sorted(Comparator.comparing(DemandAdjustment::getStartDate))
+                .toList();
+        if (sorted.isEmpty()) {
+            return NONE;
+        }
+        return new DemandCalendar(encode(sorted, DemandAdjustmentType.SEASONAL_FACTOR),
+                encode(sorted, DemandAdjustmentType.OVERRIDE));
+    }
+
+    /**
+     * Tells whether the calendar has no adjustment.
+     */
+    public boolean isEmpty() {
+        return factorRuns.length == 0 && overrideRuns.length == 0;
+    }
+
+    /**
+     * Returns the number of runs of the calendar.
+     */
+    public int runs() {
+        return (factorRuns.length + overrideRuns.length) / RUN_INTS;
+    }
+
+    /**
+     * Decodes the demand of each day of a horizon: the weekly demand of the day, multiplied by its seasonal
+     * factor (rounded half up) or replaced by its override.
+     *
+     * @param weeklyDemand Weekly demand table, indexed by day-of-week (MONDAY = 0).
+     * @param horizon      Simulated period.
+     * @return The demand of each day of the horizon.
+     */
+    public int[] decode(int[] weeklyDemand, SimulationHorizon horizon) {
+        int days = horizon.days();
+        int[] demand = new int[days];
+        int dayOfWeek = horizon.startDayOfWeek();
+        for (int day = 0; day < days; day++) {
+            demand[day] = weeklyDemand[dayOfWeek];
+            dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+        long origin = horizon.start().toEpochDay();
+        for (int run = 0; run < factorRuns.length; run += RUN_INTS) {
+            int to = endOf(factorRuns, run, origin, days);
+            long factor = factorRuns[run + 2];
+            for (int day = startOf(factorRuns, run, origin, days); day < to; day++) {
+                demand[day] = (int) ((demand[day] * factor + FACTOR_SCALE / 2) / FACTOR_SCALE);
+            }
+        }
+        for (int run = 0; run < overrideRuns.length; run += RUN_INTS) {
+            int from = startOf(overrideRuns, run, origin, days);
+            int to = endOf(overrideRuns, run, origin, days);
+            if (from < to) {
+                Arrays.fill(demand, from, to, overrideRuns[run + 2]);
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Encodes the adjustments of one type as runs, cutting the days already covered by an earlier run.
+     *
+     * @param sorted Adjustments sorted by start date.
+     * @param type   Type of the encoded adjustments.
+     * @return The runs, three ints each.
+     */
+    private static int[] encode(List<DemandAdjustment> sorted, DemandAdjustmentType type) {
+        int[] runs = new int[sorted.size() * RUN_INTS];
+        int length = 0;
+        long nextFree = Long.MIN_VALUE;
+        for (DemandAdjustment adjustment : sorted) {
+            if (adjustment.getType() != type) {
+                continue;
+            }
+            long first = Math.max(adjustment.getStartDate().toEpochDay(), nextFree);
+            long last = adjustment.getEndDate().toEpochDay();
+            if (last < first) {
+                continue;
+            }
+            runs[length++] = (int) first;
+            runs[length++] = (int) (last - first + 1);
+            runs[length++] = type == DemandAdjustmentType.SEASONAL_FACTOR
+                    ? (int) Math.round(adjustment.getValue() * FACTOR_SCALE)
+                    : (int) Math.round(adjustment.getValue());
+            nextFree = last + 1;
+        }
+        return Arrays.copyOf(runs, length);
+    }
+
+    /**
+     * Returns the index in the horizon of the first day of a run, clamped to the horizon.
+     */
+    private static int startOf(int[] runs, int run, long origin, int days) {
+        return (int) Math.min(days, Math.max(0, runs[run] - origin));
+    }
+
+    /**
+     * Returns the index in the horizon of the day following a run, clamped to the horizon.
+     */
+    private static int endOf(int[] runs, int run, long origin, int days) {
+        return (int) Math.min(days, Math.max(0, runs[run] + (long) runs[run + 1] - origin));
+    }
+}
@@ -0,0 +1,32 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.util.List;
+
+/**
+ * Outcome of the replications of a stochastic simulation.
+ * The service level is the fill rate: the share of the demand that was served.
+ *
+ * @param replications        Number of simulated replications.
+ * @param seed                Seed of the random streams, replaying the same replications.
+ * @param serviceLevel        Share of the demand served over the whole horizon.
+ * @param stockoutProbability Share of the replications with at least one stockout day.
+ * @param months              Outcome of each month, in chronological order.
+ */
+public record MonteCarloResult(int replications, long seed, double serviceLevel, double stockoutProbability,
+                               List<MonthlyRisk> months) {
+
+    /**
+     * Outcome of the replications over one month. Stock percentiles are taken over the average stock
+     * of the month in each replication.
+     *
+     * @param month               Month in "YYYY-MM" format.
+     * @param serviceLevel        Share of the demand of the month served.
+     * @param stockoutProbability Share of the replications with at least one stockout day in the month.
+     * @param p5Stock             5th percentile of the average stock of the month.
+     * @param medianStock         Median of the average stock of the month.
+     * @param p95Stock            95th percentile of the average stock of the month.
+     */
+    public record MonthlyRisk(String month, double serviceLevel, double stockoutProbability,
+                              double p5Stock, double medianStock, double p95Stock) {
+    }
+}
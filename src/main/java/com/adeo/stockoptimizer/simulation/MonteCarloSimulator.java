@@ -0,0 +1,214 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo simulation of the stock under stochastic demand.
+ * <p>
+ * Each replication draws the demand of every day from a {@link PoissonDemand} whose means are the weekly
+ * demand of the input, adjusted by its demand calendar, then runs the usual simulation against it: orders
+ * are still planned from the weekly demand and the demand calendar, which play the role of the forecast. Replications are split into chunks simulated in
+ * parallel, each chunk drawing from its own {@link SplittableRandom} stream split from the seed, so the
+ * result only depends on the seed and not on the number of threads.
+ */
+public final class MonteCarloSimulator {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private MonteCarloSimulator() {}
+
+    /**
+     * Simulates the horizon under stochastic demand.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param replications Number of replications (at least 1).
+     * @param seed         Seed of the random streams.
+     * @return The service level, stockout probability and stock percentiles, overall and per month.
+     */
+    public static MonteCarloResult simulate(PlanningInput input, int initialStock, SimulationHorizon horizon,
+                                            int replications, long seed) {
+        return simulate(input, initialStock, horizon, replications, seed, ProgressListener.NONE);
+    }
+
+    /**
+     * Simulates the horizon under stochastic demand, reporting the simulated replications as each chunk
+     * completes.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param replications Number of replications (at least 1).
+     * @param seed         Seed of the random streams.
+     * @param progress     Receiver of the number of simulated replications.
+     * @return The service level, stockout probability and stock percentiles, overall and per month.
+     */
+    public static MonteCarloResult simulate(PlanningInput input, int initialStock, SimulationHorizon horizon,
+                                            int replications, long seed, ProgressListener progress) {
+        if (replications < 1) {
+            throw new IllegalArgumentException("Number of replications must be at least 1");
+        }
+        YearMonth firstMonth = YearMonth.from(horizon.start());
+        int[] monthOfDay = new int[horizon.days()];
+        for (int day = 0; day < monthOfDay.length; day++) {
+            monthOfDay[day] = (int) firstMonth.until(YearMonth.from(horizon.dateOf(day)), ChronoUnit.MONTHS);
+        }
+        int months = monthOfDay.length == 0 ? 0 : monthOfDay[monthOfDay.length - 1] + 1;
+        int[] dayCounts = new int[months];
+        for (int month : monthOfDay) {
+            dayCounts[month]++;
+        }
+
+        // The sampled demand is centred on the forecast of the orders, calendar included
+        PoissonDemand demand = input.demandCalendar().isEmpty() ? new PoissonDemand(input.weeklyDemand())
+                : PoissonDemand.ofDailyDemand(input.demandCalendar().decode(input.weeklyDemand(), horizon));
+        SplittableRandom root = new SplittableRandom(seed);
+        Chunk[] chunks = new Chunk[(replications + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        double[] averageStocks = new double[months * replications];
+        for (int c = 0; c < chunks.length; c++) {
+            int from = c * CHUNK_SIZE;
+            chunks[c] = new Chunk(root.split(), from, Math.min(from + CHUNK_SIZE, replications),
+                    replications, monthOfDay, dayCounts, averageStocks);
+        }
+        AtomicLong simulated = new AtomicLong();
+        IntStream.range(0, chunks.length).parallel()
+                .forEach(c -> {
+                    chunks[c].run(input, initialStock, horizon, demand);
+                    progress.onProgress(simulated.addAndGet(chunks[c].to - chunks[c].from), replications);
+                });
+
+        long[] demandTotals = new long[months];
+        long[] unmetTotals = new long[months];
+        int[] stockoutCounts = new int[months];
+        int horizonStockouts = 0;
+        for (Chunk chunk : chunks) {
+            for (int month = 0; month < months; month++) {
+                demandTotals[month] += chunk.demandTotals[month];
+                unmetTotals[month] += chunk.unmetTotals[month];
+                stockoutCounts[month] += chunk.stockoutCounts[month];
+            }
+            horizonStockouts += chunk.horizonStockouts;
+        }
+
+        List<MonteCarloResult.MonthlyRisk> monthlyRisks = new ArrayList<>(months);
+        for (int month = 0; month < months; month++) {
+            int from = month * replications;
+            Arrays.sort(averageStocks, from, from + replications);
+            monthlyRisks.add(new MonteCarloResult.MonthlyRisk(firstMonth.plusMonths(month).toString(),
+                    serviceLevel(demandTotals[month], unmetTotals[month]),
+                    (double) stockoutCounts[month] / replications,
+                    percentile(averageStocks, from, replications, 5),
+                    percentile(averageStocks, from, replications, 50),
+                    percentile(averageStocks, from, replications, 95)));
+        }
+        return new MonteCarloResult(replications, seed,
+                serviceLevel(Arrays.stream(demandTotals).sum(), Arrays.stream(unmetTotals).sum()),
+                (double) horizonStockouts / replications, monthlyRisks);
+    }
+
+    /**
+     * Computes the share of the demand that was served.
+     *
+     * @param demand      Total demand.
+     * @param unmetDemand Part of the demand that could not be served.
+     * @return The service level, 1 when there was no demand.
+     */
+    private static double serviceLevel(long demand, long unmetDemand) {
+        return demand == 0 ? 1 : 1 - (double) unmetDemand / demand;
+    }
+
+    /**
+     * Returns a percentile of a sorted range, using the nearest-rank method.
+     *
+     * @param sorted     Array holding the sorted range.
+     * @param from       First index of the range.
+     * @param count      Number of values in the range.
+     * @param percentile Percentile between 1 and 100.
+     * @return The smallest value such that at least {@code percentile}% of the values are lower or equal.
+     */
+    private static double percentile(double[] sorted, int from, int count, int percentile) {
+        int rank = (count * percentile + 99) / 100;
+        return sorted[from + Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Consecutive replications simulated by one worker, with their own random stream and their own totals.
+     * Average stocks are written into the shared array, at the indexes of the replications of the chunk.
+     */
+    private static final class Chunk implements SimulationListener {
+
+        private final SplittableRandom random;
+        private final int from;
+        private final int to;
+        private final int replications;
+        private final int[] monthOfDay;
+        private final int[] dayCounts;
+        private final double[] averageStocks;
+
+        private final long[] stockSums;
+        private final boolean[] stockouts;
+        private final long[] demandTotals;
+        private final long[] unmetTotals;
+        private final int[] stockoutCounts;
+        private int horizonStockouts;
+
+        private Chunk(SplittableRandom random, int from, int to, int replications, int[] monthOfDay,
+                      int[] dayCounts, double[] averageStocks) {
+            this.random = random;
+            this.from = from;
+            this.to = to;
+            this.replications = replications;
+            this.monthOfDay = monthOfDay;
+            this.dayCounts = dayCounts;
+            this.averageStocks = averageStocks;
+            this.stockSums = new long[dayCounts.length];
+            this.stockouts = new boolean[dayCounts.length];
+            this.demandTotals = new long[dayCounts.length];
+            this.unmetTotals = new long[dayCounts.length];
+            this.stockoutCounts = new int[dayCounts.length];
+        }
+
+        private void run(PlanningInput input, int initialStock, SimulationHorizon horizon, PoissonDemand demand) {
+            int[] dailyDemand = new int[horizon.days()];
+            for (int replication = from; replication < to; replication++) {
+                demand.sample(horizon, random, dailyDemand);
+                for (int day = 0; day < dailyDemand.length; day++) {
+                    demandTotals[monthOfDay[day]] += dailyDemand[day];
+                }
+                Arrays.fill(stockSums, 0);
+                Arrays.fill(stockouts, false);
+                StockSimulator.run(input, initialStock, horizon, dailyDemand, this);
+
+                boolean stockout = false;
+                for (int month = 0; month < dayCounts.length; month++) {
+                    averageStocks[month * replications + replication] = (double) stockSums[month] / dayCounts[month];
+                    if (stockouts[month]) {
+                        stockoutCounts[month]++;
+                        stockout = true;
+                    }
+                }
+                if (stockout) {
+                    horizonStockouts++;
+                }
+            }
+        }
+
+        @Override
+        public void onDay(int day, int stock, int unmetDemand) {
+            int month = monthOfDay[day];
+            stockSums[month] += stock;
+            if (unmetDemand > 0) {
+                unmetTotals[month] += unmetDemand;
+                stockouts[month] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.utils.StockStats;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Aggregates the daily stock levels of a simulation into monthly statistics, in a single pass.
+ * <p>
+ * Count, sum, minimum and maximum are kept in primitive arrays indexed by the ordinal of the month in the
+ * horizon. Percentiles are optional: they need the stock levels of the current month, which are sorted
+ * once the month is over. A month is complete, and handed to the optional consumer, as soon as the first
+ * day of the next month is simulated.
+ */
+public final class MonthlyStatsAccumulator implements SimulationListener {
+
+    private final YearMonth firstMonth;
+    private final int[] dayCounts;
+    private final long[] stockSums;
+    private final int[] minStocks;
+    private final int[] maxStocks;
+    private final int[] medianStocks;
+    private final int[] p95Stocks;
+    private final int[] monthStocks;
+    private final BiConsumer<String, StockStats> consumer;
+
+    private int month;
+    private int nextMonthDay;
+
+    /**
+     * @param horizon         Simulated period.
+     * @param withPercentiles Whether the median and the 95th percentile of each month are computed.
+     * @param consumer        Receiver of each month (in "YYYY-MM" format) once complete, or {@code null}.
+     */
+    public MonthlyStatsAccumulator(SimulationHorizon horizon, boolean withPercentiles,
+                                   BiConsumer<String, StockStats> consumer) {
+        this.firstMonth = YearMonth.from(horizon.start());
+        int months = horizon.days() == 0 ? 0
+                : (int) firstMonth.until(YearMonth.from(horizon.dateOf(horizon.days() - 1)), ChronoUnit.MONTHS) + 1;
+        this.dayCounts = new int[months];
+        this.stockSums = new long[months];
+        this.minStocks = new int[months];
+        this.maxStocks = new int[months];
+        this.medianStocks = withPercentiles ? new int[months] : null;
+        this.p95Stocks = withPercentiles ? new int[months] : null;
+        this.monthStocks = withPercentiles ? new int[31] : null;
+        this.consumer = consumer;
+        this.nextMonthDay = firstMonth.lengthOfMonth() - horizon.start().getDayOfMonth() + 1;
+    }
+
+    /**
+     * Aggregates the daily stock levels of an already simulated horizon.
+     *
+     * @param horizon         Simulated period.
+     * @param dailyStock      Stock level at the end of each day of the horizon.
+     * @param withPercentiles Whether the median and the 95th percentile of each month are computed.
+     * @return The statistics of each month, in chronological order.
+     */
+    public static Map<String, StockStats> aggregate(SimulationHorizon horizon, int[] dailyStock,
+                                                    boolean withPercentiles) {
+        MonthlyStatsAccumulator accumulator = new MonthlyStatsAccumulator(horizon, withPercentiles, null);
+        for (int day = 0; day < dailyStock.length; day++) {
+            accumulator.onDay(day, dailyStock[day], 0);
+        }
+        accumulator.onComplete();
+        return accumulator.toMap();
+    }
+
+    @Override
+    public void onDay(int day, int stock, int unmetDemand) {
+        if (day == nextMonthDay) {
+            completeMonth();
+            month++;
+            nextMonthDay += firstMonth.plusMonths(month).lengthOfMonth();
+        }
+        int dayInMonth = dayCounts[month]++;
+        stockSums[month] += stock;
+        if (dayInMonth == 0 || stock < minStocks[month]) {
+            minStocks[month] = stock;
+        }
+        if (dayInMonth == 0 || stock > maxStocks[month]) {
+            maxStocks[month] = stock;
+        }
+        if (monthStocks != null) {
+            monthStocks[dayInMonth] = stock;
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (month < dayCounts.length && dayCounts[month] > 0) {
+            completeMonth();
+        }
+    }
+
+    /**
+     * Returns the statistics of every month simulated so far.
+     *
+     * @return The statistics of each month, keyed by month in "YYYY-MM" format, in chronological order.
+     */
+    public Map<String, StockStats> toMap() {
+        Map<String, StockStats> monthlyStats = new LinkedHashMap<>();
+        for (int i = 0; i < dayCounts.length && dayCounts[i] > 0; i++) {
+            monthlyStats.put(firstMonth.plusMonths(i).toString(), toStockStats(i));
+        }
+        return monthlyStats;
+    }
+
+    /**
+     * Computes the percentiles of the current month, then hands it to the consumer.
+     */
+    private void completeMonth() {
+        if (monthStocks != null) {
+            int days = dayCounts[month];
+            Arrays.sort(monthStocks, 0, days);
+            medianStocks[month] = percentile(monthStocks, days, 50);
+            p95Stocks[month] = percentile(monthStocks, days, 95);
+        }
+        if (consumer != null) {
+            consumer.accept(firstMonth.plusMonths(month).toString(), toStockStats(month));
+        }
+    }
+
+    private StockStats toStockStats(int month) {
+        return new StockStats(minStocks[month], maxStocks[month], (double) stockSums[month] / dayCounts[month],
+                medianStocks != null ? medianStocks[month] : null,
+                p95Stocks != null ? p95Stocks[month] : null);
+    }
+
+    /**
+     * Returns a percentile of sorted values, using the nearest-rank method.
+     *
+     * @param sorted     Sorted values.
+     * @param count      Number of values.
+     * @param percentile Percentile between 1 and 100.
+     * @return The smallest value such that at least {@code percentile}% of the values are lower or equal.
+     */
+    private static int percentile(int[] sorted, int count, int percentile) {
+        int rank = (count * percentile + 99) / 100;
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
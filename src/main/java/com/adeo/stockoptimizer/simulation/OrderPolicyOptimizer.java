@@ -0,0 +1,344 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Searches the order days, order multiple and safety stock of a product together, with a cost function
+ * made of holding, ordering and stockout costs.
+ * <p>
+ * The search is a branch-and-bound over the sets of order days. It maintains the Pareto front of the
+ * inventory cost (holding and ordering) against the stockout cost. Before a branch is simulated, each
+ * of its candidates gets a lower bound that holds whatever the outcome of its simulation:
+ * <ul>
+ *     <li>the demand before the first delivery that can possibly arrive, beyond the initial stock, is lost;</li>
+ *     <li>the demand served beyond the initial stock is delivered by orders, each one smaller than the
+ *     safety stock, the demand covered by an order and the order multiple together;</li>
+ *     <li>the initial stock and each delivery, at least as large as the order multiple, are held until
+ *     the demand consumes them.</li>
+ * </ul>
+ * A candidate whose bound is dominated by the current front cannot be on the front: it is not simulated.
+ * The remaining candidates of a branch are simulated together by the {@link BatchStockSimulator}.
+ * Branches are explored from the most promising bound, so that the front prunes early.
+ */
+public final class OrderPolicyOptimizer {
+
+    private static final int ALL_ORDER_DAYS = 0x7F;
+
+    private OrderPolicyOptimizer() {}
+
+    /**
+     * Finds the Pareto front of the order policies of a product.
+     *
+     * @param input          Compiled planning inputs of the product; its order days, multiple and safety stock
+     *                       are ignored.
+     * @param initialStock   Stock at the start of the horizon.
+     * @param horizon        Simulated period.
+     * @param orderMultiples Candidate order multiples.
+     * @param safetyStocks   Candidate safety stocks.
+     * @param costs          Cost function.
+     * @return The cheapest policy and the Pareto front.
+     */
+    public static PolicyOptimizationResult optimize(PlanningInput input, int initialStock, SimulationHorizon horizon,
+                                                    int[] orderMultiples, int[] safetyStocks, PolicyCosts costs) {
+        return optimize(input, initialStock, horizon, orderMultiples, safetyStocks, costs, ProgressListener.NONE);
+    }
+
+    /**
+     * Finds the Pareto front of the order policies of a product, reporting the explored sets of order days.
+     *
+     * @param input          Compiled planning inputs of the product; its order days, multiple and safety stock
+     *                       are ignored.
+     * @param initialStock   Stock at the start of the horizon.
+     * @param horizon        Simulated period.
+     * @param orderMultiples Candidate order multiples.
+     * @param safetyStocks   Candidate safety stocks.
+     * @param costs          Cost function.
+     * @param progress       Receiver of the number of explored sets of order days.
+     * @return The cheapest policy and the Pareto front.
+     */
+    public static PolicyOptimizationResult optimize(PlanningInput input, int initialStock, SimulationHorizon horizon,
+                                                    int[] orderMultiples, int[] safetyStocks, PolicyCosts costs,
+                                                    ProgressListener progress) {
+        if (orderMultiples.length == 0 || safetyStocks.length == 0) {
+            throw new IllegalArgumentException("At least one order multiple and one safety stock must be evaluated");
+        }
+        // Negative demands return units to the stock: they only count as stock available to serve the others
+        long[] cumulativeDemand = new long[horizon.days() + 1];
+        long returns = 0;
+        int dayOfWeek = horizon.startDayOfWeek();
+        for (int day = 0; day < horizon.days(); day++) {
+            int demand = input.weeklyDemand()[dayOfWeek];
+            cumulativeDemand[day + 1] = cumulativeDemand[day] + Math.max(0, demand);
+            returns += Math.max(0, -demand);
+            dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+
+        List<Branch> branches = new ArrayList<>();
+        for (int orderDays = 1; orderDays <= ALL_ORDER_DAYS; orderDays++) {
+            branches.add(Branch.of(orderDays, input, initialStock, returns, horizon, cumulativeDemand,
+                    orderMultiples, safetyStocks, costs));
+        }
+        branches.sort(Comparator.comparingDouble(Branch::bestBound).thenComparingInt(Branch::orderDays));
+
+        ParetoFront front = new ParetoFront();
+        int evaluated = 0;
+        int explored = 0;
+        for (Branch branch : branches) {
+            List<int[]> candidates = new ArrayList<>();
+            for (int k = 0; k < orderMultiples.length; k++) {
+                for (int safetyStock : safetyStocks) {
+                    if (!front.dominatesBound(branch, k, safetyStock, costs)) {
+                        candidates.add(new int[]{orderMultiples[k], safetyStock});
+                    }
+                }
+            }
+            if (!candidates.isEmpty()) {
+                evaluate(input, branch.orderDays(), initialStock, horizon, candidates, costs).forEach(front::add);
+                evaluated += candidates.size();
+            }
+            progress.onProgress(++explored, branches.size());
+        }
+
+        List<PolicyEvaluation> paretoFront = front.points();
+        PolicyEvaluation best = paretoFront.stream().min(PolicyEvaluation.RANKING).orElseThrow();
+        return new PolicyOptimizationResult(best, paretoFront,
+                ALL_ORDER_DAYS * orderMultiples.length * safetyStocks.length, evaluated);
+    }
+
+    /**
+     * Simulates the candidates of a branch in one batch.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param orderDays    Order days of the branch.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param candidates   Order multiple and safety stock of each candidate.
+     * @param costs        Cost function.
+     * @return The evaluation of each candidate.
+     */
+    private static List<PolicyEvaluation> evaluate(PlanningInput input, int orderDays, int initialStock,
+                                                   SimulationHorizon horizon, List<int[]> candidates,
+                                                   PolicyCosts costs) {
+        int size = candidates.size();
+        int[] initialStocks = new int[size];
+        int[] leadTimes = new int[size];
+        int[] multiples = new int[size];
+        int[] safetyStocks = new int[size];
+        Arrays.fill(initialStocks, initialStock);
+        Arrays.fill(leadTimes, input.deliveryLeadTime());
+        for (int i = 0; i < size; i++) {
+            multiples[i] = candidates.get(i)[0];
+            safetyStocks[i] = candidates.get(i)[1];
+        }
+        ScenarioBatch batch = new ScenarioBatch(input.weeklyDemand(), orderDays, initialStocks, multiples, leadTimes,
+                safetyStocks);
+        BatchSimulationResult result = BatchStockSimulator.simulate(batch, horizon);
+
+        List<PolicyEvaluation> evaluations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            evaluations.add(new PolicyEvaluation(orderDays, multiples[i], safetyStocks[i],
+                    costs.holdingCost() * result.totalStock(i),
+                    costs.orderCost() * result.orderCount(i),
+                    costs.stockoutPenalty() * result.unmetDemand(i),
+                    result.unmetDemand(i), result.stockoutDays(i), result.orderCount(i)));
+        }
+        return evaluations;
+    }
+
+    /**
+     * A set of order days, with what bounds its candidates.
+     *
+     * @param orderDays        Days of the week on which orders may be placed.
+     * @param orderMultiples   Candidate order multiples.
+     * @param minUnmetDemand   Demand lost before the first delivery that can arrive.
+     * @param totalDemand      Demand of the whole horizon.
+     * @param availableStock   Stock available without any delivery: the initial stock and the returns.
+     * @param maxCoveredDemand Largest demand covered by one order.
+     * @param minHoldingCost   Cost of holding the initial stock until it is consumed.
+     * @param deliveryHolding  For each order multiple, the lowest cost of holding {@code n} deliveries at index
+     *                         {@code n}.
+     * @param bestBound        Lowest total cost bound of the candidates of the branch.
+     */
+    private record Branch(int orderDays, int[] orderMultiples, long minUnmetDemand, long totalDemand,
+                          long availableStock, long maxCoveredDemand, double minHoldingCost,
+                          double[][] deliveryHolding, double bestBound) {
+
+        private static Branch of(int orderDays, PlanningInput input, int initialStock, long returns,
+                                 SimulationHorizon horizon, long[] cumulativeDemand, int[] orderMultiples,
+                                 int[] safetyStocks, PolicyCosts costs) {
+            int days = horizon.days();
+            int leadTime = input.deliveryLeadTime();
+            // A same-day delivery never enters the stock
+            int[] arrivalDays = leadTime == 0 ? new int[0] : IntStream.range(0, Math.max(0, days - leadTime))
+                    .filter(day -> (orderDays >> (horizon.startDayOfWeek() + day) % 7 & 1) != 0)
+                    .map(day -> day + leadTime)
+                    .toArray();
+            int firstArrival = arrivalDays.length == 0 ? days : arrivalDays[0];
+            long availableStock = Math.max(0, initialStock) + returns;
+            long minUnmetDemand = Math.max(0, cumulativeDemand[firstArrival] - availableStock);
+
+            int[] spans = PlanningInput.reviewSpans(orderDays);
+            long maxCoveredDemand = 0;
+            for (int day = 0; day < 7; day++) {
+                long covered = 0;
+                for (int i = 1; i <= spans[day]; i++) {
+                    covered += Math.max(0, input.weeklyDemand()[(day + i) % 7]);
+                }
+                maxCoveredDemand = Math.max(maxCoveredDemand, covered);
+            }
+
+            double[][] deliveryHolding = new double[orderMultiples.length][];
+            for (int k = 0; k < orderMultiples.length; k++) {
+                long[] heldStocks = new long[arrivalDays.length];
+                for (int i = 0; i < arrivalDays.length; i++) {
+                    heldStocks[i] = heldStock(orderMultiples[k], arrivalDays[i], cumulativeDemand);
+                }
+                Arrays.sort(heldStocks);
+                deliveryHolding[k] = new double[arrivalDays.length + 1];
+                for (int n = 1; n <= arrivalDays.length; n++) {
+                    deliveryHolding[k][n] = deliveryHolding[k][n - 1] + costs.holdingCost() * heldStocks[n - 1];
+                }
+            }
+
+            Branch branch = new Branch(orderDays, orderMultiples, minUnmetDemand, cumulativeDemand[days],
+                    availableStock, maxCoveredDemand,
+                    costs.holdingCost() * heldStock(Math.max(0, initialStock), 0, cumulativeDemand),
+                    deliveryHolding, 0);
+            double bestBound = Double.MAX_VALUE;
+            for (int k = 0; k < orderMultiples.length; k++) {
+                for (int safetyStock : safetyStocks) {
+                    bestBound = Math.min(bestBound, branch.totalCostBound(k, safetyStock, costs));
+                }
+            }
+            return new Branch(orderDays, orderMultiples, minUnmetDemand, branch.totalDemand(), availableStock,
+                    maxCoveredDemand, branch.minHoldingCost(), deliveryHolding, bestBound);
+        }
+
+        /**
+         * Calculates the stock left by a quantity received on a day, summed over the following days, if
+         * nothing else was received. Whatever else is received, the stock never falls below the sum of what
+         * each quantity received would leave on its own.
+         *
+         * @param quantity         Received quantity.
+         * @param arrivalDay       Index of the day the quantity is received, before the demand of the day.
+         * @param cumulativeDemand Demand from the first day of the horizon to each day, excluded.
+         * @return The held stock, in unit-days.
+         */
+        private static long heldStock(long quantity, int arrivalDay, long[] cumulativeDemand) {
+            long heldStock = 0;
+            for (int day = arrivalDay; day + 1 < cumulativeDemand.length; day++) {
+                long left = quantity - (cumulativeDemand[day + 1] - cumulativeDemand[arrivalDay]);
+                if (left <= 0) {
+                    break;
+                }
+                heldStock += left;
+            }
+            return heldStock;
+        }
+
+        /**
+         * Returns the largest unmet demand of a candidate.
+         */
+        private long maxUnmetDemand() {
+            return Math.max(minUnmetDemand, totalDemand);
+        }
+
+        /**
+         * Returns a lower bound of the inventory cost of a candidate, given its unmet demand. The served demand
+         * the available stock does not cover needs a number of deliveries, each one smaller than the safety
+         * stock, the demand covered by an order and the order multiple together, and at least as large as the
+         * order multiple. Each delivery costs an order and the stock it leaves.
+         *
+         * @return The bound, infinite if the candidate cannot receive enough deliveries.
+         */
+        private double inventoryCostBound(long unmetDemand, int multipleIndex, int safetyStock, PolicyCosts costs) {
+            long maxOrder = safetyStock + maxCoveredDemand + orderMultiples[multipleIndex];
+            long delivered = Math.max(0, totalDemand - availableStock - unmetDemand);
+            long deliveries = (delivered + maxOrder - 1) / maxOrder;
+            double[] holding = deliveryHolding[multipleIndex];
+            if (deliveries >= holding.length) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return minHoldingCost + holding[(int) deliveries] + costs.orderCost() * deliveries;
+        }
+
+        /**
+         * Returns a lower bound of the total cost of a candidate, whatever its unmet demand. Without the
+         * holding of the deliveries and the rounding of their number, the bound is linear in the unmet demand:
+         * its minimum is reached at one end.
+         */
+        private double totalCostBound(int multipleIndex, int safetyStock, PolicyCosts costs) {
+            long maxOrder = safetyStock + maxCoveredDemand + orderMultiples[multipleIndex];
+            long unmetWithoutOrders = Math.max(minUnmetDemand, totalDemand - availableStock);
+            double fewestUnmet = costs.orderCost() * (unmetWithoutOrders - minUnmetDemand) / maxOrder
+                    + costs.stockoutPenalty() * minUnmetDemand;
+            return minHoldingCost + Math.min(fewestUnmet, costs.stockoutPenalty() * unmetWithoutOrders);
+        }
+    }
+
+    /**
+     * Policies not dominated on inventory cost and stockout cost, by increasing unmet demand.
+     */
+    private static final class ParetoFront {
+
+        private final List<PolicyEvaluation> points = new ArrayList<>();
+
+        private void add(PolicyEvaluation evaluation) {
+            for (PolicyEvaluation point : points) {
+                if (point.inventoryCost() <= evaluation.inventoryCost()
+                        && point.stockoutCost() <= evaluation.stockoutCost()) {
+                    return;
+                }
+            }
+            points.removeIf(point -> evaluation.inventoryCost() <= point.inventoryCost()
+                    && evaluation.stockoutCost() <= point.stockoutCost());
+            points.add(evaluation);
+            points.sort(Comparator.comparingLong(PolicyEvaluation::unmetDemand)
+                    .thenComparingDouble(PolicyEvaluation::inventoryCost));
+        }
+
+        /**
+         * Checks whether every outcome allowed by the bounds of a candidate is dominated by a point of the
+         * front. The outcome with an unmet demand {@code u} costs at least the inventory cost bound of
+         * {@code u}, which decreases with {@code u}: for each stretch of {@code u} where the same point is
+         * the cheapest eligible one, checking its last value is enough.
+         *
+         * @return {@code true} if the candidate cannot be on the front.
+         */
+        private boolean dominatesBound(Branch branch, int multipleIndex, int safetyStock, PolicyCosts costs) {
+            long maxUnmetDemand = branch.maxUnmetDemand();
+            boolean free = costs.stockoutPenalty() == 0;
+            long unmetDemand = branch.minUnmetDemand();
+            int eligible = -1;
+            while (true) {
+                while (eligible + 1 < points.size()
+                        && (free || points.get(eligible + 1).unmetDemand() <= unmetDemand)) {
+                    eligible++;
+                }
+                if (eligible < 0) {
+                    return false;
+                }
+                long end = eligible + 1 < points.size() && !free
+                        ? Math.min(maxUnmetDemand, points.get(eligible + 1).unmetDemand() - 1)
+                        : maxUnmetDemand;
+                // The cheapest eligible point is the last one, the front being sorted by decreasing inventory cost
+                double inventoryCost = points.get(eligible).inventoryCost();
+                if (inventoryCost > branch.inventoryCostBound(end, multipleIndex, safetyStock, costs)) {
+                    return false;
+                }
+                if (end >= maxUnmetDemand) {
+                    return true;
+                }
+                unmetDemand = end + 1;
+            }
+        }
+
+        private List<PolicyEvaluation> points() {
+            return List.copyOf(points);
+        }
+    }
+}
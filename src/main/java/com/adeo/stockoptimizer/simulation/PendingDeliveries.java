@@ -0,0 +1,79 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Deliveries already ordered when a simulation starts: the orders in flight placed before the horizon, received
+ * on their delivery day like the orders of the simulation.
+ * <p>
+ * They are stored as pairs of (day of the horizon, quantity), sorted by day, the layout of the pending deliveries
+ * of a {@link PlanCheckpoints checkpoint}. Instances are immutable, and equal when they deliver the same
+ * quantities on the same days.
+ */
+public final class PendingDeliveries {
+
+    /**
+     * No delivery pending: the simulation starts from its initial stock alone.
+     */
+    public static final PendingDeliveries NONE = new PendingDeliveries(new int[0]);
+
+    private final int[] pairs;
+
+    private PendingDeliveries(int[] pairs) {
+        this.pairs = pairs;
+    }
+
+    /**
+     * Places deliveries on the days of a horizon. Deliveries outside the horizon, or of no quantity, are ignored.
+     *
+     * @param horizon    Simulated period.
+     * @param quantities Quantity delivered on each delivery date.
+     * @return The pending deliveries, {@link #NONE} without any in the horizon.
+     */
+    public static PendingDeliveries of(SimulationHorizon horizon, Map<LocalDate, Integer> quantities) {
+        Map<LocalDate, Integer> sorted = new TreeMap<>(quantities);
+        int[] pairs = new int[sorted.size() * 2];
+        int length = 0;
+        long origin = horizon.start().toEpochDay();
+        for (Map.Entry<LocalDate, Integer> delivery : sorted.entrySet()) {
+            long day = delivery.getKey().toEpochDay() - origin;
+            if (day >= 0 && day < horizon.days() && delivery.getValue() > 0) {
+                pairs[length++] = (int) day;
+                pairs[length++] = delivery.getValue();
+            }
+        }
+        return length == 0 ? NONE : new PendingDeliveries(Arrays.copyOf(pairs, length));
+    }
+
+    /**
+     * Tells whether no delivery is pending.
+     */
+    public boolean isEmpty() {
+        return pairs.length == 0;
+    }
+
+    /**
+     * Returns the deliveries as pairs of (day, quantity), shared with the simulator.
+     */
+    int[] pairs() {
+        return pairs;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PendingDeliveries deliveries && Arrays.equals(pairs, deliveries.pairs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(pairs);
+    }
+
+    @Override
+    public String toString() {
+        return "PendingDeliveries" + Arrays.toString(pairs);
+    }
+}
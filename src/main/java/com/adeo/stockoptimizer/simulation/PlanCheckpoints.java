@@ -0,0 +1,142 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * State of a planned simulation at the start of every week of its horizon, so that the plan can be simulated
+ * again from any week without replaying the weeks before.
+ * <p>
+ * Checkpoint {@code k} is taken at the start of day {@code 7 * k}, before the deliveries of that day are
+ * received: it holds the stock left at the end of the previous day and the deliveries still pending, as
+ * pairs of (days from the checkpoint, quantity). Only non-empty delivery days are kept, so a checkpoint holds
+ * about as many pairs as there are orders in transit.
+ */
+public final class PlanCheckpoints {
+
+    /**
+     * Number of days between two checkpoints.
+     */
+    public static final int INTERVAL = 7;
+
+    private static final int[] NO_PENDING = new int[0];
+
+    private final SimulationHorizon horizon;
+    private final int[] stocks;
+    private final int[][] pending;
+
+    private PlanCheckpoints(SimulationHorizon horizon, int[] stocks, int[][] pending) {
+        this.horizon = horizon;
+        this.stocks = stocks;
+        this.pending = pending;
+    }
+
+    /**
+     * Creates the checkpoints of a horizon, all empty until they are captured by the simulation.
+     */
+    static PlanCheckpoints empty(SimulationHorizon horizon) {
+        int count = (horizon.days() + INTERVAL - 1) / INTERVAL;
+        return new PlanCheckpoints(horizon, new int[count], new int[count][]);
+    }
+
+    /**
+     * Creates checkpoints sharing the states of this plan before {@code checkpoint}, the later ones being
+     * captured again by a resumed simulation.
+     */
+    PlanCheckpoints truncatedAt(int checkpoint) {
+        int[][] copy = new int[pending.length][];
+        System.arraycopy(pending, 0, copy, 0, checkpoint);
+        return new PlanCheckpoints(horizon, Arrays.copyOf(stocks, stocks.length), copy);
+    }
+
+    /**
+     * Captures the state of the simulation at a checkpoint day.
+     *
+     * @param checkpoint Index of the checkpoint.
+     * @param stock      Stock left at the end of the previous day.
+     * @param arrivals   Ring buffer of pending deliveries, indexed by delivery day.
+     * @param day        Index of the checkpoint day in the ring buffer.
+     */
+    void capture(int checkpoint, int stock, int[] arrivals, int day) {
+        int count = 0;
+        for (int quantity : arrivals) {
+            if (quantity != 0) {
+                count++;
+            }
+        }
+        int[] pairs = count == 0 ? NO_PENDING : new int[2 * count];
+        int next = 0;
+        for (int offset = 0; offset < arrivals.length; offset++) {
+            int quantity = arrivals[(day + offset) % arrivals.length];
+            if (quantity != 0) {
+                pairs[next++] = offset;
+                pairs[next++] = quantity;
+            }
+        }
+        stocks[checkpoint] = stock;
+        pending[checkpoint] = pairs;
+    }
+
+    /**
+     * Returns the planned horizon.
+     */
+    public SimulationHorizon horizon() {
+        return horizon;
+    }
+
+    /**
+     * Returns the number of checkpoints, one per started week of the horizon.
+     */
+    public int count() {
+        return stocks.length;
+    }
+
+    /**
+     * Returns the index of the last checkpoint on or before a date, the first one for earlier dates.
+     *
+     * @param date Any date.
+     * @return The index of the checkpoint, {@link #count()} if the date is after the horizon.
+     */
+    public int checkpointOn(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(horizon.start(), date);
+        if (day >= horizon.days()) {
+            return count();
+        }
+        return (int) Math.max(0, day / INTERVAL);
+    }
+
+    /**
+     * Returns the index of the day of a checkpoint in the horizon.
+     */
+    public int dayOf(int checkpoint) {
+        return checkpoint * INTERVAL;
+    }
+
+    /**
+     * Returns the stock left at the end of the day before a checkpoint.
+     */
+    public int stockAt(int checkpoint) {
+        return stocks[checkpoint];
+    }
+
+    /**
+     * Returns the deliveries pending at a checkpoint, as pairs of (days from the checkpoint, quantity).
+     */
+    public int[] pendingAt(int checkpoint) {
+        return pending[checkpoint].clone();
+    }
+
+    /**
+     * Estimates the memory used by the checkpoints, in bytes.
+     */
+    public int sizeInBytes() {
+        int bytes = 64 + 16 + Integer.BYTES * stocks.length + 16 + 8 * pending.length;
+        for (int[] pairs : pending) {
+            if (pairs != null && pairs.length > 0) {
+                bytes += 16 + Integer.BYTES * pairs.length;
+            }
+        }
+        return bytes;
+    }
+}
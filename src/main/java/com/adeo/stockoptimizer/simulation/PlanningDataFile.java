@@ -0,0 +1,276 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Planning inputs of a whole catalogue in a compact binary file, memory-mapped so that the products can be
+ * planned as soon as the file is opened, without loading anything through JPA.
+ * <p>
+ * The file starts with a header (magic number, format version, number of products, creation time, offset of
+ * the names), followed by one fixed-size record per product sorted by product id, then by the UTF-8 names of
+ * the products. A record holds the product id, its initial stock, its compiled {@link PlanningInput} and the
+ * position of its name; a product is found by a binary search over the records.
+ */
+public final class PlanningDataFile {
+
+    /**
+     * Version of the format written by this class; files of other versions are rejected.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x53504446;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 64;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final Instant createdAt;
+    private final int namesOffset;
+
+    private PlanningDataFile(ByteBuffer buffer, int count, Instant createdAt, int namesOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.createdAt = createdAt;
+        this.namesOffset = namesOffset;
+    }
+
+    /**
+     * Maps a planning data file in memory.
+     *
+     * @param file Path of the file.
+     * @return The mapped file.
+     * @throws IllegalArgumentException If the file is not a planning data file of the current format.
+     */
+    public static PlanningDataFile open(Path file) {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a planning data file: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a planning data file: " + file);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported planning data format version: " + buffer.getInt(4));
+        }
+        int count = buffer.getInt(8);
+        int namesOffset = buffer.getInt(12);
+        if (count < 0 || namesOffset != HEADER_BYTES + (long) count * RECORD_BYTES || namesOffset > buffer.limit()) {
+            throw new IllegalArgumentException("Truncated planning data file: " + file);
+        }
+        return new PlanningDataFile(buffer, count, Instant.ofEpochMilli(buffer.getLong(16)), namesOffset);
+    }
+
+    /**
+     * Starts writing a planning data file. The file is only replaced when the writer is committed.
+     *
+     * @param file Path of the file.
+     * @return The writer, to be closed once committed.
+     */
+    public static Writer create(Path file) {
+        return new Writer(file);
+    }
+
+    /**
+     * Returns the number of products in the file.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns when the file was written.
+     */
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * Looks a product up by a binary search over the records.
+     *
+     * @param productId Identifier of the product.
+     * @return The planning data of the product, or nothing if the file does not contain it.
+     */
+    public Optional<Entry> find(long productId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = HEADER_BYTES + middle * RECORD_BYTES;
+            long id = buffer.getLong(record);
+            if (id < productId) {
+                low = middle + 1;
+            } else if (id > productId) {
+                high = middle - 1;
+            } else {
+                return Optional.of(read(record));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Decodes the record at a position of the file. Only absolute reads are used, so that the buffer can be
+     * read by several threads.
+     */
+    private Entry read(int record) {
+        int[] weeklyDemand = new int[7];
+        for (int day = 0; day < 7; day++) {
+            weeklyDemand[day] = buffer.getInt(record + 28 + day * Integer.BYTES);
+        }
+        PlanningInput input = new PlanningInput(weeklyDemand, buffer.getInt(record + 12), buffer.getInt(record + 16),
+                buffer.getInt(record + 20), buffer.getInt(record + 24));
+        byte[] name = new byte[buffer.getInt(record + 60)];
+        buffer.get(namesOffset + buffer.getInt(record + 56), name);
+        return new Entry(buffer.getLong(record), new String(name, StandardCharsets.UTF_8),
+                buffer.getInt(record + 8), input);
+    }
+
+    /**
+     * Planning data of one product.
+     *
+     * @param productId    Identifier of the product.
+     * @param name         Name of the product.
+     * @param initialStock Stock of the product.
+     * @param input        Its compiled planning inputs.
+     */
+    public record Entry(long productId, String name, int initialStock, PlanningInput input) {
+    }
+
+    /**
+     * Writes the records into a temporary file next to the target, then moves it over the target on commit,
+     * so that readers of the previous file are never disturbed.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final Path file;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final ByteBuffer records = ByteBuffer.allocate(1024 * RECORD_BYTES);
+        private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+        private int count;
+        private long lastId = Long.MIN_VALUE;
+        private boolean committed;
+
+        private Writer(Path file) {
+            this.file = file;
+            try {
+                Path directory = file.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                this.temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                this.channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+                channel.position(HEADER_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Appends the planning data of a product.
+         *
+         * @param entry Planning data, whose product id must be greater than the previous one.
+         * @throws IllegalArgumentException If the products are not added in increasing id order.
+         */
+        public void add(Entry entry) {
+            if (count > 0 && entry.productId() <= lastId) {
+                throw new IllegalArgumentException("Products must be added in increasing id order: "
+                        + entry.productId());
+            }
+            byte[] name = entry.name() == null ? new byte[0] : entry.name().getBytes(StandardCharsets.UTF_8);
+            PlanningInput input = entry.input();
+            records.putLong(entry.productId())
+                    .putInt(entry.initialStock())
+                    .putInt(input.deliveryLeadTime())
+                    .putInt(input.orderMultiple())
+                    .putInt(input.orderDays())
+                    .putInt(input.safetyStock());
+            for (int quantity : input.weeklyDemand()) {
+                records.putInt(quantity);
+            }
+            records.putInt(names.size()).putInt(name.length);
+            names.writeBytes(name);
+            lastId = entry.productId();
+            count++;
+            if (!records.hasRemaining()) {
+                flush(records);
+            }
+        }
+
+        /**
+         * Writes the names and the header, then replaces the target file.
+         *
+         * @return The size of the file, in bytes.
+         */
+        public long commit() {
+            try {
+                flush(records);
+                ByteBuffer nameBytes = ByteBuffer.wrap(names.toByteArray());
+                while (nameBytes.hasRemaining()) {
+                    channel.write(nameBytes);
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(FORMAT_VERSION)
+                        .putInt(count)
+                        .putInt(HEADER_BYTES + count * RECORD_BYTES)
+                        .putLong(System.currentTimeMillis());
+                header.clear();
+                channel.write(header, 0);
+                long size = channel.size();
+                channel.force(true);
+                channel.close();
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                committed = true;
+                return size;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Deletes the temporary file if the writer was not committed.
+         */
+        @Override
+        public void close() {
+            if (!committed) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        /**
+         * Writes the records of a buffer at the current end of the temporary file, then clears it.
+         */
+        private void flush(ByteBuffer bytes) {
+            bytes.flip();
+            try {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bytes.clear();
+        }
+    }
+}
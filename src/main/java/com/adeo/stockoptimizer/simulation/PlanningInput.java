@@ -0,0 +1,170 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import com.adeo.stockoptimizer.models.SalesProfile;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compiled inputs of the stock simulation for one product.
+ * <p>
+ * The weekly demand table is indexed by {@link DayOfWeek#ordinal()} (MONDAY = 0) and must not be
+ * modified once the input has been built. Order days are a bit mask of the same indexes: bit {@code d}
+ * is set when orders may be placed on day-of-week {@code d}. The demand calendar adjusts the weekly demand on
+ * given dates; the batch simulator used by the optimisers and the Monte Carlo simulation ignore it and simulate
+ * the weekly demand.
+ *
+ * @param weeklyDemand     Quantity sold on each day of the week.
+ * @param deliveryLeadTime Number of days between an order and its delivery.
+ * @param orderMultiple    Multiple that ordered quantities must respect.
+ * @param orderDays        Days of the week on which orders may be placed.
+ * @param safetyStock      Stock level the projected stock must stay above until the next order day.
+ * @param demandCalendar   Seasonal factors and daily overrides of the weekly demand.
+ */
+public record PlanningInput(int[] weeklyDemand, int deliveryLeadTime, int orderMultiple, int orderDays,
+                            int safetyStock, DemandCalendar demandCalendar) {
+
+    /**
+     * Order days of the standard rule: orders are only placed on Mondays.
+     */
+    public static final int MONDAY_ONLY = 1 << DayOfWeek.MONDAY.ordinal();
+
+    public PlanningInput {
+        if (weeklyDemand.length != 7) {
+            throw new IllegalArgumentException("Weekly demand must contain 7 days");
+        }
+        if (deliveryLeadTime < 0) {
+            throw new IllegalArgumentException("Delivery lead time cannot be negative");
+        }
+        if (orderDays < 0 || orderDays > 0x7F) {
+            throw new IllegalArgumentException("Invalid order days: " + orderDays);
+        }
+        if (safetyStock < 0) {
+            throw new IllegalArgumentException("Safety stock cannot be negative");
+        }
+        if (demandCalendar == null) {
+            demandCalendar = DemandCalendar.NONE;
+        }
+    }
+
+    /**
+     * Builds an input whose demand follows the weekly table only.
+     */
+    public PlanningInput(int[] weeklyDemand, int deliveryLeadTime, int orderMultiple, int orderDays,
+                         int safetyStock) {
+        this(weeklyDemand, deliveryLeadTime, orderMultiple, orderDays, safetyStock, DemandCalendar.NONE);
+    }
+
+    /**
+     * Builds the input of the standard rule: orders on Mondays, without safety stock.
+     */
+    public PlanningInput(int[] weeklyDemand, int deliveryLeadTime, int orderMultiple) {
+        this(weeklyDemand, deliveryLeadTime, orderMultiple, MONDAY_ONLY, 0);
+    }
+
+    /**
+     * Compiles the calculation parameters and the weekly sales profile of a product, without demand calendar.
+     *
+     * @see #compile(CalculationParameters, List, List)
+     */
+    public static PlanningInput compile(CalculationParameters params, List<SalesProfile> weeklyProfiles) {
+        return compile(params, weeklyProfiles, List.of());
+    }
+
+    /**
+     * Compiles the calculation parameters, the weekly sales profile and the demand adjustments of a product.
+     * When several profiles exist for the same day, the first one wins; missing days have no sales.
+     *
+     * @param params         Calculation parameters (delivery lead time, order multiple).
+     * @param weeklyProfiles Weekly sales profile.
+     * @param adjustments    Demand adjustments, encoded into the demand calendar.
+     * @return The compiled {@link PlanningInput}.
+     */
+    public static PlanningInput compile(CalculationParameters params, List<SalesProfile> weeklyProfiles,
+                                        List<DemandAdjustment> adjustments) {
+        int[] weeklyDemand = new int[7];
+        boolean[] known = new boolean[7];
+        for (SalesProfile profile : weeklyProfiles) {
+            DayOfWeek dayOfWeek = profile.getDayOfWeek();
+            if (dayOfWeek != null && !known[dayOfWeek.ordinal()]) {
+                weeklyDemand[dayOfWeek.ordinal()] = profile.getQuantitySold();
+                known[dayOfWeek.ordinal()] = true;
+            }
+        }
+        return new PlanningInput(weeklyDemand, params.getDeliveryLeadTime(), params.getOrderMultiple(), MONDAY_ONLY,
+                0, DemandCalendar.compile(adjustments));
+    }
+
+    /**
+     * Returns a copy of this input using another order multiple.
+     */
+    public PlanningInput withOrderMultiple(int orderMultiple) {
+        return new PlanningInput(weeklyDemand, deliveryLeadTime, orderMultiple, orderDays, safetyStock,
+                demandCalendar);
+    }
+
+    /**
+     * Returns a copy of this input using other order days and safety stock.
+     */
+    public PlanningInput withOrderPolicy(int orderDays, int safetyStock) {
+        return new PlanningInput(weeklyDemand, deliveryLeadTime, orderMultiple, orderDays, safetyStock,
+                demandCalendar);
+    }
+
+    /**
+     * Returns a copy of this input using another demand calendar.
+     */
+    public PlanningInput withDemandCalendar(DemandCalendar demandCalendar) {
+        return new PlanningInput(weeklyDemand, deliveryLeadTime, orderMultiple, orderDays, safetyStock,
+                demandCalendar);
+    }
+
+    /**
+     * Calculates how many days each order covers: from the day after the order to the day before the next
+     * order day. With orders on Mondays only, every order covers the 6 following days.
+     *
+     * @param orderDays Days of the week on which orders may be placed.
+     * @return The number of covered days for each order day-of-week, 0 for the other days.
+     */
+    public static int[] reviewSpans(int orderDays) {
+        int[] spans = new int[7];
+        for (int dayOfWeek = 0; dayOfWeek < 7; dayOfWeek++) {
+            if ((orderDays >> dayOfWeek & 1) != 0) {
+                int span = 0;
+                while (span < 6 && (orderDays >> (dayOfWeek + span + 1) % 7 & 1) == 0) {
+                    span++;
+                }
+                spans[dayOfWeek] = span;
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Builds the bit mask of the given days of the week.
+     */
+    public static int orderDaysMask(Collection<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << day.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Lists the days of the week of a bit mask, Monday first.
+     */
+    public static List<DayOfWeek> orderDaysOf(int orderDays) {
+        List<DayOfWeek> days = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((orderDays >> day.ordinal() & 1) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,160 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Stochastic daily demand where the quantity sold on each day follows a Poisson distribution whose mean is
+ * the deterministic demand: the weekly demand, or the daily demand of a demand calendar decoded over a horizon.
+ * <p>
+ * The cumulative distribution of each distinct mean is tabulated once, over the quantities within
+ * 12 standard deviations of the mean, so a draw is a uniform number followed by a binary search.
+ * Instances are immutable and can be shared between threads; the randomness comes from the caller.
+ */
+public final class PoissonDemand {
+
+    private final int[] offsets;
+    private final double[][] cumulativeProbabilities;
+    /**
+     * Table of each day of the horizon, or {@code null} when the table of a day is its day-of-week.
+     */
+    private final int[] tableOfDay;
+
+    /**
+     * @param weeklyDemand Mean quantity sold on each day of the week, indexed by day-of-week (MONDAY = 0).
+     */
+    public PoissonDemand(int[] weeklyDemand) {
+        if (weeklyDemand.length != 7) {
+            throw new IllegalArgumentException("Weekly demand must contain 7 days");
+        }
+        this.offsets = new int[7];
+        this.cumulativeProbabilities = new double[7][];
+        this.tableOfDay = null;
+        for (int dayOfWeek = 0; dayOfWeek < 7; dayOfWeek++) {
+            tabulate(dayOfWeek, Math.max(0, weeklyDemand[dayOfWeek]));
+        }
+    }
+
+    private PoissonDemand(int[] means, int[] tableOfDay) {
+        this.offsets = new int[means.length];
+        this.cumulativeProbabilities = new double[means.length][];
+        this.tableOfDay = tableOfDay;
+        for (int table = 0; table < means.length; table++) {
+            tabulate(table, means[table]);
+        }
+    }
+
+    /**
+     * Builds the demand of a horizon whose mean changes from day to day, such as the weekly demand adjusted by
+     * a demand calendar. Days sharing the same mean share its table.
+     *
+     * @param dailyDemand Mean quantity sold on each day of the horizon.
+     * @return The stochastic demand, whose {@link #sample(SimulationHorizon, SplittableRandom, int[])} draws
+     *         the days of a horizon of the same length.
+     */
+    public static PoissonDemand ofDailyDemand(int[] dailyDemand) {
+        Map<Integer, Integer> tables = new HashMap<>();
+        int[] tableOfDay = new int[dailyDemand.length];
+        for (int day = 0; day < dailyDemand.length; day++) {
+            tableOfDay[day] = tables.computeIfAbsent(Math.max(0, dailyDemand[day]), mean -> tables.size());
+        }
+        int[] means = new int[tables.size()];
+        tables.forEach((mean, table) -> means[table] = mean);
+        return new PoissonDemand(means, tableOfDay);
+    }
+
+    /**
+     * Draws the demand of every day of the horizon.
+     *
+     * @param horizon     Simulated period.
+     * @param random      Source of randomness.
+     * @param dailyDemand Receiver of the demand of each day; must hold at least the days of the horizon.
+     */
+    public void sample(SimulationHorizon horizon, SplittableRandom random, int[] dailyDemand) {
+        if (tableOfDay != null) {
+            if (horizon.days() > tableOfDay.length) {
+                throw new IllegalArgumentException("Daily demand covers " + tableOfDay.length + " days, not "
+                        + horizon.days());
+            }
+            for (int day = 0; day < horizon.days(); day++) {
+                dailyDemand[day] = sampleTable(tableOfDay[day], random);
+            }
+            return;
+        }
+        int dayOfWeek = horizon.startDayOfWeek();
+        for (int day = 0; day < horizon.days(); day++) {
+            dailyDemand[day] = sampleTable(dayOfWeek, random);
+            dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+    }
+
+    /**
+     * Draws the demand of one day of the week.
+     *
+     * @param dayOfWeek Day-of-week index (MONDAY = 0).
+     * @param random    Source of randomness.
+     * @return The quantity sold.
+     * @throws IllegalStateException If the demand follows a daily demand rather than the weekly demand.
+     */
+    public int sample(int dayOfWeek, SplittableRandom random) {
+        if (tableOfDay != null) {
+            throw new IllegalStateException("The demand follows a daily demand, not the days of the week");
+        }
+        return sampleTable(dayOfWeek, random);
+    }
+
+    private int sampleTable(int table, SplittableRandom random) {
+        double[] cumulative = cumulativeProbabilities[table];
+        if (cumulative.length == 1) {
+            return offsets[table];
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return offsets[table] + (index >= 0 ? index + 1 : -index - 1);
+    }
+
+    /**
+     * Tabulates the cumulative distribution of a mean. Probabilities are computed from the mode outwards, which
+     * avoids the underflow of {@code exp(-mean)} for large means.
+     *
+     * @param table Index of the table: the day-of-week for the weekly demand (MONDAY = 0).
+     * @param mean  Mean quantity sold.
+     */
+    private void tabulate(int table, int mean) {
+        if (mean == 0) {
+            cumulativeProbabilities[table] = new double[]{1};
+            return;
+        }
+        int spread = (int) Math.ceil(12 * Math.sqrt(mean)) + 12;
+        int low = Math.max(0, mean - spread);
+        int high = mean + spread;
+
+        double logModeProbability = mean * Math.log(mean) - mean;
+        for (int k = 2; k <= mean; k++) {
+            logModeProbability -= Math.log(k);
+        }
+        double[] probabilities = new double[high - low + 1];
+        probabilities[mean - low] = Math.exp(logModeProbability);
+        for (int k = mean + 1; k <= high; k++) {
+            probabilities[k - low] = probabilities[k - 1 - low] * mean / k;
+        }
+        for (int k = mean - 1; k >= low; k--) {
+            probabilities[k - low] = probabilities[k + 1 - low] * (k + 1) / mean;
+        }
+
+        double total = 0;
+        for (double probability : probabilities) {
+            total += probability;
+        }
+        double[] cumulative = new double[probabilities.length];
+        double sum = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            sum += probabilities[i];
+            cumulative[i] = sum / total;
+        }
+        cumulative[cumulative.length - 1] = 1;
+        offsets[table] = low;
+        cumulativeProbabilities[table] = cumulative;
+    }
+}
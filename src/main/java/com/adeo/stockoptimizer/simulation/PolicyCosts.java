@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Cost function of an order policy.
+ *
+ * @param holdingCost     Cost of keeping one unit in stock for one day.
+ * @param orderCost       Fixed cost of placing one order.
+ * @param stockoutPenalty Cost of one unit of demand that could not be served.
+ */
+public record PolicyCosts(double holdingCost, double orderCost, double stockoutPenalty) {
+
+    public PolicyCosts {
+        if (holdingCost < 0 || orderCost < 0 || stockoutPenalty < 0) {
+            throw new IllegalArgumentException("Costs cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.util.Comparator;
+
+/**
+ * Result of the simulation of one order policy.
+ *
+ * @param orderDays     Days of the week on which orders may be placed, as in {@link PlanningInput}.
+ * @param orderMultiple Order multiple.
+ * @param safetyStock   Safety stock.
+ * @param holdingCost   Cost of the stock held over the period.
+ * @param orderingCost  Cost of the orders placed over the period.
+ * @param stockoutCost  Cost of the demand that could not be served.
+ * @param unmetDemand   Quantity of demand that could not be served.
+ * @param stockoutDays  Number of days on which the demand could not be fully served.
+ * @param orderCount    Number of orders placed over the period.
+ */
+public record PolicyEvaluation(int orderDays, int orderMultiple, int safetyStock, double holdingCost,
+                               double orderingCost, double stockoutCost, long unmetDemand, int stockoutDays,
+                               int orderCount) {
+
+    /**
+     * Ranks policies from cheapest to most expensive, then by fewest unmet demand, fewest order days,
+     * smallest multiple and smallest safety stock.
+     */
+    public static final Comparator<PolicyEvaluation> RANKING = Comparator
+            .comparingDouble(PolicyEvaluation::totalCost)
+            .thenComparingLong(PolicyEvaluation::unmetDemand)
+            .thenComparingInt(evaluation -> Integer.bitCount(evaluation.orderDays()))
+            .thenComparingInt(PolicyEvaluation::orderMultiple)
+            .thenComparingInt(PolicyEvaluation::safetyStock);
+
+    /**
+     * Returns the cost of running the stock: holding and ordering.
+     */
+    public double inventoryCost() {
+        return holdingCost + orderingCost;
+    }
+
+    /**
+     * Returns the total cost of the policy.
+     */
+    public double totalCost() {
+        return holdingCost + orderingCost + stockoutCost;
+    }
+}
@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.util.List;
+
+/**
+ * Outcome of an order policy optimisation.
+ *
+ * @param best        Policy with the lowest total cost.
+ * @param paretoFront Policies for which no other policy is as cheap to run with as little unmet demand,
+ *                    by increasing stockout cost.
+ * @param candidates  Number of candidate policies.
+ * @param evaluated   Number of candidate policies actually simulated, the others being pruned.
+ */
+public record PolicyOptimizationResult(PolicyEvaluation best, List<PolicyEvaluation> paretoFront, int candidates,
+                                       int evaluated) {
+}
@@ -0,0 +1,24 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Receives the progress of a long calculation, as units of work are completed.
+ * It may be called from several threads at once, and may stop the calculation by throwing an unchecked
+ * exception, such as a {@link java.util.concurrent.CancellationException}.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Listener ignoring the progress.
+     */
+    ProgressListener NONE = (completed, total) -> {
+    };
+
+    /**
+     * Called when units of work have been completed.
+     *
+     * @param completed Number of completed units of work.
+     * @param total     Total number of units of work.
+     */
+    void onProgress(long completed, long total);
+}
@@ -0,0 +1,56 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Batch kernel running the scalar {@link StockSimulator} once per scenario.
+ * Used when the Vector API is not available, and as the reference of the vectorised kernel.
+ */
+final class ScalarBatchKernel implements BatchKernel {
+
+    @Override
+    public void run(ScenarioBatch batch, SimulationHorizon horizon, BatchSimulationResult result) {
+        for (int scenario = 0; scenario < batch.size(); scenario++) {
+            StockSimulator.run(batch.input(scenario), batch.initialStocks()[scenario], horizon,
+                    new ScenarioRecorder(result, scenario));
+        }
+    }
+
+    /**
+     * Records the events of one scenario into the arrays of the result.
+     */
+    private static final class ScenarioRecorder implements SimulationListener {
+
+        private final BatchSimulationResult result;
+        private final int scenario;
+        private int month;
+
+        private ScenarioRecorder(BatchSimulationResult result, int scenario) {
+            this.result = result;
+            this.scenario = scenario;
+        }
+
+        @Override
+        public void onDay(int day, int stock, int unmetDemand) {
+            if (day == result.monthEnds[month]) {
+                month++;
+            }
+            int i = scenario * result.months + month;
+            boolean firstDay = day == (month == 0 ? 0 : result.monthEnds[month - 1]);
+            result.monthStockSums[i] += stock;
+            if (firstDay || stock < result.monthMinStocks[i]) {
+                result.monthMinStocks[i] = stock;
+            }
+            if (firstDay || stock > result.monthMaxStocks[i]) {
+                result.monthMaxStocks[i] = stock;
+            }
+            if (unmetDemand > 0) {
+                result.stockoutDays[scenario]++;
+                result.unmetDemands[scenario] += unmetDemand;
+            }
+        }
+
+        @Override
+        public void onOrder(int day, int quantity) {
+            result.orderCounts[scenario]++;
+        }
+    }
+}
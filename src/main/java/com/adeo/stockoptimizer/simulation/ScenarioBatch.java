@@ -0,0 +1,109 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Scenarios of one product simulated together: they share the weekly demand, the order days and the
+ * horizon, and differ by their initial stock, order multiple, delivery lead time and safety stock.
+ * Scenario {@code i} is described by the i-th element of each array. Arrays must not be modified once
+ * the batch has been built.
+ *
+ * @param weeklyDemand      Quantity sold on each day of the week, indexed by day-of-week (MONDAY = 0).
+ * @param orderDays         Days of the week on which orders may be placed, as in {@link PlanningInput}.
+ * @param initialStocks     Stock at the start of the horizon of each scenario.
+ * @param orderMultiples    Order multiple of each scenario.
+ * @param deliveryLeadTimes Delivery lead time of each scenario, in days.
+ * @param safetyStocks      Safety stock of each scenario.
+ */
+public record ScenarioBatch(int[] weeklyDemand, int orderDays, int[] initialStocks, int[] orderMultiples,
+                            int[] deliveryLeadTimes, int[] safetyStocks) {
+
+    public ScenarioBatch {
+        if (weeklyDemand.length != 7) {
+            throw new IllegalArgumentException("Weekly demand must contain 7 days");
+        }
+        if (orderDays < 0 || orderDays > 0x7F) {
+            throw new IllegalArgumentException("Invalid order days: " + orderDays);
+        }
+        if (orderMultiples.length != initialStocks.length || deliveryLeadTimes.length != initialStocks.length
+                || safetyStocks.length != initialStocks.length) {
+            throw new IllegalArgumentException("Every scenario must have an initial stock, a multiple, a lead time "
+                    + "and a safety stock");
+        }
+        for (int i = 0; i < initialStocks.length; i++) {
+            if (orderMultiples[i] < 1) {
+                throw new IllegalArgumentException("Order multiple must be at least 1");
+            }
+            if (deliveryLeadTimes[i] < 0) {
+                throw new IllegalArgumentException("Delivery lead time cannot be negative");
+            }
+            if (safetyStocks[i] < 0) {
+                throw new IllegalArgumentException("Safety stock cannot be negative");
+            }
+        }
+    }
+
+    /**
+     * Builds every combination of the given values with the standard rule (orders on Mondays, without
+     * safety stock), initial stocks varying slowest and lead times fastest.
+     *
+     * @param weeklyDemand      Quantity sold on each day of the week.
+     * @param initialStocks     Evaluated initial stocks.
+     * @param orderMultiples    Evaluated order multiples.
+     * @param deliveryLeadTimes Evaluated delivery lead times.
+     * @return The batch of all combinations.
+     */
+    public static ScenarioBatch grid(int[] weeklyDemand, int[] initialStocks, int[] orderMultiples,
+                                     int[] deliveryLeadTimes) {
+        return grid(weeklyDemand, PlanningInput.MONDAY_ONLY, initialStocks, orderMultiples, deliveryLeadTimes,
+                new int[]{0});
+    }
+
+    /**
+     * Builds every combination of the given values, initial stocks varying slowest and safety stocks fastest.
+     *
+     * @param weeklyDemand      Quantity sold on each day of the week.
+     * @param orderDays         Days of the week on which orders may be placed.
+     * @param initialStocks     Evaluated initial stocks.
+     * @param orderMultiples    Evaluated order multiples.
+     * @param deliveryLeadTimes Evaluated delivery lead times.
+     * @param safetyStocks      Evaluated safety stocks.
+     * @return The batch of all combinations.
+     */
+    public static ScenarioBatch grid(int[] weeklyDemand, int orderDays, int[] initialStocks, int[] orderMultiples,
+                                     int[] deliveryLeadTimes, int[] safetyStocks) {
+        int size = initialStocks.length * orderMultiples.length * deliveryLeadTimes.length * safetyStocks.length;
+        int[] stocks = new int[size];
+        int[] multiples = new int[size];
+        int[] leadTimes = new int[size];
+        int[] safeties = new int[size];
+        int i = 0;
+        for (int stock : initialStocks) {
+            for (int multiple : orderMultiples) {
+                for (int leadTime : deliveryLeadTimes) {
+                    for (int safetyStock : safetyStocks) {
+                        stocks[i] = stock;
+                        multiples[i] = multiple;
+                        leadTimes[i] = leadTime;
+                        safeties[i] = safetyStock;
+                        i++;
+                    }
+                }
+            }
+        }
+        return new ScenarioBatch(weeklyDemand, orderDays, stocks, multiples, leadTimes, safeties);
+    }
+
+    /**
+     * Returns the number of scenarios.
+     */
+    public int size() {
+        return initialStocks.length;
+    }
+
+    /**
+     * Returns the planning input of one scenario.
+     */
+    public PlanningInput input(int scenario) {
+        return new PlanningInput(weeklyDemand, deliveryLeadTimes[scenario], orderMultiples[scenario], orderDays,
+                safetyStocks[scenario]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Simulated period, expressed as a start date and a number of days.
+ * Days are addressed by their index from the start date.
+ *
+ * @param start First simulated day.
+ * @param days  Number of simulated days.
+ */
+public record SimulationHorizon(LocalDate start, int days) {
+
+    public SimulationHorizon {
+        if (days < 0) {
+            throw new IllegalArgumentException("Horizon length cannot be negative");
+        }
+    }
+
+    /**
+     * Builds the horizon covering both dates (inclusive).
+     */
+    public static SimulationHorizon between(LocalDate start, LocalDate end) {
+        return new SimulationHorizon(start, (int) Math.max(0, ChronoUnit.DAYS.between(start, end) + 1));
+    }
+
+    /**
+     * Returns the date of the given day index.
+     */
+    public LocalDate dateOf(int day) {
+        return start.plusDays(day);
+    }
+
+    /**
+     * Returns the day-of-week index (MONDAY = 0) of the first simulated day.
+     */
+    public int startDayOfWeek() {
+        return start.getDayOfWeek().ordinal();
+    }
+}
@@ -0,0 +1,33 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Receives the events of a simulation as they are produced.
+ * Implementations must not keep the simulation waiting: they are called from the day loop.
+ */
+public interface SimulationListener {
+
+    /**
+     * Called at the end of each simulated day.
+     *
+     * @param day         Index of the day.
+     * @param stock       Stock level at the end of the day.
+     * @param unmetDemand Part of the demand of the day that could not be served.
+     */
+    default void onDay(int day, int stock, int unmetDemand) {
+    }
+
+    /**
+     * Called when an order is placed.
+     *
+     * @param day      Index of the day the order is placed on.
+     * @param quantity Ordered quantity.
+     */
+    default void onOrder(int day, int quantity) {
+    }
+
+    /**
+     * Called once, after the last simulated day.
+     */
+    default void onComplete() {
+    }
+}
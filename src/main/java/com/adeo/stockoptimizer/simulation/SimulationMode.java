@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * How {@link StockSimulator} walks through the horizon.
+ */
+public enum SimulationMode {
+
+    /**
+     * Simulates every day of the horizon.
+     */
+    DAY_STEPPING,
+
+    /**
+     * Detects when the weekly state repeats and replays whole periods instead of simulating them.
+     */
+    PERIODIC
+}
@@ -0,0 +1,31 @@
+package com.adeo.stockoptimizer.simulation;
+
+/**
+ * Output of a stock simulation.
+ * <p>
+ * Orders are stored column-wise: the i-th order is placed on day {@code orderDays[i]} for
+ * {@code orderQuantities[i]} units, for i lower than {@code orderCount}.
+ *
+ * @param dailyStock      Stock level at the end of each simulated day.
+ * @param orderDays       Day index on which each order is placed.
+ * @param orderQuantities Quantity of each order.
+ * @param orderCount      Number of orders placed.
+ * @param stockoutDays    Number of days on which the demand could not be fully served.
+ */
+public record SimulationResult(int[] dailyStock, int[] orderDays, int[] orderQuantities, int orderCount,
+                               int stockoutDays) {
+
+    /**
+     * Returns the average stock level over the simulated period, or 0 for an empty period.
+     */
+    public double averageStock() {
+        if (dailyStock.length == 0) {
+            return 0.0;
+        }
+        long total = 0;
+        for (int stock : dailyStock) {
+            total += stock;
+        }
+        return (double) total / dailyStock.length;
+    }
+}
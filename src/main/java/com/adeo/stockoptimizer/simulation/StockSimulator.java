@@ -0,0 +1,458 @@
+package com.adeo.stockoptimizer.simulation;
+
+import java.time.DayOfWeek;
+
+import static com.adeo.stockoptimizer.utils.StockOptimizerUtils.roundUpToMultiple;
+
+/**
+ * Day-by-day stock simulation working on primitive arrays.
+ * <p>
+ * Each day, deliveries are received, the sales of the day are deducted (stock never goes below zero)
+ * and, on order days (Mondays by default), an order is placed if the stock would fall below the safety
+ * stock before the next order day.
+ * Pending deliveries are kept in a ring buffer indexed by delivery day, so a simulation runs in
+ * O(days) and allocates nothing once its output arrays are created. The orders in flight when the horizon
+ * starts ({@link PendingDeliveries}) are placed in the same buffer before the first day.
+ * <p>
+ * When the input has a {@link DemandCalendar}, it is decoded once into the demand of each day of the horizon,
+ * which replaces the weekly table both as the sales of the day and as the forecast of the orders.
+ * <p>
+ * In {@link SimulationMode#PERIODIC} mode, the state at the start of each Monday (stock and pending
+ * deliveries) is tracked with Brent's cycle detection. Since the demand and the order days repeat every
+ * week, two Mondays with the same state are followed by the same days: once a cycle is found, whole
+ * periods are replayed from the recorded one instead of being simulated. A demand calendar breaks this
+ * weekly repetition: such inputs are always simulated day by day.
+ */
+public final class StockSimulator {
+
+    private static final int MONDAY = DayOfWeek.MONDAY.ordinal();
+    private static final int[] NO_PENDING = new int[0];
+
+    private StockSimulator() {}
+
+    /**
+     * Simulates sales, deliveries and orders over the horizon, stepping every day.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @return The daily stock levels and the orders placed.
+     */
+    public static SimulationResult simulate(PlanningInput input, int initialStock, SimulationHorizon horizon) {
+        return simulate(input, initialStock, horizon, SimulationMode.DAY_STEPPING);
+    }
+
+    /**
+     * Simulates sales, deliveries and orders over the horizon.
+     * Both modes return exactly the same result.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param mode         Whether periodic stretches of the horizon may be fast-forwarded.
+     * @return The daily stock levels and the orders placed.
+     */
+    public static SimulationResult simulate(PlanningInput input, int initialStock, SimulationHorizon horizon,
+                                            SimulationMode mode) {
+        return simulate(input, initialStock, PendingDeliveries.NONE, horizon, mode);
+    }
+
+    /**
+     * Simulates sales, deliveries and orders over the horizon, starting with deliveries already pending.
+     * Both modes return exactly the same result.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param pending      Deliveries ordered before the horizon.
+     * @param horizon      Simulated period.
+     * @param mode         Whether periodic stretches of the horizon may be fast-forwarded.
+     * @return The daily stock levels and the orders placed.
+     */
+    public static SimulationResult simulate(PlanningInput input, int initialStock, PendingDeliveries pending,
+                                            SimulationHorizon horizon, SimulationMode mode) {
+        ResultRecorder recorder = new ResultRecorder(horizon.days(), Integer.bitCount(input.orderDays()));
+        run(input, initialStock, pending.pairs(), horizon, null, recorder,
+                mode == SimulationMode.PERIODIC ? recorder : null, null, 0);
+        return recorder.toResult();
+    }
+
+    /**
+     * Simulates the horizon day by day, handing every event to the listener instead of recording it.
+     * Only the pending deliveries are kept in memory, whatever the length of the horizon.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param listener     Receiver of the daily stock levels and of the orders.
+     */
+    public static void run(PlanningInput input, int initialStock, SimulationHorizon horizon,
+                           SimulationListener listener) {
+        run(input, initialStock, PendingDeliveries.NONE, horizon, listener);
+    }
+
+    /**
+     * Simulates the horizon day by day, starting with deliveries already pending, handing every event to the
+     * listener instead of recording it.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param pending      Deliveries ordered before the horizon.
+     * @param horizon      Simulated period.
+     * @param listener     Receiver of the daily stock levels and of the orders.
+     */
+    public static void run(PlanningInput input, int initialStock, PendingDeliveries pending,
+                           SimulationHorizon horizon, SimulationListener listener) {
+        run(input, initialStock, pending.pairs(), horizon, null, listener, null, null, 0);
+    }
+
+    /**
+     * Simulates the horizon day by day, handing every event to the listener, and captures the state of the
+     * simulation at the start of every week so that it can be resumed from there.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param listener     Receiver of the daily stock levels and of the orders.
+     * @return The weekly checkpoints of the simulation.
+     */
+    public static PlanCheckpoints runWithCheckpoints(PlanningInput input, int initialStock,
+                                                     SimulationHorizon horizon, SimulationListener listener) {
+        return runWithCheckpoints(input, initialStock, PendingDeliveries.NONE, horizon, listener);
+    }
+
+    /**
+     * Simulates the horizon day by day, starting with deliveries already pending, handing every event to the
+     * listener, and captures the state of the simulation at the start of every week so that it can be resumed
+     * from there. The pending deliveries are part of the state of the first checkpoints.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param pending      Deliveries ordered before the horizon.
+     * @param horizon      Simulated period.
+     * @param listener     Receiver of the daily stock levels and of the orders.
+     * @return The weekly checkpoints of the simulation.
+     */
+    public static PlanCheckpoints runWithCheckpoints(PlanningInput input, int initialStock, PendingDeliveries pending,
+                                                     SimulationHorizon horizon, SimulationListener listener) {
+        PlanCheckpoints checkpoints = PlanCheckpoints.empty(horizon);
+        run(input, initialStock, pending.pairs(), horizon, null, listener, null, checkpoints, 0);
+        return checkpoints;
+    }
+
+    /**
+     * Simulates the horizon day by day, starting with deliveries already pending, recording its result while
+     * handing every event to the listener and capturing the checkpoints of {@link #runWithCheckpoints}: one run
+     * gives both the plan and the state it can be resumed from.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param pending      Deliveries ordered before the horizon.
+     * @param horizon      Simulated period.
+     * @param listener     Receiver of the daily stock levels and of the orders.
+     * @return The daily stock levels and the orders placed, with the weekly checkpoints of the simulation.
+     */
+    public static CheckpointedSimulation simulateWithCheckpoints(PlanningInput input, int initialStock,
+                                                                 PendingDeliveries pending, SimulationHorizon horizon,
+                                                                 SimulationListener listener) {
+        ResultRecorder recorder = new ResultRecorder(horizon.days(), Integer.bitCount(input.orderDays()));
+        PlanCheckpoints checkpoints = PlanCheckpoints.empty(horizon);
+        run(input, initialStock, pending.pairs(), horizon, null, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                recorder.onDay(day, stock, unmetDemand);
+                listener.onDay(day, stock, unmetDemand);
+            }
+
+            @Override
+            public void onOrder(int day, int quantity) {
+                recorder.onOrder(day, quantity);
+                listener.onOrder(day, quantity);
+            }
+
+            @Override
+            public void onComplete() {
+                listener.onComplete();
+            }
+        }, null, checkpoints, 0);
+        return new CheckpointedSimulation(recorder.toResult(), checkpoints);
+    }
+
+    /**
+     * Simulates a planned horizon again from one of its checkpoints, with possibly different inputs. The
+     * simulation starts from the stock and the pending deliveries of the checkpoint: deliveries ordered
+     * before keep their delivery day, whatever the new lead time. Simulating with the inputs of the plan
+     * gives exactly the days and orders of the plan from the checkpoint.
+     *
+     * @param input       Compiled planning inputs from the checkpoint on.
+     * @param checkpoints Checkpoints of the plan.
+     * @param checkpoint  Index of the checkpoint the simulation starts from.
+     * @param listener    Receiver of the daily stock levels and of the orders, whose day indexes start from
+     *                    the checkpoint day.
+     * @return The checkpoints of the new plan: those before {@code checkpoint} are kept, the others are
+     *         captured again.
+     */
+    public static PlanCheckpoints resume(PlanningInput input, PlanCheckpoints checkpoints, int checkpoint,
+                                         SimulationListener listener) {
+        SimulationHorizon planned = checkpoints.horizon();
+        int firstDay = checkpoints.dayOf(checkpoint);
+        PlanCheckpoints resumed = checkpoints.truncatedAt(checkpoint);
+        run(input, checkpoints.stockAt(checkpoint), checkpoints.pendingAt(checkpoint),
+                new SimulationHorizon(planned.dateOf(firstDay), planned.days() - firstDay), null, listener, null,
+                resumed, checkpoint);
+        return resumed;
+    }
+
+    /**
+     * Simulates the horizon day by day against the actual demand of each day, handing every event to the
+     * listener. Orders are still planned from the weekly demand and the demand calendar of the input, which act
+     * as the forecast.
+     *
+     * @param input        Compiled planning inputs of the product.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @param dailyDemand  Actual demand of each day of the horizon.
+     * @param listener     Receiver of the daily stock levels and of the orders.
+     */
+    public static void run(PlanningInput input, int initialStock, SimulationHorizon horizon, int[] dailyDemand,
+                           SimulationListener listener) {
+        if (dailyDemand.length < horizon.days()) {
+            throw new IllegalArgumentException("Daily demand must cover the " + horizon.days() + " days of the horizon");
+        }
+        run(input, initialStock, NO_PENDING, horizon, dailyDemand, listener, null, null, 0);
+    }
+
+    /**
+     * Runs the day loop.
+     *
+     * @param pending         Deliveries pending at the start of the horizon, as pairs of (day, quantity).
+     * @param dailyDemand     Actual demand of each day, or {@code null} when it follows the weekly demand and the
+     *                        demand calendar of the input.
+     * @param recorder        Recorder of the result, enabling the periodic fast-forward; {@code null} to step
+     *                        every day.
+     * @param checkpoints     Receiver of the state at the start of every week, {@code null} to capture nothing.
+     *                        Only captured when stepping every day.
+     * @param firstCheckpoint Index of the checkpoint of the first day of the horizon.
+     */
+    private static void run(PlanningInput input, int initialStock, int[] pending, SimulationHorizon horizon,
+                            int[] dailyDemand, SimulationListener listener, ResultRecorder recorder,
+                            PlanCheckpoints checkpoints, int firstCheckpoint) {
+        int days = horizon.days();
+        int[] weeklyDemand = input.weeklyDemand();
+        int leadTime = input.deliveryLeadTime();
+        int orderDays = input.orderDays();
+        int[] reviewSpans = PlanningInput.reviewSpans(orderDays);
+        int[] datedDemand = input.demandCalendar().isEmpty() ? null
+                : input.demandCalendar().decode(weeklyDemand, horizon);
+        // Days from a Monday to the first order day of its week: the previous order covers the days before it
+        int firstOrderOffset = orderDays == 0 ? 0 : Integer.numberOfTrailingZeros(orderDays);
+        int ringLength = leadTime + 1;
+        for (int i = 0; i < pending.length; i += 2) {
+            ringLength = Math.max(ringLength, pending[i] + 1);
+        }
+        int[] arrivals = new int[ringLength];
+        for (int i = 0; i < pending.length; i += 2) {
+            arrivals[pending[i]] += pending[i + 1];
+        }
+
+        int stock = initialStock;
+        int dayOfWeek = horizon.startDayOfWeek();
+
+        // Brent's cycle detection on the state at the start of each Monday, replayed by the recorder
+        boolean detectCycle = recorder != null && datedDemand == null;
+        int[] savedArrivals = detectCycle ? new int[arrivals.length] : null;
+        int savedDay = -1;
+        int savedStock = 0;
+        int savedOrderCount = 0;
+        int savedStockoutDays = 0;
+        int power = 1;
+        int weeksSinceSave = 0;
+
+        for (int day = 0; day < days; day++) {
+            if (checkpoints != null && day % PlanCheckpoints.INTERVAL == 0) {
+                checkpoints.capture(firstCheckpoint + day / PlanCheckpoints.INTERVAL, stock, arrivals, day);
+            }
+            if (detectCycle && dayOfWeek == MONDAY) {
+                if (savedDay >= 0 && stock == savedStock && hasSameArrivals(arrivals, day, savedArrivals)) {
+                    int period = day - savedDay;
+                    // Replayed periods must not include an order whose coverage is cut by the end of the horizon
+                    int periods = (days - firstOrderOffset - day) / period;
+                    if (periods > 0) {
+                        recorder.replay(savedDay, period, periods, savedOrderCount, savedStockoutDays);
+
+                        // Jump to the Monday following the replayed periods, which starts in the same state
+                        day += periods * period;
+                        for (int i = 0; i < arrivals.length; i++) {
+                            arrivals[(day + i) % arrivals.length] = savedArrivals[i];
+                        }
+                    }
+                    detectCycle = false;
+                    if (day == days) {
+                        break;
+                    }
+                } else if (++weeksSinceSave == power) {
+                    savedDay = day;
+                    savedStock = stock;
+                    savedOrderCount = recorder.orderCount;
+                    savedStockoutDays = recorder.stockoutDays;
+                    for (int i = 0; i < arrivals.length; i++) {
+                        savedArrivals[i] = arrivals[(day + i) % arrivals.length];
+                    }
+                    power <<= 1;
+                    weeksSinceSave = 0;
+                }
+            }
+
+            int slot = day % arrivals.length;
+            stock += arrivals[slot];
+            arrivals[slot] = 0;
+            int demand = dailyDemand != null ? dailyDemand[day]
+                    : datedDemand != null ? datedDemand[day] : weeklyDemand[dayOfWeek];
+            int unmetDemand = Math.max(0, demand - stock);
+            stock = Math.max(0, stock - demand);
+
+            if ((orderDays >> dayOfWeek & 1) != 0) {
+                int neededQuantity = datedDemand != null
+                        ? calculateShortage(datedDemand, stock, day, reviewSpans[dayOfWeek], input.safetyStock())
+                        : calculateShortage(weeklyDemand, stock, day, dayOfWeek, reviewSpans[dayOfWeek],
+                                input.safetyStock(), days);
+                if (neededQuantity > 0) {
+                    int orderQuantity = roundUpToMultiple(neededQuantity, input.orderMultiple());
+                    // A same-day delivery would be received after today's arrivals: it never enters the stock
+                    if (leadTime > 0) {
+                        arrivals[(day + leadTime) % arrivals.length] += orderQuantity;
+                    }
+                    listener.onOrder(day, orderQuantity);
+                }
+            }
+
+            listener.onDay(day, stock, unmetDemand);
+            dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+
+        listener.onComplete();
+    }
+
+    /**
+     * Checks whether the pending deliveries from the given day match a saved copy.
+     *
+     * @param arrivals      Ring buffer of pending deliveries, indexed by delivery day.
+     * @param day           Index of the current day.
+     * @param savedArrivals Saved pending deliveries, indexed by offset from the saved day.
+     * @return {@code true} if every pending delivery matches.
+     */
+    private static boolean hasSameArrivals(int[] arrivals, int day, int[] savedArrivals) {
+        for (int i = 0; i < arrivals.length; i++) {
+            if (arrivals[(day + i) % arrivals.length] != savedArrivals[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates the stock shortage until the next order day, ignoring pending deliveries.
+     *
+     * @param weeklyDemand Weekly demand table.
+     * @param currentStock The current stock level.
+     * @param day          Index of the current day.
+     * @param dayOfWeek    Day-of-week index of the current day.
+     * @param reviewSpan   Number of days until the next order day, excluded.
+     * @param safetyStock  Stock level the projected stock must stay above.
+     * @param days         Number of days in the horizon.
+     * @return The quantity needed to stay above the safety stock until the next order day, or 0 if no shortage
+     *         is expected.
+     */
+    private static int calculateShortage(int[] weeklyDemand, int currentStock, int day, int dayOfWeek,
+                                         int reviewSpan, int safetyStock, int days) {
+        int projectedStock = currentStock;
+        for (int i = 1; i <= reviewSpan && day + i < days; i++) {
+            projectedStock -= weeklyDemand[(dayOfWeek + i) % 7];
+            if (projectedStock < safetyStock) {
+                return safetyStock - projectedStock + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Calculates the stock shortage until the next order day from the demand of each day, ignoring pending
+     * deliveries.
+     *
+     * @param datedDemand  Demand of each day of the horizon.
+     * @param currentStock The current stock level.
+     * @param day          Index of the current day.
+     * @param reviewSpan   Number of days until the next order day, excluded.
+     * @param safetyStock  Stock level the projected stock must stay above.
+     * @return The quantity needed to stay above the safety stock until the next order day, or 0 if no shortage
+     *         is expected.
+     */
+    private static int calculateShortage(int[] datedDemand, int currentStock, int day, int reviewSpan,
+                                         int safetyStock) {
+        int projectedStock = currentStock;
+        for (int i = 1; i <= reviewSpan && day + i < datedDemand.length; i++) {
+            projectedStock -= datedDemand[day + i];
+            if (projectedStock < safetyStock) {
+                return safetyStock - projectedStock + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Records the events of a simulation into the arrays of a {@link SimulationResult}.
+     */
+    private static final class ResultRecorder implements SimulationListener {
+
+        private final int[] dailyStock;
+        private final int[] orderDays;
+        private final int[] orderQuantities;
+        private int orderCount;
+        private int stockoutDays;
+
+        private ResultRecorder(int days, int orderDaysPerWeek) {
+            this.dailyStock = new int[days];
+            this.orderDays = new int[(days / 7 + 1) * orderDaysPerWeek];
+            this.orderQuantities = new int[orderDays.length];
+        }
+
+        @Override
+        public void onDay(int day, int stock, int unmetDemand) {
+            dailyStock[day] = stock;
+            if (unmetDemand > 0) {
+                stockoutDays++;
+            }
+        }
+
+        @Override
+        public void onOrder(int day, int quantity) {
+            orderDays[orderCount] = day;
+            orderQuantities[orderCount] = quantity;
+            orderCount++;
+        }
+
+        /**
+         * Repeats the recorded period starting on {@code periodStart} right after itself.
+         *
+         * @param periodStart        First day of the recorded period.
+         * @param period             Length of the period in days.
+         * @param periods            Number of times the period is repeated.
+         * @param ordersBefore       Number of orders recorded before the period.
+         * @param stockoutDaysBefore Number of stockout days recorded before the period.
+         */
+        private void replay(int periodStart, int period, int periods, int ordersBefore, int stockoutDaysBefore) {
+            int periodOrders = orderCount - ordersBefore;
+            for (int p = 1; p <= periods; p++) {
+                int shift = p * period;
+                System.arraycopy(dailyStock, periodStart, dailyStock, periodStart + shift, period);
+                for (int i = ordersBefore; i < ordersBefore + periodOrders; i++) {
+                    onOrder(orderDays[i] + shift, orderQuantities[i]);
+                }
+            }
+            stockoutDays += periods * (stockoutDays - stockoutDaysBefore);
+        }
+
+        private SimulationResult toResult() {
+            return new SimulationResult(dailyStock, orderDays, orderQuantities, orderCount, stockoutDays);
+        }
+    }
+}
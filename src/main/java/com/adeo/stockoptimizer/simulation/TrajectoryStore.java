@@ -0,0 +1,362 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.utils.StockStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Daily stock levels of the planned products, kept outside of the Java heap.
+ * <p>
+ * Trajectories are {@code int} columns, one value per day of their horizon, packed into slabs of direct
+ * memory or of a memory-mapped file. An index by product id gives the slab and offset of the trajectory of
+ * each product, with the horizon and the inputs it was simulated from. Trajectories are written straight from
+ * the day loop of a simulation and read back by scanning the slab, so no Java collection holds them.
+ * <p>
+ * A new trajectory is written into a free slot and replaces the previous one once complete; the slot of the
+ * previous one is then reused by trajectories of the same length. When the memory budget is exhausted, new
+ * trajectories are not kept.
+ */
+public final class TrajectoryStore implements AutoCloseable {
+
+    /**
+     * Size of a slab in bytes. A trajectory never spans two slabs.
+     */
+    static final int SLAB_BYTES = 4 << 20;
+
+    private static final int SLAB_INTS = SLAB_BYTES / Integer.BYTES;
+
+    private static final SimulationListener DISCARD = new SimulationListener() {};
+
+    private final int maxSlabs;
+    private final FileChannel file;
+    private final Path path;
+    private final IntBuffer[] slabs;
+    private final Map<Long, Trajectory> index = new HashMap<>();
+    private final Map<Integer, ArrayDeque<Long>> freeSlots = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int slabCount;
+    private int slabEnd = SLAB_INTS;
+
+    /**
+     * @param maxBytes  Memory budget of the trajectories, rounded up to whole slabs.
+     * @param directory Directory of the memory-mapped file, or {@code null} to use direct memory.
+     */
+    public TrajectoryStore(long maxBytes, Path directory) {
+        this.maxSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (maxBytes + SLAB_BYTES - 1) / SLAB_BYTES));
+        this.slabs = new IntBuffer[maxSlabs];
+        if (directory == null) {
+            this.path = null;
+            this.file = null;
+        } else {
+            try {
+                Files.createDirectories(directory);
+                this.path = Files.createTempFile(directory, "trajectories", ".bin");
+                this.file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns a listener writing the daily stock levels of a simulation as the trajectory of a product. The
+     * trajectory replaces the previous one of the product when the simulation completes.
+     *
+     * @param productId    Identifier of the product.
+     * @param version      Stamp of the inputs of the simulation.
+     * @param initialStock Stock at the start of the horizon.
+     * @param horizon      Simulated period.
+     * @return The writer, discarding the stock levels if the store is full.
+     */
+    public SimulationListener writer(long productId, long version, int initialStock, SimulationHorizon horizon) {
+        long slot = allocate(horizon.days());
+        if (slot < 0) {
+            return DISCARD;
+        }
+        return new Writer(productId, new Trajectory(version, initialStock, horizon, slot), 0);
+    }
+
+    /**
+     * Returns a listener writing the end of the trajectory of a product, from a day of its horizon on, like a
+     * simulation resumed from that day. The days before are copied from the current trajectory: unless the
+     * simulation is resumed from day 0, they were simulated from the inputs of the previous trajectory.
+     *
+     * @param productId Identifier of the product.
+     * @param version   Stamp of the inputs of the whole trajectory, which {@link #replay} only trusts when every
+     *                  day was simulated from them.
+     * @param firstDay  Index in the horizon of the first resumed day, day 0 for the listener.
+     * @return The writer, discarding the stock levels if the product has no trajectory or the store is full.
+     */
+    public SimulationListener resumeWriter(long productId, long version, int firstDay) {
+        lock.readLock().lock();
+        Trajectory current;
+        try {
+            current = index.get(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (current == null || firstDay > current.horizon().days()) {
+            return DISCARD;
+        }
+        long slot = allocate(current.horizon().days());
+        if (slot < 0) {
+            return DISCARD;
+        }
+        boolean copied = false;
+        lock.readLock().lock();
+        try {
+            // The current trajectory may have been replaced since: copy whatever is current now
+            Trajectory source = index.get(productId);
+            if (source != null && source.horizon().equals(current.horizon())) {
+                IntBuffer from = slabs[slabOf(source.slot())];
+                IntBuffer to = slabs[slabOf(slot)];
+                for (int day = 0; day < firstDay; day++) {
+                    to.put(offsetOf(slot) + day, from.get(offsetOf(source.slot()) + day));
+                }
+                copied = true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!copied) {
+            release(slot, current.horizon().days());
+            return DISCARD;
+        }
+        return new Writer(productId, new Trajectory(version, current.initialStock(), current.horizon(), slot),
+                firstDay);
+    }
+
+    /**
+     * Hands the stored trajectory of a product to a listener, as if the simulation were run again, provided
+     * it was simulated from the same inputs. Unmet demand is not stored and reported as 0.
+     *
+     * @param productId    Identifier of the product.
+     * @param version      Stamp of the expected inputs.
+     * @param initialStock Expected initial stock.
+     * @param horizon      Expected period.
+     * @param listener     Receiver of the daily stock levels.
+     * @return {@code true} if the trajectory was found and replayed, {@code false} otherwise.
+     */
+    public boolean replay(long productId, long version, int initialStock, SimulationHorizon horizon,
+                          SimulationListener listener) {
+        lock.readLock().lock();
+        try {
+            Trajectory trajectory = index.get(productId);
+            if (trajectory == null || trajectory.version() != version
+                    || trajectory.initialStock() != initialStock || !trajectory.horizon().equals(horizon)) {
+                return false;
+            }
+            IntBuffer slab = slabs[slabOf(trajectory.slot())];
+            int offset = offsetOf(trajectory.slot());
+            for (int day = 0; day < horizon.days(); day++) {
+                listener.onDay(day, slab.get(offset + day), 0);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        listener.onComplete();
+        return true;
+    }
+
+    /**
+     * Computes the minimum, maximum and average stock of the stored trajectory of a product over a range of
+     * dates, whatever the inputs it was simulated from.
+     *
+     * @param productId Identifier of the product.
+     * @param from      First date of the range.
+     * @param to        Last date of the range (inclusive).
+     * @return The statistics of the days of the range inside the horizon of the trajectory, or nothing if the
+     *         product has no trajectory or none of its days are in the range.
+     */
+    public Optional<StockStats> stats(long productId, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            Trajectory trajectory = index.get(productId);
+            if (trajectory == null) {
+                return Optional.empty();
+            }
+            SimulationHorizon horizon = trajectory.horizon();
+            long first = Math.max(0, ChronoUnit.DAYS.between(horizon.start(), from));
+            long last = Math.min(horizon.days() - 1L, ChronoUnit.DAYS.between(horizon.start(), to));
+            if (first > last) {
+                return Optional.empty();
+            }
+            IntBuffer slab = slabs[slabOf(trajectory.slot())];
+            int offset = offsetOf(trajectory.slot());
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            long sum = 0;
+            for (int day = (int) first; day <= last; day++) {
+                int stock = slab.get(offset + day);
+                min = Math.min(min, stock);
+                max = Math.max(max, stock);
+                sum += stock;
+            }
+            return Optional.of(new StockStats(min, max, (double) sum / (last - first + 1), null, null));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored trajectories.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the memory-mapped file, if any. The direct memory is released with the store.
+     */
+    @Override
+    public void close() {
+        if (file != null) {
+            try {
+                file.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Reserves a slot for a trajectory: a free slot of the same length, else the end of the last slab, else a
+     * new slab.
+     *
+     * @param days Length of the trajectory.
+     * @return The slot, as the slab index in the high bits and the offset in the low bits, or -1 if the
+     *         store is full.
+     */
+    private long allocate(int days) {
+        if (days > SLAB_INTS) {
+            return -1;
+        }
+        lock.writeLock().lock();
+        try {
+            ArrayDeque<Long> free = freeSlots.get(days);
+            if (free != null && !free.isEmpty()) {
+                return free.pop();
+            }
+            if (slabEnd + days > SLAB_INTS) {
+                if (slabCount == maxSlabs) {
+                    return -1;
+                }
+                slabs[slabCount] = newSlab(slabCount);
+                slabCount++;
+                slabEnd = 0;
+            }
+            long slot = ((long) (slabCount - 1) << 32) | slabEnd;
+            slabEnd += days;
+            return slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes a slot available to the next trajectory of the same length.
+     */
+    private void release(long slot, int days) {
+        lock.writeLock().lock();
+        try {
+            freeSlots.computeIfAbsent(days, length -> new ArrayDeque<>()).push(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Allocates a slab of direct memory, or maps the next region of the file.
+     *
+     * @param slab Index of the slab.
+     * @return The slab, as {@code int} values in native byte order.
+     */
+    private IntBuffer newSlab(int slab) {
+        ByteBuffer bytes;
+        if (file == null) {
+            bytes = ByteBuffer.allocateDirect(SLAB_BYTES);
+        } else {
+            try {
+                bytes = file.map(FileChannel.MapMode.READ_WRITE, (long) slab * SLAB_BYTES, SLAB_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return bytes.order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static int slabOf(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static int offsetOf(long slot) {
+        return (int) slot;
+    }
+
+    /**
+     * Stored trajectory of a product and the inputs it was simulated from.
+     */
+    private record Trajectory(long version, int initialStock, SimulationHorizon horizon, long slot) {
+    }
+
+    /**
+     * Writes the stock level of each simulated day into the slot of a new trajectory, then publishes it.
+     */
+    private final class Writer implements SimulationListener {
+
+        private final long productId;
+        private final Trajectory trajectory;
+        private final IntBuffer slab;
+        private final int offset;
+
+        private Writer(long productId, Trajectory trajectory, int firstDay) {
+            this.productId = productId;
+            this.trajectory = trajectory;
+            this.slab = slabs[slabOf(trajectory.slot())];
+            this.offset = offsetOf(trajectory.slot()) + firstDay;
+        }
+
+        @Override
+        public void onDay(int day, int stock, int unmetDemand) {
+            slab.put(offset + day, stock);
+        }
+
+        @Override
+        public void onComplete() {
+            Trajectory previous;
+            lock.writeLock().lock();
+            try {
+                previous = index.put(productId, trajectory);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (previous != null) {
+                // Readers of the previous trajectory held the read lock, so none of them is left
+                release(previous.slot(), previous.horizon().days());
+            }
+        }
+    }
+}
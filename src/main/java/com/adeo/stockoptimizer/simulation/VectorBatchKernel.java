@@ -0,0 +1,188 @@
+package com.adeo.stockoptimizer.simulation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Batch kernel advancing as many scenarios as the lanes of an {@link IntVector} in lockstep.
+ * <p>
+ * The stock, stockout and order counters and the monthly statistics of a group of scenarios stay in
+ * vector registers for the whole horizon. Pending deliveries are kept in a ring buffer holding one row
+ * of lanes per day, so they are received with a single vector load; since lead times differ between
+ * lanes, orders are written into it lane by lane, which only happens on order days.
+ * <p>
+ * Monthly stock and unmet demand sums are accumulated on 32-bit lanes: {@link BatchStockSimulator} only
+ * selects this kernel when they cannot overflow.
+ */
+final class VectorBatchKernel implements BatchKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void run(ScenarioBatch batch, SimulationHorizon horizon, BatchSimulationResult result) {
+        int lanes = SPECIES.length();
+        int scenarios = batch.size();
+        int padded = (scenarios + lanes - 1) / lanes * lanes;
+        // Padding lanes never receive anything (lead time 0) and are dropped from the result
+        int[] initialStocks = Arrays.copyOf(batch.initialStocks(), padded);
+        int[] leadTimes = Arrays.copyOf(batch.deliveryLeadTimes(), padded);
+        int[] orderMultiples = Arrays.copyOf(batch.orderMultiples(), padded);
+        Arrays.fill(orderMultiples, scenarios, padded, 1);
+        int[] safetyStocks = Arrays.copyOf(batch.safetyStocks(), padded);
+
+        int ringLength = Arrays.stream(leadTimes).max().orElse(0) + 1;
+        int[] arrivals = new int[ringLength * lanes];
+        int[][] lookahead = lookahead(batch.weeklyDemand(), batch.orderDays());
+        int[] lane = new int[lanes];
+
+        for (int base = 0; base < padded; base += lanes) {
+            Arrays.fill(arrivals, 0);
+            runGroup(batch.weeklyDemand(), lookahead, horizon, base, scenarios,
+                    IntVector.fromArray(SPECIES, initialStocks, base),
+                    IntVector.fromArray(SPECIES, orderMultiples, base),
+                    IntVector.fromArray(SPECIES, safetyStocks, base),
+                    leadTimes, arrivals, ringLength, lane, result);
+        }
+    }
+
+    /**
+     * Simulates one group of lanes over the horizon.
+     *
+     * @param weeklyDemand Weekly demand table.
+     * @param lookahead    Cumulative demand of the days covered by an order, for each order day-of-week.
+     * @param horizon      Simulated period.
+     * @param base         Index of the scenario of the first lane.
+     * @param scenarios    Number of actual scenarios, lanes beyond being padding.
+     * @param stock        Initial stock of each lane.
+     * @param multiple     Order multiple of each lane.
+     * @param safetyStock  Safety stock of each lane.
+     * @param leadTimes    Delivery lead time of every scenario, padding included.
+     * @param arrivals     Cleared ring buffer of pending deliveries, one row of lanes per day.
+     * @param ringLength   Number of rows of the ring buffer.
+     * @param lane         Scratch array holding one value per lane.
+     * @param result       Receiver of the totals and monthly statistics.
+     */
+    private static void runGroup(int[] weeklyDemand, int[][] lookahead, SimulationHorizon horizon, int base,
+                                 int scenarios, IntVector stock, IntVector multiple, IntVector safetyStock,
+                                 int[] leadTimes, int[] arrivals, int ringLength, int[] lane,
+                                 BatchSimulationResult result) {
+        int lanes = SPECIES.length();
+        int days = horizon.days();
+        IntVector zero = IntVector.zero(SPECIES);
+        IntVector stockoutDays = zero;
+        IntVector orderCounts = zero;
+        IntVector monthSum = zero;
+        IntVector monthUnmet = zero;
+        IntVector monthMin = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        IntVector monthMax = zero;
+        int month = 0;
+        int dayOfWeek = horizon.startDayOfWeek();
+
+        for (int day = 0; day < days; day++) {
+            int row = (day % ringLength) * lanes;
+            stock = stock.add(IntVector.fromArray(SPECIES, arrivals, row));
+            zero.intoArray(arrivals, row);
+            int demand = weeklyDemand[dayOfWeek];
+            IntVector unmet = stock.neg().add(demand).max(0);
+            stockoutDays = stockoutDays.add(1, unmet.compare(VectorOperators.GT, 0));
+            monthUnmet = monthUnmet.add(unmet);
+            stock = stock.sub(demand).max(0);
+
+            int[] covered = lookahead[dayOfWeek];
+            if (covered != null) {
+                // Same rule as StockSimulator: the first covered day whose projected stock is below the safety stock
+                IntVector needed = zero;
+                for (int i = 1; i < covered.length && day + i < days; i++) {
+                    IntVector threshold = safetyStock.add(covered[i]);
+                    VectorMask<Integer> shortage = needed.compare(VectorOperators.EQ, 0)
+                            .and(stock.compare(VectorOperators.LT, threshold));
+                    needed = needed.blend(threshold.add(1).sub(stock), shortage);
+                }
+                VectorMask<Integer> ordering = needed.compare(VectorOperators.GT, 0);
+                if (ordering.anyTrue()) {
+                    orderCounts = orderCounts.add(1, ordering);
+                    needed.add(multiple).sub(1).div(multiple).mul(multiple).intoArray(lane, 0);
+                    for (int l = 0; l < lanes; l++) {
+                        int leadTime = leadTimes[base + l];
+                        if (lane[l] > 0 && leadTime > 0) {
+                            arrivals[((day + leadTime) % ringLength) * lanes + l] += lane[l];
+                        }
+                    }
+                }
+            }
+
+            monthSum = monthSum.add(stock);
+            monthMin = monthMin.min(stock);
+            monthMax = monthMax.max(stock);
+            if (day + 1 == result.monthEnds[month]) {
+                storeMonth(result, base, scenarios, month, monthSum, monthMin, monthMax, monthUnmet, lane);
+                monthSum = zero;
+                monthUnmet = zero;
+                monthMin = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+                monthMax = zero;
+                month++;
+            }
+            dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+
+        stockoutDays.intoArray(lane, 0);
+        for (int l = 0; l < lanes && base + l < scenarios; l++) {
+            result.stockoutDays[base + l] = lane[l];
+        }
+        orderCounts.intoArray(lane, 0);
+        for (int l = 0; l < lanes && base + l < scenarios; l++) {
+            result.orderCounts[base + l] = lane[l];
+        }
+    }
+
+    /**
+     * Copies the statistics of a completed month of a group of lanes into the result.
+     */
+    private static void storeMonth(BatchSimulationResult result, int base, int scenarios, int month,
+                                   IntVector monthSum, IntVector monthMin, IntVector monthMax,
+                                   IntVector monthUnmet, int[] lane) {
+        int lanes = SPECIES.length();
+        monthUnmet.intoArray(lane, 0);
+        for (int l = 0; l < lanes && base + l < scenarios; l++) {
+            result.unmetDemands[base + l] += lane[l];
+        }
+        monthSum.intoArray(lane, 0);
+        for (int l = 0; l < lanes && base + l < scenarios; l++) {
+            result.monthStockSums[(base + l) * result.months + month] = lane[l];
+        }
+        monthMin.intoArray(lane, 0);
+        for (int l = 0; l < lanes && base + l < scenarios; l++) {
+            result.monthMinStocks[(base + l) * result.months + month] = lane[l];
+        }
+        monthMax.intoArray(lane, 0);
+        for (int l = 0; l < lanes && base + l < scenarios; l++) {
+            result.monthMaxStocks[(base + l) * result.months + month] = lane[l];
+        }
+    }
+
+    /**
+     * Calculates the cumulative demand of the days covered by an order, for each order day.
+     *
+     * @param weeklyDemand Weekly demand table.
+     * @param orderDays    Days of the week on which orders may be placed.
+     * @return For each order day-of-week, the demand from the next day to the i-th day after it at index i,
+     *         for i from 1 to the number of covered days; {@code null} for the other days.
+     */
+    private static int[][] lookahead(int[] weeklyDemand, int orderDays) {
+        int[] spans = PlanningInput.reviewSpans(orderDays);
+        int[][] lookahead = new int[7][];
+        for (int dayOfWeek = 0; dayOfWeek < 7; dayOfWeek++) {
+            if ((orderDays >> dayOfWeek & 1) != 0) {
+                lookahead[dayOfWeek] = new int[spans[dayOfWeek] + 1];
+                for (int i = 1; i <= spans[dayOfWeek]; i++) {
+                    lookahead[dayOfWeek][i] = lookahead[dayOfWeek][i - 1] + weeklyDemand[(dayOfWeek + i) % 7];
+                }
+            }
+        }
+        return lookahead;
+    }
+}
@@ -0,0 +1,24 @@
+package com.adeo.stockoptimizer.utils;
+
+import java.util.Comparator;
+
+/**
+ * Result of the simulation of one candidate order multiple.
+ *
+ * @param orderMultiple Evaluated order multiple.
+ * @param averageStock  Average stock level over the period.
+ * @param stockoutDays  Number of days on which the demand could not be fully served.
+ * @param orderCount    Number of orders placed over the period.
+ */
+public record MultipleEvaluation(int orderMultiple, double averageStock, int stockoutDays, int orderCount) {
+
+    /**
+     * Ranks candidates from best to worst: fewest stockout days, then lowest average stock,
+     * then fewest orders, then smallest multiple.
+     */
+    public static final Comparator<MultipleEvaluation> RANKING = Comparator
+            .comparingInt(MultipleEvaluation::stockoutDays)
+            .thenComparingDouble(MultipleEvaluation::averageStock)
+            .thenComparingInt(MultipleEvaluation::orderCount)
+            .thenComparingInt(MultipleEvaluation::orderMultiple);
+}
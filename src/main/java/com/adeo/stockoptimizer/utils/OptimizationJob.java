@@ -0,0 +1,35 @@
+package com.adeo.stockoptimizer.utils;
+
+import com.adeo.stockoptimizer.enums.JobStatus;
+import com.adeo.stockoptimizer.enums.JobType;
+
+import java.time.Instant;
+
+/**
+ * State of an asynchronous optimisation job at a given time.
+ *
+ * @param id          Identifier of the job.
+ * @param type        Kind of optimisation run by the job.
+ * @param status      Current status of the job.
+ * @param completed   Number of units of work completed so far.
+ * @param total       Total number of units of work, 0 until the job reports it.
+ * @param submittedAt When the job was submitted.
+ * @param startedAt   When the job started running, {@code null} while queued.
+ * @param finishedAt  When the job finished, {@code null} until then.
+ * @param error       Reason of the failure, {@code null} unless the job failed.
+ * @param result      Result of the job, {@code null} unless the job succeeded.
+ */
+public record OptimizationJob(String id, JobType type, JobStatus status, long completed, long total,
+                              Instant submittedAt, Instant startedAt, Instant finishedAt, String error,
+                              Object result) {
+
+    /**
+     * Returns the completed share of the job, between 0 and 1.
+     */
+    public double progress() {
+        if (status == JobStatus.SUCCEEDED) {
+            return 1.0;
+        }
+        return total == 0 ? 0.0 : Math.min(1.0, (double) completed / total);
+    }
+}
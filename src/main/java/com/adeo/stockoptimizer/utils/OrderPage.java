@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.utils;
+
+import com.adeo.stockoptimizer.dtos.OrderDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Page of the persisted orders of a product, in (order date, id) order.
+ *
+ * @param orders        Orders of the page.
+ * @param nextOrderDate Order date of the last order of the page, {@code null} on the last page.
+ * @param nextId        Id of the last order of the page, {@code null} on the last page. With
+ *                      {@code nextOrderDate}, it is the position the next page starts after.
+ */
+public record OrderPage(List<OrderDTO> orders, LocalDate nextOrderDate, Long nextId) {
+}
@@ -0,0 +1,13 @@
+package com.adeo.stockoptimizer.utils;
+
+/**
+ * Statistics of the planning snapshot cache since the application started.
+ *
+ * @param size          Number of snapshots currently cached.
+ * @param hitCount      Number of lookups served from the cache.
+ * @param missCount     Number of lookups that loaded the snapshot from the database.
+ * @param hitRate       Ratio of lookups served from the cache, 1.0 when there was no lookup.
+ * @param evictionCount Number of snapshots evicted because of the size limit or of their age.
+ */
+public record PlanningCacheStats(long size, long hitCount, long missCount, double hitRate, long evictionCount) {
+}
@@ -0,0 +1,14 @@
+package com.adeo.stockoptimizer.utils;
+
+import java.time.Instant;
+
+/**
+ * Outcome of an export of the planning data to the binary planning data file.
+ *
+ * @param startedAt  When the export started.
+ * @param finishedAt When the new file was mapped and started serving the snapshots.
+ * @param products   Number of exported products.
+ * @param bytes      Size of the file.
+ */
+public record PlanningDataExport(Instant startedAt, Instant finishedAt, int products, long bytes) {
+}
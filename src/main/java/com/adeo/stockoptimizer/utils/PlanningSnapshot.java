@@ -0,0 +1,16 @@
+package com.adeo.stockoptimizer.utils;
+
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+
+/**
+ * Planning data of one product, loaded and compiled once then shared between calculations.
+ * Neither the product nor the input may be modified once the snapshot has been built.
+ *
+ * @param product The product.
+ * @param input   Its compiled planning inputs (weekly demand, delivery lead time, order multiple).
+ * @param version Stamp of the loaded data, different for every load: results computed from a snapshot
+ *                remain valid as long as the snapshot of the product keeps the same version.
+ */
+public record PlanningSnapshot(Product product, PlanningInput input, long version) {
+}
@@ -0,0 +1,20 @@
+package com.adeo.stockoptimizer.utils;
+
+/**
+ * Outcome of the order plan calculation of one product in a bulk run.
+ *
+ * @param productId  Identifier of the product.
+ * @param success    Whether the plan was calculated and persisted.
+ * @param orderCount Number of orders generated, 0 on failure.
+ * @param error      Reason of the failure, {@code null} on success.
+ */
+public record ProductPlanResult(Long productId, boolean success, int orderCount, String error) {
+
+    public static ProductPlanResult success(Long productId, int orderCount) {
+        return new ProductPlanResult(productId, true, orderCount, null);
+    }
+
+    public static ProductPlanResult failure(Long productId, String error) {
+        return new ProductPlanResult(productId, false, 0, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.adeo.stockoptimizer.utils;
+
+import java.time.LocalDate;
+
+/**
+ * Changes written by the incremental re-planning of a product.
+ *
+ * @param productId Identifier of the product.
+ * @param fromDate  First day simulated again: orders placed before are left untouched.
+ * @param inserted  Number of new orders.
+ * @param updated   Number of orders whose quantity or delivery date changed.
+ * @param deleted   Number of orders no longer needed.
+ * @param unchanged Number of orders kept as they were.
+ */
+public record ReplanResult(Long productId, LocalDate fromDate, int inserted, int updated, int deleted,
+                           int unchanged) {
+}
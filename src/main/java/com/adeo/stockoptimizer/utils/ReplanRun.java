@@ -0,0 +1,23 @@
+package com.adeo.stockoptimizer.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Outcome of a run of the scheduled re-plan of the changed products.
+ *
+ * @param startedAt       When the run started; products changed later are left for the next run.
+ * @param finishedAt      When the run ended.
+ * @param plannedProducts Number of products whose plan was calculated and persisted.
+ * @param failedProducts  Number of products that could not be planned; they stay in the change journal.
+ */
+public record ReplanRun(Instant startedAt, Instant finishedAt, int plannedProducts, int failedProducts) {
+
+    /**
+     * Returns the number of products processed per second, planned or failed.
+     */
+    public double productsPerSecond() {
+        long millis = Duration.between(startedAt, finishedAt).toMillis();
+        return millis == 0 ? 0 : (plannedProducts + failedProducts) * 1000.0 / millis;
+    }
+}
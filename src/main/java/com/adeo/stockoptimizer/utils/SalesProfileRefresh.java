@@ -0,0 +1,18 @@
+package com.adeo.stockoptimizer.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Outcome of a refresh of the sales profiles from the recorded sales.
+ *
+ * @param startedAt       When the refresh started; sales recorded later are taken by the next refresh.
+ * @param finishedAt      When the refresh ended.
+ * @param fromWeek        First week averaged into the profiles.
+ * @param toWeek          Week following the last averaged one.
+ * @param scannedProducts Number of products whose weekly rollups were read.
+ * @param updatedProducts Number of products whose sales profiles changed.
+ */
+public record SalesProfileRefresh(Instant startedAt, Instant finishedAt, LocalDate fromWeek, LocalDate toWeek,
+                                  int scannedProducts, int updatedProducts) {
+}
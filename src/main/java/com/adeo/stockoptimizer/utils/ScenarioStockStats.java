@@ -0,0 +1,18 @@
+package com.adeo.stockoptimizer.utils;
+
+import java.util.Map;
+
+/**
+ * Stock statistics of one what-if scenario of a product.
+ *
+ * @param initialStock     Initial stock of the scenario.
+ * @param orderMultiple    Order multiple of the scenario.
+ * @param deliveryLeadTime Delivery lead time of the scenario, in days.
+ * @param averageStock     Average stock level over the period.
+ * @param stockoutDays     Number of days on which the demand could not be fully served.
+ * @param orderCount       Number of orders placed over the period.
+ * @param monthlyStats     Minimum, maximum and average stock of each month, in chronological order.
+ */
+public record ScenarioStockStats(int initialStock, int orderMultiple, int deliveryLeadTime, double averageStock,
+                                 int stockoutDays, int orderCount, Map<String, StockStats> monthlyStats) {
+}
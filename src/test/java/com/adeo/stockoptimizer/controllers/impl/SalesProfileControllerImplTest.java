@@ -0,0 +1,150 @@
+package com.adeo.stockoptimizer.controllers.impl;
+
+import com.adeo.stockoptimizer.dtos.SalesProfileDTO;
+import com.adeo.stockoptimizer.mappers.DemandAdjustmentMapper;
+import com.adeo.stockoptimizer.mappers.SalesProfileMapper;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.services.OrderOptimizationService;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.services.SalesHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SalesProfileControllerImplTest {
+
+    @Mock
+    private SalesProfileRepository salesProfileRepository;
+
+    @Mock
+    private SalesProfileMapper salesProfileMapper;
+
+    @Mock
+    private DemandAdjustmentRepository demandAdjustmentRepository;
+
+    @Mock
+    private DemandAdjustmentMapper demandAdjustmentMapper;
+
+    @Mock
+    private PlanningSnapshotService planningSnapshotService;
+
+    @Mock
+    private OrderOptimizationService orderOptimizationService;
+
+    @Mock
+    private PlanningJournalService planningJournalService;
+
+    @Mock
+    private SalesHistoryService salesHistoryService;
+
+    private SalesProfileControllerImpl controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new SalesProfileControllerImpl(salesProfileRepository, salesProfileMapper,
+                demandAdjustmentRepository, demandAdjustmentMapper, planningSnapshotService, orderOptimizationService,
+                planningJournalService, salesHistoryService);
+    }
+
+    @Test
+    void shouldReplanBothProductsWhenProfileMovesToAnotherProduct() {
+        // Arrange
+        LocalDate effectiveDate = LocalDate.of(2025, 3, 3);
+        SalesProfileDTO dto = new SalesProfileDTO();
+        dto.setId(10L);
+        SalesProfile moved = profile(10L, 2L);
+        when(salesProfileMapper.salesProfileDtoToSalesProfile(dto)).thenReturn(moved);
+        when(salesProfileRepository.findById(10L)).thenReturn(Optional.of(profile(10L, 1L)));
+        when(salesProfileRepository.save(moved)).thenReturn(moved);
+
+        // Act
+        controller.createOrUpdateSalesProfile(dto, effectiveDate);
+
+        // Assert
+        verify(planningJournalService).markChanged(1L);
+        verify(planningJournalService).markChanged(2L);
+        verify(orderOptimizationService).replanOrders(1L, effectiveDate);
+        verify(orderOptimizationService).replanOrders(2L, effectiveDate);
+    }
+
+    @Test
+    void shouldReplanProductWhenProfileIsDeleted() {
+        // Arrange
+        LocalDate effectiveDate = LocalDate.of(2025, 3, 3);
+        when(salesProfileRepository.findById(10L)).thenReturn(Optional.of(profile(10L, 1L)));
+
+        // Act
+        ResponseEntity<Void> response = controller.deleteSalesProfile(10L, effectiveDate);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        verify(salesProfileRepository).deleteById(10L);
+        verify(planningJournalService).markChanged(1L);
+        verify(orderOptimizationService).replanOrders(1L, effectiveDate);
+    }
+
+    @Test
+    void shouldReplanProductFromStartOfDeletedAdjustment() {
+        // Arrange
+        LocalDate startDate = LocalDate.of(2025, 5, 1);
+        DemandAdjustment adjustment = DemandAdjustment.builder()
+                .id(20L)
+                .startDate(startDate)
+                .endDate(startDate.plusDays(6))
+                .product(Product.builder().id(1L).build())
+                .build();
+        when(demandAdjustmentRepository.findById(20L)).thenReturn(Optional.of(adjustment));
+
+        // Act
+        controller.deleteDemandAdjustment(20L);
+
+        // Assert
+        verify(demandAdjustmentRepository).deleteById(20L);
+        verify(planningJournalService).markChanged(1L);
+        verify(orderOptimizationService).replanOrders(1L, startDate);
+    }
+
+    @Test
+    void shouldKeepDeletionAndJournalEntryWhenReplanFails() {
+        // Arrange
+        when(salesProfileRepository.findById(10L)).thenReturn(Optional.of(profile(10L, 1L)));
+        when(orderOptimizationService.replanOrders(any(), any()))
+                .thenThrow(new IllegalArgumentException("No sales profiles found for product ID: 1"));
+
+        // Act
+        ResponseEntity<Void> response = controller.deleteSalesProfile(10L, null);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        verify(salesProfileRepository).deleteById(10L);
+        verify(planningJournalService).markChanged(1L);
+    }
+
+    private static SalesProfile profile(Long id, Long productId) {
+        return SalesProfile.builder()
+                .id(id)
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .quantitySold(5)
+                .product(Product.builder().id(productId).build())
+                .build();
+    }
+}
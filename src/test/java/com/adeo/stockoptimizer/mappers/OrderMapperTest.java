@@ -0,0 +1,53 @@
+package com.adeo.stockoptimizer.mappers;
+
+import com.adeo.stockoptimizer.dtos.OrderDTO;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.PurchaseOrder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderMapperTest {
+
+    private final OrderMapperImpl mapper = new OrderMapperImpl();
+
+    @Test
+    void shouldMapPurchaseOrderToDTO() {
+        // Arrange
+        PurchaseOrder order = PurchaseOrder.builder()
+                .id(42L)
+                .orderDate(LocalDate.of(2025, 3, 3))
+                .quantityOrdered(24)
+                .deliveryDate(LocalDate.of(2025, 3, 5))
+                .product(Product.builder().id(1L).build())
+                .build();
+
+        // Act
+        OrderDTO dto = mapper.purchaseOrderToOrderDto(order);
+
+        // Assert
+        assertThat(dto).isNotNull();
+        assertThat(dto.getId()).isEqualTo(42L);
+        assertThat(dto.getProductId()).isEqualTo(1L);
+        assertThat(dto.getOrderDate()).isEqualTo(LocalDate.of(2025, 3, 3));
+        assertThat(dto.getQuantityOrdered()).isEqualTo(24);
+        assertThat(dto.getDeliveryDate()).isEqualTo(LocalDate.of(2025, 3, 5));
+    }
+
+    @Test
+    void shouldMapDtoToPurchaseOrder() {
+        // Arrange
+        OrderDTO dto = new OrderDTO(42L, LocalDate.of(2025, 3, 3), 24, LocalDate.of(2025, 3, 5), 1L);
+
+        // Act
+        PurchaseOrder order = mapper.orderDtoToPurchaseOrder(dto);
+
+        // Assert
+        assertThat(order).isNotNull();
+        assertThat(order.getId()).isEqualTo(42L);
+        assertThat(order.getQuantityOrdered()).isEqualTo(24);
+        assertThat(order.getProduct()).isNull();
+    }
+}
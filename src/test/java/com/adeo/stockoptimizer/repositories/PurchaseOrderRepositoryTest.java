@@ -0,0 +1,186 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.dtos.OrderDTO;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.PurchaseOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class PurchaseOrderRepositoryTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+    private Product otherProduct;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder().name("Test Product").initialStock(20).build());
+        otherProduct = productRepository.save(Product.builder().name("Other Product").initialStock(20).build());
+    }
+
+    @Test
+    void shouldSumOrdersInFlightByProductAndDeliveryDate() {
+        // Arrange
+        purchaseOrderRepository.insertOrders(new ArrayList<>(List.of(
+                order(product, MONDAY.minusDays(7), 12, MONDAY.plusDays(1)),
+                order(product, MONDAY.minusDays(6), 24, MONDAY.plusDays(1)),
+                order(product, MONDAY.minusDays(1), 12, MONDAY.plusDays(2)),
+                // Placed within the horizon: part of the replaced plan, not in flight
+                order(product, MONDAY, 36, MONDAY.plusDays(3)),
+                // Delivered before or after the horizon
+                order(product, MONDAY.minusDays(10), 12, MONDAY.minusDays(1)),
+                order(product, MONDAY.minusDays(1), 12, MONDAY.plusDays(7)),
+                order(otherProduct, MONDAY.minusDays(2), 48, MONDAY.plusDays(1)))));
+
+        // Act
+        List<PurchaseOrderRepository.IncomingDelivery> deliveries = purchaseOrderRepository.findIncomingDeliveries(
+                List.of(product.getId()), MONDAY, MONDAY.plusDays(7));
+
+        // Assert
+        assertThat(deliveries)
+                .extracting(PurchaseOrderRepository.IncomingDelivery::getProductId,
+                        PurchaseOrderRepository.IncomingDelivery::getDeliveryDate,
+                        PurchaseOrderRepository.IncomingDelivery::getQuantity)
+                .containsExactlyInAnyOrder(
+                        tuple(product.getId(), MONDAY.plusDays(1), 36L),
+                        tuple(product.getId(), MONDAY.plusDays(2), 12L));
+    }
+
+    @Test
+    void shouldPageOrdersByKeysetBreakingTiesOnId() {
+        // Arrange
+        List<PurchaseOrder> orders = new ArrayList<>(List.of(
+                order(product, MONDAY, 12, MONDAY.plusDays(2)),
+                order(product, MONDAY, 24, MONDAY.plusDays(2)),
+                order(product, MONDAY, 36, MONDAY.plusDays(2)),
+                order(product, MONDAY.plusDays(7), 48, MONDAY.plusDays(9)),
+                order(otherProduct, MONDAY, 60, MONDAY.plusDays(2))));
+        purchaseOrderRepository.insertOrders(orders);
+        Long secondId = orders.get(1).getId();
+
+        // Act
+        List<OrderDTO> firstPage = purchaseOrderRepository.findOrdersAfter(
+                product.getId(), MONDAY, Long.MIN_VALUE, MONDAY.plusDays(30), PageRequest.ofSize(2));
+        List<OrderDTO> nextPage = purchaseOrderRepository.findOrdersAfter(
+                product.getId(), MONDAY, secondId, MONDAY.plusDays(30), PageRequest.ofSize(2));
+
+        // Assert
+        assertThat(firstPage)
+                .extracting(OrderDTO::getId, OrderDTO::getOrderDate, OrderDTO::getQuantityOrdered,
+                        OrderDTO::getDeliveryDate, OrderDTO::getProductId)
+                .containsExactly(
+                        tuple(orders.get(0).getId(), MONDAY, 12, MONDAY.plusDays(2), product.getId()),
+                        tuple(secondId, MONDAY, 24, MONDAY.plusDays(2), product.getId()));
+        assertThat(nextPage)
+                .extracting(OrderDTO::getId, OrderDTO::getQuantityOrdered)
+                .containsExactly(
+                        tuple(orders.get(2).getId(), 36),
+                        tuple(orders.get(3).getId(), 48));
+    }
+
+    @Test
+    void shouldReplacePlansWithIdsReservedByBlocks() {
+        // Arrange
+        PurchaseOrder history = purchaseOrderRepository.saveAndFlush(
+                order(product, MONDAY.minusDays(7), 12, MONDAY.minusDays(5)));
+        purchaseOrderRepository.insertOrders(new ArrayList<>(List.of(
+                order(product, MONDAY, 12, MONDAY.plusDays(2)),
+                order(otherProduct, MONDAY, 12, MONDAY.plusDays(2)))));
+        List<PurchaseOrder> plans = new ArrayList<>(IntStream.range(0, 2 * PurchaseOrder.ID_ALLOCATION_SIZE + 5)
+                .mapToObj(i -> order(i % 2 == 0 ? product : otherProduct, MONDAY.plusDays(i / 2), 12,
+                        MONDAY.plusDays(i / 2 + 2)))
+                .toList());
+
+        // Act
+        purchaseOrderRepository.replacePlans(List.of(product.getId(), otherProduct.getId()), MONDAY, plans);
+
+        // Assert
+        assertThat(countOrders()).isEqualTo(plans.size() + 1);
+        assertThat(plans).extracting(PurchaseOrder::getId)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates()
+                .doesNotContain(history.getId());
+        for (int from = 0; from < plans.size(); from += PurchaseOrder.ID_ALLOCATION_SIZE) {
+            int to = Math.min(from + PurchaseOrder.ID_ALLOCATION_SIZE, plans.size());
+            long firstId = plans.get(from).getId();
+            assertThat(plans.subList(from, to)).extracting(PurchaseOrder::getId)
+                    .containsExactlyElementsOf(LongStream.range(firstId, firstId + to - from).boxed().toList());
+        }
+        assertThat(jdbcTemplate.queryForObject("select count(*) from purchase_order where product_id = ?",
+                Long.class, otherProduct.getId())).isEqualTo(plans.size() / 2);
+    }
+
+    @Test
+    void shouldApplyPlanChangesByIdAndDeletePlansFromDate() {
+        // Arrange
+        List<PurchaseOrder> plan = new ArrayList<>(List.of(
+                order(product, MONDAY, 12, MONDAY.plusDays(2)),
+                order(product, MONDAY.plusDays(7), 24, MONDAY.plusDays(9)),
+                order(product, MONDAY.plusDays(14), 36, MONDAY.plusDays(16))));
+        purchaseOrderRepository.insertOrders(plan);
+        PurchaseOrder changed = plan.get(1);
+        changed.setQuantityOrdered(48);
+        changed.setDeliveryDate(MONDAY.plusDays(10));
+        List<PurchaseOrder> inserted = new ArrayList<>(List.of(order(product, MONDAY.plusDays(21), 60,
+                MONDAY.plusDays(23))));
+
+        // Act
+        purchaseOrderRepository.applyPlanChanges(inserted, List.of(changed), List.of(plan.get(2).getId()));
+
+        // Assert
+        assertThat(inserted.get(0).getId()).isNotNull();
+        assertThat(jdbcTemplate.queryForList(
+                "select id, quantity_ordered, delivery_date from purchase_order order by order_date"))
+                .extracting(row -> ((Number) row.get("ID")).longValue(),
+                        row -> ((Number) row.get("QUANTITY_ORDERED")).intValue(),
+                        row -> ((Date) row.get("DELIVERY_DATE")).toLocalDate())
+                .containsExactly(
+                        tuple(plan.get(0).getId(), 12, MONDAY.plusDays(2)),
+                        tuple(changed.getId(), 48, MONDAY.plusDays(10)),
+                        tuple(inserted.get(0).getId(), 60, MONDAY.plusDays(23)));
+
+        // Act
+        purchaseOrderRepository.deletePlans(List.of(product.getId()), MONDAY.plusDays(7));
+
+        // Assert
+        assertThat(countOrders()).isEqualTo(1);
+    }
+
+    private long countOrders() {
+        return jdbcTemplate.queryForObject("select count(*) from purchase_order", Long.class);
+    }
+
+    private static PurchaseOrder order(Product product, LocalDate orderDate, int quantity, LocalDate deliveryDate) {
+        return PurchaseOrder.builder()
+                .orderDate(orderDate)
+                .quantityOrdered(quantity)
+                .deliveryDate(deliveryDate)
+                .product(product)
+                .build();
+    }
+}
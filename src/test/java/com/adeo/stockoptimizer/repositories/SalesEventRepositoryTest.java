@@ -0,0 +1,39 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class SalesEventRepositoryTest {
+
+    @Autowired
+    private SalesEventRepository salesEventRepository;
+
+    @Test
+    void shouldAppendEventsWithIdsReservedByBlocks() {
+        // Arrange
+        List<SalesEvent> events = IntStream.range(0, SalesEvent.ID_ALLOCATION_SIZE + 5)
+                .mapToObj(i -> new SalesEvent(null, 1L + i % 3, LocalDate.of(2025, 3, 3).plusDays(i % 7), 1))
+                .toList();
+
+        // Act
+        salesEventRepository.appendEvents(events);
+
+        // Assert
+        assertThat(salesEventRepository.count()).isEqualTo(events.size());
+        assertThat(events).extracting(SalesEvent::getId).doesNotContainNull().doesNotHaveDuplicates();
+        // One block of consecutive ids per batch
+        assertThat(events.get(SalesEvent.ID_ALLOCATION_SIZE - 1).getId())
+                .isEqualTo(events.get(0).getId() + SalesEvent.ID_ALLOCATION_SIZE - 1);
+        assertThat(salesEventRepository.findById(events.get(SalesEvent.ID_ALLOCATION_SIZE).getId()))
+                .get().extracting(SalesEvent::getProductId).isEqualTo(2L);
+    }
+}
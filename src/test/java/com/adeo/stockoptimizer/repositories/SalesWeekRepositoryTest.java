@@ -0,0 +1,49 @@
+package com.adeo.stockoptimizer.repositories;
+
+import com.adeo.stockoptimizer.models.SalesWeek;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class SalesWeekRepositoryTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private SalesWeekRepository salesWeekRepository;
+
+    @Test
+    void shouldCreateMissingWeeksAndIncrementExistingOnes() {
+        // Arrange
+        Instant first = Instant.parse("2025-03-04T10:00:00Z");
+        Instant second = Instant.parse("2025-03-05T10:00:00Z");
+        salesWeekRepository.addSales(List.of(
+                SalesWeek.builder().productId(1L).weekStart(MONDAY).monday(3).friday(2).updatedAt(first).build()));
+
+        // Act
+        salesWeekRepository.addSales(List.of(
+                SalesWeek.builder().productId(1L).weekStart(MONDAY).monday(4).sunday(-1).updatedAt(second).build(),
+                SalesWeek.builder().productId(2L).weekStart(MONDAY).tuesday(5).updatedAt(second).build()));
+
+        // Assert
+        SalesWeek week = salesWeekRepository.findById(new SalesWeek.Key(1L, MONDAY)).orElseThrow();
+        assertThat(week.getMonday()).isEqualTo(7);
+        assertThat(week.getFriday()).isEqualTo(2);
+        assertThat(week.getSunday()).isEqualTo(-1);
+        assertThat(week.getUpdatedAt()).isEqualTo(second);
+        assertThat(salesWeekRepository.count()).isEqualTo(2);
+        assertThat(salesWeekRepository.findIdsUpdatedAfter(Long.MIN_VALUE, first, PageRequest.of(0, 10)))
+                .containsExactly(1L, 2L);
+        assertThat(salesWeekRepository.findFirstWeeks(List.of(1L, 2L)))
+                .extracting(SalesWeekRepository.FirstWeek::getWeekStart)
+                .containsExactly(MONDAY, MONDAY);
+    }
+}
@@ -0,0 +1,157 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.enums.JobStatus;
+import com.adeo.stockoptimizer.enums.JobType;
+import com.adeo.stockoptimizer.utils.OptimizationJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OptimizationJobServiceImplTest {
+
+    private final ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+    private final PlanningProperties planningProperties = new PlanningProperties();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRunJobAndReportProgress() throws InterruptedException {
+        // Arrange
+        OptimizationJobServiceImpl service = new OptimizationJobServiceImpl(executor, planningProperties);
+
+        // Act
+        OptimizationJob submitted = service.submit(JobType.DEMAND_RISK, progress -> {
+            progress.onProgress(1, 4);
+            await(release);
+            progress.onProgress(3, 4);
+            return "result";
+        });
+        OptimizationJob running = awaitJob(service, submitted.id(), job -> job.completed() == 1);
+        release.countDown();
+        OptimizationJob finished = awaitJob(service, submitted.id(), job -> job.status().isFinished());
+
+        // Assert
+        assertThat(submitted.type()).isEqualTo(JobType.DEMAND_RISK);
+        assertThat(running.status()).isEqualTo(JobStatus.RUNNING);
+        assertThat(running.progress()).isEqualTo(0.25);
+        assertThat(finished.status()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(finished.completed()).isEqualTo(3);
+        assertThat(finished.result()).isEqualTo("result");
+        assertThat(finished.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void shouldRecordFailureOfJob() throws InterruptedException {
+        // Arrange
+        OptimizationJobServiceImpl service = new OptimizationJobServiceImpl(executor, planningProperties);
+
+        // Act
+        OptimizationJob submitted = service.submit(JobType.ORDER_POLICY, progress -> {
+            throw new IllegalArgumentException("Too many scenarios");
+        });
+        OptimizationJob finished = awaitJob(service, submitted.id(), job -> job.status().isFinished());
+
+        // Assert
+        assertThat(finished.status()).isEqualTo(JobStatus.FAILED);
+        assertThat(finished.error()).isEqualTo("Too many scenarios");
+        assertThat(finished.result()).isNull();
+    }
+
+    @Test
+    void shouldRejectJobsWhenQueueIsFull() {
+        // Arrange
+        OptimizationJobServiceImpl service = new OptimizationJobServiceImpl(executor, planningProperties);
+        service.submit(JobType.BULK_PLAN, progress -> await(release));
+        OptimizationJob queued = service.submit(JobType.BULK_PLAN, progress -> "queued");
+
+        // Act & Assert
+        org.junit.jupiter.api.Assertions.assertThrows(RejectedExecutionException.class,
+                () -> service.submit(JobType.BULK_PLAN, progress -> "rejected"));
+        assertThat(service.getJob(queued.id())).map(OptimizationJob::status).contains(JobStatus.QUEUED);
+    }
+
+    @Test
+    void shouldCancelRunningAndQueuedJobs() throws InterruptedException {
+        // Arrange
+        OptimizationJobServiceImpl service = new OptimizationJobServiceImpl(executor, planningProperties);
+        OptimizationJob running = service.submit(JobType.OPTIMAL_MULTIPLE, progress -> {
+            for (long completed = 0; ; completed++) {
+                progress.onProgress(completed, Long.MAX_VALUE);
+            }
+        });
+        OptimizationJob queued = service.submit(JobType.OPTIMAL_MULTIPLE, progress -> "never run");
+        awaitJob(service, running.id(), job -> job.status() == JobStatus.RUNNING);
+
+        // Act
+        Optional<OptimizationJob> cancelledQueued = service.cancel(queued.id());
+        Optional<OptimizationJob> cancelledRunning = service.cancel(running.id());
+        executor.shutdown();
+        boolean terminated = executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(cancelledQueued).map(OptimizationJob::status).contains(JobStatus.CANCELLED);
+        assertThat(cancelledRunning).map(OptimizationJob::status).contains(JobStatus.CANCELLED);
+        assertThat(terminated).isTrue();
+        assertThat(service.getJob(running.id())).map(OptimizationJob::status).contains(JobStatus.CANCELLED);
+        assertThat(service.getJob(queued.id())).map(OptimizationJob::startedAt).isEmpty();
+        assertThat(service.cancel("unknown")).isEmpty();
+    }
+
+    @Test
+    void shouldForgetFinishedJobsAfterRetentionTime() throws InterruptedException {
+        // Arrange
+        planningProperties.setJobResultTtl(Duration.ZERO);
+        OptimizationJobServiceImpl service = new OptimizationJobServiceImpl(executor, planningProperties);
+        OptimizationJob blocked = service.submit(JobType.DEMAND_RISK, progress -> await(release));
+
+        // Act
+        boolean keptWhileRunning = service.getJob(blocked.id()).isPresent();
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(keptWhileRunning).isTrue();
+        assertThat(service.getJob(blocked.id())).isEmpty();
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static OptimizationJob awaitJob(OptimizationJobServiceImpl service, String jobId,
+                                            Predicate<OptimizationJob> condition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Optional<OptimizationJob> job = service.getJob(jobId);
+            if (job.isPresent() && condition.test(job.get())) {
+                return job.get();
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Job " + jobId + " did not reach the expected state");
+    }
+}
@@ -1,36 +1,64 @@
 package com.adeo.stockoptimizer.services.impl;
 
+import com.adeo.stockoptimizer.config.PlanningMetrics;
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.dtos.OrderDTO;
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
 import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
 import com.adeo.stockoptimizer.models.Product;
 import com.adeo.stockoptimizer.models.PurchaseOrder;
 import com.adeo.stockoptimizer.models.SalesProfile;
 import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
 import com.adeo.stockoptimizer.repositories.ProductRepository;
 import com.adeo.stockoptimizer.repositories.PurchaseOrderRepository;
 import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.simulation.MonteCarloResult;
+import com.adeo.stockoptimizer.simulation.PolicyCosts;
+import com.adeo.stockoptimizer.simulation.PolicyOptimizationResult;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.TrajectoryStore;
+import com.adeo.stockoptimizer.utils.MultipleEvaluation;
+import com.adeo.stockoptimizer.utils.OrderPage;
+import com.adeo.stockoptimizer.utils.ProductPlanResult;
+import com.adeo.stockoptimizer.utils.ReplanResult;
+import com.adeo.stockoptimizer.utils.ScenarioStockStats;
 import com.adeo.stockoptimizer.utils.StockStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
 
 @ExtendWith(MockitoExtension.class)
 class OrderOptimizationServiceImplTest {
 
-    @InjectMocks
     private OrderOptimizationServiceImpl service;
 
     @Mock
@@ -42,9 +70,22 @@ class OrderOptimizationServiceImplTest {
     @Mock
     private SalesProfileRepository salesProfileRepository;
 
+    @Mock
+    private DemandAdjustmentRepository demandAdjustmentRepository;
+
     @Mock
     private PurchaseOrderRepository purchaseOrderRepository;
 
+    @Spy
+    private PlanningProperties planningProperties = new PlanningProperties();
+
+    @Mock
+    private Executor planningExecutor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PlanningSnapshotServiceImpl planningSnapshotService;
+
     private Product defaultProduct;
     private CalculationParameters defaultParams;
     private List<SalesProfile> defaultSalesProfiles;
@@ -52,6 +93,18 @@ class OrderOptimizationServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        // Service branché sur un vrai cache de snapshots, alimenté par les repositories mockés
+        planningSnapshotService = new PlanningSnapshotServiceImpl(
+                productRepository, calcParamRepository, salesProfileRepository, demandAdjustmentRepository,
+                new PlanningDataFileServiceImpl(productRepository, calcParamRepository, salesProfileRepository,
+                        demandAdjustmentRepository, planningProperties),
+                planningProperties);
+        service = new OrderOptimizationServiceImpl(productRepository, calcParamRepository, salesProfileRepository,
+                demandAdjustmentRepository, purchaseOrderRepository, planningSnapshotService, new PlanCheckpointServiceImpl(planningProperties),
+                new SimulationServiceImpl(planningProperties),
+                new TrajectoryStore(planningProperties.getTrajectoryStoreMaxSize().toBytes(), null),
+                new PlanningMetrics(meterRegistry), planningProperties, planningExecutor);
+
         // Création du produit par défaut
         defaultProduct = Product.builder()
                 .id(1L)
@@ -95,7 +148,238 @@ class OrderOptimizationServiceImplTest {
             assertThat(order.getQuantityOrdered() % defaultParams.getOrderMultiple()).isZero();
         });
 
-        verify(purchaseOrderRepository, times(1)).saveAll(anyList());
+        verify(purchaseOrderRepository, times(1)).replacePlan(eq(1L), any(LocalDate.class), anyList());
+    }
+
+    @Test
+    void shouldStreamSameOrdersAsCalculatedPlanOncePersisted() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        List<PurchaseOrder> expected = service.calculateOrderPlan(20, 1L);
+        List<PurchaseOrder> streamed = new ArrayList<>();
+        List<Integer> streamedWhenPersisted = new ArrayList<>();
+        doAnswer(invocation -> streamedWhenPersisted.add(streamed.size()))
+                .when(purchaseOrderRepository).replacePlan(eq(1L), any(LocalDate.class), anyList());
+
+        // Act
+        service.streamOrderPlan(20, 1L, streamed::add);
+
+        // Assert
+        assertThat(streamed).extracting(PurchaseOrder::getOrderDate)
+                .containsExactlyElementsOf(expected.stream().map(PurchaseOrder::getOrderDate).toList());
+        assertThat(streamed).extracting(PurchaseOrder::getQuantityOrdered)
+                .containsExactlyElementsOf(expected.stream().map(PurchaseOrder::getQuantityOrdered).toList());
+        verify(purchaseOrderRepository, times(2)).replacePlan(eq(1L), any(LocalDate.class), anyList());
+        verify(purchaseOrderRepository, never()).insertOrders(anyList());
+        assertThat(streamedWhenPersisted).containsExactly(0);
+    }
+
+    @Test
+    void shouldReplanOnlyTheOrdersThatDifferFromThePersistedPlan() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        List<PurchaseOrder> plan = service.calculateOrderPlan(20, 1L);
+        LocalDate fromDate = LocalDate.of(2025, 3, 5);
+        List<PurchaseOrder> persisted = new ArrayList<>();
+        for (PurchaseOrder order : plan) {
+            if (!order.getOrderDate().isBefore(LocalDate.of(2025, 3, 3))) {
+                persisted.add(new PurchaseOrder((long) persisted.size() + 1, order.getOrderDate(),
+                        order.getQuantityOrdered(), order.getDeliveryDate(), defaultProduct));
+            }
+        }
+        persisted.remove(0);
+        persisted.get(0).setQuantityOrdered(persisted.get(0).getQuantityOrdered() + 12);
+        persisted.add(PurchaseOrder.builder().id(100L).orderDate(LocalDate.of(2025, 12, 30)).quantityOrdered(12)
+                .deliveryDate(LocalDate.of(2026, 1, 2)).product(defaultProduct).build());
+        when(purchaseOrderRepository.findByProductIdAndOrderDateGreaterThanEqual(1L, LocalDate.of(2025, 3, 3)))
+                .thenReturn(persisted);
+
+        // Act
+        Optional<ReplanResult> result = service.replanOrders(1L, fromDate);
+
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(result.get().fromDate()).isEqualTo(LocalDate.of(2025, 3, 3));
+        assertThat(result.get().inserted()).isEqualTo(1);
+        assertThat(result.get().updated()).isEqualTo(1);
+        assertThat(result.get().deleted()).isEqualTo(1);
+        assertThat(result.get().unchanged()).isEqualTo(persisted.size() - 2);
+        verify(purchaseOrderRepository, times(1)).applyPlanChanges(anyList(), anyList(), eq(List.of(100L)));
+        assertThat(service.replanOrders(2L, fromDate)).isEmpty();
+        assertThat(service.replanOrders(1L, LocalDate.of(2026, 1, 5))).isEmpty();
+    }
+
+    @Test
+    void shouldNotReplayTrajectoryResumedAfterProfileChange() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+        service.calculateOrderPlan(20, 1L);
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(Arrays.stream(DayOfWeek.values())
+                .map(day -> SalesProfile.builder().dayOfWeek(day).quantitySold(9).product(defaultProduct).build())
+                .toList());
+        planningSnapshotService.invalidate(1L);
+        service.replanOrders(1L, LocalDate.of(2025, 6, 4));
+
+        // Act
+        Map<String, StockStats> cached = service.calculateMonthlyStockStats(20, 1L, horizon, true, false);
+        Map<String, StockStats> simulated = service.calculateMonthlyStockStats(20, 1L, horizon, false, false);
+
+        // Assert
+        assertThat(cached).isEqualTo(simulated);
+        assertThat(service.getPlannedStockStats(1L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)))
+                .isPresent();
+    }
+
+    @Test
+    void shouldSeedOrderPlanWithOnHandStockAndOrdersInFlight() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+        List<PurchaseOrder> withoutOrdersInFlight = service.calculateOrderPlan(20, 1L);
+        when(purchaseOrderRepository.findIncomingDeliveries(List.of(1L), horizon.start(),
+                horizon.dateOf(horizon.days()))).thenReturn(List.of(incomingDelivery(1L, horizon.start(), 120)));
+
+        // Act
+        List<PurchaseOrder> orders = service.calculateOrderPlan(null, 1L);
+
+        // Assert
+        assertThat(orders.get(0).getOrderDate()).isAfter(withoutOrdersInFlight.get(0).getOrderDate());
+        assertThat(orders.stream().mapToInt(PurchaseOrder::getQuantityOrdered).sum())
+                .isLessThan(withoutOrdersInFlight.stream().mapToInt(PurchaseOrder::getQuantityOrdered).sum());
+    }
+
+    @Test
+    void shouldReceiveOrdersInFlightInMonthlyStockStats() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+        Map<String, StockStats> withoutOrdersInFlight =
+                service.calculateMonthlyStockStats(20, 1L, horizon, false, false);
+        when(purchaseOrderRepository.findIncomingDeliveries(List.of(1L), horizon.start(),
+                horizon.dateOf(horizon.days()))).thenReturn(List.of(incomingDelivery(1L, horizon.start(), 120)));
+        service.calculateOrderPlan(20, 1L);
+        Map<String, StockStats> streamed = new LinkedHashMap<>();
+
+        // Act
+        Map<String, StockStats> simulated = service.calculateMonthlyStockStats(20, 1L, horizon, false, false);
+        Map<String, StockStats> cached = service.calculateMonthlyStockStats(20, 1L, horizon, true, false);
+        service.streamMonthlyStockStats(20, 1L, horizon, false, streamed::put);
+
+        // Assert
+        assertThat(simulated.get("2025-01").getMaxStock())
+                .isGreaterThan(withoutOrdersInFlight.get("2025-01").getMaxStock());
+        assertThat(cached).isEqualTo(simulated);
+        assertThat(streamed).isEqualTo(simulated);
+    }
+
+    @Test
+    void shouldTimeEachPhaseAndCountSimulatedDaysAndOrdersOfOrderPlan() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+
+        // Act
+        List<PurchaseOrder> orders = service.calculateOrderPlan(20, 1L);
+
+        // Assert
+        for (String phase : List.of("load", "simulation", "persistence")) {
+            assertThat(meterRegistry.get("stockoptimizer.planning.phase")
+                    .tags("operation", "order-plan", "phase", phase).timer().count()).isEqualTo(1);
+        }
+        assertThat(meterRegistry.find("stockoptimizer.planning.phase").tag("phase", "mapping").timer()).isNull();
+        assertThat(meterRegistry.get("stockoptimizer.planning.simulated.days").tag("operation", "order-plan")
+                .counter().count()).isEqualTo(service.resolveHorizon(null, null, null).days());
+        assertThat(meterRegistry.get("stockoptimizer.planning.orders").tag("operation", "order-plan")
+                .counter().count()).isEqualTo(orders.size());
+    }
+
+    @Test
+    void shouldServeStockStatsFromTrajectoryOfPersistedPlan() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+        Map<String, StockStats> simulated = service.calculateMonthlyStockStats(20, 1L, horizon, false, true);
+        service.calculateOrderPlan(20, 1L);
+
+        // Act
+        Map<String, StockStats> replayed = service.calculateMonthlyStockStats(20, 1L, horizon, true, true);
+        Optional<StockStats> march = service.getPlannedStockStats(1L, LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 3, 31));
+
+        // Assert
+        assertThat(replayed).isEqualTo(simulated);
+        assertThat(march).contains(new StockStats(simulated.get("2025-03").getMinStock(),
+                simulated.get("2025-03").getMaxStock(), simulated.get("2025-03").getAvgStock(), null, null));
+        assertThat(service.getPlannedStockStats(1L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldPageOrdersAfterTheLastOrderOfThePreviousPage() {
+        // Arrange
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 3, 31);
+        List<OrderDTO> orders = List.of(
+                new OrderDTO(7L, LocalDate.of(2025, 3, 3), 12, LocalDate.of(2025, 3, 6), 1L),
+                new OrderDTO(9L, LocalDate.of(2025, 3, 10), 24, LocalDate.of(2025, 3, 13), 1L),
+                new OrderDTO(4L, LocalDate.of(2025, 3, 17), 12, LocalDate.of(2025, 3, 20), 1L));
+        when(purchaseOrderRepository.findOrdersAfter(1L, from, Long.MIN_VALUE, to, PageRequest.of(0, 3)))
+                .thenReturn(orders);
+        when(purchaseOrderRepository.findOrdersAfter(1L, LocalDate.of(2025, 3, 10), 9L, to, PageRequest.of(0, 3)))
+                .thenReturn(orders.subList(2, 3));
+
+        // Act
+        OrderPage first = service.findOrders(1L, from, to, null, null, 2);
+        OrderPage last = service.findOrders(1L, from, to, first.nextOrderDate(), first.nextId(), 2);
+
+        // Assert
+        assertThat(first.orders()).extracting(OrderDTO::getId).containsExactly(7L, 9L);
+        assertThat(first.nextOrderDate()).isEqualTo(LocalDate.of(2025, 3, 10));
+        assertThat(first.nextId()).isEqualTo(9L);
+        assertThat(last.orders()).extracting(OrderDTO::getId).containsExactly(4L);
+        assertThat(last.nextOrderDate()).isNull();
+        assertThat(last.nextId()).isNull();
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.findOrders(1L, from, to, from, null, 2));
+    }
+
+    @Test
+    void shouldCalculateOrderPlansOfSeveralProductsAndReportFailures() {
+        // Arrange
+        Product otherProduct = Product.builder().id(2L).name("Other Product").initialStock(20).build();
+        defaultParams.setProduct(defaultProduct);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(planningExecutor).execute(any(Runnable.class));
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(defaultProduct, otherProduct));
+        when(calcParamRepository.findByProductIdIn(List.of(1L, 2L))).thenReturn(List.of(defaultParams));
+        when(salesProfileRepository.findByProductIdIn(List.of(1L, 2L))).thenReturn(defaultSalesProfiles);
+
+        // Act
+        List<ProductPlanResult> results = service.calculateOrderPlans(Set.of(2L, 1L), null);
+
+        // Assert
+        assertThat(results).extracting(ProductPlanResult::productId).containsExactly(1L, 2L);
+        assertThat(results.get(0).success()).isTrue();
+        assertThat(results.get(0).orderCount()).isPositive();
+        assertThat(results.get(1).success()).isFalse();
+        assertThat(results.get(1).error()).isEqualTo("Calculation parameters not found for product: 2");
+        verify(purchaseOrderRepository, times(1)).replacePlans(eq(List.of(1L)), any(LocalDate.class), anyList());
     }
 
     @Test
@@ -106,15 +390,161 @@ class OrderOptimizationServiceImplTest {
         when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
 
         // Act
-        int optimalMultiple = service.findOptimalMultiple(20, 1L);
+        List<MultipleEvaluation> evaluations = service.findOptimalMultiple(20, 1L, 5, 30);
+
+        // Assert
+        assertThat(evaluations).hasSize(26);
+        assertThat(evaluations.get(0).orderMultiple()).isGreaterThanOrEqualTo(5).isLessThanOrEqualTo(30);
+    }
+
+    @Test
+    void shouldEvaluateEachCandidateWithItsOwnMultipleFromOneLoad() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+
+        // Act
+        List<MultipleEvaluation> evaluations = service.findOptimalMultiple(20, 1L, 5, 30);
 
         // Assert
-        assertThat(optimalMultiple).isGreaterThanOrEqualTo(5).isLessThanOrEqualTo(30);
+        assertThat(evaluations).isSortedAccordingTo(MultipleEvaluation.RANKING);
+        assertThat(evaluations.stream().map(MultipleEvaluation::averageStock).distinct().count()).isGreaterThan(1);
+        verify(calcParamRepository, times(1)).findByProductId(1L);
+        verify(salesProfileRepository, times(1)).findByProductId(1L);
+    }
+
+    @Test
+    void shouldEvaluateCandidatesInOneBatchWithoutCache() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+
+        // Act
+        List<MultipleEvaluation> cached = service.findOptimalMultiple(20, 1L, 5, 30);
+        List<MultipleEvaluation> batched = service.findOptimalMultiple(20, 1L, 5, 30,
+                service.resolveHorizon(null, null, null), false);
+
+        // Assert
+        assertThat(batched).isEqualTo(cached);
+    }
+
+    @Test
+    void shouldEvaluateMultiplesWithOrdersInFlight() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+        List<MultipleEvaluation> withoutOrdersInFlight = service.findOptimalMultiple(20, 1L, 5, 30, horizon, false);
+        when(purchaseOrderRepository.findIncomingDeliveries(List.of(1L), horizon.start(),
+                horizon.dateOf(horizon.days()))).thenReturn(List.of(incomingDelivery(1L, horizon.start(), 120)));
+
+        // Act
+        List<MultipleEvaluation> cached = service.findOptimalMultiple(20, 1L, 5, 30, horizon, true);
+        List<MultipleEvaluation> simulated = service.findOptimalMultiple(20, 1L, 5, 30, horizon, false);
+
+        // Assert
+        assertThat(simulated).isEqualTo(cached);
+        assertThat(simulated.stream().mapToDouble(MultipleEvaluation::averageStock).sum())
+                .isGreaterThan(withoutOrdersInFlight.stream().mapToDouble(MultipleEvaluation::averageStock).sum());
+    }
+
+    @Test
+    void shouldCalculateStockStatsOfEveryScenario() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+
+        // Act
+        List<ScenarioStockStats> scenarios = service.calculateScenarioStockStats(1L, List.of(0, 20),
+                List.of(5, 10, 15), null, horizon);
+
+        // Assert
+        assertThat(scenarios).hasSize(6);
+        assertThat(scenarios.get(4).initialStock()).isEqualTo(20);
+        assertThat(scenarios.get(4).orderMultiple()).isEqualTo(10);
+        assertThat(scenarios.get(4).deliveryLeadTime()).isEqualTo(defaultParams.getDeliveryLeadTime());
+        assertThat(scenarios.get(4).monthlyStats()).hasSize(12);
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.calculateScenarioStockStats(1L, IntStream.range(0, 101).boxed().toList(),
+                        IntStream.range(1, 101).boxed().toList(), null, horizon));
+    }
+
+    @Test
+    void shouldOptimizeOrderPolicyAndRejectTooManyScenarios() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        PolicyCosts costs = new PolicyCosts(0.1, 50, 5);
+
+        // Act
+        PolicyOptimizationResult result = service.optimizeOrderPolicy(20, 1L, 5, 10, 20, 10, costs);
+
+        // Assert
+        assertThat(result.candidates()).isEqualTo(127 * 6 * 3);
+        assertThat(result.evaluated()).isBetween(1, result.candidates());
+        assertThat(result.paretoFront()).contains(result.best());
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.optimizeOrderPolicy(20, 1L, 1, 1000, 1000, 1, costs));
+    }
+
+    @Test
+    void shouldSimulateCandidatesOneByOneAgainstDemandCalendar() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        when(demandAdjustmentRepository.findByProductId(1L)).thenReturn(List.of(DemandAdjustment.builder()
+                .startDate(LocalDate.of(2025, 6, 2))
+                .endDate(LocalDate.of(2025, 6, 15))
+                .type(DemandAdjustmentType.OVERRIDE)
+                .value(40)
+                .product(defaultProduct)
+                .build()));
+        SimulationHorizon horizon = service.resolveHorizon(null, null, null);
+        PolicyCosts costs = new PolicyCosts(0.1, 50, 5);
+
+        // Act
+        List<MultipleEvaluation> cached = service.findOptimalMultiple(20, 1L, 5, 30);
+        List<MultipleEvaluation> uncached = service.findOptimalMultiple(20, 1L, 5, 30, horizon, false);
+        List<ScenarioStockStats> scenarios = service.calculateScenarioStockStats(1L, List.of(20), List.of(12), null,
+                horizon);
+
+        // Assert
+        assertThat(uncached).isEqualTo(cached);
+        MultipleEvaluation twelve = cached.stream()
+                .filter(evaluation -> evaluation.orderMultiple() == 12)
+                .findFirst()
+                .orElseThrow();
+        assertThat(scenarios).hasSize(1);
+        assertThat(scenarios.get(0).averageStock()).isEqualTo(twelve.averageStock());
+        assertThat(scenarios.get(0).stockoutDays()).isEqualTo(twelve.stockoutDays());
+        assertThat(scenarios.get(0).orderCount()).isEqualTo(twelve.orderCount());
+        assertThat(scenarios.get(0).monthlyStats()).hasSize(12);
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.optimizeOrderPolicy(20, 1L, 5, 10, 20, 10, costs));
+    }
+
+    @Test
+    void shouldRejectInvalidMultipleRange() {
+        // Act & Assert
+        IllegalArgumentException exception = org.junit.jupiter.api.Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> service.findOptimalMultiple(20, 1L, 10, 5)
+        );
+
+        assertThat(exception.getMessage()).isEqualTo("Invalid multiple range: 10..5");
     }
 
     @Test
     void shouldCalculateMonthlyStockStats() {
         // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
         when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
         when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
 
@@ -128,6 +558,87 @@ class OrderOptimizationServiceImplTest {
         });
     }
 
+    @Test
+    void shouldStreamMonthlyStockStatsInChronologicalOrder() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        Map<String, StockStats> expected = service.calculateMonthlyStockStats(20, 1L);
+        Map<String, StockStats> streamed = new LinkedHashMap<>();
+
+        // Act
+        service.streamMonthlyStockStats(20, 1L, streamed::put);
+
+        // Assert
+        assertThat(streamed.keySet()).containsExactly("2025-01", "2025-02", "2025-03", "2025-04", "2025-05",
+                "2025-06", "2025-07", "2025-08", "2025-09", "2025-10", "2025-11", "2025-12");
+        assertThat(streamed).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldResolveDefaultAndRequestedHorizons() {
+        // Act
+        SimulationHorizon defaultHorizon = service.resolveHorizon(null, null, null);
+        SimulationHorizon untilEndDate = service.resolveHorizon(LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 11), null);
+        SimulationHorizon ofDays = service.resolveHorizon(null, null, 3 * 365);
+
+        // Assert
+        assertThat(defaultHorizon).isEqualTo(new SimulationHorizon(LocalDate.of(2025, 1, 6), 360));
+        assertThat(untilEndDate).isEqualTo(new SimulationHorizon(LocalDate.of(2026, 1, 5), 7));
+        assertThat(ofDays).isEqualTo(new SimulationHorizon(LocalDate.of(2025, 1, 6), 3 * 365));
+    }
+
+    @Test
+    void shouldRejectInvalidHorizons() {
+        // Act & Assert
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.resolveHorizon(null, LocalDate.of(2025, 12, 31), 30));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.resolveHorizon(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 31), null));
+        IllegalArgumentException exception = org.junit.jupiter.api.Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> service.resolveHorizon(null, null, 10 * 366)
+        );
+
+        assertThat(exception.getMessage()).isEqualTo("Invalid horizon length: 3660 days (maximum 1830)");
+    }
+
+    @Test
+    void shouldCalculateMonthlyStockStatsOverMultiYearHorizon() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+        SimulationHorizon horizon = service.resolveHorizon(LocalDate.of(2025, 1, 1), LocalDate.of(2027, 12, 31), null);
+
+        // Act
+        Map<String, StockStats> stats = service.calculateMonthlyStockStats(20, 1L, horizon, true, false);
+
+        // Assert
+        assertThat(stats).hasSize(36).containsKeys("2025-01", "2026-06", "2027-12");
+    }
+
+    @Test
+    void shouldSimulateDemandRiskReproduciblyAndRejectTooManyReplications() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
+
+        // Act
+        MonteCarloResult first = service.simulateDemandRisk(20, 1L, 2000, 42L);
+        MonteCarloResult second = service.simulateDemandRisk(20, 1L, 2000, 42L);
+
+        // Assert
+        assertThat(second).isEqualTo(first);
+        assertThat(first.seed()).isEqualTo(42L);
+        assertThat(first.months()).hasSize(12);
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.simulateDemandRisk(20, 1L, 1_000_000, 42L));
+        verify(purchaseOrderRepository, never()).replacePlan(any(), any(), any());
+    }
+
     @Test
     void shouldNotAllowNegativeStockDuringSimulation() {
         // Arrange
@@ -258,6 +769,7 @@ class OrderOptimizationServiceImplTest {
     @Test
     void shouldCalculateMonthlyStockCurve() {
         // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
         when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(defaultParams));
         when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
 
@@ -281,7 +793,7 @@ class OrderOptimizationServiceImplTest {
         when(salesProfileRepository.findByProductId(1L)).thenReturn(defaultSalesProfiles);
 
         // Act
-        int optimalMultiple = service.findOptimalMultiple(20, 1L);
+        int optimalMultiple = service.findOptimalMultiple(20, 1L, 5, 30).get(0).orderMultiple();
 
         // Assert
         assertThat(optimalMultiple)
@@ -311,4 +823,24 @@ class OrderOptimizationServiceImplTest {
         });
     }
 
+    private static PurchaseOrderRepository.IncomingDelivery incomingDelivery(Long productId, LocalDate deliveryDate,
+                                                                              long quantity) {
+        return new PurchaseOrderRepository.IncomingDelivery() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public LocalDate getDeliveryDate() {
+                return deliveryDate;
+            }
+
+            @Override
+            public Long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
 }
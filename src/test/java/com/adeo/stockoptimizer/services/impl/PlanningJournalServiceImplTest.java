@@ -0,0 +1,99 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningMetrics;
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.ProductChange;
+import com.adeo.stockoptimizer.repositories.ProductChangeRepository;
+import com.adeo.stockoptimizer.services.OrderOptimizationService;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.utils.ProductPlanResult;
+import com.adeo.stockoptimizer.utils.ReplanRun;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlanningJournalServiceImplTest {
+
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+
+    @Mock
+    private OrderOptimizationService orderOptimizationService;
+
+    private final PlanningProperties planningProperties = new PlanningProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReplanChangedProductsByPagesAndKeepFailedOnesInJournal() {
+        // Arrange
+        planningProperties.setBatchSize(2);
+        SimulationHorizon horizon = new SimulationHorizon(LocalDate.of(2025, 1, 6), 360);
+        when(orderOptimizationService.resolveHorizon(null, null, null)).thenReturn(horizon);
+        when(productChangeRepository.countByChangedAtLessThanEqual(any())).thenReturn(3L);
+        when(productChangeRepository.findIdsChangedBefore(eq(Long.MIN_VALUE), any(), any()))
+                .thenReturn(List.of(1L, 2L));
+        when(productChangeRepository.findIdsChangedBefore(eq(2L), any(), any())).thenReturn(List.of(3L));
+        when(productChangeRepository.findIdsChangedBefore(eq(3L), any(), any())).thenReturn(List.of());
+        when(orderOptimizationService.calculateOrderPlans(Set.of(1L, 2L), null, horizon)).thenReturn(List.of(
+                ProductPlanResult.success(1L, 4), ProductPlanResult.failure(2L, "No sales profiles found")));
+        when(orderOptimizationService.calculateOrderPlans(Set.of(3L), null, horizon))
+                .thenReturn(List.of(ProductPlanResult.success(3L, 2)));
+        PlanningJournalServiceImpl service =
+                new PlanningJournalServiceImpl(productChangeRepository, orderOptimizationService, planningProperties,
+                        new PlanningMetrics(meterRegistry));
+        List<Long> progress = new ArrayList<>();
+
+        // Act
+        Optional<ReplanRun> run = service.replanChangedProducts((completed, total) -> progress.add(completed));
+
+        // Assert
+        assertThat(run).isPresent();
+        assertThat(run.get().plannedProducts()).isEqualTo(2);
+        assertThat(run.get().failedProducts()).isEqualTo(1);
+        assertThat(progress).containsExactly(2L, 3L);
+        assertThat(service.getLastRun()).contains(run.get());
+        verify(productChangeRepository).deleteChangedBefore(List.of(1L), run.get().startedAt());
+        verify(productChangeRepository).deleteChangedBefore(List.of(3L), run.get().startedAt());
+        assertThat(meterRegistry.get("stockoptimizer.planning.journal.drain").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("stockoptimizer.planning.journal.products").tag("outcome", "planned")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("stockoptimizer.planning.journal.products").tag("outcome", "failed")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordChangesOfProductsOnly() {
+        // Arrange
+        PlanningJournalServiceImpl service =
+                new PlanningJournalServiceImpl(productChangeRepository, orderOptimizationService, planningProperties,
+                        new PlanningMetrics(meterRegistry));
+        Instant before = Instant.now();
+
+        // Act
+        service.markChanged(null);
+        service.markChanged(7L);
+
+        // Assert
+        verify(productChangeRepository).save(argThat(
+                (ProductChange change) -> change.getProductId() == 7L && !change.getChangedAt().isBefore(before)));
+        verify(productChangeRepository, never()).deleteChangedBefore(any(), any());
+    }
+}
@@ -0,0 +1,144 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.repositories.CalculationParametersRepository;
+import com.adeo.stockoptimizer.repositories.DemandAdjustmentRepository;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.services.PlanningDataFileService;
+import com.adeo.stockoptimizer.simulation.PlanningDataFile;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.utils.PlanningCacheStats;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlanningSnapshotServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CalculationParametersRepository calcParamRepository;
+
+    @Mock
+    private SalesProfileRepository salesProfileRepository;
+
+    @Mock
+    private DemandAdjustmentRepository demandAdjustmentRepository;
+
+    @Mock
+    private PlanningDataFileService planningDataFileService;
+
+    private PlanningSnapshotServiceImpl service;
+
+    private Product defaultProduct;
+
+    @BeforeEach
+    void setUp() {
+        service = new PlanningSnapshotServiceImpl(productRepository, calcParamRepository, salesProfileRepository,
+                demandAdjustmentRepository, planningDataFileService, new PlanningProperties());
+        defaultProduct = Product.builder().id(1L).name("Test Product").initialStock(20).build();
+    }
+
+    @Test
+    void shouldLoadSnapshotOnceAndServeItFromCache() {
+        // Arrange
+        stubProduct(12);
+
+        // Act
+        PlanningSnapshot first = service.getSnapshot(1L);
+        PlanningSnapshot second = service.getSnapshot(1L);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(first.product()).isSameAs(defaultProduct);
+        assertThat(first.input().weeklyDemand()).containsExactly(5, 0, 0, 0, 0, 0, 10);
+        assertThat(first.input().orderMultiple()).isEqualTo(12);
+        verify(productRepository, times(1)).findById(1L);
+        verify(calcParamRepository, times(1)).findByProductId(1L);
+        verify(salesProfileRepository, times(1)).findByProductId(1L);
+
+        PlanningCacheStats stats = service.getStats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReloadSnapshotOnceInvalidated() {
+        // Arrange
+        stubProduct(12);
+        PlanningSnapshot previous = service.getSnapshot(1L);
+        stubProduct(24);
+
+        // Act
+        service.invalidate(1L);
+        PlanningSnapshot snapshot = service.getSnapshot(1L);
+
+        // Assert
+        assertThat(snapshot.input().orderMultiple()).isEqualTo(24);
+        assertThat(snapshot.version()).isNotEqualTo(previous.version());
+        verify(productRepository, times(2)).findById(1L);
+        verify(planningDataFileService).markStale(1L);
+        assertThat(service.getStats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldBuildSnapshotFromPlanningDataFileWithoutQueryingRepositories() {
+        // Arrange
+        PlanningInput input = new PlanningInput(new int[]{5, 0, 0, 0, 0, 0, 10}, 3, 12);
+        when(planningDataFileService.find(1L))
+                .thenReturn(Optional.of(new PlanningDataFile.Entry(1L, "Test Product", 20, input)));
+
+        // Act
+        PlanningSnapshot snapshot = service.getSnapshot(1L);
+
+        // Assert
+        assertThat(snapshot.product()).isEqualTo(defaultProduct);
+        assertThat(snapshot.input()).isSameAs(input);
+        verifyNoInteractions(productRepository, calcParamRepository, salesProfileRepository);
+    }
+
+    @Test
+    void shouldNotCacheMissingProduct() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        IllegalArgumentException exception = org.junit.jupiter.api.Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> service.getSnapshot(1L));
+
+        // Assert
+        assertThat(exception.getMessage()).isEqualTo("Product not found: 1");
+        assertThat(service.getStats().size()).isZero();
+    }
+
+    private void stubProduct(int orderMultiple) {
+        CalculationParameters params = CalculationParameters.builder()
+                .id(1L).deliveryLeadTime(3).orderMultiple(orderMultiple).product(defaultProduct).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(defaultProduct));
+        when(calcParamRepository.findByProductId(1L)).thenReturn(Optional.of(params));
+        when(salesProfileRepository.findByProductId(1L)).thenReturn(List.of(
+                SalesProfile.builder().id(1L).dayOfWeek(DayOfWeek.MONDAY).quantitySold(5).product(defaultProduct).build(),
+                SalesProfile.builder().id(7L).dayOfWeek(DayOfWeek.SUNDAY).quantitySold(10).product(defaultProduct).build()));
+    }
+}
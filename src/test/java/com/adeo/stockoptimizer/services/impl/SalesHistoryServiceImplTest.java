@@ -0,0 +1,161 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.models.SalesEvent;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import com.adeo.stockoptimizer.models.SalesWeek;
+import com.adeo.stockoptimizer.repositories.ProductRepository;
+import com.adeo.stockoptimizer.repositories.SalesEventRepository;
+import com.adeo.stockoptimizer.repositories.SalesProfileRepository;
+import com.adeo.stockoptimizer.repositories.SalesWeekRepository;
+import com.adeo.stockoptimizer.services.PlanningJournalService;
+import com.adeo.stockoptimizer.services.PlanningSnapshotService;
+import com.adeo.stockoptimizer.utils.SalesProfileRefresh;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SalesHistoryServiceImplTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Mock
+    private SalesEventRepository salesEventRepository;
+
+    @Mock
+    private SalesWeekRepository salesWeekRepository;
+
+    @Mock
+    private SalesProfileRepository salesProfileRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlanningSnapshotService planningSnapshotService;
+
+    @Mock
+    private PlanningJournalService planningJournalService;
+
+    @Captor
+    private ArgumentCaptor<List<SalesWeek>> weeksCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<SalesProfile>> profilesCaptor;
+
+    private SalesHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SalesHistoryServiceImpl(salesEventRepository, salesWeekRepository, salesProfileRepository,
+                productRepository, planningSnapshotService, planningJournalService, new PlanningProperties());
+    }
+
+    @Test
+    void shouldAppendEventsAndRollThemUpByProductAndWeek() {
+        // Arrange
+        List<SalesEvent> events = List.of(
+                new SalesEvent(null, 2L, MONDAY.plusDays(5), 4),
+                new SalesEvent(null, 1L, MONDAY, 3),
+                new SalesEvent(null, 1L, MONDAY.plusDays(7), 6),
+                new SalesEvent(null, 1L, MONDAY, 2),
+                new SalesEvent(null, 1L, MONDAY.plusDays(2), -1));
+
+        // Act
+        int recorded = service.recordSales(events);
+
+        // Assert
+        assertThat(recorded).isEqualTo(5);
+        verify(salesEventRepository).appendEvents(events);
+        verify(salesWeekRepository).addSales(weeksCaptor.capture());
+        List<SalesWeek> weeks = weeksCaptor.getValue();
+        assertThat(weeks).extracting(SalesWeek::getProductId, SalesWeek::getWeekStart)
+                .containsExactly(tuple(1L, MONDAY), tuple(1L, MONDAY.plusWeeks(1)), tuple(2L, MONDAY));
+        assertThat(weeks.get(0).getMonday()).isEqualTo(5);
+        assertThat(weeks.get(0).getWednesday()).isEqualTo(-1);
+        assertThat(weeks.get(1).getMonday()).isEqualTo(6);
+        assertThat(weeks.get(2).getSaturday()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldRejectEventsWithoutProductBeforeWritingAnything() {
+        // Arrange
+        List<SalesEvent> events = List.of(new SalesEvent(null, 1L, MONDAY, 3), new SalesEvent(null, null, MONDAY, 1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.recordSales(events)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(salesEventRepository, salesWeekRepository);
+    }
+
+    @Test
+    void shouldAverageCompleteWeeksSinceFirstSalesIntoProfilesAndMarkChangedProducts() {
+        // Arrange
+        LocalDate asOf = MONDAY.plusWeeks(1).plusDays(2);
+        Product product = Product.builder().id(1L).name("Test Product").initialStock(20).build();
+        when(salesWeekRepository.findIdsUpdatedAfter(eq(Long.MIN_VALUE), eq(Instant.EPOCH), any()))
+                .thenReturn(List.of(1L));
+        when(salesWeekRepository.findIdsUpdatedAfter(eq(1L), eq(Instant.EPOCH), any())).thenReturn(List.of());
+        when(salesWeekRepository.findFirstWeeks(List.of(1L))).thenReturn(List.of(firstWeek(1L, MONDAY.minusWeeks(1))));
+        when(salesWeekRepository.findWeeks(List.of(1L), MONDAY.minusWeeks(7), MONDAY.plusWeeks(1))).thenReturn(List.of(
+                SalesWeek.builder().productId(1L).weekStart(MONDAY.minusWeeks(1)).monday(10).saturday(7).build(),
+                SalesWeek.builder().productId(1L).weekStart(MONDAY).monday(20).saturday(8).build()));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+        when(salesProfileRepository.findByProductIdIn(List.of(1L))).thenReturn(new ArrayList<>(List.of(
+                new SalesProfile(11L, DayOfWeek.MONDAY, 15, product),
+                new SalesProfile(16L, DayOfWeek.SATURDAY, 2, product))));
+
+        // Act
+        Optional<SalesProfileRefresh> refresh = service.refreshSalesProfiles(asOf);
+
+        // Assert
+        assertThat(refresh).isPresent();
+        assertThat(refresh.get().fromWeek()).isEqualTo(MONDAY.minusWeeks(7));
+        assertThat(refresh.get().toWeek()).isEqualTo(MONDAY.plusWeeks(1));
+        assertThat(refresh.get().scannedProducts()).isEqualTo(1);
+        assertThat(refresh.get().updatedProducts()).isEqualTo(1);
+        verify(salesProfileRepository).saveAll(profilesCaptor.capture());
+        assertThat(profilesCaptor.getValue()).hasSize(6)
+                .extracting(SalesProfile::getDayOfWeek, SalesProfile::getQuantitySold)
+                .contains(tuple(DayOfWeek.SATURDAY, 8), tuple(DayOfWeek.SUNDAY, 0))
+                .doesNotContain(tuple(DayOfWeek.MONDAY, 15));
+        verify(planningSnapshotService).invalidate(1L);
+        verify(planningJournalService).markChanged(1L);
+        assertThat(service.getLastRefresh()).contains(refresh.get());
+    }
+
+    private static SalesWeekRepository.FirstWeek firstWeek(Long productId, LocalDate weekStart) {
+        return new SalesWeekRepository.FirstWeek() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public LocalDate getWeekStart() {
+                return weekStart;
+            }
+        };
+    }
+}
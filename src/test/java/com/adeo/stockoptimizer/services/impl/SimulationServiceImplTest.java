@@ -0,0 +1,83 @@
+package com.adeo.stockoptimizer.services.impl;
+
+import com.adeo.stockoptimizer.config.PlanningProperties;
+import com.adeo.stockoptimizer.models.Product;
+import com.adeo.stockoptimizer.simulation.CheckpointedSimulation;
+import com.adeo.stockoptimizer.simulation.PendingDeliveries;
+import com.adeo.stockoptimizer.simulation.PlanningInput;
+import com.adeo.stockoptimizer.simulation.SimulationHorizon;
+import com.adeo.stockoptimizer.simulation.SimulationListener;
+import com.adeo.stockoptimizer.simulation.SimulationResult;
+import com.adeo.stockoptimizer.utils.PlanningSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulationServiceImplTest {
+
+    private static final SimulationHorizon HORIZON =
+            SimulationHorizon.between(LocalDate.of(2025, 1, 6), LocalDate.of(2025, 12, 31));
+
+    private final SimulationServiceImpl service = new SimulationServiceImpl(new PlanningProperties());
+
+    private final Product product = Product.builder().id(1L).name("Test Product").initialStock(20).build();
+    private final PlanningInput input = new PlanningInput(new int[]{5, 5, 5, 5, 5, 10, 10}, 3, 12);
+
+    @Test
+    void shouldShareSimulationOfSameInputs() {
+        // Arrange
+        PlanningSnapshot snapshot = new PlanningSnapshot(product, input, 1);
+
+        // Act
+        SimulationResult first = service.simulate(snapshot, 12, 20, HORIZON, true);
+        SimulationResult second = service.simulate(snapshot, 12, 20, HORIZON, true);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(service.simulate(snapshot, 24, 20, HORIZON, true)).isNotSameAs(first);
+        assertThat(service.simulate(snapshot, 12, 30, HORIZON, true)).isNotSameAs(first);
+    }
+
+    @Test
+    void shouldSimulateAgainForNewSnapshotVersion() {
+        // Arrange
+        SimulationResult first = service.simulate(new PlanningSnapshot(product, input, 1), 12, 20, HORIZON, true);
+
+        // Act
+        SimulationResult reloaded = service.simulate(new PlanningSnapshot(product, input, 2), 12, 20, HORIZON, true);
+
+        // Assert
+        assertThat(reloaded).isNotSameAs(first);
+        assertThat(reloaded.dailyStock()).isEqualTo(first.dailyStock());
+    }
+
+    @Test
+    void shouldBypassCacheWhenRequested() {
+        // Arrange
+        PlanningSnapshot snapshot = new PlanningSnapshot(product, input, 1);
+        SimulationResult cached = service.simulate(snapshot, 12, 20, HORIZON, true);
+
+        // Act
+        SimulationResult uncached = service.simulate(snapshot, 12, 20, HORIZON, false);
+
+        // Assert
+        assertThat(uncached).isNotSameAs(cached);
+        assertThat(service.simulate(snapshot, 12, 20, HORIZON, true)).isSameAs(cached);
+    }
+
+    @Test
+    void shouldCacheResultOfCheckpointedSimulation() {
+        // Arrange
+        PlanningSnapshot snapshot = new PlanningSnapshot(product, input, 1);
+
+        // Act
+        CheckpointedSimulation simulation = service.simulateWithCheckpoints(snapshot, 20, PendingDeliveries.NONE,
+                HORIZON, new SimulationListener() {}, true);
+
+        // Assert
+        assertThat(simulation.checkpoints().count()).isPositive();
+        assertThat(service.simulate(snapshot, 12, 20, HORIZON, true)).isSameAs(simulation.result());
+    }
+}
@@ -0,0 +1,59 @@
+package com.adeo.stockoptimizer.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchStockSimulatorTest {
+
+    private static final int[] WEEKLY_DEMAND = {5, 5, 5, 5, 5, 10, 10};
+    private static final SimulationHorizon HORIZON = SimulationHorizon.between(LocalDate.of(2025, 1, 6),
+            LocalDate.of(2026, 3, 15));
+
+    @Test
+    void shouldMatchScalarSimulationOfEachScenario() {
+        // Arrange
+        ScenarioBatch batch = ScenarioBatch.grid(WEEKLY_DEMAND, new int[]{0, 20, 500},
+                new int[]{1, 7, 12, 50}, new int[]{0, 1, 3, 10});
+
+        // Act
+        BatchSimulationResult result = BatchStockSimulator.simulate(batch, HORIZON);
+        BatchSimulationResult scalarResult = BatchStockSimulator.simulate(batch, HORIZON, new ScalarBatchKernel());
+
+        // Assert
+        assertThat(result.scenarios()).isEqualTo(48);
+        for (int i = 0; i < batch.size(); i++) {
+            SimulationResult expected = StockSimulator.simulate(batch.input(i), batch.initialStocks()[i], HORIZON);
+            assertThat(result.stockoutDays(i)).isEqualTo(expected.stockoutDays());
+            assertThat(result.orderCount(i)).isEqualTo(expected.orderCount());
+            assertThat(result.averageStock(i)).isEqualTo(expected.averageStock());
+            assertThat(result.monthlyStats(i))
+                    .isEqualTo(MonthlyStatsAccumulator.aggregate(HORIZON, expected.dailyStock(), false))
+                    .isEqualTo(scalarResult.monthlyStats(i));
+        }
+    }
+
+    @Test
+    void shouldBuildEveryCombinationWithLeadTimesVaryingFastest() {
+        // Act
+        ScenarioBatch batch = ScenarioBatch.grid(WEEKLY_DEMAND, new int[]{10, 20}, new int[]{6}, new int[]{1, 2});
+
+        // Assert
+        assertThat(batch.initialStocks()).containsExactly(10, 10, 20, 20);
+        assertThat(batch.orderMultiples()).containsExactly(6, 6, 6, 6);
+        assertThat(batch.deliveryLeadTimes()).containsExactly(1, 2, 1, 2);
+    }
+
+    @Test
+    void shouldRejectInvalidOrderMultiple() {
+        // Act & Assert
+        IllegalArgumentException exception = org.junit.jupiter.api.Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> ScenarioBatch.grid(WEEKLY_DEMAND, new int[]{10}, new int[]{0}, new int[]{1})
+        );
+
+        assertThat(exception.getMessage()).isEqualTo("Order multiple must be at least 1");
+    }
+}
@@ -0,0 +1,52 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DemandCalendarTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+    private static final int[] WEEKLY_DEMAND = {5, 5, 5, 5, 5, 10, 10};
+
+    @Test
+    void shouldDecodeSeasonalFactorsAndOverridesOverHorizon() {
+        // Arrange
+        DemandCalendar calendar = DemandCalendar.compile(List.of(
+                adjustment(MONDAY.plusDays(2), MONDAY.plusDays(20), DemandAdjustmentType.SEASONAL_FACTOR, 1.5),
+                adjustment(MONDAY.plusDays(5), MONDAY.plusDays(5), DemandAdjustmentType.OVERRIDE, 0),
+                adjustment(MONDAY.minusDays(10), MONDAY.plusDays(3), DemandAdjustmentType.SEASONAL_FACTOR, 2)));
+
+        // Act
+        int[] demand = calendar.decode(WEEKLY_DEMAND, new SimulationHorizon(MONDAY, 14));
+
+        // Assert
+        assertThat(calendar.runs()).isEqualTo(3);
+        assertThat(demand).containsExactly(10, 10, 10, 10, 8, 0, 15, 8, 8, 8, 8, 8, 15, 15);
+    }
+
+    @Test
+    void shouldDecodeWeeklyDemandOutsideAdjustedPeriods() {
+        // Arrange
+        DemandCalendar calendar = DemandCalendar.compile(List.of(
+                adjustment(MONDAY.minusDays(30), MONDAY.minusDays(1), DemandAdjustmentType.OVERRIDE, 50),
+                adjustment(MONDAY.plusDays(7), MONDAY.plusDays(60), DemandAdjustmentType.OVERRIDE, 50)));
+
+        // Act
+        int[] demand = calendar.decode(WEEKLY_DEMAND, new SimulationHorizon(MONDAY.plusDays(3), 5));
+
+        // Assert
+        assertThat(demand).containsExactly(5, 5, 10, 10, 50);
+        assertThat(DemandCalendar.compile(List.of()).isEmpty()).isTrue();
+    }
+
+    private static DemandAdjustment adjustment(LocalDate startDate, LocalDate endDate, DemandAdjustmentType type,
+                                               double value) {
+        return DemandAdjustment.builder().startDate(startDate).endDate(endDate).type(type).value(value).build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MonteCarloSimulatorTest {
+
+    private static final SimulationHorizon YEAR = SimulationHorizon.between(LocalDate.of(2025, 1, 6),
+            LocalDate.of(2025, 12, 31));
+    private static final PlanningInput INPUT = new PlanningInput(new int[]{5, 5, 5, 5, 5, 10, 10}, 3, 12);
+
+    @Test
+    void shouldReplaySameReplicationsWithSameSeed() {
+        // Act
+        MonteCarloResult first = MonteCarloSimulator.simulate(INPUT, 20, YEAR, 1000, 42);
+        MonteCarloResult second = MonteCarloSimulator.simulate(INPUT, 20, YEAR, 1000, 42);
+
+        // Assert
+        assertThat(second).isEqualTo(first);
+        assertThat(first.months()).hasSize(12);
+        assertThat(first.months().get(0).month()).isEqualTo("2025-01");
+        assertThat(first.serviceLevel()).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void shouldNeverRunOutWhenStockCoversDemand() {
+        // Act
+        MonteCarloResult result = MonteCarloSimulator.simulate(INPUT, 1_000_000, YEAR, 500, 7);
+
+        // Assert
+        assertThat(result.serviceLevel()).isEqualTo(1.0);
+        assertThat(result.stockoutProbability()).isZero();
+        assertThat(result.months()).allSatisfy(month -> {
+            assertThat(month.stockoutProbability()).isZero();
+            assertThat(month.p5Stock()).isLessThanOrEqualTo(month.medianStock());
+            assertThat(month.medianStock()).isLessThanOrEqualTo(month.p95Stock());
+        });
+    }
+
+    @Test
+    void shouldDrawPoissonDemandAroundWeeklyDemand() {
+        // Arrange
+        PoissonDemand demand = new PoissonDemand(new int[]{0, 4, 1000, 0, 0, 0, 0});
+        SplittableRandom random = new SplittableRandom(1);
+        int samples = 100_000;
+
+        // Act
+        long zeroSum = 0;
+        long smallSum = 0;
+        long largeSum = 0;
+        for (int i = 0; i < samples; i++) {
+            zeroSum += demand.sample(0, random);
+            smallSum += demand.sample(1, random);
+            largeSum += demand.sample(2, random);
+        }
+
+        // Assert
+        assertThat(zeroSum).isZero();
+        assertThat((double) smallSum / samples).isCloseTo(4.0, within(0.05));
+        assertThat((double) largeSum / samples).isCloseTo(1000.0, within(1.0));
+    }
+
+    @Test
+    void shouldDrawDemandAroundDemandCalendar() {
+        // Arrange
+        DemandCalendar closure = DemandCalendar.compile(List.of(DemandAdjustment.builder()
+                .startDate(YEAR.start())
+                .endDate(YEAR.dateOf(YEAR.days() - 1))
+                .type(DemandAdjustmentType.OVERRIDE)
+                .value(0)
+                .build()));
+        PoissonDemand demand = PoissonDemand.ofDailyDemand(new int[]{0, 1000, 0, 1000});
+        int[] dailyDemand = new int[4];
+
+        // Act
+        MonteCarloResult result = MonteCarloSimulator.simulate(INPUT.withDemandCalendar(closure), 20, YEAR, 200, 3);
+        demand.sample(new SimulationHorizon(YEAR.start(), 4), new SplittableRandom(1), dailyDemand);
+
+        // Assert
+        assertThat(result.serviceLevel()).isEqualTo(1.0);
+        assertThat(result.months()).allSatisfy(month -> assertThat(month.medianStock()).isEqualTo(20.0));
+        assertThat(dailyDemand[0]).isZero();
+        assertThat(dailyDemand[1]).isBetween(800, 1200);
+        assertThat(dailyDemand[2]).isZero();
+    }
+}
@@ -0,0 +1,63 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.utils.StockStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthlyStatsAccumulatorTest {
+
+    @Test
+    void shouldAggregateEachMonthInChronologicalOrder() {
+        // Arrange
+        SimulationHorizon horizon = new SimulationHorizon(LocalDate.of(2025, 1, 30), 4);
+
+        // Act
+        Map<String, StockStats> stats = MonthlyStatsAccumulator.aggregate(horizon, new int[]{10, 20, 0, 6}, true);
+
+        // Assert
+        assertThat(stats).containsExactly(
+                Map.entry("2025-01", new StockStats(10, 20, 15.0, 10, 20)),
+                Map.entry("2025-02", new StockStats(0, 6, 3.0, 0, 6)));
+    }
+
+    @Test
+    void shouldAverageEveryDayOfMonthEqually() {
+        // Arrange
+        SimulationHorizon horizon = new SimulationHorizon(LocalDate.of(2025, 1, 1), 3);
+
+        // Act
+        Map<String, StockStats> stats = MonthlyStatsAccumulator.aggregate(horizon, new int[]{30, 0, 0}, false);
+
+        // Assert
+        assertThat(stats.get("2025-01")).isEqualTo(new StockStats(0, 30, 10.0, null, null));
+    }
+
+    @Test
+    void shouldHandOverEachMonthOnceComplete() {
+        // Arrange
+        SimulationHorizon horizon = new SimulationHorizon(LocalDate.of(2025, 1, 6), 60);
+        int[] dailyStock = new int[60];
+        Map<String, StockStats> completed = new LinkedHashMap<>();
+        MonthlyStatsAccumulator accumulator = new MonthlyStatsAccumulator(horizon, false, completed::put);
+
+        // Act
+        for (int day = 0; day < 26; day++) {
+            accumulator.onDay(day, dailyStock[day], 0);
+        }
+        boolean januaryCompletedEarly = !completed.isEmpty();
+        for (int day = 26; day < 60; day++) {
+            accumulator.onDay(day, dailyStock[day], 0);
+        }
+        accumulator.onComplete();
+
+        // Assert
+        assertThat(januaryCompletedEarly).isFalse();
+        assertThat(completed.keySet()).containsExactly("2025-01", "2025-02", "2025-03");
+        assertThat(completed).isEqualTo(accumulator.toMap());
+    }
+}
@@ -0,0 +1,95 @@
+package com.adeo.stockoptimizer.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderPolicyOptimizerTest {
+
+    private static final int[] WEEKLY_DEMAND = {5, 5, 5, 5, 5, 10, 10};
+    private static final SimulationHorizon HORIZON = SimulationHorizon.between(LocalDate.of(2025, 1, 6),
+            LocalDate.of(2025, 6, 30));
+    private static final int[] ORDER_MULTIPLES = {1, 6, 12, 25};
+    private static final int[] SAFETY_STOCKS = {0, 10, 20};
+
+    @Test
+    void shouldFindParetoFrontOfExhaustiveSearch() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 1);
+        PolicyCosts costs = new PolicyCosts(0.1, 50, 5);
+        List<PolicyEvaluation> evaluations = new ArrayList<>();
+        for (int orderDays = 1; orderDays <= 0x7F; orderDays++) {
+            for (int multiple : ORDER_MULTIPLES) {
+                for (int safetyStock : SAFETY_STOCKS) {
+                    evaluations.add(simulate(input.withOrderMultiple(multiple).withOrderPolicy(orderDays, safetyStock),
+                            costs));
+                }
+            }
+        }
+
+        // Act
+        PolicyOptimizationResult result = OrderPolicyOptimizer.optimize(input, 20, HORIZON, ORDER_MULTIPLES,
+                SAFETY_STOCKS, costs);
+
+        // Assert
+        List<List<Double>> expectedFront = evaluations.stream()
+                .filter(evaluation -> evaluations.stream().noneMatch(other -> dominates(other, evaluation)))
+                .map(evaluation -> List.of(evaluation.inventoryCost(), evaluation.stockoutCost()))
+                .distinct()
+                .toList();
+        assertThat(result.candidates()).isEqualTo(127 * 12);
+        assertThat(result.paretoFront())
+                .extracting(evaluation -> List.of(evaluation.inventoryCost(), evaluation.stockoutCost()))
+                .containsExactlyInAnyOrderElementsOf(expectedFront);
+        assertThat(result.best().totalCost())
+                .isEqualTo(evaluations.stream().mapToDouble(PolicyEvaluation::totalCost).min().orElseThrow());
+    }
+
+    @Test
+    void shouldNotSimulateCandidatesDominatedByTheirBounds() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 1);
+
+        // Act
+        PolicyOptimizationResult result = OrderPolicyOptimizer.optimize(input, 2000, HORIZON, ORDER_MULTIPLES,
+                SAFETY_STOCKS, new PolicyCosts(0.1, 50, 5));
+
+        // Assert
+        assertThat(result.evaluated()).isEqualTo(ORDER_MULTIPLES.length * SAFETY_STOCKS.length);
+        assertThat(result.paretoFront()).hasSize(1);
+        assertThat(result.best().orderCount()).isZero();
+        assertThat(result.best().unmetDemand()).isZero();
+    }
+
+    /**
+     * Simulates one policy with the scalar simulator, from an initial stock of 20.
+     */
+    private static PolicyEvaluation simulate(PlanningInput input, PolicyCosts costs) {
+        long[] totals = new long[4];
+        StockSimulator.run(input, 20, HORIZON, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                totals[0] += stock;
+                totals[1] += unmetDemand;
+                totals[2] += unmetDemand > 0 ? 1 : 0;
+            }
+
+            @Override
+            public void onOrder(int day, int quantity) {
+                totals[3]++;
+            }
+        });
+        return new PolicyEvaluation(input.orderDays(), input.orderMultiple(), input.safetyStock(),
+                costs.holdingCost() * totals[0], costs.orderCost() * totals[3], costs.stockoutPenalty() * totals[1],
+                totals[1], (int) totals[2], (int) totals[3]);
+    }
+
+    private static boolean dominates(PolicyEvaluation first, PolicyEvaluation second) {
+        return first.inventoryCost() <= second.inventoryCost() && first.stockoutCost() <= second.stockoutCost()
+                && (first.inventoryCost() < second.inventoryCost() || first.stockoutCost() < second.stockoutCost());
+    }
+}
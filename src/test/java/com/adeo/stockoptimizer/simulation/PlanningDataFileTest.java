@@ -0,0 +1,64 @@
+package com.adeo.stockoptimizer.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlanningDataFileTest {
+
+    @Test
+    void shouldFindEveryWrittenProductInMappedFile() throws IOException {
+        // Arrange
+        Path file = Files.createTempDirectory("planning-data").resolve("planning-data.bin");
+        PlanningInput standard = new PlanningInput(new int[]{5, 5, 5, 5, 5, 10, 10}, 3, 12);
+        PlanningInput daily = new PlanningInput(new int[]{1, 2, 3, 4, 5, 6, 7}, 1, 6, 0x7F, 4);
+        try (PlanningDataFile.Writer writer = PlanningDataFile.create(file)) {
+            for (long productId = 1; productId <= 3000; productId += 2) {
+                writer.add(new PlanningDataFile.Entry(productId, "Produit n°" + productId, (int) productId,
+                        productId % 4 == 1 ? standard : daily));
+            }
+            writer.commit();
+        }
+
+        // Act
+        PlanningDataFile dataFile = PlanningDataFile.open(file);
+        PlanningDataFile.Entry first = dataFile.find(1L).orElseThrow();
+        PlanningDataFile.Entry last = dataFile.find(2999L).orElseThrow();
+        Optional<PlanningDataFile.Entry> missing = dataFile.find(2L);
+
+        // Assert
+        assertThat(dataFile.size()).isEqualTo(1500);
+        assertThat(first.name()).isEqualTo("Produit n°1");
+        assertThat(first.initialStock()).isEqualTo(1);
+        assertThat(first.input().weeklyDemand()).containsExactly(standard.weeklyDemand());
+        assertThat(first.input().orderDays()).isEqualTo(PlanningInput.MONDAY_ONLY);
+        assertThat(last.name()).isEqualTo("Produit n°2999");
+        assertThat(last.input().weeklyDemand()).containsExactly(daily.weeklyDemand());
+        assertThat(last.input().orderMultiple()).isEqualTo(6);
+        assertThat(last.input().orderDays()).isEqualTo(0x7F);
+        assertThat(last.input().safetyStock()).isEqualTo(4);
+        assertThat(missing).isEmpty();
+        assertThat(dataFile.find(3001L)).isEmpty();
+        assertThat(file.getParent().toFile().list()).containsExactly("planning-data.bin");
+    }
+
+    @Test
+    void shouldRejectFileOfAnotherFormat() throws IOException {
+        // Arrange
+        Path file = Files.createTempFile("planning-data", ".bin");
+        Files.write(file, new byte[64]);
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> PlanningDataFile.open(file));
+
+        // Assert
+        assertThat(exception.getMessage()).isEqualTo("Not a planning data file: " + file);
+    }
+}
@@ -0,0 +1,297 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.enums.DemandAdjustmentType;
+import com.adeo.stockoptimizer.models.CalculationParameters;
+import com.adeo.stockoptimizer.models.DemandAdjustment;
+import com.adeo.stockoptimizer.models.SalesProfile;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockSimulatorTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+    private static final int[] WEEKLY_DEMAND = {5, 5, 5, 5, 5, 10, 10};
+
+    @Test
+    void shouldSimulateDailyStockAndOrders() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+
+        // Act
+        SimulationResult result = StockSimulator.simulate(input, 20, new SimulationHorizon(MONDAY, 14));
+
+        // Assert
+        assertThat(result.dailyStock()).containsExactly(15, 10, 5, 12, 7, 0, 0, 0, 0, 0, 7, 2, 0, 0);
+        assertThat(result.orderCount()).isEqualTo(2);
+        assertThat(result.orderDays()).startsWith(0, 7);
+        assertThat(result.orderQuantities()).startsWith(12, 12);
+        assertThat(result.averageStock()).isEqualTo(58 / 14.0);
+    }
+
+    @Test
+    void shouldIgnoreShortageBeyondHorizon() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+
+        // Act
+        SimulationResult result = StockSimulator.simulate(input, 20, new SimulationHorizon(MONDAY, 3));
+
+        // Assert
+        assertThat(result.orderCount()).isZero();
+        assertThat(result.dailyStock()).containsExactly(15, 10, 5);
+    }
+
+    @Test
+    void shouldNeverReceiveSameDayDeliveries() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 0, 12);
+
+        // Act
+        SimulationResult result = StockSimulator.simulate(input, 20, new SimulationHorizon(MONDAY, 7));
+
+        // Assert
+        assertThat(result.orderCount()).isEqualTo(1);
+        assertThat(result.dailyStock()).containsExactly(15, 10, 5, 0, 0, 0, 0);
+    }
+
+    @Test
+    void shouldPlanFromWeeklyDemandAgainstDailyDemand() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+        int[] dailyDemand = {5, 5, 5, 5, 5, 10, 10, 0, 0, 0, 0, 0, 0, 0};
+        SimulationResult expected = StockSimulator.simulate(input, 20, new SimulationHorizon(MONDAY, 7));
+        int[] dailyStock = new int[14];
+        int[] orderCount = new int[1];
+
+        // Act
+        StockSimulator.run(input, 20, new SimulationHorizon(MONDAY, 14), dailyDemand, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                dailyStock[day] = stock;
+            }
+
+            @Override
+            public void onOrder(int day, int quantity) {
+                orderCount[0]++;
+            }
+        });
+
+        // Assert
+        assertThat(dailyStock).startsWith(expected.dailyStock());
+        assertThat(dailyStock).endsWith(0, 0, 0, 12, 12, 12, 12);
+        assertThat(orderCount[0]).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOrderOnEveryOrderDayAboveSafetyStock() {
+        // Arrange
+        int orderDays = PlanningInput.orderDaysMask(List.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY));
+        PlanningInput input = new PlanningInput(new int[]{10, 10, 10, 10, 10, 10, 10}, 1, 1, orderDays, 5);
+
+        // Act
+        SimulationResult result = StockSimulator.simulate(input, 40, new SimulationHorizon(MONDAY, 14));
+
+        // Assert
+        assertThat(result.dailyStock()).containsExactly(30, 20, 10, 0, 6, 0, 0, 0, 6, 0, 0, 6, 0, 0);
+        assertThat(result.orderCount()).isEqualTo(3);
+        assertThat(result.orderDays()).startsWith(3, 7, 10);
+        assertThat(result.orderQuantities()).startsWith(16, 16, 16);
+    }
+
+    @Test
+    void shouldMatchDaySteppingInPeriodicMode() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            // Arrange
+            int[] weeklyDemand = random.ints(7, 0, 30).toArray();
+            PlanningInput input = new PlanningInput(weeklyDemand, random.nextInt(15), 1 + random.nextInt(40),
+                    1 + random.nextInt(127), random.nextInt(3) * 20);
+            SimulationHorizon horizon = new SimulationHorizon(MONDAY.plusDays(random.nextInt(7)), random.nextInt(3650));
+            int initialStock = random.nextInt(200);
+
+            // Act
+            SimulationResult stepped = StockSimulator.simulate(input, initialStock, horizon, SimulationMode.DAY_STEPPING);
+            SimulationResult periodic = StockSimulator.simulate(input, initialStock, horizon, SimulationMode.PERIODIC);
+
+            // Assert
+            assertThat(periodic.dailyStock()).isEqualTo(stepped.dailyStock());
+            assertThat(periodic.orderCount()).isEqualTo(stepped.orderCount());
+            assertThat(periodic.orderDays()).isEqualTo(stepped.orderDays());
+            assertThat(periodic.orderQuantities()).isEqualTo(stepped.orderQuantities());
+            assertThat(periodic.stockoutDays()).isEqualTo(stepped.stockoutDays());
+        }
+    }
+
+    @Test
+    void shouldResumeFromCheckpointsLikeTheFullSimulation() {
+        Random random = new Random(7);
+        for (int run = 0; run < 200; run++) {
+            // Arrange
+            int[] weeklyDemand = random.ints(7, 0, 30).toArray();
+            PlanningInput input = new PlanningInput(weeklyDemand, random.nextInt(30), 1 + random.nextInt(40),
+                    1 + random.nextInt(127), random.nextInt(3) * 20);
+            SimulationHorizon horizon = new SimulationHorizon(MONDAY.plusDays(random.nextInt(7)),
+                    1 + random.nextInt(730));
+            int initialStock = random.nextInt(200);
+            SimulationResult expected = StockSimulator.simulate(input, initialStock, horizon);
+            PlanCheckpoints checkpoints = StockSimulator.runWithCheckpoints(input, initialStock, horizon,
+                    new SimulationListener() {});
+            int checkpoint = random.nextInt(checkpoints.count());
+            int firstDay = checkpoints.dayOf(checkpoint);
+            int[] dailyStock = new int[horizon.days() - firstDay];
+            List<Integer> orderDays = new ArrayList<>();
+
+            // Act
+            PlanCheckpoints resumed = StockSimulator.resume(input, checkpoints, checkpoint, new SimulationListener() {
+                @Override
+                public void onDay(int day, int stock, int unmetDemand) {
+                    dailyStock[day] = stock;
+                }
+
+                @Override
+                public void onOrder(int day, int quantity) {
+                    orderDays.add(firstDay + day);
+                }
+            });
+
+            // Assert
+            assertThat(dailyStock).isEqualTo(Arrays.copyOfRange(expected.dailyStock(), firstDay, horizon.days()));
+            assertThat(orderDays).containsExactlyElementsOf(Arrays.stream(expected.orderDays(), 0,
+                    expected.orderCount()).filter(day -> day >= firstDay).boxed().toList());
+            for (int i = 0; i < checkpoints.count(); i++) {
+                assertThat(resumed.stockAt(i)).isEqualTo(checkpoints.stockAt(i));
+                assertThat(resumed.pendingAt(i)).isEqualTo(checkpoints.pendingAt(i));
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepPendingDeliveriesWhenResumingWithNewInputs() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 10, 12);
+        PlanCheckpoints checkpoints = StockSimulator.runWithCheckpoints(input, 20, new SimulationHorizon(MONDAY, 21),
+                new SimulationListener() {});
+        int[] dailyStock = new int[14];
+
+        // Act
+        StockSimulator.resume(new PlanningInput(WEEKLY_DEMAND, 2, 12), checkpoints, 1, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                dailyStock[day] = stock;
+            }
+        });
+
+        // Assert
+        assertThat(checkpoints.stockAt(1)).isZero();
+        assertThat(checkpoints.pendingAt(1)).containsExactly(3, 12);
+        // The order of day 7 is received on day 9 with the new lead time, the one of day 0 still on day 10
+        assertThat(dailyStock).startsWith(0, 0, 7, 14, 9, 0, 0);
+    }
+
+    @Test
+    void shouldReceiveDeliveriesPendingAtStartInBothModes() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, 14);
+        PendingDeliveries pending = PendingDeliveries.of(horizon,
+                Map.of(MONDAY.plusDays(2), 10, MONDAY.minusDays(1), 8, MONDAY.plusDays(14), 8));
+
+        // Act
+        SimulationResult daily = StockSimulator.simulate(input, 20, pending, horizon, SimulationMode.DAY_STEPPING);
+        SimulationResult periodic = StockSimulator.simulate(input, 20, pending, horizon, SimulationMode.PERIODIC);
+        PlanCheckpoints checkpoints = StockSimulator.runWithCheckpoints(input, 20, pending, horizon,
+                new SimulationListener() {});
+
+        // Assert
+        assertThat(daily.dailyStock()).containsExactly(15, 10, 15, 22, 17, 7, 0, 0, 0, 0, 7, 2, 0, 0);
+        assertThat(periodic.dailyStock()).containsExactly(daily.dailyStock());
+        assertThat(checkpoints.pendingAt(0)).containsExactly(2, 10);
+    }
+
+    @Test
+    void shouldRecordResultAndCheckpointsInOneRun() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, 365);
+        PendingDeliveries pending = PendingDeliveries.of(horizon, Map.of(MONDAY.plusDays(2), 10));
+        SimulationResult expected = StockSimulator.simulate(input, 20, pending, horizon, SimulationMode.PERIODIC);
+        PlanCheckpoints expectedCheckpoints = StockSimulator.runWithCheckpoints(input, 20, pending, horizon,
+                new SimulationListener() {});
+        int[] listenedDays = {0};
+
+        // Act
+        CheckpointedSimulation simulation = StockSimulator.simulateWithCheckpoints(input, 20, pending, horizon,
+                new SimulationListener() {
+                    @Override
+                    public void onDay(int day, int stock, int unmetDemand) {
+                        listenedDays[0]++;
+                    }
+                });
+
+        // Assert
+        SimulationResult result = simulation.result();
+        assertThat(result.dailyStock()).containsExactly(expected.dailyStock());
+        assertThat(Arrays.copyOf(result.orderDays(), result.orderCount()))
+                .containsExactly(Arrays.copyOf(expected.orderDays(), expected.orderCount()));
+        assertThat(result.stockoutDays()).isEqualTo(expected.stockoutDays());
+        assertThat(listenedDays[0]).isEqualTo(horizon.days());
+        PlanCheckpoints checkpoints = simulation.checkpoints();
+        assertThat(checkpoints.count()).isEqualTo(expectedCheckpoints.count());
+        for (int checkpoint = 0; checkpoint < checkpoints.count(); checkpoint++) {
+            assertThat(checkpoints.stockAt(checkpoint)).isEqualTo(expectedCheckpoints.stockAt(checkpoint));
+            assertThat(checkpoints.pendingAt(checkpoint)).containsExactly(expectedCheckpoints.pendingAt(checkpoint));
+        }
+    }
+
+    @Test
+    void shouldPlanPromotionOfDemandCalendarInBothModes() {
+        // Arrange
+        DemandCalendar promotion = DemandCalendar.compile(List.of(DemandAdjustment.builder()
+                .startDate(MONDAY.plusDays(8))
+                .endDate(MONDAY.plusDays(10))
+                .type(DemandAdjustmentType.OVERRIDE)
+                .value(20)
+                .build()));
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12, PlanningInput.MONDAY_ONLY, 0, promotion);
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, 21);
+
+        // Act
+        SimulationResult daily = StockSimulator.simulate(input, 20, horizon, SimulationMode.DAY_STEPPING);
+        SimulationResult periodic = StockSimulator.simulate(input, 20, horizon, SimulationMode.PERIODIC);
+
+        // Assert
+        assertThat(daily.orderQuantities()).startsWith(12, 24, 12);
+        assertThat(daily.dailyStock()).containsExactly(15, 10, 5, 12, 7, 0, 0, 0, 0, 0, 4, 0, 0, 0,
+                0, 0, 0, 7, 2, 0, 0);
+        assertThat(periodic.dailyStock()).containsExactly(daily.dailyStock());
+        assertThat(periodic.orderCount()).isEqualTo(daily.orderCount());
+    }
+
+    @Test
+    void shouldCompileFirstProfileOfEachDay() {
+        // Arrange
+        CalculationParameters params = CalculationParameters.builder().deliveryLeadTime(3).orderMultiple(12).build();
+        List<SalesProfile> profiles = List.of(
+                SalesProfile.builder().dayOfWeek(DayOfWeek.MONDAY).quantitySold(5).build(),
+                SalesProfile.builder().dayOfWeek(DayOfWeek.MONDAY).quantitySold(8).build(),
+                SalesProfile.builder().dayOfWeek(DayOfWeek.SUNDAY).quantitySold(10).build()
+        );
+
+        // Act
+        PlanningInput input = PlanningInput.compile(params, profiles);
+
+        // Assert
+        assertThat(input.weeklyDemand()).containsExactly(5, 0, 0, 0, 0, 0, 10);
+        assertThat(input.deliveryLeadTime()).isEqualTo(3);
+        assertThat(input.orderMultiple()).isEqualTo(12);
+    }
+}
@@ -0,0 +1,126 @@
+package com.adeo.stockoptimizer.simulation;
+
+import com.adeo.stockoptimizer.utils.StockStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrajectoryStoreTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+    private static final int[] WEEKLY_DEMAND = {5, 5, 5, 5, 5, 10, 10};
+
+    @Test
+    void shouldReplayTrajectoryOfSameInputsOnly() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, 90);
+        SimulationResult expected = StockSimulator.simulate(input, 20, horizon);
+        TrajectoryStore store = new TrajectoryStore(1, null);
+        StockSimulator.run(input, 20, horizon, store.writer(1L, 7L, 20, horizon));
+        List<Integer> replayed = new ArrayList<>();
+        SimulationListener collector = new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                replayed.add(stock);
+            }
+        };
+
+        // Act
+        boolean found = store.replay(1L, 7L, 20, horizon, collector);
+        boolean otherVersion = store.replay(1L, 8L, 20, horizon, collector);
+        boolean otherStock = store.replay(1L, 7L, 30, horizon, collector);
+        boolean otherProduct = store.replay(2L, 7L, 20, horizon, collector);
+
+        // Assert
+        assertThat(found).isTrue();
+        assertThat(otherVersion).isFalse();
+        assertThat(otherStock).isFalse();
+        assertThat(otherProduct).isFalse();
+        assertThat(replayed).containsExactlyElementsOf(Arrays.stream(expected.dailyStock()).boxed().toList());
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldComputeStatsOverDateRangeFromMappedFile() throws IOException {
+        // Arrange
+        Path directory = Files.createTempDirectory("trajectories");
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, 14);
+        try (TrajectoryStore store = new TrajectoryStore(1, directory)) {
+            StockSimulator.run(new PlanningInput(WEEKLY_DEMAND, 3, 12), 20, horizon,
+                    store.writer(1L, 1L, 20, horizon));
+
+            // Act
+            StockStats firstWeek = store.stats(1L, MONDAY.minusDays(3), MONDAY.plusDays(6)).orElseThrow();
+            StockStats lastDays = store.stats(1L, MONDAY.plusDays(10), MONDAY.plusDays(30)).orElseThrow();
+
+            // Assert
+            assertThat(firstWeek).isEqualTo(new StockStats(0, 15, 49 / 7.0, null, null));
+            assertThat(lastDays).isEqualTo(new StockStats(0, 7, 9 / 4.0, null, null));
+            assertThat(store.stats(1L, MONDAY.plusDays(14), MONDAY.plusDays(20))).isEmpty();
+            assertThat(store.stats(2L, MONDAY, MONDAY)).isEmpty();
+        }
+        assertThat(directory.toFile().list()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepDaysBeforeResumedDayAndReuseFreedSlots() {
+        // Arrange
+        PlanningInput input = new PlanningInput(WEEKLY_DEMAND, 3, 12);
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, 28);
+        TrajectoryStore store = new TrajectoryStore(1, null);
+        PlanCheckpoints checkpoints = StockSimulator.runWithCheckpoints(input, 20, horizon,
+                store.writer(1L, 1L, 20, horizon));
+        PlanningInput changed = new PlanningInput(new int[]{1, 1, 1, 1, 1, 1, 1}, 3, 12);
+        int[] expected = new int[28];
+        System.arraycopy(StockSimulator.simulate(input, 20, horizon).dailyStock(), 0, expected, 0, 14);
+
+        // Act
+        StockSimulator.resume(changed, checkpoints, 2, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                expected[14 + day] = stock;
+            }
+        });
+        StockSimulator.resume(changed, checkpoints, 2, store.resumeWriter(1L, 2L, 14));
+        int[] replayed = new int[28];
+        boolean found = store.replay(1L, 2L, 20, horizon, new SimulationListener() {
+            @Override
+            public void onDay(int day, int stock, int unmetDemand) {
+                replayed[day] = stock;
+            }
+        });
+
+        // Assert
+        assertThat(found).isTrue();
+        assertThat(replayed).containsExactly(expected);
+        assertThat(store.replay(1L, 1L, 20, horizon, new SimulationListener() {})).isFalse();
+    }
+
+    @Test
+    void shouldDiscardTrajectoriesOnceMemoryBudgetIsExhausted() {
+        // Arrange
+        SimulationHorizon horizon = new SimulationHorizon(MONDAY, TrajectoryStore.SLAB_BYTES / Integer.BYTES / 2);
+        TrajectoryStore store = new TrajectoryStore(TrajectoryStore.SLAB_BYTES, null);
+        store.writer(1L, 1L, 0, horizon).onComplete();
+
+        // Act
+        store.writer(1L, 2L, 0, horizon).onComplete();
+        store.writer(2L, 1L, 0, horizon).onComplete();
+        store.writer(3L, 1L, 0, horizon).onComplete();
+
+        // Assert
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.replay(1L, 2L, 0, horizon, new SimulationListener() {})).isTrue();
+        assertThat(store.stats(2L, MONDAY, MONDAY)).isPresent();
+        assertThat(store.stats(3L, MONDAY, MONDAY)).isEmpty();
+    }
+}